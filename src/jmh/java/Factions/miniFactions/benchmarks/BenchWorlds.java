@@ -0,0 +1,165 @@
+package Factions.miniFactions.benchmarks;
+
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.spatial.BlockType;
+import Factions.miniFactions.spatial.SpatiallyIndexable;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Synthetic worlds for the benchmarks.
+ * Worlds are lightweight stand-ins that only answer identity methods, which is all
+ * the spatial index and Location arithmetic need. Blocks are laid out as clan bases:
+ * a core with claim blocks and a door inside a ring of defense blocks, with part of
+ * the bases crowded around spawn and the rest spread over the map.
+ */
+final class BenchWorlds {
+
+    // Offsets of a base's blocks from its core: dx, dy, dz, block type ordinal
+    private static final int[][] BASE_LAYOUT = buildBaseLayout();
+    private static final double SPAWN_CROWD = 0.3; // Share of bases near spawn
+    private static final int BASE_SPACING = 160; // Average distance between spread out bases
+
+    private BenchWorlds() {
+    }
+
+    /**
+     * Create a world stand-in
+     * @param name World name
+     * @return World that supports getName, getUID, equals, hashCode and toString only
+     */
+    static World world(String name) {
+        UUID uid = UUID.nameUUIDFromBytes(name.getBytes());
+        return (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getName":
+                        case "toString":
+                            return name;
+                        case "getUID":
+                            return uid;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        default:
+                            throw new UnsupportedOperationException("World stand-in does not support " + method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Generate clustered clan bases
+     * @param world World to place blocks in
+     * @param blockCount Number of blocks to generate
+     * @param seed Random seed
+     * @return Generated dataset
+     */
+    static Dataset generate(World world, int blockCount, long seed) {
+        Random random = new Random(seed);
+        int baseCount = Math.max(1, (blockCount + BASE_LAYOUT.length - 1) / BASE_LAYOUT.length);
+        int spread = Math.max(1, (int) Math.sqrt(baseCount)) * BASE_SPACING / 2;
+
+        Dataset dataset = new Dataset(world);
+        for (int base = 0; base < baseCount && dataset.blocks.size() < blockCount; base++) {
+            Clan clan = new Clan("clan-" + base, "Clan" + base, new UUID(seed, base));
+            dataset.clans.add(clan);
+
+            int centerX;
+            int centerZ;
+            if (random.nextDouble() < SPAWN_CROWD) {
+                centerX = (int) (random.nextGaussian() * spread * 0.1);
+                centerZ = (int) (random.nextGaussian() * spread * 0.1);
+            } else {
+                centerX = random.nextInt(spread * 2 + 1) - spread;
+                centerZ = random.nextInt(spread * 2 + 1) - spread;
+            }
+            int centerY = 60 + random.nextInt(20);
+            dataset.centers.add(new Location(world, centerX, centerY, centerZ));
+
+            for (int[] offset : BASE_LAYOUT) {
+                if (dataset.blocks.size() >= blockCount) {
+                    break;
+                }
+                Location location = new Location(world, centerX + offset[0], centerY + offset[1], centerZ + offset[2]);
+                dataset.blocks.add(new SyntheticBlock(location, BlockType.values()[offset[3]], clan));
+            }
+        }
+
+        return dataset;
+    }
+
+    /**
+     * Build the block layout of one base
+     * @return Offsets and block types
+     */
+    private static int[][] buildBaseLayout() {
+        List<int[]> layout = new ArrayList<>();
+        layout.add(new int[]{0, 0, 0, BlockType.CORE.ordinal()});
+        layout.add(new int[]{2, 0, 0, BlockType.CLAIM.ordinal()});
+        layout.add(new int[]{-2, 0, 0, BlockType.CLAIM.ordinal()});
+        layout.add(new int[]{0, 0, -5, BlockType.DOOR.ordinal()});
+
+        // Defense wall around the base, leaving the door gap
+        for (int dx = -5; dx <= 5; dx++) {
+            for (int dz = -5; dz <= 5; dz++) {
+                boolean wall = Math.abs(dx) == 5 || Math.abs(dz) == 5;
+                if (wall && !(dx == 0 && dz == -5)) {
+                    layout.add(new int[]{dx, 0, dz, BlockType.DEFENSE.ordinal()});
+                }
+            }
+        }
+
+        return layout.toArray(new int[0][]);
+    }
+
+    /**
+     * Generated blocks with their clans and base centers
+     */
+    static final class Dataset {
+        final World world;
+        final List<SpatiallyIndexable> blocks = new ArrayList<>();
+        final List<Clan> clans = new ArrayList<>();
+        final List<Location> centers = new ArrayList<>();
+
+        private Dataset(World world) {
+            this.world = world;
+        }
+    }
+
+    /**
+     * Indexed block that is not backed by a plugin model
+     */
+    static final class SyntheticBlock implements SpatiallyIndexable {
+        private final Location location;
+        private final BlockType blockType;
+        private final Clan clan;
+
+        SyntheticBlock(Location location, BlockType blockType, Clan clan) {
+            this.location = location;
+            this.blockType = blockType;
+            this.clan = clan;
+        }
+
+        @Override
+        public Location getLocation() {
+            return location;
+        }
+
+        @Override
+        public BlockType getBlockType() {
+            return blockType;
+        }
+
+        @Override
+        public Clan getClan() {
+            return clan;
+        }
+    }
+}
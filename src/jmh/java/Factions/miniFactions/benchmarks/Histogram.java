@@ -0,0 +1,114 @@
+package Factions.miniFactions.benchmarks;
+
+/**
+ * Fixed-size log-linear histogram of non-negative values.
+ * Each power of two is split into 8 buckets, so percentiles are within 12.5%
+ * while millions of samples take no more memory than one.
+ */
+final class Histogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_COUNT];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Record a value
+     * @param value Value, negative values count as zero
+     */
+    void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Get the number of recorded values
+     * @return Count
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the sum of recorded values
+     * @return Sum
+     */
+    long getSum() {
+        return sum;
+    }
+
+    /**
+     * Get the largest recorded value
+     * @return Max, or 0 if empty
+     */
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * Get the mean of recorded values
+     * @return Mean, or 0 if empty
+     */
+    double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Get a percentile, rounded up to the upper bound of its bucket
+     * @param quantile Quantile between 0 and 1
+     * @return Value at the quantile, or 0 if empty
+     */
+    long getPercentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Get the bucket of a value
+     * @param value Non-negative value
+     * @return Bucket index
+     */
+    private static int index(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB_COUNT - 1);
+        return (shift + 1) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Get the largest value that falls into a bucket
+     * @param index Bucket index
+     * @return Upper bound
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_COUNT - 1;
+        long lower = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,99 @@
+package Factions.miniFactions.benchmarks;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.spatial.SpatiallyIndexable;
+import Factions.miniFactions.storage.OutsideBlockStore;
+import org.bukkit.Location;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The binary per-chunk outside block store: snapshot plus append-only log.
+ * Uses its own world name so it never touches the files of the plugin's outside block manager.
+ */
+final class OutsideBlockStoreBackend implements StorageBackend {
+
+    private static final long SEED = 11L;
+    private static final String WORLD_NAME = "bench_outside";
+    private static final String[] MATERIALS = {"COBBLESTONE", "OAK_PLANKS", "STONE_BRICKS", "DIRT", "GLASS"};
+
+    private MiniFactions plugin;
+    private OutsideBlockStore store;
+    private final List<OutsideBlockStore.StoredBlock> blocks = new ArrayList<>();
+    private final List<long[]> chunks = new ArrayList<>();
+    private int mutation;
+
+    @Override
+    public void setUp(PluginFixture fixture, int scale) {
+        plugin = fixture.getPlugin();
+
+        BenchWorlds.Dataset dataset = BenchWorlds.generate(BenchWorlds.world(WORLD_NAME), scale, SEED);
+        Random random = new Random(SEED);
+        long now = System.currentTimeMillis();
+        Set<Long> seen = new HashSet<>();
+        for (SpatiallyIndexable block : dataset.blocks) {
+            Location location = block.getLocation();
+            blocks.add(new OutsideBlockStore.StoredBlock(location.getBlockX(), location.getBlockY(), location.getBlockZ(),
+                    block.getClan().getId(), MATERIALS[random.nextInt(MATERIALS.length)],
+                    now - random.nextInt(3_600_000), 30 + random.nextInt(90)));
+
+            int chunkX = location.getBlockX() >> 4;
+            int chunkZ = location.getBlockZ() >> 4;
+            if (seen.add(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL))) {
+                chunks.add(new long[]{chunkX, chunkZ});
+            }
+        }
+
+        // Compaction only rewrites chunks that have been loaded, so load them all first
+        store = new OutsideBlockStore(plugin);
+        loadAll(store, block -> { });
+        store.compact(WORLD_NAME, blocks);
+    }
+
+    @Override
+    public Object load() {
+        OutsideBlockStore fresh = new OutsideBlockStore(plugin);
+        List<OutsideBlockStore.StoredBlock> loaded = new ArrayList<>(blocks.size());
+        loadAll(fresh, loaded::add);
+        fresh.close();
+        return loaded;
+    }
+
+    @Override
+    public void saveAll() {
+        store.compact(WORLD_NAME, blocks);
+    }
+
+    @Override
+    public void saveMutation() {
+        // One placement, written to the log and flushed like the periodic flush does
+        OutsideBlockStore.StoredBlock block = blocks.get(mutation++ % blocks.size());
+        store.append(WORLD_NAME, block);
+        store.flush();
+    }
+
+    @Override
+    public void tearDown() {
+        store.close();
+        File folder = new File(plugin.getDataFolder(), "outside-blocks");
+        new File(folder, WORLD_NAME + ".dat").delete();
+        new File(folder, WORLD_NAME + ".log").delete();
+    }
+
+    /**
+     * Load every chunk that holds a generated block
+     * @param target Store to load into
+     * @param consumer Receives every stored block
+     */
+    private void loadAll(OutsideBlockStore target, Consumer<OutsideBlockStore.StoredBlock> consumer) {
+        for (long[] chunk : chunks) {
+            target.loadChunk(WORLD_NAME, (int) chunk[0], (int) chunk[1], consumer);
+        }
+    }
+}
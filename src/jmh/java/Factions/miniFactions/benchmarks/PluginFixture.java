@@ -0,0 +1,78 @@
+package Factions.miniFactions.benchmarks;
+
+import Factions.miniFactions.MiniFactions;
+import org.bukkit.World;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+
+import java.util.function.Function;
+
+/**
+ * The real plugin enabled on an in-memory MockBukkit server.
+ * Only one fixture can run per JVM, JMH forks keep benchmarks apart.
+ */
+final class PluginFixture {
+
+    static final String WORLD_NAME = "world";
+
+    private final ServerMock server;
+    private final World world;
+    private final MiniFactions plugin;
+
+    private PluginFixture(ServerMock server, World world, MiniFactions plugin) {
+        this.server = server;
+        this.world = world;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start a mock server with one world and enable the plugin on it
+     * @return Running fixture
+     */
+    static PluginFixture start() {
+        return start(server -> server.addSimpleWorld(WORLD_NAME));
+    }
+
+    /**
+     * Start a mock server with a custom world and enable the plugin on it
+     * @param worldFactory Creates and registers the world on the new server
+     * @return Running fixture
+     */
+    static PluginFixture start(Function<ServerMock, World> worldFactory) {
+        ServerMock server = MockBukkit.mock();
+        World world = worldFactory.apply(server);
+        MiniFactions plugin = MockBukkit.load(MiniFactions.class);
+        return new PluginFixture(server, world, plugin);
+    }
+
+    /**
+     * Get the mock server
+     * @return Server
+     */
+    ServerMock getServer() {
+        return server;
+    }
+
+    /**
+     * Get the world blocks are placed in
+     * @return World
+     */
+    World getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the enabled plugin
+     * @return Plugin
+     */
+    MiniFactions getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Disable the plugin and shut the mock server down
+     */
+    void stop() {
+        MockBukkit.unmock();
+    }
+}
@@ -0,0 +1,517 @@
+package Factions.miniFactions.benchmarks;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.managers.CoreBlockManager;
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.utils.Clock;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Headless replay of a faction server.
+ * The real plugin runs on a MockBukkit server whose ticks are driven one by one, with
+ * game time taken from a virtual clock that advances 50 ms per tick, so weeks of upkeep
+ * and decay replay in minutes. A seeded workload creates clans, builds their bases through
+ * the block listeners, walks players around, and sends raids of explosive waves. Every tick
+ * is measured for CPU time and allocation, and every event, manager call and scheduler run
+ * is measured as a site.
+ * <p>
+ * Arguments are key=value pairs, see {@link SimulationScenario}. With baseline=&lt;report&gt;
+ * the run exits with status 1 if tick CPU time or allocation regressed past the tolerance.
+ */
+public final class Simulation {
+
+    static final long TICKS_PER_SECOND = 20;
+    static final long TICKS_PER_MINUTE = 60 * TICKS_PER_SECOND;
+    static final long TICKS_PER_HOUR = 60 * TICKS_PER_MINUTE;
+    static final long TICKS_PER_DAY = 24 * TICKS_PER_HOUR;
+    private static final long MILLIS_PER_TICK = 50;
+
+    private static final int BASE_SPACING = 64; // Distance between cores, well outside each other's area
+    private static final int DEFENSE_RING = 3; // Defense wall distance from the core
+    private static final int MAX_DEFENSES = 20; // Defense slots of a level 1 core
+    private static final int WANDER = 24; // How far players roam from their core
+    private static final int OUTSIDE_MIN = 12; // Outside blocks go just past the level 1 area
+    private static final int OUTSIDE_MAX = 20;
+    private static final long BUILD_TICKS = 10 * TICKS_PER_MINUTE; // Bases go up in the first minutes
+    private static final long WAVE_INTERVAL = 30 * TICKS_PER_SECOND;
+    private static final long EXPLOSIVE_INTERVAL = 5;
+    private static final long REBUILD_DELAY = 5 * TICKS_PER_MINUTE;
+
+    private final SimulationScenario scenario;
+    private final Random random;
+    private final SimulationReport report = new SimulationReport();
+    private final PriorityQueue<ScheduledAction> actions = new PriorityQueue<>();
+    private final List<SimClan> clans = new ArrayList<>();
+    private final Set<String> loggedFailures = new HashSet<>();
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private PluginFixture fixture;
+    private ServerMock server;
+    private MiniFactions plugin;
+    private World world;
+    private long startMillis;
+    private long tick;
+    private long sequence;
+
+    private Simulation(SimulationScenario scenario) {
+        this.scenario = scenario;
+        this.random = new Random(scenario.getInt("seed"));
+    }
+
+    public static void main(String[] args) throws IOException {
+        SimulationScenario scenario = SimulationScenario.parse(args);
+        System.exit(new Simulation(scenario).run());
+    }
+
+    /**
+     * Run the whole scenario and write the report
+     * @return Process exit status, 1 if the run regressed against the baseline
+     * @throws IOException if the report or baseline cannot be read or written
+     */
+    private int run() throws IOException {
+        startMillis = System.currentTimeMillis();
+        Clock.setSource(() -> startMillis + tick * MILLIS_PER_TICK);
+
+        long wallStart = System.nanoTime();
+        JsonObject result;
+        try {
+            fixture = PluginFixture.start(mock -> {
+                SimulationWorld simulationWorld = new SimulationWorld();
+                mock.addWorld(simulationWorld);
+                return simulationWorld;
+            });
+            server = fixture.getServer();
+            plugin = fixture.getPlugin();
+            world = fixture.getWorld();
+
+            createClans();
+            scheduleWorkload();
+            replay(scenario.getInt("days") * TICKS_PER_DAY);
+
+            result = report.toJson(scenario, System.nanoTime() - wallStart);
+        } finally {
+            if (fixture != null) {
+                fixture.stop();
+            }
+            Clock.reset();
+        }
+
+        report.print(System.out);
+        Path resultFile = Paths.get(scenario.getString("result"));
+        try (Writer writer = Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(result, writer);
+        }
+        System.out.println("Report written to " + resultFile.toAbsolutePath());
+
+        String baseline = scenario.getString("baseline");
+        if (baseline.isEmpty()) {
+            return 0;
+        }
+
+        JsonObject baselineJson;
+        try (Reader reader = Files.newBufferedReader(Paths.get(baseline), StandardCharsets.UTF_8)) {
+            baselineJson = JsonParser.parseReader(reader).getAsJsonObject();
+        }
+        List<String> regressions = SimulationReport.compare(result, baselineJson, scenario.getInt("tolerance"));
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against " + baseline);
+            return 0;
+        }
+
+        System.out.println("Regressions against " + baseline + ":");
+        for (String regression : regressions) {
+            System.out.println("  " + regression);
+        }
+        return 1;
+    }
+
+    /**
+     * Drive the server tick by tick, running due workload actions before the scheduler
+     * @param ticks Number of ticks to run
+     */
+    private void replay(long ticks) {
+        SimulationReport.Site schedulerSite = report.site("scheduler");
+        Runnable schedulerTick = server.getScheduler()::performOneTick;
+
+        for (tick = 1; tick <= ticks; tick++) {
+            long cpuBefore = threads.getCurrentThreadCpuTime();
+            long allocBefore = threads.getCurrentThreadAllocatedBytes();
+
+            while (!actions.isEmpty() && actions.peek().tick <= tick) {
+                actions.poll().work.run();
+            }
+            call(schedulerSite, schedulerTick);
+
+            report.tickFinished(tick, Clock.now(), threads.getCurrentThreadCpuTime() - cpuBefore,
+                    threads.getCurrentThreadAllocatedBytes() - allocBefore);
+
+            if (tick % TICKS_PER_MINUTE == 0) {
+                drainMessages();
+            }
+            if (tick % TICKS_PER_DAY == 0) {
+                System.out.println("Simulated day " + tick / TICKS_PER_DAY + " of " + ticks / TICKS_PER_DAY);
+            }
+        }
+    }
+
+    /**
+     * Create the clans with their members through the clan manager
+     */
+    private void createClans() {
+        int clanCount = scenario.getInt("clans");
+        int grid = Math.max(1, (int) Math.ceil(Math.sqrt(clanCount)));
+        SimulationReport.Site createSite = report.site("ClanManager.createClan");
+        SimulationReport.Site joinSite = report.site("ClanManager.joinClan");
+
+        for (int i = 0; i < clanCount; i++) {
+            Location core = new Location(world, (i % grid) * BASE_SPACING, SimulationWorld.GROUND_Y,
+                    (i / grid) * BASE_SPACING);
+            SimClan simClan = new SimClan(core);
+
+            String name = "Sim" + i;
+            PlayerMock leader = addPlayer(simClan, "Leader" + i);
+            call(createSite, () -> simClan.clan = plugin.getClanManager().createClan(name, leader));
+            if (simClan.clan == null) {
+                throw new IllegalStateException("Could not create clan " + name);
+            }
+
+            int members = random.nextInt(scenario.getInt("members") + 1);
+            for (int m = 0; m < members; m++) {
+                PlayerMock member = addPlayer(simClan, "Member" + i + "x" + m);
+                call(joinSite, () -> plugin.getClanManager().joinClan(simClan.clan, member));
+            }
+
+            boolean broke = random.nextInt(100) < scenario.getInt("brokeClans");
+            simClan.clan.setPoints(broke ? 0 : scenario.getInt("startingPoints"));
+            clans.add(simClan);
+        }
+    }
+
+    /**
+     * Add an online player standing in a clan's base
+     * @param simClan Clan the player will belong to
+     * @param name Player name
+     * @return Player
+     */
+    private PlayerMock addPlayer(SimClan simClan, String name) {
+        PlayerMock player = server.addPlayer(name);
+        player.setLocation(simClan.core.clone().add(random.nextInt(7) - 3, 0, random.nextInt(7) - 3));
+        simClan.players.add(player);
+        return player;
+    }
+
+    /**
+     * Plan the seeded workload: base building, outside building, movement and raids
+     */
+    private void scheduleWorkload() {
+        for (SimClan simClan : clans) {
+            long start = 1 + random.nextInt((int) BUILD_TICKS);
+            schedule(start, () -> buildBase(simClan, start));
+            schedule(start + TICKS_PER_MINUTE, () -> buildOutside(simClan));
+        }
+
+        schedule(TICKS_PER_SECOND, this::movePlayers);
+
+        int raidsPerDay = scenario.getInt("raidsPerDay");
+        for (int day = 0; day < scenario.getInt("days"); day++) {
+            for (int raid = 0; raid < raidsPerDay; raid++) {
+                // Raids start once the bases stand
+                long at = Math.max(BUILD_TICKS * 2, day * TICKS_PER_DAY + (long) (random.nextDouble() * TICKS_PER_DAY));
+                schedule(at, this::startRaid);
+            }
+        }
+    }
+
+    /**
+     * Place a clan's core, then its claim blocks, door and defense wall over the next seconds
+     * @param simClan Clan
+     * @param start Tick the core is placed at
+     */
+    private void buildBase(SimClan simClan, long start) {
+        PlayerMock leader = simClan.players.get(0);
+        Location core = simClan.core;
+        placeBlock(leader, core, plugin.getCraftingManager().createCoreBlock(1), CoreBlockManager.getCoreBlockMaterial());
+
+        long at = start + TICKS_PER_SECOND;
+        for (int dx : new int[]{-2, 2}) {
+            Location claim = core.clone().add(dx, 0, 0);
+            schedule(at, () -> placeItem(leader, claim, plugin.getCraftingManager().createClaimBlock(1)));
+            at += TICKS_PER_SECOND;
+        }
+
+        Location door = core.clone().add(0, 0, -DEFENSE_RING);
+        schedule(at, () -> placeItem(leader, door, plugin.getCraftingManager().createClanDoor()));
+
+        for (int dx = -DEFENSE_RING; dx <= DEFENSE_RING && simClan.defenses.size() < MAX_DEFENSES; dx++) {
+            for (int dz = -DEFENSE_RING; dz <= DEFENSE_RING && simClan.defenses.size() < MAX_DEFENSES; dz++) {
+                boolean ring = Math.abs(dx) == DEFENSE_RING || Math.abs(dz) == DEFENSE_RING;
+                if (ring && !(dx == 0 && dz == -DEFENSE_RING)) {
+                    simClan.defenses.add(core.clone().add(dx, 0, dz));
+                }
+            }
+        }
+        for (Location defense : simClan.defenses) {
+            at += 10;
+            PlayerMock builder = simClan.players.get(random.nextInt(simClan.players.size()));
+            schedule(at, () -> placeItem(builder, defense, plugin.getCraftingManager().createDefenseBlock(1)));
+        }
+    }
+
+    /**
+     * Build a few blocks just outside the clan's area, where they decay, then repeat every hour
+     * @param simClan Clan
+     */
+    private void buildOutside(SimClan simClan) {
+        for (int i = 0; i < scenario.getInt("outsidePerHour"); i++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            int distance = OUTSIDE_MIN + random.nextInt(OUTSIDE_MAX - OUTSIDE_MIN + 1);
+            Location location = simClan.core.clone().add(Math.round(Math.cos(angle) * distance), 0,
+                    Math.round(Math.sin(angle) * distance));
+            if (location.getBlock().getType().isAir()) {
+                PlayerMock builder = simClan.players.get(random.nextInt(simClan.players.size()));
+                placeBlock(builder, location, new ItemStack(Material.COBBLESTONE), Material.COBBLESTONE);
+            }
+        }
+        schedule(tick + TICKS_PER_HOUR, () -> buildOutside(simClan));
+    }
+
+    /**
+     * Move about half of all players a few blocks, then repeat every second
+     */
+    private void movePlayers() {
+        for (SimClan simClan : clans) {
+            for (PlayerMock player : simClan.players) {
+                if (random.nextBoolean()) {
+                    continue;
+                }
+
+                Location from = player.getLocation();
+                Location to = from.clone().add(random.nextInt(7) - 3, 0, random.nextInt(7) - 3);
+                if (Math.abs(to.getBlockX() - simClan.core.getBlockX()) > WANDER ||
+                        Math.abs(to.getBlockZ() - simClan.core.getBlockZ()) > WANDER) {
+                    to = simClan.core.clone().add(0.5, 1, 0.5);
+                }
+
+                PlayerMoveEvent event = new PlayerMoveEvent(player, from, to);
+                fire(event);
+                if (!event.isCancelled()) {
+                    player.setLocation(event.getTo());
+                }
+            }
+        }
+        schedule(tick + TICKS_PER_SECOND, this::movePlayers);
+    }
+
+    /**
+     * Pick an attacker and a target and schedule the explosive waves and the target's rebuild
+     */
+    private void startRaid() {
+        SimClan attacker = clans.get(random.nextInt(clans.size()));
+        SimClan target = clans.get(random.nextInt(clans.size()));
+        if (attacker == target || target.defenses.isEmpty()) {
+            return;
+        }
+
+        int waves = scenario.getInt("waves");
+        int waveSize = scenario.getInt("waveSize");
+        for (int wave = 0; wave < waves; wave++) {
+            long waveStart = tick + wave * WAVE_INTERVAL;
+            for (int i = 0; i < waveSize; i++) {
+                schedule(waveStart + i * EXPLOSIVE_INTERVAL, () -> placeExplosive(attacker, target));
+            }
+        }
+        schedule(tick + waves * WAVE_INTERVAL + REBUILD_DELAY, () -> rebuildDefenses(target));
+    }
+
+    /**
+     * Right-click one of the target's standing defense blocks with an explosive
+     * @param attacker Raiding clan
+     * @param target Raided clan
+     */
+    private void placeExplosive(SimClan attacker, SimClan target) {
+        List<Location> standing = new ArrayList<>();
+        for (Location defense : target.defenses) {
+            if (plugin.getDataStorage().getDefenseBlock(defense) != null) {
+                standing.add(defense);
+            }
+        }
+        if (standing.isEmpty()) {
+            return;
+        }
+
+        PlayerMock raider = attacker.players.get(random.nextInt(attacker.players.size()));
+        ItemStack explosive = plugin.getCraftingManager().createExplosive(1);
+        raider.getInventory().setItemInMainHand(explosive);
+        Block block = standing.get(random.nextInt(standing.size())).getBlock();
+        fire(new PlayerInteractEvent(raider, Action.RIGHT_CLICK_BLOCK, explosive, block, BlockFace.NORTH, EquipmentSlot.HAND));
+    }
+
+    /**
+     * Place the target's lost defense blocks again
+     * @param target Raided clan
+     */
+    private void rebuildDefenses(SimClan target) {
+        PlayerMock builder = target.players.get(0);
+        for (Location defense : target.defenses) {
+            if (plugin.getDataStorage().getDefenseBlock(defense) == null && defense.getBlock().getType().isAir()) {
+                placeItem(builder, defense, plugin.getCraftingManager().createDefenseBlock(1));
+            }
+        }
+    }
+
+    /**
+     * Place the block an item represents
+     * @param player Placing player
+     * @param location Block location
+     * @param item Item in hand
+     */
+    private void placeItem(PlayerMock player, Location location, ItemStack item) {
+        placeBlock(player, location, item, item.getType());
+    }
+
+    /**
+     * Set a block and fire its place event, undoing the placement if a listener cancels it
+     * @param player Placing player
+     * @param location Block location
+     * @param item Item in hand
+     * @param material Placed material
+     */
+    private void placeBlock(PlayerMock player, Location location, ItemStack item, Material material) {
+        Block block = location.getBlock();
+        Block against = block.getRelative(BlockFace.DOWN);
+        if (against.getType().isAir()) {
+            against.setType(Material.STONE);
+        }
+
+        BlockState replaced = block.getState();
+        block.setType(material);
+        player.getInventory().setItemInMainHand(item);
+
+        BlockPlaceEvent event = new BlockPlaceEvent(block, replaced, against, item, player, true, EquipmentSlot.HAND);
+        fire(event);
+        if (event.isCancelled()) {
+            block.setType(replaced.getType());
+        }
+    }
+
+    /**
+     * Dispatch an event to the listeners as a site named after the event
+     * @param event Event
+     */
+    private void fire(Event event) {
+        call(report.site(event.getEventName()), () -> server.getPluginManager().callEvent(event));
+    }
+
+    /**
+     * Run work as a site, recording its time, allocation and failure
+     * @param site Site
+     * @param work Work to run
+     */
+    private void call(SimulationReport.Site site, Runnable work) {
+        long allocBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            failed = true;
+            // Keep going, the first failure of each site is enough to diagnose it
+            if (loggedFailures.add(site.getName())) {
+                System.err.println("Failure in " + site.getName() + " at tick " + tick + ":");
+                e.printStackTrace();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        report.siteCalled(site, nanos, threads.getCurrentThreadAllocatedBytes() - allocBefore, failed);
+    }
+
+    /**
+     * Schedule workload at a tick
+     * @param at Tick
+     * @param work Work to run
+     */
+    private void schedule(long at, Runnable work) {
+        actions.add(new ScheduledAction(at, sequence++, work));
+    }
+
+    /**
+     * Drop the chat messages the mock players have received, they are never read
+     */
+    private void drainMessages() {
+        for (SimClan simClan : clans) {
+            for (PlayerMock player : simClan.players) {
+                while (player.nextMessage() != null) {
+                    // Discard
+                }
+            }
+        }
+    }
+
+    /**
+     * A simulated clan with its players and planned base
+     */
+    private static final class SimClan {
+        private final Location core;
+        private final List<PlayerMock> players = new ArrayList<>(); // Leader first
+        private final List<Location> defenses = new ArrayList<>();
+        private Clan clan;
+
+        private SimClan(Location core) {
+            this.core = core;
+        }
+    }
+
+    /**
+     * Workload due at a tick, run in scheduling order
+     */
+    private static final class ScheduledAction implements Comparable<ScheduledAction> {
+        private final long tick;
+        private final long sequence;
+        private final Runnable work;
+
+        private ScheduledAction(long tick, long sequence, Runnable work) {
+            this.tick = tick;
+            this.sequence = sequence;
+            this.work = work;
+        }
+
+        @Override
+        public int compareTo(ScheduledAction other) {
+            int byTick = Long.compare(tick, other.tick);
+            return byTick != 0 ? byTick : Long.compare(sequence, other.sequence);
+        }
+    }
+}
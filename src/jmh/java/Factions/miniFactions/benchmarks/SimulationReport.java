@@ -0,0 +1,275 @@
+package Factions.miniFactions.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Per-tick CPU time and allocation of a simulation, and the cost of every handler site.
+ * A site is one kind of work the simulator drives: an event type dispatched to the
+ * listeners, a manager call, or the scheduler running the plugin's tasks.
+ */
+final class SimulationReport {
+
+    private static final int SLOWEST_TICKS = 10;
+    // Headline metrics checked against a baseline
+    private static final String[][] GATED = {
+            {"tickCpuNanos", "p50"},
+            {"tickCpuNanos", "p99"},
+            {"tickAllocBytes", "mean"}
+    };
+
+    private final Map<String, Site> sites = new LinkedHashMap<>();
+    private final Histogram tickCpu = new Histogram();
+    private final Histogram tickAlloc = new Histogram();
+    private final PriorityQueue<SlowTick> slowest = new PriorityQueue<>(Comparator.comparingLong(tick -> tick.cpuNanos));
+
+    // Most expensive site of the tick in progress
+    private Site tickTopSite;
+    private long tickTopNanos;
+
+    /**
+     * Get or create a site
+     * @param name Site name
+     * @return Site
+     */
+    Site site(String name) {
+        return sites.computeIfAbsent(name, Site::new);
+    }
+
+    /**
+     * Record one call of a site
+     * @param site Site
+     * @param nanos Wall time of the call
+     * @param allocBytes Bytes allocated by the call
+     * @param failed Whether the call threw
+     */
+    void siteCalled(Site site, long nanos, long allocBytes, boolean failed) {
+        site.nanos.record(nanos);
+        site.allocBytes += allocBytes;
+        if (failed) {
+            site.errors++;
+        }
+        if (nanos > tickTopNanos) {
+            tickTopNanos = nanos;
+            tickTopSite = site;
+        }
+    }
+
+    /**
+     * Record a finished tick
+     * @param tick Tick number
+     * @param virtualMillis Virtual time at the tick
+     * @param cpuNanos CPU time of the tick
+     * @param allocBytes Bytes allocated during the tick
+     */
+    void tickFinished(long tick, long virtualMillis, long cpuNanos, long allocBytes) {
+        tickCpu.record(cpuNanos);
+        tickAlloc.record(allocBytes);
+
+        if (slowest.size() < SLOWEST_TICKS || cpuNanos > slowest.peek().cpuNanos) {
+            slowest.add(new SlowTick(tick, virtualMillis, cpuNanos, allocBytes,
+                    tickTopSite != null ? tickTopSite.name : "none"));
+            if (slowest.size() > SLOWEST_TICKS) {
+                slowest.poll();
+            }
+        }
+
+        tickTopSite = null;
+        tickTopNanos = 0;
+    }
+
+    /**
+     * Build the machine-readable report
+     * @param scenario Simulated scenario
+     * @param wallNanos Wall time of the whole run
+     * @return Report
+     */
+    JsonObject toJson(SimulationScenario scenario, long wallNanos) {
+        JsonObject json = new JsonObject();
+        json.add("scenario", scenario.toJson());
+        json.addProperty("ticks", tickCpu.getCount());
+        json.addProperty("wallSeconds", wallNanos / 1_000_000_000.0);
+        json.add("tickCpuNanos", summary(tickCpu));
+        json.add("tickAllocBytes", summary(tickAlloc));
+
+        JsonArray siteArray = new JsonArray();
+        for (Site site : sortedSites()) {
+            JsonObject siteJson = summary(site.nanos);
+            siteJson.addProperty("name", site.name);
+            siteJson.addProperty("allocBytes", site.allocBytes);
+            siteJson.addProperty("errors", site.errors);
+            siteArray.add(siteJson);
+        }
+        json.add("sites", siteArray);
+
+        JsonArray tickArray = new JsonArray();
+        for (SlowTick tick : sortedSlowTicks()) {
+            JsonObject tickJson = new JsonObject();
+            tickJson.addProperty("tick", tick.tick);
+            tickJson.addProperty("virtualMillis", tick.virtualMillis);
+            tickJson.addProperty("cpuNanos", tick.cpuNanos);
+            tickJson.addProperty("allocBytes", tick.allocBytes);
+            tickJson.addProperty("slowestSite", tick.site);
+            tickArray.add(tickJson);
+        }
+        json.add("slowestTicks", tickArray);
+        return json;
+    }
+
+    /**
+     * Print a human-readable summary
+     * @param out Output stream
+     */
+    void print(PrintStream out) {
+        out.printf("Ticks: %d%n", tickCpu.getCount());
+        out.printf("Tick CPU   mean %s  p50 %s  p99 %s  p99.9 %s  max %s%n", millis(tickCpu.getMean()),
+                millis(tickCpu.getPercentile(0.5)), millis(tickCpu.getPercentile(0.99)),
+                millis(tickCpu.getPercentile(0.999)), millis(tickCpu.getMax()));
+        out.printf("Tick alloc mean %s  p99 %s  max %s  total %s%n", bytes(tickAlloc.getMean()),
+                bytes(tickAlloc.getPercentile(0.99)), bytes(tickAlloc.getMax()), bytes(tickAlloc.getSum()));
+
+        out.println();
+        out.printf("%-32s %10s %10s %10s %10s %10s %12s %7s%n", "Site", "calls", "total", "p50", "p99", "max", "alloc", "errors");
+        for (Site site : sortedSites()) {
+            out.printf("%-32s %10d %10s %10s %10s %10s %12s %7d%n", site.name, site.nanos.getCount(),
+                    millis(site.nanos.getSum()), millis(site.nanos.getPercentile(0.5)),
+                    millis(site.nanos.getPercentile(0.99)), millis(site.nanos.getMax()), bytes(site.allocBytes), site.errors);
+        }
+
+        out.println();
+        out.println("Slowest ticks:");
+        for (SlowTick tick : sortedSlowTicks()) {
+            out.printf("  tick %-10d day %-6.2f cpu %10s alloc %10s  slowest site %s%n", tick.tick,
+                    tick.tick / (double) Simulation.TICKS_PER_DAY, millis(tick.cpuNanos), bytes(tick.allocBytes), tick.site);
+        }
+    }
+
+    /**
+     * Compare the gated metrics of a report against a baseline report
+     * @param current Report of this run
+     * @param baseline Earlier report
+     * @param tolerancePercent Allowed increase in percent
+     * @return Descriptions of the metrics that regressed, empty if none did
+     */
+    static List<String> compare(JsonObject current, JsonObject baseline, double tolerancePercent) {
+        List<String> regressions = new ArrayList<>();
+        if (!current.get("scenario").equals(baseline.get("scenario"))) {
+            regressions.add("baseline was recorded with a different scenario: " + baseline.get("scenario"));
+            return regressions;
+        }
+
+        for (String[] metric : GATED) {
+            JsonElement before = baseline.getAsJsonObject(metric[0]).get(metric[1]);
+            double now = current.getAsJsonObject(metric[0]).get(metric[1]).getAsDouble();
+            if (before == null || before.getAsDouble() <= 0) {
+                continue;
+            }
+
+            double limit = before.getAsDouble() * (1 + tolerancePercent / 100);
+            if (now > limit) {
+                regressions.add(String.format("%s.%s: %.0f, baseline %.0f (+%.1f%%)", metric[0], metric[1], now,
+                        before.getAsDouble(), (now / before.getAsDouble() - 1) * 100));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Summarize a histogram
+     * @param histogram Histogram
+     * @return Count, mean, percentiles and max
+     */
+    private static JsonObject summary(Histogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", histogram.getCount());
+        json.addProperty("total", histogram.getSum());
+        json.addProperty("mean", histogram.getMean());
+        json.addProperty("p50", histogram.getPercentile(0.5));
+        json.addProperty("p90", histogram.getPercentile(0.9));
+        json.addProperty("p99", histogram.getPercentile(0.99));
+        json.addProperty("p999", histogram.getPercentile(0.999));
+        json.addProperty("max", histogram.getMax());
+        return json;
+    }
+
+    /**
+     * Get the sites by total time, most expensive first
+     * @return Sorted sites
+     */
+    private List<Site> sortedSites() {
+        List<Site> sorted = new ArrayList<>(sites.values());
+        sorted.sort(Comparator.comparingLong((Site site) -> site.nanos.getSum()).reversed());
+        return sorted;
+    }
+
+    /**
+     * Get the slowest ticks, slowest first
+     * @return Sorted ticks
+     */
+    private List<SlowTick> sortedSlowTicks() {
+        List<SlowTick> sorted = new ArrayList<>(slowest);
+        sorted.sort(Comparator.comparingLong((SlowTick tick) -> tick.cpuNanos).reversed());
+        return sorted;
+    }
+
+    private static String millis(double nanos) {
+        return String.format("%.3fms", nanos / 1_000_000.0);
+    }
+
+    private static String bytes(double bytes) {
+        if (bytes >= 1024 * 1024) {
+            return String.format("%.1fMB", bytes / (1024 * 1024));
+        }
+        return String.format("%.1fKB", bytes / 1024);
+    }
+
+    /**
+     * Accumulated cost of one kind of work
+     */
+    static final class Site {
+        private final String name;
+        private final Histogram nanos = new Histogram();
+        private long allocBytes;
+        private long errors;
+
+        private Site(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Get the site name
+         * @return Name
+         */
+        String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * One of the slowest ticks of the run
+     */
+    private static final class SlowTick {
+        private final long tick;
+        private final long virtualMillis;
+        private final long cpuNanos;
+        private final long allocBytes;
+        private final String site;
+
+        private SlowTick(long tick, long virtualMillis, long cpuNanos, long allocBytes, String site) {
+            this.tick = tick;
+            this.virtualMillis = virtualMillis;
+            this.cpuNanos = cpuNanos;
+            this.allocBytes = allocBytes;
+            this.site = site;
+        }
+    }
+}
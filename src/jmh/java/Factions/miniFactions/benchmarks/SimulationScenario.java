@@ -0,0 +1,98 @@
+package Factions.miniFactions.benchmarks;
+
+import com.google.gson.JsonObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parameters of a simulated workload, parsed from key=value arguments.
+ * The same seed and parameters always replay the same workload.
+ */
+final class SimulationScenario {
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    private SimulationScenario() {
+        values.put("seed", "1");
+        values.put("clans", "100");
+        values.put("members", "4"); // Up to this many members besides the leader
+        values.put("days", "7");
+        values.put("raidsPerDay", "24");
+        values.put("waves", "3"); // Explosive waves per raid
+        values.put("waveSize", "8"); // Explosives per wave
+        values.put("outsidePerHour", "2"); // Blocks each clan builds outside its area per hour
+        values.put("startingPoints", "500");
+        values.put("brokeClans", "20"); // Percentage of clans that start without points
+        values.put("result", "simulation-report.json");
+        values.put("baseline", "");
+        values.put("tolerance", "10"); // Allowed regression against the baseline in percent
+    }
+
+    /**
+     * Parse key=value arguments over the defaults
+     * @param args Command line arguments
+     * @return Scenario
+     * @throws IllegalArgumentException if an argument is malformed or unknown
+     */
+    static SimulationScenario parse(String[] args) {
+        SimulationScenario scenario = new SimulationScenario();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+
+            String key = arg.substring(0, split);
+            if (!scenario.values.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown argument: " + key + ", expected one of " +
+                        scenario.values.keySet());
+            }
+            scenario.values.put(key, arg.substring(split + 1));
+        }
+        return scenario;
+    }
+
+    /**
+     * Get a whole number parameter
+     * @param key Parameter name
+     * @return Value
+     * @throws IllegalArgumentException if the value is not a non-negative number
+     */
+    int getInt(String key) {
+        int value;
+        try {
+            value = Integer.parseInt(values.get(key));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a number: " + values.get(key));
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException(key + " cannot be negative");
+        }
+        return value;
+    }
+
+    /**
+     * Get a text parameter
+     * @param key Parameter name
+     * @return Value, empty if unset
+     */
+    String getString(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Get the parameters that shape the workload
+     * @return Workload parameters
+     */
+    JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!entry.getKey().equals("result") && !entry.getKey().equals("baseline") &&
+                    !entry.getKey().equals("tolerance")) {
+                json.addProperty(entry.getKey(), Long.parseLong(entry.getValue()));
+            }
+        }
+        return json;
+    }
+}
@@ -0,0 +1,23 @@
+package Factions.miniFactions.benchmarks;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+/**
+ * Flat stone world for the simulator.
+ * MiniFactions only uses explosions as zero-power effects, so they are ignored here.
+ */
+final class SimulationWorld extends WorldMock {
+
+    static final int GROUND_Y = 64; // First air block above the stone
+
+    SimulationWorld() {
+        super(Material.STONE, GROUND_Y);
+    }
+
+    @Override
+    public boolean createExplosion(Location location, float power, boolean setFire, boolean breakBlocks) {
+        return false;
+    }
+}
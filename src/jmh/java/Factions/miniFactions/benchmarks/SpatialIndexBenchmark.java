@@ -0,0 +1,184 @@
+package Factions.miniFactions.benchmarks;
+
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.spatial.BlockType;
+import Factions.miniFactions.spatial.SpatialIndexManager;
+import Factions.miniFactions.spatial.SpatiallyIndexable;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Benchmarks for the spatial index and its query cache over synthetic worlds.
+ * Queries cycle through more probe locations than the query cache holds, so the
+ * numbers include cache misses and evictions as they happen on a busy server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SpatialIndexBenchmark {
+
+    private static final long SEED = 42L;
+    private static final int PROBES = 8192; // Must be a power of two
+    private static final int BATCH = 1000; // Blocks added or removed per single shot batch
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int blockCount;
+
+    private BenchWorlds.Dataset dataset;
+    private SpatialIndexManager index;
+    private Location[] hits;
+    private Location[] misses;
+    private Location[] centers;
+    private Clan[] clans;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dataset = BenchWorlds.generate(BenchWorlds.world("world"), blockCount, SEED);
+        index = newIndex();
+        index.rebuildIndex(dataset.blocks);
+
+        Random random = new Random(SEED + 1);
+        hits = new Location[PROBES];
+        misses = new Location[PROBES];
+        centers = new Location[PROBES];
+        clans = new Clan[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            hits[i] = dataset.blocks.get(random.nextInt(dataset.blocks.size())).getLocation().clone();
+
+            // Inside a base, between the core and the wall, where no block is indexed
+            Location center = dataset.centers.get(random.nextInt(dataset.centers.size()));
+            misses[i] = center.clone().add(1, 0, 1);
+            centers[i] = center.clone().add(random.nextInt(33) - 16, 0, random.nextInt(33) - 16);
+            clans[i] = dataset.clans.get(random.nextInt(dataset.clans.size()));
+        }
+    }
+
+    /**
+     * Create an index whose statistics logging is silenced
+     * @return Empty spatial index
+     */
+    static SpatialIndexManager newIndex() {
+        Logger logger = Logger.getLogger("MiniFactions-benchmark");
+        logger.setLevel(java.util.logging.Level.WARNING);
+        return new SpatialIndexManager(logger);
+    }
+
+    /**
+     * Get the next probe slot
+     * @return Probe index
+     */
+    private int nextProbe() {
+        return probe++ & (PROBES - 1);
+    }
+
+    @Benchmark
+    public SpatiallyIndexable getBlockAtHit() {
+        return index.getBlockAt(hits[nextProbe()], null);
+    }
+
+    @Benchmark
+    public SpatiallyIndexable getBlockAtMiss() {
+        return index.getBlockAt(misses[nextProbe()], null);
+    }
+
+    @Benchmark
+    public List<SpatiallyIndexable> getBlocksInRadius(RadiusState radius) {
+        return index.getBlocksInRadius(centers[nextProbe()], radius.radius, null);
+    }
+
+    @Benchmark
+    public SpatiallyIndexable getNearestBlock() {
+        return index.getNearestBlock(centers[nextProbe()], BlockType.CORE, 64);
+    }
+
+    @Benchmark
+    public List<SpatiallyIndexable> getBlocksByClan() {
+        return index.getBlocksByClan(clans[nextProbe()], null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public SpatialIndexManager rebuildIndex() {
+        index.rebuildIndex(dataset.blocks);
+        return index;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public void addBlock(ChurnState churn) {
+        churn.index.addBlock(churn.added.get(churn.cursor++));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5, batchSize = BATCH)
+    @Measurement(iterations = 20, batchSize = BATCH)
+    public boolean removeBlock(ChurnState churn) {
+        SpatiallyIndexable block = churn.removed.get(churn.cursor++);
+        return churn.index.removeBlock(block.getLocation(), block.getBlockType());
+    }
+
+    /**
+     * Query radii, only expanded for the radius benchmark
+     */
+    @State(Scope.Benchmark)
+    public static class RadiusState {
+        @Param({"16", "64", "128"})
+        public int radius;
+    }
+
+    /**
+     * Freshly populated index for add and remove batches
+     */
+    @State(Scope.Benchmark)
+    public static class ChurnState {
+        private SpatialIndexManager index;
+        private List<SpatiallyIndexable> added;
+        private List<SpatiallyIndexable> removed;
+        private int cursor;
+
+        @Setup(Level.Iteration)
+        public void setup(SpatialIndexBenchmark benchmark) {
+            index = newIndex();
+            index.rebuildIndex(benchmark.dataset.blocks);
+
+            // New bases placed between the existing ones, and existing blocks in random order
+            if (added == null) {
+                added = BenchWorlds.generate(benchmark.dataset.world, BATCH, SEED + 2).blocks;
+                removed = new ArrayList<>(benchmark.dataset.blocks);
+                Collections.shuffle(removed, new Random(SEED + 3));
+                removed = new ArrayList<>(removed.subList(0, Math.min(BATCH, removed.size())));
+            }
+            cursor = 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Factions.miniFactions.benchmarks;
+
+import java.io.IOException;
+
+/**
+ * A storage format driven by the storage benchmarks.
+ * To benchmark a new backend, implement this and register it in {@link #create(String)}
+ * and in the backend parameter of {@link StorageBenchmark}.
+ */
+interface StorageBackend {
+
+    /**
+     * Write a synthetic dataset to disk
+     * @param fixture Running plugin fixture
+     * @param scale Number of clans and number of blocks to generate
+     * @throws IOException if the dataset cannot be written
+     */
+    void setUp(PluginFixture fixture, int scale) throws IOException;
+
+    /**
+     * Read the whole dataset from disk into fresh in-memory structures
+     * @return Loaded structure, returned so the work is not optimized away
+     */
+    Object load();
+
+    /**
+     * Write the whole dataset to disk
+     */
+    void saveAll();
+
+    /**
+     * Change one record and persist it the way the plugin does after a single change
+     */
+    void saveMutation();
+
+    /**
+     * Remove the files written by this backend
+     */
+    void tearDown();
+
+    /**
+     * Create a backend by name
+     * @param name Backend name
+     * @return Backend
+     */
+    static StorageBackend create(String name) {
+        switch (name) {
+            case "yaml":
+                return new YamlStorageBackend();
+            case "outside-binary":
+                return new OutsideBlockStoreBackend();
+            default:
+                throw new IllegalArgumentException("Unknown storage backend: " + name);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package Factions.miniFactions.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load and save latency of every storage backend at production scale.
+ * Each operation touches the whole dataset on disk, so every call is timed on its own.
+ * Every parameter combination runs in its own fork with its own mock server and data folder.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class StorageBenchmark {
+
+    // Number of clans, and number of blocks spread over them
+    @Param({"1000", "10000", "100000"})
+    public int scale;
+
+    // Names accepted by StorageBackend.create
+    @Param({"yaml", "outside-binary"})
+    public String backend;
+
+    private PluginFixture fixture;
+    private StorageBackend storage;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        fixture = PluginFixture.start();
+        storage = StorageBackend.create(backend);
+        storage.setUp(fixture, scale);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        storage.tearDown();
+        fixture.stop();
+    }
+
+    @Benchmark
+    public Object load() {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void saveAll() {
+        storage.saveAll();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 30)
+    public void saveMutation() {
+        storage.saveMutation();
+    }
+}
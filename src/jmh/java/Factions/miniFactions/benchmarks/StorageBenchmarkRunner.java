@@ -0,0 +1,71 @@
+package Factions.miniFactions.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Standalone entry point for the storage benchmarks.
+ * Arguments are optional key=value pairs:
+ * result=&lt;file&gt; for the JSON results (default storage-results.json),
+ * backend=&lt;a,b&gt; and scale=&lt;n,m&gt; to narrow the parameter matrix.
+ */
+public final class StorageBenchmarkRunner {
+
+    private StorageBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String result = "storage-results.json";
+        String[] backends = null;
+        String[] scales = null;
+
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+
+            String key = arg.substring(0, split);
+            String value = arg.substring(split + 1);
+            if (value.isEmpty()) {
+                continue;
+            }
+
+            switch (key) {
+                case "result":
+                    result = value;
+                    break;
+                case "backend":
+                    backends = value.split(",");
+                    for (String backend : backends) {
+                        // Fail before forking if the name is unknown
+                        StorageBackend.create(backend);
+                    }
+                    break;
+                case "scale":
+                    scales = value.split(",");
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + key);
+            }
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(StorageBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result);
+        if (backends != null) {
+            options.param("backend", backends);
+        }
+        if (scales != null) {
+            options.param("scale", scales);
+        }
+
+        new Runner(options.build()).run();
+    }
+}
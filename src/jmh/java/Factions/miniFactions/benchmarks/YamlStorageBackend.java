@@ -0,0 +1,115 @@
+package Factions.miniFactions.benchmarks;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.models.ClaimBlock;
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.models.ClanDoor;
+import Factions.miniFactions.models.CoreBlock;
+import Factions.miniFactions.models.DefenseBlock;
+import Factions.miniFactions.spatial.SpatiallyIndexable;
+import Factions.miniFactions.storage.ClaimProgressLog;
+import Factions.miniFactions.storage.DataStorage;
+
+import java.io.File;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * The production clans.yml and blocks.yml storage, driven through {@link DataStorage}.
+ * The dataset is built from real models in the plugin's own storage and written with
+ * saveData, so the files have exactly the format a live server produces.
+ */
+final class YamlStorageBackend implements StorageBackend {
+
+    private static final long SEED = 7L;
+    private static final int MAX_EXTRA_MEMBERS = 4; // Members per clan besides the leader
+
+    private MiniFactions plugin;
+    private DataStorage storage;
+    private Clan[] clans;
+    private int mutation;
+
+    @Override
+    public void setUp(PluginFixture fixture, int scale) {
+        plugin = fixture.getPlugin();
+        storage = plugin.getDataStorage();
+        clans = new Clan[scale];
+
+        // Blocks are laid out as bases, clans beyond the last base own nothing
+        BenchWorlds.Dataset dataset = BenchWorlds.generate(fixture.getWorld(), scale, SEED);
+        Random random = new Random(SEED);
+        for (int i = 0; i < scale; i++) {
+            Clan clan = i < dataset.clans.size() ? dataset.clans.get(i)
+                    : new Clan("clan-" + i, "Clan" + i, new UUID(SEED, i));
+            int extraMembers = random.nextInt(MAX_EXTRA_MEMBERS + 1);
+            for (int m = 0; m < extraMembers; m++) {
+                clan.addMember(new UUID(SEED + 1 + m, i), m == 0 ? Clan.ROLE_CO_LEADER : Clan.ROLE_MEMBER);
+            }
+            clan.setPoints(random.nextInt(10000));
+            storage.addClan(clan);
+            clans[i] = clan;
+        }
+
+        for (SpatiallyIndexable block : dataset.blocks) {
+            Clan clan = block.getClan();
+            switch (block.getBlockType()) {
+                case CORE:
+                    CoreBlock coreBlock = new CoreBlock(block.getLocation(), clan);
+                    coreBlock.setLevel(1 + random.nextInt(5));
+                    clan.setCoreBlock(coreBlock);
+                    storage.addCoreBlock(coreBlock);
+                    break;
+                case CLAIM:
+                    ClaimBlock claimBlock = new ClaimBlock(block.getLocation(), clan);
+                    clan.addClaimBlock(claimBlock);
+                    storage.addClaimBlock(claimBlock);
+                    break;
+                case DOOR:
+                    ClanDoor clanDoor = new ClanDoor(block.getLocation(), clan, 1);
+                    clan.addClanDoor(clanDoor);
+                    storage.addClanDoor(clanDoor);
+                    break;
+                case DEFENSE:
+                    DefenseBlock defenseBlock = new DefenseBlock(block.getLocation(), clan, 1);
+                    clan.addDefenseBlock(defenseBlock);
+                    storage.addDefenseBlock(defenseBlock);
+                    break;
+            }
+        }
+
+        storage.saveData();
+    }
+
+    @Override
+    public Object load() {
+        // Startup path: read the files again, then parse them into a fresh storage
+        plugin.getConfigManager().loadConfigs();
+        DataStorage loaded = new DataStorage(plugin);
+        loaded.initialize();
+        loaded.loadData();
+        return loaded;
+    }
+
+    @Override
+    public void saveAll() {
+        storage.saveData();
+    }
+
+    @Override
+    public void saveMutation() {
+        // Same write the claim point flush makes after crediting one clan, measured on this thread
+        Clan clan = clans[mutation++ % clans.length];
+        clan.addPoints(1);
+        ClaimProgressLog log = storage.getClaimProgressLog();
+        ClaimProgressLog.Batch batch = new ClaimProgressLog.Batch(log.getGeneration());
+        batch.addBalance(clan.getId(), clan.getPoints());
+        log.write(batch);
+    }
+
+    @Override
+    public void tearDown() {
+        new File(plugin.getDataFolder(), "clans.yml").delete();
+        new File(plugin.getDataFolder(), "blocks.yml").delete();
+        new File(plugin.getDataFolder(), "claim-progress.log").delete();
+    }
+}
@@ -5,19 +5,29 @@ import Factions.miniFactions.commands.ClanCommandManager;
 import Factions.miniFactions.config.ConfigManager;
 import Factions.miniFactions.listeners.BlockListeners;
 import Factions.miniFactions.listeners.PlayerListeners;
+import Factions.miniFactions.listeners.ProtectionListeners;
+import Factions.miniFactions.listeners.WorldListeners;
 import Factions.miniFactions.managers.ClanManager;
 import Factions.miniFactions.managers.ClaimBlockGUIManager;
 import Factions.miniFactions.managers.ClaimBlockVisualManager;
+import Factions.miniFactions.managers.ClaimPointManager;
 import Factions.miniFactions.managers.CoreBlockManager;
 import Factions.miniFactions.managers.CraftingManager;
+import Factions.miniFactions.managers.DefenseDecayManager;
+import Factions.miniFactions.managers.ParticleRenderManager;
+import Factions.miniFactions.managers.PresenceManager;
+import Factions.miniFactions.managers.ProfilerManager;
+import Factions.miniFactions.managers.SchedulerManager;
+import Factions.miniFactions.managers.LeaderboardManager;
+import Factions.miniFactions.managers.MetricsManager;
 import Factions.miniFactions.managers.DefenseBlockVisualManager;
 import Factions.miniFactions.managers.GUIManager;
+import Factions.miniFactions.managers.OnlineMemberManager;
 import Factions.miniFactions.managers.OutsideBlockManager;
 import Factions.miniFactions.managers.RaidManager;
 import Factions.miniFactions.managers.UpkeepManager;
+import Factions.miniFactions.managers.WorldMutationManager;
 import Factions.miniFactions.storage.DataStorage;
-import org.bukkit.Bukkit;
-import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.logging.Level;
@@ -35,6 +45,17 @@ public final class MiniFactions extends JavaPlugin {
     private ClaimBlockGUIManager claimBlockGUIManager;
     private OutsideBlockManager outsideBlockManager;
     private UpkeepManager upkeepManager;
+    private ClaimPointManager claimPointManager;
+    private DefenseDecayManager defenseDecayManager;
+    private ParticleRenderManager particleRenderManager;
+    private PresenceManager presenceManager;
+    private LeaderboardManager leaderboardManager;
+    private ProfilerManager profilerManager;
+    private MetricsManager metricsManager;
+    private SchedulerManager schedulerManager;
+    private ProtectionListeners protectionListeners;
+    private OnlineMemberManager onlineMemberManager;
+    private WorldMutationManager worldMutationManager;
     private AdminCommands adminCommands;
 
     @Override
@@ -70,16 +91,30 @@ public final class MiniFactions extends JavaPlugin {
             getLogger().info("Loading saved data...");
             dataStorage.loadData();
 
+            // Track clan members that are already online (e.g. after a reload)
+            onlineMemberManager.rebuild();
+
+            // Schedule point generation for loaded claim blocks
+            claimPointManager.rebuild();
+
+            // Schedule decay for loaded defense blocks
+            defenseDecayManager.rebuild();
+
+            // Register core areas and place online players in them
+            presenceManager.rebuild();
+
+            // Rank loaded clans by points and core level
+            leaderboardManager.rebuild();
+
+            // Restore outside blocks in chunks that are already loaded
+            outsideBlockManager.loadLoadedChunks();
+
             // Setup custom crafting recipes
             getLogger().info("Registering custom recipes...");
             craftingManager.registerRecipes();
 
-            // Initialize visual effects for core blocks only
-            getLogger().info("Setting up visual effects for core blocks...");
-            Bukkit.getScheduler().runTaskLater(this, () -> {
-                // Only core blocks should have holograms
-                coreBlockManager.getVisualManager().updateAllTextDisplays();
-            }, 40L); // Delay by 2 seconds to ensure all data is loaded
+            // Core block holograms follow chunk loads, only reconcile chunks that are already loaded
+            coreBlockManager.getVisualManager().loadLoadedChunks();
 
             getLogger().info("MiniFactions has been enabled successfully!");
         } catch (Exception e) {
@@ -92,6 +127,12 @@ public final class MiniFactions extends JavaPlugin {
      * Initialize all managers
      */
     private void initializeManagers() {
+        // Created first so other managers can schedule, record metrics and wrap their tasks
+        schedulerManager = new SchedulerManager(this);
+        metricsManager = new MetricsManager(this);
+        profilerManager = new ProfilerManager(this);
+        onlineMemberManager = new OnlineMemberManager(this);
+        worldMutationManager = new WorldMutationManager(this);
         clanManager = new ClanManager(this);
         coreBlockManager = new CoreBlockManager(this);
         craftingManager = new CraftingManager(this);
@@ -100,6 +141,11 @@ public final class MiniFactions extends JavaPlugin {
         claimBlockGUIManager = new ClaimBlockGUIManager(this);
         outsideBlockManager = new OutsideBlockManager(this);
         upkeepManager = new UpkeepManager(this);
+        claimPointManager = new ClaimPointManager(this);
+        defenseDecayManager = new DefenseDecayManager(this);
+        particleRenderManager = new ParticleRenderManager(this);
+        presenceManager = new PresenceManager(this);
+        leaderboardManager = new LeaderboardManager(this);
     }
 
     /**
@@ -120,9 +166,13 @@ public final class MiniFactions extends JavaPlugin {
      * Register all event listeners
      */
     private void registerEventListeners() {
-        PluginManager pm = Bukkit.getPluginManager();
-        pm.registerEvents(new BlockListeners(this), this);
-        pm.registerEvents(new PlayerListeners(this), this);
+        // Registered through the profiler so every handler is measured
+        profilerManager.registerEvents(new BlockListeners(this));
+        profilerManager.registerEvents(new PlayerListeners(this));
+        profilerManager.registerEvents(new WorldListeners(this));
+
+        protectionListeners = new ProtectionListeners(this);
+        profilerManager.registerEvents(protectionListeners);
     }
 
     @Override
@@ -144,8 +194,23 @@ public final class MiniFactions extends JavaPlugin {
             if (upkeepManager != null) {
                 upkeepManager.cleanup();
             }
+            if (claimPointManager != null) {
+                claimPointManager.cleanup();
+            }
+            if (defenseDecayManager != null) {
+                defenseDecayManager.cleanup();
+            }
+            if (particleRenderManager != null) {
+                particleRenderManager.cleanup();
+            }
+            if (presenceManager != null) {
+                presenceManager.cleanup();
+            }
+            if (leaderboardManager != null) {
+                leaderboardManager.cleanup();
+            }
 
-            // Cleanup raid manager (cancels explosives and particle tasks)
+            // Cleanup raid manager (cancels explosives)
             if (raidManager != null) {
                 raidManager.cleanup();
             }
@@ -155,11 +220,21 @@ public final class MiniFactions extends JavaPlugin {
                 outsideBlockManager.cleanup();
             }
 
+            // Persist block changes that have not been applied yet
+            if (worldMutationManager != null) {
+                worldMutationManager.cleanup();
+            }
+
             // Unregister crafting recipes
             if (craftingManager != null) {
                 craftingManager.unregisterRecipes();
             }
 
+            // Write the final metrics, including the shutdown save
+            if (metricsManager != null) {
+                metricsManager.cleanup();
+            }
+
             // Log spatial index statistics before shutdown
             if (dataStorage != null && dataStorage.getSpatialIndexManager() != null) {
                 getLogger().info("Spatial index statistics before shutdown:");
@@ -274,4 +349,92 @@ public final class MiniFactions extends JavaPlugin {
     public UpkeepManager getUpkeepManager() {
         return upkeepManager;
     }
+
+    /**
+     * Get the online member manager
+     * @return OnlineMemberManager instance
+     */
+    public OnlineMemberManager getOnlineMemberManager() {
+        return onlineMemberManager;
+    }
+
+    /**
+     * Get the world mutation manager
+     * @return WorldMutationManager instance
+     */
+    public WorldMutationManager getWorldMutationManager() {
+        return worldMutationManager;
+    }
+
+    /**
+     * Get the claim point manager
+     * @return ClaimPointManager instance
+     */
+    public ClaimPointManager getClaimPointManager() {
+        return claimPointManager;
+    }
+
+    /**
+     * Get the defense decay manager
+     * @return DefenseDecayManager instance
+     */
+    public DefenseDecayManager getDefenseDecayManager() {
+        return defenseDecayManager;
+    }
+
+    /**
+     * Get the particle render manager
+     * @return ParticleRenderManager instance
+     */
+    public ParticleRenderManager getParticleRenderManager() {
+        return particleRenderManager;
+    }
+
+    /**
+     * Get the presence manager
+     * @return PresenceManager instance
+     */
+    public PresenceManager getPresenceManager() {
+        return presenceManager;
+    }
+
+    /**
+     * Get the leaderboard manager
+     * @return LeaderboardManager instance
+     */
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
+    /**
+     * Get the profiler manager
+     * @return ProfilerManager instance
+     */
+    public ProfilerManager getProfilerManager() {
+        return profilerManager;
+    }
+
+    /**
+     * Get the metrics manager
+     * @return MetricsManager instance
+     */
+    public MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+
+    /**
+     * Get the scheduler manager
+     * @return SchedulerManager instance
+     */
+    public SchedulerManager getSchedulerManager() {
+        return schedulerManager;
+    }
+
+    /**
+     * Get the protection listeners
+     * @return ProtectionListeners instance
+     */
+    public ProtectionListeners getProtectionListeners() {
+        return protectionListeners;
+    }
 }
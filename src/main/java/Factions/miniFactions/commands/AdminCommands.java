@@ -1,11 +1,15 @@
 package Factions.miniFactions.commands;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.listeners.ProtectionListeners;
+import Factions.miniFactions.managers.ProfilerManager;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.ClaimBlock;
 import Factions.miniFactions.models.ClanDoor;
 import Factions.miniFactions.models.CoreBlock;
 import Factions.miniFactions.models.DefenseBlock;
+import Factions.miniFactions.utils.Clock;
+import Factions.miniFactions.utils.ItemClassifier;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
@@ -13,7 +17,6 @@ import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -22,7 +25,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +32,9 @@ import java.util.stream.Collectors;
  */
 public class AdminCommands implements CommandExecutor, TabCompleter {
 
+    private static final int MAX_NAME_COMPLETIONS = 50;
+    private static final int PERF_SITES_SHOWN = 10;
+
     private final MiniFactions plugin;
 
     public AdminCommands(MiniFactions plugin) {
@@ -69,6 +74,15 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             case "door":
                 handleDoorCommand(sender, args);
                 break;
+            case "reload":
+                handleReloadCommand(sender);
+                break;
+            case "protection":
+                handleProtectionCommand(sender);
+                break;
+            case "perf":
+                handlePerfCommand(sender, args);
+                break;
             case "help":
                 sendHelpMessage(sender);
                 break;
@@ -89,7 +103,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            String[] subCommands = {"points", "level", "block", "explosive", "upkeep", "door", "help"};
+            String[] subCommands = {"points", "level", "block", "explosive", "upkeep", "door", "reload", "protection", "perf", "help"};
             String input = args[0].toLowerCase();
 
             for (String subCommand : subCommands) {
@@ -143,6 +157,13 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
                         completions.add(option);
                     }
                 }
+            } else if (subCommand.equals("perf")) {
+                String[] options = {"1m", "5m", "15m", "on", "off", "reset"};
+                for (String option : options) {
+                    if (option.startsWith(input)) {
+                        completions.add(option);
+                    }
+                }
             }
         } else if (args.length == 3) {
             String subCommand = args[0].toLowerCase();
@@ -316,7 +337,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
                 return;
             }
 
-            int maxLevel = plugin.getConfigManager().getConfig().getInt("core.max-level", 20);
+            int maxLevel = plugin.getConfigManager().getSettings().getCoreMaxLevel();
             if (level > maxLevel) {
                 sender.sendMessage(ChatColor.RED + "Maximum level is " + maxLevel + ".");
                 return;
@@ -331,14 +352,18 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         switch (action) {
             case "set":
                 coreBlock.setLevel(level);
+                plugin.getDefenseDecayManager().recalculate(clan);
+                plugin.getPresenceManager().coreChanged(coreBlock);
                 sender.sendMessage(ChatColor.GREEN + "Set " + clan.getName() + "'s core block level to " + level +
                         ". Previous: " + oldLevel);
                 target.sendMessage(ChatColor.GREEN + "An admin set your clan's core block level to " + level +
                         ". Previous: " + oldLevel);
                 break;
             case "add":
-                int newLevel = Math.min(oldLevel + level, plugin.getConfigManager().getConfig().getInt("core.max-level", 20));
+                int newLevel = Math.min(oldLevel + level, plugin.getConfigManager().getSettings().getCoreMaxLevel());
                 coreBlock.setLevel(newLevel);
+                plugin.getDefenseDecayManager().recalculate(clan);
+                plugin.getPresenceManager().coreChanged(coreBlock);
                 sender.sendMessage(ChatColor.GREEN + "Added " + level + " levels to " + clan.getName() +
                         "'s core block. New level: " + newLevel);
                 target.sendMessage(ChatColor.GREEN + "An admin added " + level + " levels to your clan's core block. New level: " +
@@ -562,10 +587,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             sender.sendMessage(ChatColor.YELLOW + "Days of upkeep: " + ChatColor.WHITE + daysOfUpkeep);
 
             // Calculate time until next upkeep
-            FileConfiguration config = plugin.getConfigManager().getConfig();
-            int paymentInterval = config.getInt("core.upkeep.payment-interval", 24);
-            long intervalMillis = paymentInterval * 60 * 60 * 1000L; // Convert hours to milliseconds
-            long timeUntilUpkeep = (coreBlock.getLastUpkeepTime() + intervalMillis) - System.currentTimeMillis();
+            long timeUntilUpkeep = coreBlock.getUpkeepDueTime() - Clock.now();
 
             if (timeUntilUpkeep > 0) {
                 long hoursRemaining = timeUntilUpkeep / (60 * 60 * 1000L);
@@ -609,12 +631,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.GREEN + "Reset all upkeep timers for clan " + clan.getName() + ".");
 
         // Notify clan members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.GREEN + "An admin has reset your clan's upkeep timers.");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + "An admin has reset your clan's upkeep timers.");
     }
 
     /**
@@ -632,22 +649,12 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             sender.sendMessage(ChatColor.GREEN + "Exempted clan " + clan.getName() + " from upkeep " + durationStr + ".");
 
             // Notify clan members
-            for (UUID memberUUID : clan.getMembers().keySet()) {
-                Player member = Bukkit.getPlayer(memberUUID);
-                if (member != null && member.isOnline()) {
-                    member.sendMessage(ChatColor.GREEN + "An admin has exempted your clan from upkeep " + durationStr + ".");
-                }
-            }
+            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + "An admin has exempted your clan from upkeep " + durationStr + ".");
         } else {
             sender.sendMessage(ChatColor.GREEN + "Removed upkeep exemption from clan " + clan.getName() + ".");
 
             // Notify clan members
-            for (UUID memberUUID : clan.getMembers().keySet()) {
-                Player member = Bukkit.getPlayer(memberUUID);
-                if (member != null && member.isOnline()) {
-                    member.sendMessage(ChatColor.GREEN + "An admin has removed your clan's upkeep exemption.");
-                }
-            }
+            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + "An admin has removed your clan's upkeep exemption.");
         }
     }
 
@@ -754,6 +761,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         if (meta != null) {
             meta.setDisplayName(ChatColor.GOLD + "Clan Door (Tier " + tier + ")");
             meta.setCustomModelData(tier);
+            ItemClassifier.tag(meta, ItemClassifier.ItemKind.CLAN_DOOR, tier);
             door.setItemMeta(meta);
         }
 
@@ -788,12 +796,7 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
             sender.sendMessage(ChatColor.GREEN + "Upgraded " + upgradedCount + " clan doors to tier " + tier + ".");
 
             // Notify clan members
-            for (UUID memberUUID : clan.getMembers().keySet()) {
-                Player member = Bukkit.getPlayer(memberUUID);
-                if (member != null && member.isOnline()) {
-                    member.sendMessage(ChatColor.GREEN + "An admin has upgraded " + upgradedCount + " of your clan's doors to tier " + tier + ".");
-                }
-            }
+            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + "An admin has upgraded " + upgradedCount + " of your clan's doors to tier " + tier + ".");
         } else {
             sender.sendMessage(ChatColor.YELLOW + "No doors were upgraded. All doors are already at tier " + tier + " or higher.");
         }
@@ -823,6 +826,111 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         }
     }
 
+    /**
+     * Handle the reload command
+     * @param sender Command sender
+     */
+    private void handleReloadCommand(CommandSender sender) {
+        if (plugin.getConfigManager().reloadConfigs()) {
+            // Decay times depend on tier and upkeep settings
+            plugin.getDefenseDecayManager().recalculateAll();
+            sender.sendMessage(ChatColor.GREEN + "MiniFactions configuration reloaded.");
+        } else {
+            sender.sendMessage(ChatColor.RED + "Failed to reload configuration. Check the console for details.");
+        }
+    }
+
+    /**
+     * Show how many world events the block protection handled and blocked
+     * @param sender Command sender
+     */
+    private void handleProtectionCommand(CommandSender sender) {
+        ProtectionListeners protection = plugin.getProtectionListeners();
+
+        sender.sendMessage(ChatColor.GOLD + "=== Block Protection Events ===");
+        for (ProtectionListeners.ProtectedEvent type : ProtectionListeners.ProtectedEvent.values()) {
+            sender.sendMessage(ChatColor.YELLOW + type.name().toLowerCase() + ": " + ChatColor.WHITE +
+                    protection.getHandledCount(type) + " handled, " + protection.getBlockedCount(type) + " blocked");
+        }
+    }
+
+    /**
+     * Show the tick time used by scheduled tasks and event handlers, or control the profiler
+     * @param sender Command sender
+     * @param args Command arguments
+     */
+    private void handlePerfCommand(CommandSender sender, String[] args) {
+        ProfilerManager profiler = plugin.getProfilerManager();
+        String option = args.length >= 2 ? args[1].toLowerCase() : "1m";
+
+        long windowMillis;
+        switch (option) {
+            case "on":
+                profiler.setEnabled(true);
+                sender.sendMessage(ChatColor.GREEN + "Profiler enabled.");
+                return;
+            case "off":
+                profiler.setEnabled(false);
+                sender.sendMessage(ChatColor.GREEN + "Profiler disabled.");
+                return;
+            case "reset":
+                profiler.reset();
+                sender.sendMessage(ChatColor.GREEN + "Profiler measurements cleared.");
+                return;
+            case "1m":
+                windowMillis = 60_000L;
+                break;
+            case "5m":
+                windowMillis = 5 * 60_000L;
+                break;
+            case "15m":
+                windowMillis = 15 * 60_000L;
+                break;
+            default:
+                sender.sendMessage(ChatColor.RED + "Usage: /admin perf [1m|5m|15m|on|off|reset]");
+                return;
+        }
+
+        if (!profiler.isEnabled()) {
+            sender.sendMessage(ChatColor.RED + "The profiler is disabled. Enable it with /admin perf on.");
+            return;
+        }
+
+        List<ProfilerManager.SiteStats> stats = profiler.getStats(windowMillis);
+        sender.sendMessage(ChatColor.GOLD + "=== Tick Time (last " + option + ") ===");
+        if (stats.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "Nothing has run yet.");
+            return;
+        }
+
+        double totalShare = 0;
+        for (ProfilerManager.SiteStats site : stats) {
+            totalShare += site.getTickShare();
+        }
+        sender.sendMessage(ChatColor.YELLOW + "Total: " + ChatColor.WHITE +
+                String.format("%.2f%% of a 50 ms tick", totalShare * 100));
+
+        for (int i = 0; i < Math.min(PERF_SITES_SHOWN, stats.size()); i++) {
+            ProfilerManager.SiteStats site = stats.get(i);
+            sender.sendMessage(ChatColor.YELLOW + site.getName() + ": " + ChatColor.WHITE +
+                    String.format("p50 %s, p99 %s, max %s, %.1f/s, %.2f%% tick",
+                            formatNanos(site.getP50Nanos()), formatNanos(site.getP99Nanos()),
+                            formatNanos(site.getMaxNanos()), site.getCallsPerSecond(), site.getTickShare() * 100));
+        }
+    }
+
+    /**
+     * Format a duration for display
+     * @param nanos Duration in nanoseconds
+     * @return Duration in microseconds or milliseconds
+     */
+    private String formatNanos(long nanos) {
+        if (nanos < 1_000_000L) {
+            return String.format("%.0fus", nanos / 1_000.0);
+        }
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+
     /**
      * Send help message to sender
      * @param sender Command sender
@@ -844,6 +952,9 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
         sender.sendMessage(ChatColor.YELLOW + "/admin door give <player> [tier]" + ChatColor.WHITE + " - Give a clan door to a player");
         sender.sendMessage(ChatColor.YELLOW + "/admin door upgrade <player> <tier>" + ChatColor.WHITE + " - Upgrade a player's clan doors");
         sender.sendMessage(ChatColor.YELLOW + "/admin door list <player>" + ChatColor.WHITE + " - List all doors owned by a player's clan");
+        sender.sendMessage(ChatColor.YELLOW + "/admin reload" + ChatColor.WHITE + " - Reload config.yml");
+        sender.sendMessage(ChatColor.YELLOW + "/admin protection" + ChatColor.WHITE + " - Show block protection event counts");
+        sender.sendMessage(ChatColor.YELLOW + "/admin perf [1m|5m|15m|on|off|reset]" + ChatColor.WHITE + " - Show tick time used by tasks and event handlers");
     }
 
     /**
@@ -852,9 +963,6 @@ public class AdminCommands implements CommandExecutor, TabCompleter {
      * @return List of matching player names
      */
     private List<String> getOnlinePlayerNames(String input) {
-        return Bukkit.getOnlinePlayers().stream()
-                .map(Player::getName)
-                .filter(name -> name.toLowerCase().startsWith(input.toLowerCase()))
-                .collect(Collectors.toList());
+        return plugin.getOnlineMemberManager().completePlayerNames(input, MAX_NAME_COMPLETIONS);
     }
 }
@@ -20,6 +20,8 @@ import java.util.stream.Collectors;
 
 public class ClanCommandManager implements CommandExecutor, TabCompleter {
 
+    private static final int MAX_NAME_COMPLETIONS = 50;
+
     private final MiniFactions plugin;
     
     public ClanCommandManager(MiniFactions plugin) {
@@ -121,20 +123,10 @@ public class ClanCommandManager implements CommandExecutor, TabCompleter {
                 case "demote":
                 case "kick":
                     // Complete with online player names
-                    for (Player player : Bukkit.getOnlinePlayers()) {
-                        if (player.getName().toLowerCase().startsWith(input)) {
-                            completions.add(player.getName());
-                        }
-                    }
-                    break;
+                    return plugin.getOnlineMemberManager().completePlayerNames(input, MAX_NAME_COMPLETIONS);
                 case "join":
                     // Complete with clan names
-                    for (Clan clan : plugin.getDataStorage().getClans().values()) {
-                        if (clan.getName().toLowerCase().startsWith(input)) {
-                            completions.add(clan.getName());
-                        }
-                    }
-                    break;
+                    return plugin.getDataStorage().completeClanNames(input, MAX_NAME_COMPLETIONS);
                 case "top":
                     // Complete with top types
                     String[] topTypes = {"points", "level"};
@@ -448,6 +440,15 @@ public class ClanCommandManager implements CommandExecutor, TabCompleter {
             }
             rank++;
         }
+
+        // Show the player's own clan if it is not in the list
+        Clan ownClan = plugin.getClanManager().getClanByPlayer(player.getUniqueId());
+        if (ownClan != null && !topClans.contains(ownClan)) {
+            int ownRank = plugin.getClanManager().getRank(ownClan, type.equals("level"));
+            if (ownRank > 0) {
+                player.sendMessage(ChatColor.GRAY + "Your clan " + ownClan.getName() + " is ranked #" + ownRank + ".");
+            }
+        }
     }
     
     /**
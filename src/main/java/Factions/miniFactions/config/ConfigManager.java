@@ -20,6 +20,9 @@ public class ConfigManager {
     private final Map<String, FileConfiguration> configs = new HashMap<>();
     private final Map<String, File> configFiles = new HashMap<>();
 
+    // Typed snapshot of the main config, replaced as a whole on reload
+    private volatile Settings settings;
+
     public ConfigManager(MiniFactions plugin) {
         this.plugin = plugin;
     }
@@ -40,12 +43,46 @@ public class ConfigManager {
             // Validate configs
             validateConfigs();
 
+            // Build typed settings
+            settings = new Settings(mainConfig, plugin.getLogger());
+
             plugin.getLogger().info("All configuration files loaded successfully");
         } catch (Exception e) {
             plugin.getLogger().log(Level.SEVERE, "Failed to load configuration files: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Reload the main config from disk and atomically swap in a new settings snapshot.
+     * If the new config cannot be read the previous settings stay active.
+     * @return true if reloaded successfully, false otherwise
+     */
+    public boolean reloadConfigs() {
+        try {
+            loadMainConfig();
+            validateConfigs();
+            settings = new Settings(mainConfig, plugin.getLogger());
+            plugin.getLogger().info("Reloaded config.yml");
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to reload config.yml: " + e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Get the typed settings snapshot of the main config
+     * @return Current settings (never null)
+     */
+    public Settings getSettings() {
+        Settings current = settings;
+        if (current == null) {
+            current = new Settings(getConfig(), plugin.getLogger());
+            settings = current;
+        }
+        return current;
+    }
+
     /**
      * Load the main config file
      * @throws IOException if there's an error loading the config
@@ -125,7 +162,6 @@ public class ConfigManager {
         if (!config.contains("core.outside-blocks.min-decay-time")) { config.set("core.outside-blocks.min-decay-time", 30); changed = true; }
         if (!config.contains("core.outside-blocks.max-decay-time")) { config.set("core.outside-blocks.max-decay-time", 120); changed = true; }
         if (!config.contains("core.outside-blocks.safe-distance")) { config.set("core.outside-blocks.safe-distance", 5); changed = true; }
-        if (!config.contains("core.outside-blocks.check-interval")) { config.set("core.outside-blocks.check-interval", 5); changed = true; }
 
         // Claim Block settings
         if (!config.contains("claim.base-points-per-day")) { config.set("claim.base-points-per-day", 100); changed = true; }
@@ -0,0 +1,15 @@
+package Factions.miniFactions.config;
+
+/**
+ * Role a block material can play for MiniFactions.
+ * Resolved through Settings#getMaterialRole with a single array read, so listeners
+ * can reject ordinary blocks before any storage lookup.
+ */
+public enum MaterialRole {
+    NONE,
+    CORE_BLOCK,
+    CLAIM_BLOCK,
+    DEFENSE_BLOCK,
+    CLAN_DOOR,
+    EXPLOSIVE
+}
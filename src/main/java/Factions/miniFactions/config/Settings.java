@@ -0,0 +1,533 @@
+package Factions.miniFactions.config;
+
+import Factions.miniFactions.managers.CoreBlockManager;
+import Factions.miniFactions.managers.CraftingManager;
+import Factions.miniFactions.utils.MetricsRegistry;
+import org.bukkit.Material;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Immutable, typed snapshot of config.yml.
+ * Built once per load/reload by the ConfigManager so hot paths can read
+ * per-level values from arrays instead of walking YAML paths.
+ */
+public final class Settings {
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    /**
+     * Penalty applied to a core block when upkeep is not paid
+     */
+    public enum CorePenalty { LEVEL_REDUCTION, POINT_PENALTY, NONE }
+
+    /**
+     * Penalty applied to claim blocks when upkeep is not paid
+     */
+    public enum ClaimPenalty { LEVEL_REDUCTION, POINT_GENERATION_STOP, DESTRUCTION }
+
+    /**
+     * Penalty applied to defense blocks when upkeep is not paid
+     */
+    public enum DefensePenalty { TIER_REDUCTION, DESTRUCTION }
+
+    /**
+     * Penalty applied to clan doors when upkeep is not paid
+     */
+    public enum DoorPenalty { PUBLIC_ACCESS, DESTRUCTION }
+
+    // Core block settings (arrays are indexed by level, index 0 unused)
+    private final int coreMaxLevel;
+    private final int[] coreArea;
+    private final int[] coreDefenseSlots;
+    private final int[] coreClaimSlots;
+    private final int[] coreDoorSlots;
+    private final int[] coreMemberSlots;
+    private final int[] coreUpkeepCost;
+    private final int[] coreUpgradeCost;
+    private final List<List<String>> coreRecipes;
+    private final boolean coreUpkeepEnabled;
+    private final long coreUpkeepIntervalMillis;
+    private final boolean coreBeaconEffect;
+
+    // Outside block settings
+    private final boolean outsideBlocksEnabled;
+    private final int outsideMinDecayMinutes;
+    private final int outsideMaxDecayMinutes;
+    private final int outsideSafeDistance;
+
+    // Claim block settings (arrays are indexed by level, index 0 unused)
+    private final int claimMaxLevel;
+    private final int[] claimPointsPerDay;
+    private final int[] claimUpgradeCost;
+    private final List<List<String>> claimUpgradeItems;
+
+    // Defense block settings (arrays are indexed by tier, index 0 unused)
+    private final int defenseMaxTier;
+    private final int[] defenseCost;
+    private final long[] defenseDecayMillis;
+    private final List<List<String>> defenseRecipes;
+
+    // Block material roles (indexed by material ordinal)
+    private final MaterialRole[] materialRoles;
+
+    // Upkeep settings
+    private final int upkeepCheckIntervalHours;
+    private final long upkeepWarningMillis;
+    private final boolean coreUpkeepPenaltyEnabled;
+    private final CorePenalty corePenalty;
+    private final int corePointPenaltyPercentage;
+    private final int coreLevelReduction;
+    private final long coreGraceMillis;
+    private final boolean claimUpkeepEnabled;
+    private final ClaimPenalty claimPenalty;
+    private final int claimLevelReduction;
+    private final long claimGraceMillis;
+    private final boolean defenseUpkeepEnabled;
+    private final DefensePenalty defensePenalty;
+    private final int defenseTierReduction;
+    private final long defenseGraceMillis;
+    private final boolean doorUpkeepEnabled;
+    private final DoorPenalty doorPenalty;
+    private final long doorGraceMillis;
+
+    // Performance settings
+    private final long mutationBudgetNanos;
+    private final int particleViewDistance;
+    private final int particleBudget;
+    private final boolean profilerEnabled;
+
+    // Metrics settings
+    private final boolean metricsEnabled;
+    private final String metricsFile;
+    private final MetricsRegistry.Format metricsFormat;
+    private final int metricsIntervalSeconds;
+
+    /**
+     * Build a settings snapshot from the main config
+     * @param config Main config
+     * @param logger Logger used to report invalid values
+     */
+    Settings(FileConfiguration config, Logger logger) {
+        // Core block levels
+        coreMaxLevel = Math.max(1, config.getInt("core.max-level", 20));
+        coreArea = new int[coreMaxLevel + 1];
+        coreDefenseSlots = new int[coreMaxLevel + 1];
+        coreClaimSlots = new int[coreMaxLevel + 1];
+        coreDoorSlots = new int[coreMaxLevel + 1];
+        coreMemberSlots = new int[coreMaxLevel + 1];
+        coreUpkeepCost = new int[coreMaxLevel + 1];
+        coreUpgradeCost = new int[coreMaxLevel + 1];
+        List<List<String>> recipes = new ArrayList<>(coreMaxLevel + 1);
+        recipes.add(Collections.emptyList());
+        for (int level = 1; level <= coreMaxLevel; level++) {
+            String path = "core.levels." + level + ".";
+            coreArea[level] = config.getInt(path + "area", 10);
+            coreDefenseSlots[level] = config.getInt(path + "defense-slots", 5);
+            coreClaimSlots[level] = config.getInt(path + "claim-slots", 2);
+            coreDoorSlots[level] = config.getInt(path + "door-slots", 1);
+            coreMemberSlots[level] = config.getInt(path + "member-slots", 10);
+            coreUpkeepCost[level] = config.getInt(path + "upkeep-cost", 100);
+            coreUpgradeCost[level] = config.getInt(path + "upgrade-cost", 1000 * level);
+            recipes.add(List.copyOf(config.getStringList(path + "recipe")));
+        }
+        coreRecipes = Collections.unmodifiableList(recipes);
+        coreUpkeepEnabled = config.getBoolean("core.upkeep.enabled", true);
+        coreUpkeepIntervalMillis = config.getInt("core.upkeep.payment-interval", 24) * HOUR_MILLIS;
+        coreBeaconEffect = config.getBoolean("core.beacon-effect", true);
+
+        // Outside blocks
+        outsideBlocksEnabled = config.getBoolean("core.outside-blocks.enabled", true);
+        outsideMinDecayMinutes = config.getInt("core.outside-blocks.min-decay-time", 30);
+        outsideMaxDecayMinutes = Math.max(outsideMinDecayMinutes, config.getInt("core.outside-blocks.max-decay-time", 120));
+        outsideSafeDistance = config.getInt("core.outside-blocks.safe-distance", 5);
+
+        // Claim block levels
+        claimMaxLevel = Math.max(1, config.getInt("claim.max-upgrade-level", 5));
+        claimPointsPerDay = new int[claimMaxLevel + 1];
+        claimUpgradeCost = new int[claimMaxLevel + 1];
+        List<List<String>> upgradeItems = new ArrayList<>(claimMaxLevel + 1);
+        upgradeItems.add(Collections.emptyList());
+        for (int level = 1; level <= claimMaxLevel; level++) {
+            String path = "claim.levels." + level + ".";
+            claimPointsPerDay[level] = config.getInt(path + "points-per-day", 100);
+            claimUpgradeCost[level] = config.getInt(path + "upgrade-cost", 500 * level);
+            upgradeItems.add(List.copyOf(config.getStringList(path + "upgrade-items")));
+        }
+        claimUpgradeItems = Collections.unmodifiableList(upgradeItems);
+
+        // Defense block tiers
+        defenseMaxTier = Math.max(1, config.getInt("defense.max-tier", 5));
+        defenseCost = new int[defenseMaxTier + 1];
+        defenseDecayMillis = new long[defenseMaxTier + 1];
+        List<List<String>> tierRecipes = new ArrayList<>(defenseMaxTier + 1);
+        tierRecipes.add(Collections.emptyList());
+        for (int tier = 1; tier <= defenseMaxTier; tier++) {
+            String path = "defense.tiers." + tier + ".";
+            defenseCost[tier] = config.getInt(path + "cost", 100 * (1 << (tier - 1)));
+            defenseDecayMillis[tier] = config.getInt(path + "decay-time", 24) * HOUR_MILLIS;
+            tierRecipes.add(List.copyOf(config.getStringList(path + "recipe")));
+        }
+        defenseRecipes = Collections.unmodifiableList(tierRecipes);
+
+        // Block material roles, indexed by material ordinal
+        materialRoles = new MaterialRole[Material.values().length];
+        Arrays.fill(materialRoles, MaterialRole.NONE);
+        materialRoles[CoreBlockManager.getCoreBlockMaterial().ordinal()] = MaterialRole.CORE_BLOCK;
+        materialRoles[CraftingManager.getClaimBlockMaterial().ordinal()] = MaterialRole.CLAIM_BLOCK;
+        materialRoles[CraftingManager.getClanDoorMaterial().ordinal()] = MaterialRole.CLAN_DOOR;
+        materialRoles[CraftingManager.getExplosiveMaterial().ordinal()] = MaterialRole.EXPLOSIVE;
+        for (int tier = 1; tier <= defenseMaxTier; tier++) {
+            materialRoles[CraftingManager.getTierMaterial(tier).ordinal()] = MaterialRole.DEFENSE_BLOCK;
+        }
+
+        // Upkeep
+        upkeepCheckIntervalHours = Math.max(1, config.getInt("upkeep.check-interval", 1));
+        upkeepWarningMillis = config.getLong("upkeep.warning-time", 6) * HOUR_MILLIS;
+
+        coreUpkeepPenaltyEnabled = config.getBoolean("upkeep.core.enabled", true);
+        corePenalty = parseEnum(CorePenalty.class, config.getString("upkeep.core.penalty-type"),
+                CorePenalty.LEVEL_REDUCTION, "upkeep.core.penalty-type", logger);
+        corePointPenaltyPercentage = config.getInt("upkeep.core.point-penalty-percentage", 10);
+        coreLevelReduction = config.getInt("upkeep.core.level-reduction", 1);
+        coreGraceMillis = config.getLong("upkeep.core.grace-period", 48) * HOUR_MILLIS;
+
+        claimUpkeepEnabled = config.getBoolean("upkeep.claim.enabled", true);
+        claimPenalty = parseEnum(ClaimPenalty.class, config.getString("upkeep.claim.penalty-type"),
+                ClaimPenalty.LEVEL_REDUCTION, "upkeep.claim.penalty-type", logger);
+        claimLevelReduction = config.getInt("upkeep.claim.level-reduction", 1);
+        claimGraceMillis = config.getLong("upkeep.claim.grace-period", 24) * HOUR_MILLIS;
+
+        defenseUpkeepEnabled = config.getBoolean("upkeep.defense.enabled", true);
+        defensePenalty = parseEnum(DefensePenalty.class, config.getString("upkeep.defense.penalty-type"),
+                DefensePenalty.TIER_REDUCTION, "upkeep.defense.penalty-type", logger);
+        defenseTierReduction = config.getInt("upkeep.defense.tier-reduction", 1);
+        defenseGraceMillis = config.getLong("upkeep.defense.grace-period", 12) * HOUR_MILLIS;
+
+        doorUpkeepEnabled = config.getBoolean("upkeep.door.enabled", true);
+        doorPenalty = parseEnum(DoorPenalty.class, config.getString("upkeep.door.penalty-type"),
+                DoorPenalty.DESTRUCTION, "upkeep.door.penalty-type", logger);
+        doorGraceMillis = config.getLong("upkeep.door.grace-period", 6) * HOUR_MILLIS;
+
+        // Performance
+        mutationBudgetNanos = (long) (Math.max(0.1, config.getDouble("performance.mutation-budget-ms", 2.0)) * 1_000_000L);
+        particleViewDistance = Math.max(1, config.getInt("performance.particle-view-distance", 32));
+        particleBudget = Math.max(0, config.getInt("performance.particle-budget", 200));
+        profilerEnabled = config.getBoolean("performance.profiler-enabled", false);
+
+        // Metrics
+        metricsEnabled = config.getBoolean("metrics.enabled", false);
+        metricsFile = config.getString("metrics.file", "metrics/minifactions.prom");
+        metricsFormat = parseEnum(MetricsRegistry.Format.class, config.getString("metrics.format"),
+                MetricsRegistry.Format.PROMETHEUS, "metrics.format", logger);
+        metricsIntervalSeconds = Math.max(1, config.getInt("metrics.interval-seconds", 15));
+    }
+
+    /**
+     * Parse an enum value from a config string, falling back to a default
+     * @param type Enum class
+     * @param value Raw config value (may be null)
+     * @param fallback Value to use when missing or invalid
+     * @param path Config path, used for the warning message
+     * @param logger Logger used to report invalid values
+     * @return Parsed enum constant
+     */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback, String path, Logger logger) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warning("Invalid " + path + " in config.yml: " + value + ", using " + fallback);
+            return fallback;
+        }
+    }
+
+    /**
+     * Clamp a level or tier into the valid array range
+     * @param value Level or tier
+     * @param max Maximum level or tier
+     * @return Clamped index
+     */
+    private static int index(int value, int max) {
+        return value < 1 ? 1 : Math.min(value, max);
+    }
+
+    // Core block
+
+    public int getCoreMaxLevel() {
+        return coreMaxLevel;
+    }
+
+    public int getCoreArea(int level) {
+        return coreArea[index(level, coreMaxLevel)];
+    }
+
+    public int getCoreDefenseSlots(int level) {
+        return coreDefenseSlots[index(level, coreMaxLevel)];
+    }
+
+    public int getCoreClaimSlots(int level) {
+        return coreClaimSlots[index(level, coreMaxLevel)];
+    }
+
+    public int getCoreDoorSlots(int level) {
+        return coreDoorSlots[index(level, coreMaxLevel)];
+    }
+
+    public int getCoreMemberSlots(int level) {
+        return coreMemberSlots[index(level, coreMaxLevel)];
+    }
+
+    public int getCoreUpkeepCost(int level) {
+        return coreUpkeepCost[index(level, coreMaxLevel)];
+    }
+
+    /**
+     * Get the cost of upgrading a core to the given level
+     * @param level Target level
+     * @return Upgrade cost in points, or -1 if the level is above the max level
+     */
+    public int getCoreUpgradeCost(int level) {
+        return level > coreMaxLevel ? -1 : coreUpgradeCost[index(level, coreMaxLevel)];
+    }
+
+    public List<String> getCoreRecipe(int level) {
+        return coreRecipes.get(index(level, coreMaxLevel));
+    }
+
+    public boolean isCoreUpkeepEnabled() {
+        return coreUpkeepEnabled;
+    }
+
+    public long getCoreUpkeepIntervalMillis() {
+        return coreUpkeepIntervalMillis;
+    }
+
+    public boolean isCoreBeaconEffect() {
+        return coreBeaconEffect;
+    }
+
+    // Outside blocks
+
+    public boolean isOutsideBlocksEnabled() {
+        return outsideBlocksEnabled;
+    }
+
+    public int getOutsideMinDecayMinutes() {
+        return outsideMinDecayMinutes;
+    }
+
+    public int getOutsideMaxDecayMinutes() {
+        return outsideMaxDecayMinutes;
+    }
+
+    public int getOutsideSafeDistance() {
+        return outsideSafeDistance;
+    }
+
+    // Claim block
+
+    public int getClaimMaxLevel() {
+        return claimMaxLevel;
+    }
+
+    public int getClaimPointsPerDay(int level) {
+        return claimPointsPerDay[index(level, claimMaxLevel)];
+    }
+
+    /**
+     * Get the cost of upgrading a claim block to the given level
+     * @param level Target level
+     * @return Upgrade cost in points, or -1 if the level is above the max level
+     */
+    public int getClaimUpgradeCost(int level) {
+        return level > claimMaxLevel ? -1 : claimUpgradeCost[index(level, claimMaxLevel)];
+    }
+
+    /**
+     * Get the items required to upgrade a claim block to the given level
+     * @param level Target level
+     * @return Immutable list of material:amount strings (empty above the max level)
+     */
+    public List<String> getClaimUpgradeItems(int level) {
+        return level > claimMaxLevel ? Collections.emptyList() : claimUpgradeItems.get(index(level, claimMaxLevel));
+    }
+
+    // Defense block
+
+    public int getDefenseMaxTier() {
+        return defenseMaxTier;
+    }
+
+    public int getDefenseCost(int tier) {
+        return defenseCost[index(tier, defenseMaxTier)];
+    }
+
+    public long getDefenseDecayMillis(int tier) {
+        return defenseDecayMillis[index(tier, defenseMaxTier)];
+    }
+
+    public List<String> getDefenseRecipe(int tier) {
+        return defenseRecipes.get(index(tier, defenseMaxTier));
+    }
+
+    // Upkeep
+
+    public int getUpkeepCheckIntervalHours() {
+        return upkeepCheckIntervalHours;
+    }
+
+    public long getUpkeepWarningMillis() {
+        return upkeepWarningMillis;
+    }
+
+    public boolean isCoreUpkeepPenaltyEnabled() {
+        return coreUpkeepPenaltyEnabled;
+    }
+
+    public CorePenalty getCorePenalty() {
+        return corePenalty;
+    }
+
+    public int getCorePointPenaltyPercentage() {
+        return corePointPenaltyPercentage;
+    }
+
+    public int getCoreLevelReduction() {
+        return coreLevelReduction;
+    }
+
+    public long getCoreGraceMillis() {
+        return coreGraceMillis;
+    }
+
+    public boolean isClaimUpkeepEnabled() {
+        return claimUpkeepEnabled;
+    }
+
+    public ClaimPenalty getClaimPenalty() {
+        return claimPenalty;
+    }
+
+    public int getClaimLevelReduction() {
+        return claimLevelReduction;
+    }
+
+    public long getClaimGraceMillis() {
+        return claimGraceMillis;
+    }
+
+    public boolean isDefenseUpkeepEnabled() {
+        return defenseUpkeepEnabled;
+    }
+
+    public DefensePenalty getDefensePenalty() {
+        return defensePenalty;
+    }
+
+    public int getDefenseTierReduction() {
+        return defenseTierReduction;
+    }
+
+    public long getDefenseGraceMillis() {
+        return defenseGraceMillis;
+    }
+
+    public boolean isDoorUpkeepEnabled() {
+        return doorUpkeepEnabled;
+    }
+
+    public DoorPenalty getDoorPenalty() {
+        return doorPenalty;
+    }
+
+    public long getDoorGraceMillis() {
+        return doorGraceMillis;
+    }
+
+    // Material roles
+
+    /**
+     * Get the role a block material plays
+     * @param material Block material
+     * @return Role, NONE for ordinary blocks
+     */
+    public MaterialRole getMaterialRole(Material material) {
+        return materialRoles[material.ordinal()];
+    }
+
+    // Performance
+
+    /**
+     * Get the time budget per tick for queued world mutations
+     * @return Budget in nanoseconds
+     */
+    public long getMutationBudgetNanos() {
+        return mutationBudgetNanos;
+    }
+
+    /**
+     * Get the distance within which players see block particles
+     * @return Distance in blocks
+     */
+    public int getParticleViewDistance() {
+        return particleViewDistance;
+    }
+
+    /**
+     * Get the maximum number of block particles sent to a player per render pass
+     * @return Particle budget
+     */
+    public int getParticleBudget() {
+        return particleBudget;
+    }
+
+    /**
+     * Check if task and event handler timings are recorded from startup
+     * @return true if the profiler starts enabled
+     */
+    public boolean isProfilerEnabled() {
+        return profilerEnabled;
+    }
+
+    // Metrics
+
+    /**
+     * Check if metrics are written to a file
+     * @return true if the metrics file is written periodically
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Get the metrics file path
+     * @return Path, relative to the plugin folder unless absolute
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Get the text format of the metrics file
+     * @return Exposition format
+     */
+    public MetricsRegistry.Format getMetricsFormat() {
+        return metricsFormat;
+    }
+
+    /**
+     * Get the time between metrics file writes
+     * @return Interval in seconds
+     */
+    public int getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+}
@@ -0,0 +1,47 @@
+package Factions.miniFactions.events;
+
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.models.CoreBlock;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+/**
+ * Called when a player enters the area of influence of a clan's core block
+ */
+public class ClanAreaEnterEvent extends PlayerEvent {
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final CoreBlock coreBlock;
+
+    public ClanAreaEnterEvent(Player player, CoreBlock coreBlock) {
+        super(player);
+        this.coreBlock = coreBlock;
+    }
+
+    /**
+     * Get the core block whose area was entered
+     * @return Core block
+     */
+    public CoreBlock getCoreBlock() {
+        return coreBlock;
+    }
+
+    /**
+     * Get the clan whose area was entered
+     * @return Clan
+     */
+    public Clan getClan() {
+        return coreBlock.getClan();
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
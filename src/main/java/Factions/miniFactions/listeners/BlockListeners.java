@@ -1,15 +1,15 @@
 package Factions.miniFactions.listeners;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.MaterialRole;
 import Factions.miniFactions.managers.ClaimBlockGUIManager;
 import Factions.miniFactions.managers.ClaimBlockVisualManager;
-import Factions.miniFactions.managers.CoreBlockManager;
-import Factions.miniFactions.managers.CraftingManager;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.ClaimBlock;
 import Factions.miniFactions.models.ClanDoor;
 import Factions.miniFactions.models.CoreBlock;
 import Factions.miniFactions.models.DefenseBlock;
+import Factions.miniFactions.utils.ItemClassifier;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -19,7 +19,6 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
-import org.bukkit.event.block.BlockExplodeEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -54,33 +53,27 @@ public class BlockListeners implements Listener {
             }
 
             // Handle core block placement
-            if (block.getType() == CoreBlockManager.getCoreBlockMaterial()) {
+            if (plugin.getConfigManager().getSettings().getMaterialRole(block.getType()) == MaterialRole.CORE_BLOCK) {
                 handleCoreBlockPlacement(player, block, clan);
                 return;
             }
 
-            // Handle claim block placement
-            if (block.getType() == CraftingManager.getClaimBlockMaterial() &&
-                    item.hasItemMeta() && item.getItemMeta().hasDisplayName() &&
-                    item.getItemMeta().getDisplayName().contains("Claim Block")) {
-                handleClaimBlockPlacement(player, block, clan, item);
-                return;
-            }
-
-            // Handle defense block placement
-            if (isDefenseBlockMaterial(block.getType()) &&
-                    item.hasItemMeta() && item.getItemMeta().hasDisplayName() &&
-                    item.getItemMeta().getDisplayName().contains("Defense Block")) {
-                handleDefenseBlockPlacement(player, block, clan, item);
-                return;
-            }
-
-            // Handle clan door placement
-            if (block.getType() == CraftingManager.getClanDoorMaterial() &&
-                    item.hasItemMeta() && item.getItemMeta().hasDisplayName() &&
-                    item.getItemMeta().getDisplayName().contains("Clan Door")) {
-                handleClanDoorPlacement(player, block, clan, item);
-                return;
+            // Handle claim, defense and clan door placement
+            ItemClassifier.Classification classification = ItemClassifier.classify(item);
+            if (classification != null) {
+                switch (classification.getKind()) {
+                    case CLAIM_BLOCK:
+                        handleClaimBlockPlacement(player, block, clan, classification.getTier());
+                        return;
+                    case DEFENSE_BLOCK:
+                        handleDefenseBlockPlacement(player, block, clan, classification.getTier());
+                        return;
+                    case CLAN_DOOR:
+                        handleClanDoorPlacement(player, block, clan, classification.getTier());
+                        return;
+                    default:
+                        break;
+                }
             }
 
             // Check if within buildable area
@@ -97,7 +90,7 @@ public class BlockListeners implements Listener {
                 double distanceSquared = block.getLocation().distanceSquared(coreLoc);
                 if (distanceSquared > radius * radius) {
                     // Allow building outside core area, but track the block for decay
-                    if (plugin.getConfigManager().getConfig().getBoolean("core.outside-blocks.enabled", true)) {
+                    if (plugin.getConfigManager().getSettings().isOutsideBlocksEnabled()) {
                         // Track the block for decay
                         plugin.getOutsideBlockManager().trackBlock(block.getLocation(), clan, block.getType());
 
@@ -126,9 +119,10 @@ public class BlockListeners implements Listener {
         try {
             Player player = event.getPlayer();
             Block block = event.getBlock();
+            MaterialRole role = plugin.getConfigManager().getSettings().getMaterialRole(block.getType());
 
             // Check for core block
-            if (block.getType() == CoreBlockManager.getCoreBlockMaterial()) {
+            if (role == MaterialRole.CORE_BLOCK) {
                 CoreBlock coreBlock = plugin.getDataStorage().getCoreBlock(block.getLocation());
                 if (coreBlock != null) {
                     // Cancel event and handle core block breaking
@@ -139,7 +133,7 @@ public class BlockListeners implements Listener {
             }
 
             // Check for claim block
-            if (block.getType() == CraftingManager.getClaimBlockMaterial()) {
+            if (role == MaterialRole.CLAIM_BLOCK) {
                 ClaimBlock claimBlock = plugin.getDataStorage().getClaimBlock(block.getLocation());
                 if (claimBlock != null) {
                     // Get the clan that owns the claim block
@@ -165,7 +159,7 @@ public class BlockListeners implements Listener {
             }
 
             // Check for defense block (any of the terracotta colors)
-            if (isDefenseBlockMaterial(block.getType())) {
+            if (role == MaterialRole.DEFENSE_BLOCK) {
             // Get the defense block from storage
             DefenseBlock defenseBlock = plugin.getDataStorage().getDefenseBlock(block.getLocation());
             if (defenseBlock != null) {
@@ -180,6 +174,7 @@ public class BlockListeners implements Listener {
                     // Remove from storage
                     defenseBlockClan.removeDefenseBlock(defenseBlock);
                     plugin.getDataStorage().removeDefenseBlock(block.getLocation());
+                    plugin.getDefenseDecayManager().untrack(defenseBlock);
 
                     player.sendMessage(ChatColor.GREEN + "Defense block removed.");
                     return;
@@ -192,14 +187,11 @@ public class BlockListeners implements Listener {
             }
         }
 
-            // Check if this is a tracked outside block
-            if (plugin.getOutsideBlockManager().isTrackedBlock(block.getLocation())) {
-                // Remove from tracking when broken
-                plugin.getOutsideBlockManager().removeBlock(block.getLocation());
-            }
+            // Stop tracking the block if it was an outside block
+            plugin.getOutsideBlockManager().removeBlock(block.getLocation());
 
             // Check for clan door
-            if (block.getType() == CraftingManager.getClanDoorMaterial()) {
+            if (role == MaterialRole.CLAN_DOOR) {
                 ClanDoor clanDoor = plugin.getDataStorage().getClanDoor(block.getLocation());
                 if (clanDoor != null) {
                     // Get the clan that owns the door
@@ -233,66 +225,6 @@ public class BlockListeners implements Listener {
         }
     }
 
-    /**
-     * Handle block explosion events
-     * @param event The block explode event
-     */
-    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
-    public void onBlockExplode(BlockExplodeEvent event) {
-        try {
-            // Get the blocks that will be affected by the explosion
-            for (Block block : event.blockList()) {
-                // Check if it's a defense block (any of the terracotta colors)
-                if (isDefenseBlockMaterial(block.getType())) {
-                    // Get the defense block from storage
-                    DefenseBlock defenseBlock = plugin.getDataStorage().getDefenseBlock(block.getLocation());
-                    if (defenseBlock != null) {
-                        // Defense blocks can only be broken by explosives placed by players or clan members
-                        // Natural explosions should not break defense blocks
-                        // This is handled by the RaidManager for player-placed explosives
-                        event.blockList().remove(block);
-                    }
-                }
-
-                // Check if it's a core block
-                if (block.getType() == CoreBlockManager.getCoreBlockMaterial()) {
-                    // Get the core block from storage
-                    CoreBlock coreBlock = plugin.getDataStorage().getCoreBlock(block.getLocation());
-                    if (coreBlock != null) {
-                        // Core blocks can only be broken by explosives placed by players or clan members
-                        // Natural explosions should not break core blocks
-                        // This is handled by the RaidManager for player-placed explosives
-                        event.blockList().remove(block);
-                    }
-                }
-
-                // Check if it's a claim block
-                if (block.getType() == CraftingManager.getClaimBlockMaterial()) {
-                    ClaimBlock claimBlock = plugin.getDataStorage().getClaimBlock(block.getLocation());
-                    if (claimBlock != null) {
-                        // Claim blocks can only be broken by clan members
-                        // Natural explosions should not break claim blocks
-                        event.blockList().remove(block);
-                    }
-                }
-
-                // Check if it's a clan trapdoor
-                if (block.getType() == CraftingManager.getClanDoorMaterial()) {
-                    ClanDoor clanDoor = plugin.getDataStorage().getClanDoor(block.getLocation());
-                    if (clanDoor != null) {
-                        // Clan trapdoors can only be broken by clan members
-                        // Natural explosions should not break clan trapdoors
-                        event.blockList().remove(block);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Error handling block explode event: " + e.getMessage(), e);
-            // Cancel the explosion to be safe
-            event.setCancelled(true);
-        }
-    }
-
     /**
      * Handle core block placement
      * @param player Player placing the block
@@ -309,9 +241,9 @@ public class BlockListeners implements Listener {
      * @param player Player placing the block
      * @param block Block being placed
      * @param clan Player's clan
-     * @param item Item used to place the block
+     * @param level Level of the placed item
      */
-    private void handleClaimBlockPlacement(Player player, Block block, Clan clan, ItemStack item) {
+    private void handleClaimBlockPlacement(Player player, Block block, Clan clan, int level) {
         // Check if clan has a core block
         if (clan.getCoreBlock() == null) {
             player.sendMessage(ChatColor.RED + "Your clan needs a core block before placing claim blocks.");
@@ -350,13 +282,6 @@ public class BlockListeners implements Listener {
         }
 
         // Create claim block
-        // Extract level from item if available, default to level 1
-        int level = 1;
-        // We already have the item from the method parameter
-        if (item != null && item.hasItemMeta() && item.getItemMeta().hasCustomModelData()) {
-            level = item.getItemMeta().getCustomModelData();
-        }
-
         ClaimBlock claimBlock = new ClaimBlock(block.getLocation(), clan);
         claimBlock.setLevel(level);
         clan.addClaimBlock(claimBlock);
@@ -364,6 +289,9 @@ public class BlockListeners implements Listener {
         // Add to storage
         plugin.getDataStorage().addClaimBlock(claimBlock);
 
+        // Schedule its first day of points
+        plugin.getClaimPointManager().track(claimBlock);
+
         player.sendMessage(ChatColor.GREEN + "Claim block placed successfully! It will generate " +
                 claimBlock.getPointsPerDay() + " points per day.");
     }
@@ -373,9 +301,9 @@ public class BlockListeners implements Listener {
      * @param player Player placing the block
      * @param block Block being placed
      * @param clan Player's clan
-     * @param item Item used to place the block
+     * @param tier Tier of the placed item
      */
-    private void handleDefenseBlockPlacement(Player player, Block block, Clan clan, ItemStack item) {
+    private void handleDefenseBlockPlacement(Player player, Block block, Clan clan, int tier) {
         // Check if clan has a core block
         if (clan.getCoreBlock() == null) {
             player.sendMessage(ChatColor.RED + "Your clan needs a core block before placing defense blocks.");
@@ -413,12 +341,6 @@ public class BlockListeners implements Listener {
             return;
         }
 
-        // Get tier from item
-        int tier = 1;
-        if (item.hasItemMeta() && item.getItemMeta().hasCustomModelData()) {
-            tier = item.getItemMeta().getCustomModelData();
-        }
-
         // Create defense block
         DefenseBlock defenseBlock = new DefenseBlock(block.getLocation(), clan, tier);
         clan.addDefenseBlock(defenseBlock);
@@ -426,6 +348,9 @@ public class BlockListeners implements Listener {
         // Add to storage
         plugin.getDataStorage().addDefenseBlock(defenseBlock);
 
+        // Schedule its decay
+        plugin.getDefenseDecayManager().track(defenseBlock);
+
         player.sendMessage(ChatColor.GREEN + "Defense block (Tier " + tier + ") placed successfully!");
     }
 
@@ -434,9 +359,9 @@ public class BlockListeners implements Listener {
      * @param player Player placing the door
      * @param block Block being placed
      * @param clan Player's clan
-     * @param item Item used to place the door
+     * @param tier Tier of the placed item
      */
-    private void handleClanDoorPlacement(Player player, Block block, Clan clan, ItemStack item) {
+    private void handleClanDoorPlacement(Player player, Block block, Clan clan, int tier) {
         // Check if clan has a core block
         if (clan.getCoreBlock() == null) {
             player.sendMessage(ChatColor.RED + "Your clan needs a core block before placing clan trapdoors.");
@@ -474,12 +399,6 @@ public class BlockListeners implements Listener {
             return;
         }
 
-        // Get tier from item (default to 1 if not specified)
-        int tier = 1;
-        if (item.hasItemMeta() && item.getItemMeta().hasCustomModelData()) {
-            tier = item.getItemMeta().getCustomModelData();
-        }
-
         // Create clan door
         ClanDoor clanDoor = new ClanDoor(block.getLocation(), clan, tier);
         clan.addClanDoor(clanDoor);
@@ -489,17 +408,4 @@ public class BlockListeners implements Listener {
 
         player.sendMessage(ChatColor.GREEN + "Clan trapdoor placed successfully! Only clan members can open or close it.");
     }
-
-    /**
-     * Check if a material is a valid defense block material
-     * @param material The material to check
-     * @return true if it's a defense block material
-     */
-    private boolean isDefenseBlockMaterial(Material material) {
-        return material == Material.WHITE_TERRACOTTA ||
-               material == Material.LIGHT_GRAY_TERRACOTTA ||
-               material == Material.BROWN_TERRACOTTA ||
-               material == Material.GRAY_TERRACOTTA ||
-               material == Material.BLACK_TERRACOTTA;
-    }
 }
\ No newline at end of file
@@ -1,25 +1,32 @@
 package Factions.miniFactions.listeners;
 
 import Factions.miniFactions.MiniFactions;
-import Factions.miniFactions.managers.CraftingManager;
+import Factions.miniFactions.config.MaterialRole;
+import Factions.miniFactions.managers.ClaimBlockGUIManager;
+import Factions.miniFactions.managers.GUIManager;
 import Factions.miniFactions.managers.RaidManager;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.ClaimBlock;
 import Factions.miniFactions.models.ClanDoor;
 import Factions.miniFactions.models.CoreBlock;
+import Factions.miniFactions.utils.ItemClassifier;
+import com.destroystokyo.paper.event.player.PlayerPostRespawnEvent;
 import org.bukkit.ChatColor;
-import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.event.inventory.InventoryClickEvent;
-import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.InventoryHolder;
 
 public class PlayerListeners implements Listener {
 
@@ -33,6 +40,12 @@ public class PlayerListeners implements Listener {
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
 
+        // Track online clan members
+        plugin.getOnlineMemberManager().playerJoined(player);
+
+        // Track the clan area the player is in
+        plugin.getPresenceManager().playerJoined(player);
+
         // Check if player is in a clan
         Clan clan = plugin.getClanManager().getClanByPlayer(player.getUniqueId());
         if (clan != null) {
@@ -50,6 +63,24 @@ public class PlayerListeners implements Listener {
         }
     }
 
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getOnlineMemberManager().playerQuit(event.getPlayer());
+        plugin.getPresenceManager().playerQuit(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onPlayerPostRespawn(PlayerPostRespawnEvent event) {
+        // Death cleared the glow, restore it if the player respawned in their area
+        plugin.getPresenceManager().playerRespawned(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        // Also receives teleports, only block boundary crossings are evaluated
+        plugin.getPresenceManager().playerMoved(event.getPlayer(), event.getTo());
+    }
+
     @EventHandler
     public void onPlayerInteract(PlayerInteractEvent event) {
         // Ignore off-hand interactions
@@ -60,10 +91,14 @@ public class PlayerListeners implements Listener {
         Player player = event.getPlayer();
         Block block = event.getClickedBlock();
 
+        // One table read rejects ordinary blocks before any storage lookup
+        MaterialRole role = block != null ?
+                plugin.getConfigManager().getSettings().getMaterialRole(block.getType()) : MaterialRole.NONE;
+
         // Check for right-click on blocks
-        if (event.getAction() == Action.RIGHT_CLICK_BLOCK && block != null) {
+        if (event.getAction() == Action.RIGHT_CLICK_BLOCK && role != MaterialRole.NONE) {
             // Handle core block interaction
-            if (block.getType() == Material.BEACON) {
+            if (role == MaterialRole.CORE_BLOCK) {
                 CoreBlock coreBlock = plugin.getDataStorage().getCoreBlock(block.getLocation());
                 if (coreBlock != null) {
                     handleCoreBlockInteraction(player, coreBlock);
@@ -73,7 +108,7 @@ public class PlayerListeners implements Listener {
             }
 
             // Handle claim block interaction
-            if (block.getType() == CraftingManager.getClaimBlockMaterial()) {
+            if (role == MaterialRole.CLAIM_BLOCK) {
                 ClaimBlock claimBlock = plugin.getDataStorage().getClaimBlock(block.getLocation());
                 if (claimBlock != null) {
                     handleClaimBlockInteraction(player, claimBlock);
@@ -83,7 +118,7 @@ public class PlayerListeners implements Listener {
             }
 
             // Handle clan trapdoor interaction
-            if (block.getType() == CraftingManager.getClanDoorMaterial()) {
+            if (role == MaterialRole.CLAN_DOOR) {
                 // Check if it's a registered clan door
                 ClanDoor clanDoor = plugin.getDataStorage().getClanDoor(block.getLocation());
                 if (clanDoor != null) {
@@ -118,37 +153,25 @@ public class PlayerListeners implements Listener {
             }
         }
 
-        // Check for explosive placement
-        if (event.getAction() == Action.RIGHT_CLICK_BLOCK && block != null &&
-                player.getInventory().getItemInMainHand().getType() == CraftingManager.getExplosiveMaterial() &&
-                player.getInventory().getItemInMainHand().hasItemMeta() &&
-                player.getInventory().getItemInMainHand().getItemMeta().hasDisplayName() &&
-                player.getInventory().getItemInMainHand().getItemMeta().getDisplayName().contains("Explosive")) {
-
-            // Check if clicked on a defense block (any of the terracotta colors)
-            if (block.getType() == Material.RED_TERRACOTTA ||
-                block.getType() == Material.GREEN_TERRACOTTA ||
-                block.getType() == Material.CYAN_TERRACOTTA ||
-                block.getType() == Material.BLUE_TERRACOTTA ||
-                block.getType() == Material.PURPLE_TERRACOTTA) {
-
-                // Check if it's a registered defense block
-                if (plugin.getDataStorage().getDefenseBlock(block.getLocation()) != null) {
-                    // Handle explosive placement with RaidManager
-                    RaidManager raidManager = plugin.getRaidManager();
-                    if (raidManager != null) {
-                        boolean success = raidManager.placeExplosive(player, block, player.getInventory().getItemInMainHand());
-                        if (success) {
-                            // Explosive placed successfully
-                            event.setCancelled(true);
-                            return;
-                        }
-                    } else {
-                        player.sendMessage(ChatColor.RED + "Raiding is not enabled on this server.");
+        // Check for explosive placement on a defense block
+        if (event.getAction() == Action.RIGHT_CLICK_BLOCK && role == MaterialRole.DEFENSE_BLOCK &&
+                ItemClassifier.classify(player.getInventory().getItemInMainHand(), ItemClassifier.ItemKind.EXPLOSIVE) != null) {
+            // Check if it's a registered defense block
+            if (plugin.getDataStorage().getDefenseBlock(block.getLocation()) != null) {
+                // Handle explosive placement with RaidManager
+                RaidManager raidManager = plugin.getRaidManager();
+                if (raidManager != null) {
+                    boolean success = raidManager.placeExplosive(player, block, player.getInventory().getItemInMainHand());
+                    if (success) {
+                        // Explosive placed successfully
+                        event.setCancelled(true);
+                        return;
                     }
-                    event.setCancelled(true);
-                    return;
+                } else {
+                    player.sendMessage(ChatColor.RED + "Raiding is not enabled on this server.");
                 }
+                event.setCancelled(true);
+                return;
             }
         }
     }
@@ -231,55 +254,31 @@ public class PlayerListeners implements Listener {
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
-        if (!(event.getWhoClicked() instanceof Player)) {
+        // Only MiniFactions GUIs have one of our holders, other inventories are ignored
+        InventoryHolder holder = event.getView().getTopInventory().getHolder(false);
+        if (!(holder instanceof GUIManager.CoreBlockHolder) && !(holder instanceof ClaimBlockGUIManager.ClaimBlockHolder)) {
             return;
         }
 
-        Player player = (Player) event.getWhoClicked();
-        String title = event.getView().getTitle();
-
-        // Check if this is a core block GUI
-        if (title.startsWith(ChatColor.GOLD + "Core Block -")) {
-            event.setCancelled(true); // Prevent item movement
-
-            // Handle the click
-            if (plugin.getGUIManager().handleCoreBlockGUIClick(player, event.getRawSlot())) {
-                // Click was handled by the GUI manager
-                return;
-            }
+        event.setCancelled(true); // Prevent item movement
+        if (!(event.getWhoClicked() instanceof Player)) {
+            return;
         }
 
-        // Check if this is a claim block upgrade GUI
-        if (title.equals(ChatColor.GREEN + "Claim Block Upgrade")) {
-            event.setCancelled(true); // Prevent item movement
-
-            // Handle the click
-            if (plugin.getClaimBlockGUIManager().handleClaimBlockGUIClick(player, event.getRawSlot())) {
-                // Click was handled by the GUI manager
-                return;
-            }
+        Player player = (Player) event.getWhoClicked();
+        if (holder instanceof GUIManager.CoreBlockHolder) {
+            plugin.getGUIManager().handleCoreBlockGUIClick(player, (GUIManager.CoreBlockHolder) holder, event.getRawSlot());
+        } else {
+            plugin.getClaimBlockGUIManager().handleClaimBlockGUIClick(player, (ClaimBlockGUIManager.ClaimBlockHolder) holder, event.getRawSlot());
         }
     }
 
     @EventHandler
-    public void onInventoryClose(InventoryCloseEvent event) {
-        if (!(event.getPlayer() instanceof Player)) {
-            return;
-        }
-
-        Player player = (Player) event.getPlayer();
-        String title = event.getView().getTitle();
-
-        // Check if this is a core block GUI
-        if (title.startsWith(ChatColor.GOLD + "Core Block -")) {
-            // Remove player from the GUI manager
-            plugin.getGUIManager().removePlayer(player);
-        }
-
-        // Check if this is a claim block upgrade GUI
-        if (title.equals(ChatColor.GREEN + "Claim Block Upgrade")) {
-            // Remove player from the GUI manager
-            plugin.getClaimBlockGUIManager().removePlayer(player);
+    public void onInventoryDrag(InventoryDragEvent event) {
+        // Dragging items across a MiniFactions GUI would place them in it
+        InventoryHolder holder = event.getView().getTopInventory().getHolder(false);
+        if (holder instanceof GUIManager.CoreBlockHolder || holder instanceof ClaimBlockGUIManager.ClaimBlockHolder) {
+            event.setCancelled(true);
         }
     }
 }
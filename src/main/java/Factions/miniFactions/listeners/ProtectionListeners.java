@@ -0,0 +1,130 @@
+package Factions.miniFactions.listeners;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.spatial.SpatialIndexManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protects core, claim, defense and door blocks against world events that can move
+ * or destroy them. Every check starts with the spatial index's chunk section prefilter,
+ * so the common case of no protected block nearby costs a couple of array reads.
+ */
+public class ProtectionListeners implements Listener {
+
+    /**
+     * Event types counted by this listener
+     */
+    public enum ProtectedEvent {
+        PISTON_EXTEND,
+        PISTON_RETRACT,
+        BLOCK_EXPLODE,
+        ENTITY_EXPLODE,
+        ENTITY_CHANGE_BLOCK,
+        FLUID_FLOW
+    }
+
+    private final MiniFactions plugin;
+    // Events handled and events that touched a protected block, indexed by ProtectedEvent ordinal.
+    // Region threads count in parallel on Folia.
+    private final LongAdder[] handled = new LongAdder[ProtectedEvent.values().length];
+    private final LongAdder[] blocked = new LongAdder[ProtectedEvent.values().length];
+
+    public ProtectionListeners(MiniFactions plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < handled.length; i++) {
+            handled[i] = new LongAdder();
+            blocked[i] = new LongAdder();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        handled[ProtectedEvent.PISTON_EXTEND.ordinal()].increment();
+        if (spatialIndex().containsProtected(event.getBlocks())) {
+            blocked[ProtectedEvent.PISTON_EXTEND.ordinal()].increment();
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        handled[ProtectedEvent.PISTON_RETRACT.ordinal()].increment();
+        if (spatialIndex().containsProtected(event.getBlocks())) {
+            blocked[ProtectedEvent.PISTON_RETRACT.ordinal()].increment();
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        // Raid damage is applied by the RaidManager, explosions never break protected blocks
+        handled[ProtectedEvent.BLOCK_EXPLODE.ordinal()].increment();
+        if (spatialIndex().removeProtected(event.blockList()) > 0) {
+            blocked[ProtectedEvent.BLOCK_EXPLODE.ordinal()].increment();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        // TNT, creepers, withers and other entity explosions
+        handled[ProtectedEvent.ENTITY_EXPLODE.ordinal()].increment();
+        if (spatialIndex().removeProtected(event.blockList()) > 0) {
+            blocked[ProtectedEvent.ENTITY_EXPLODE.ordinal()].increment();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        // Endermen, ravagers, withers, falling blocks and similar
+        handled[ProtectedEvent.ENTITY_CHANGE_BLOCK.ordinal()].increment();
+        if (spatialIndex().isProtected(event.getBlock())) {
+            blocked[ProtectedEvent.ENTITY_CHANGE_BLOCK.ordinal()].increment();
+            event.setCancelled(true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onFluidFlow(BlockFromToEvent event) {
+        handled[ProtectedEvent.FLUID_FLOW.ordinal()].increment();
+        if (spatialIndex().isProtected(event.getToBlock())) {
+            blocked[ProtectedEvent.FLUID_FLOW.ordinal()].increment();
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * Get the number of events handled
+     * @param type Event type
+     * @return Handled count
+     */
+    public long getHandledCount(ProtectedEvent type) {
+        return handled[type.ordinal()].sum();
+    }
+
+    /**
+     * Get the number of events that touched a protected block
+     * @param type Event type
+     * @return Blocked count
+     */
+    public long getBlockedCount(ProtectedEvent type) {
+        return blocked[type.ordinal()].sum();
+    }
+
+    /**
+     * Get the spatial index
+     * @return Spatial index manager
+     */
+    private SpatialIndexManager spatialIndex() {
+        return plugin.getDataStorage().getSpatialIndexManager();
+    }
+}
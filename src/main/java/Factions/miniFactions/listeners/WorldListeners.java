@@ -0,0 +1,39 @@
+package Factions.miniFactions.listeners;
+
+import Factions.miniFactions.MiniFactions;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+
+public class WorldListeners implements Listener {
+
+    private final MiniFactions plugin;
+
+    public WorldListeners(MiniFactions plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        // Resume queued block changes for this chunk
+        plugin.getWorldMutationManager().chunkLoaded(event.getChunk());
+
+        // Bring stored outside blocks of this chunk back into the decay schedule
+        plugin.getOutsideBlockManager().chunkLoaded(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        // Adopt, replace or create core block text displays for this chunk
+        plugin.getCoreBlockManager().getVisualManager().entitiesLoaded(event.getChunk(), event.getEntities());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        // Stop tracking core block text displays that left memory
+        plugin.getCoreBlockManager().getVisualManager().entitiesUnloaded(event.getEntities());
+    }
+}
@@ -1,30 +1,37 @@
 package Factions.miniFactions.managers;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.ClaimBlock;
+import Factions.miniFactions.utils.TemplateCache;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Manages GUI interfaces for claim block upgrades
+ * Manages GUI interfaces for claim block upgrades.
+ * Everything except the claim information slot is built once per claim level and reused.
  */
 public class ClaimBlockGUIManager {
 
+    private static final int SIZE = 27;
+    private static final int CLAIM_INFO_SLOT = 4;
+    private static final int UPGRADE_SLOT = 13;
+    private static final int CLOSE_SLOT = 22;
+
     private final MiniFactions plugin;
-    private final Map<Player, ClaimBlock> openClaimBlockGUIs = new HashMap<>();
+    // Claim level -> prebuilt GUI contents for the current settings
+    private final TemplateCache<Integer, ItemStack[]> templates = new TemplateCache<>();
 
     public ClaimBlockGUIManager(MiniFactions plugin) {
         this.plugin = plugin;
@@ -39,13 +46,13 @@ public class ClaimBlockGUIManager {
         Clan clan = claimBlock.getClan();
 
         // Create inventory - using 3 rows (27 slots) for better centering
-        Inventory gui = Bukkit.createInventory(null, 27, ChatColor.GREEN + "Claim Block Upgrade");
+        ClaimBlockHolder holder = new ClaimBlockHolder(claimBlock);
+        Inventory gui = Bukkit.createInventory(holder, SIZE, ChatColor.GREEN + "Claim Block Upgrade");
+        holder.inventory = gui;
 
-        // Fill with glass panes for decoration
-        ItemStack filler = createItem(Material.BLACK_STAINED_GLASS_PANE, " ");
-        for (int i = 0; i < 27; i++) {
-            gui.setItem(i, filler);
-        }
+        // Filler, upgrade and close buttons only depend on the claim level.
+        // The inventory copies each item, so the cached template is never modified
+        gui.setContents(getTemplate(claimBlock.getLevel()));
 
         // Add claim block info in center top
         ItemStack claimInfo = createItem(Material.EMERALD_BLOCK,
@@ -54,69 +61,77 @@ public class ClaimBlockGUIManager {
                 ChatColor.YELLOW + "Points per day: " + ChatColor.WHITE + claimBlock.getPointsPerDay(),
                 ChatColor.YELLOW + "Clan: " + ChatColor.WHITE + clan.getName(),
                 ChatColor.YELLOW + "Clan Points: " + ChatColor.WHITE + clan.getPoints());
-        gui.setItem(4, claimInfo);
-
-        // Add upgrade option in center if not at max level
-        int upgradeCost = claimBlock.getUpgradeCost();
-        if (upgradeCost > 0) {
-            List<String> requiredItems = getRequiredItems(claimBlock.getLevel() + 1);
-            List<String> lore = new ArrayList<>();
-            lore.add(ChatColor.YELLOW + "Current Level: " + ChatColor.WHITE + claimBlock.getLevel());
-            lore.add(ChatColor.YELLOW + "Next Level: " + ChatColor.WHITE + (claimBlock.getLevel() + 1));
-            lore.add(ChatColor.YELLOW + "Cost: " + ChatColor.WHITE + upgradeCost + " points");
-            lore.add("");
-            lore.add(ChatColor.YELLOW + "Required Items:");
-            
-            for (String item : requiredItems) {
-                String[] parts = item.split(":");
-                if (parts.length == 2) {
-                    String materialName = parts[0];
-                    String amount = parts[1];
-                    lore.add(ChatColor.WHITE + "- " + materialName + " x" + amount);
-                }
+        gui.setItem(CLAIM_INFO_SLOT, claimInfo);
+
+        // Open the GUI
+        player.openInventory(gui);
+    }
+
+    /**
+     * Build the level dependent contents of the claim block upgrade GUI
+     * @param level Claim block level
+     * @return GUI contents
+     */
+    private ItemStack[] getTemplate(int level) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        return templates.get(settings, level, l -> {
+            ItemStack[] contents = new ItemStack[SIZE];
+
+            // Fill with glass panes for decoration
+            ItemStack filler = createItem(Material.BLACK_STAINED_GLASS_PANE, " ");
+            for (int i = 0; i < SIZE; i++) {
+                contents[i] = filler;
             }
-            
-            lore.add("");
-            lore.add(ChatColor.GRAY + "Click to upgrade your claim block");
-            
-            ItemStack upgradeItem = createItem(Material.EXPERIENCE_BOTTLE,
-                    ChatColor.GREEN + "Upgrade Claim Block",
-                    lore.toArray(new String[0]));
-            gui.setItem(13, upgradeItem);
-        } else {
-            ItemStack maxLevelItem = createItem(Material.BARRIER,
-                    ChatColor.RED + "Maximum Level Reached",
-                    ChatColor.GRAY + "Your claim block is already at maximum level");
-            gui.setItem(13, maxLevelItem);
-        }
 
-        // Add close button in center bottom
-        ItemStack closeItem = createItem(Material.RED_STAINED_GLASS_PANE, ChatColor.RED + "Close");
-        gui.setItem(22, closeItem);
+            // Add upgrade option in center if not at max level
+            if (l < settings.getClaimMaxLevel()) {
+                List<String> lore = new ArrayList<>();
+                lore.add(ChatColor.YELLOW + "Current Level: " + ChatColor.WHITE + l);
+                lore.add(ChatColor.YELLOW + "Next Level: " + ChatColor.WHITE + (l + 1));
+                lore.add(ChatColor.YELLOW + "Cost: " + ChatColor.WHITE + settings.getClaimUpgradeCost(l + 1) + " points");
+                lore.add("");
+                lore.add(ChatColor.YELLOW + "Required Items:");
+
+                for (String item : getRequiredItems(l + 1)) {
+                    String[] parts = item.split(":");
+                    if (parts.length == 2) {
+                        String materialName = parts[0];
+                        String amount = parts[1];
+                        lore.add(ChatColor.WHITE + "- " + materialName + " x" + amount);
+                    }
+                }
 
-        // Store the claim block for this player
-        openClaimBlockGUIs.put(player, claimBlock);
+                lore.add("");
+                lore.add(ChatColor.GRAY + "Click to upgrade your claim block");
 
-        // Open the GUI
-        player.openInventory(gui);
+                contents[UPGRADE_SLOT] = createItem(Material.EXPERIENCE_BOTTLE,
+                        ChatColor.GREEN + "Upgrade Claim Block",
+                        lore.toArray(new String[0]));
+            } else {
+                contents[UPGRADE_SLOT] = createItem(Material.BARRIER,
+                        ChatColor.RED + "Maximum Level Reached",
+                        ChatColor.GRAY + "Your claim block is already at maximum level");
+            }
+
+            // Add close button in center bottom
+            contents[CLOSE_SLOT] = createItem(Material.RED_STAINED_GLASS_PANE, ChatColor.RED + "Close");
+            return contents;
+        });
     }
 
     /**
      * Handle a click in the claim block upgrade GUI
      * @param player Player who clicked
+     * @param holder Holder of the clicked GUI
      * @param slot Slot that was clicked
      * @return true if the click was handled
      */
-    public boolean handleClaimBlockGUIClick(Player player, int slot) {
-        ClaimBlock claimBlock = openClaimBlockGUIs.get(player);
-        if (claimBlock == null) {
-            return false;
-        }
-
+    public boolean handleClaimBlockGUIClick(Player player, ClaimBlockHolder holder, int slot) {
+        ClaimBlock claimBlock = holder.getClaimBlock();
         Clan clan = claimBlock.getClan();
 
-        // Handle upgrade button (slot 13 in the layout)
-        if (slot == 13) {
+        // Handle upgrade button
+        if (slot == UPGRADE_SLOT) {
             int upgradeCost = claimBlock.getUpgradeCost();
             if (upgradeCost > 0) {
                 // Check if clan has enough points
@@ -155,7 +170,7 @@ public class ClaimBlockGUIManager {
         }
 
         // Handle close button
-        if (slot == 22) {
+        if (slot == CLOSE_SLOT) {
             player.closeInventory();
             return true;
         }
@@ -164,22 +179,13 @@ public class ClaimBlockGUIManager {
         return true;
     }
 
-    /**
-     * Remove a player from the open GUIs map
-     * @param player Player to remove
-     */
-    public void removePlayer(Player player) {
-        openClaimBlockGUIs.remove(player);
-    }
-
     /**
      * Get the required items for a claim block level
      * @param level Claim block level
      * @return List of required items in format "MATERIAL:AMOUNT"
      */
     private List<String> getRequiredItems(int level) {
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        return config.getStringList("claim.levels." + level + ".upgrade-items");
+        return plugin.getConfigManager().getSettings().getClaimUpgradeItems(level);
     }
 
     /**
@@ -269,4 +275,29 @@ public class ClaimBlockGUIManager {
         item.setItemMeta(meta);
         return item;
     }
+
+    /**
+     * Inventory holder identifying a claim block upgrade GUI
+     */
+    public static class ClaimBlockHolder implements InventoryHolder {
+        private final ClaimBlock claimBlock;
+        private Inventory inventory;
+
+        private ClaimBlockHolder(ClaimBlock claimBlock) {
+            this.claimBlock = claimBlock;
+        }
+
+        /**
+         * Get the claim block shown in the GUI
+         * @return Claim block
+         */
+        public ClaimBlock getClaimBlock() {
+            return claimBlock;
+        }
+
+        @Override
+        public Inventory getInventory() {
+            return inventory;
+        }
+    }
 }
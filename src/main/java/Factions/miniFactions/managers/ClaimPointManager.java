@@ -0,0 +1,264 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.models.ClaimBlock;
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.utils.Clock;
+import org.bukkit.ChatColor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Point generation for claim blocks.
+ * Earned points are accrued lazily from each block's last generation time whenever
+ * a clan's balance is spent; a deadline queue credits blocks that come due in the
+ * meantime so each run only touches the blocks that actually earned points. Only the
+ * clans and blocks that changed are persisted, to the claim progress log.
+ * A clan is settled under its own lock, the deadline queue is guarded by this manager
+ * and only locked after a clan's lock.
+ */
+public class ClaimPointManager {
+
+    private static final long CHECK_INTERVAL_TICKS = 20L; // Every second
+    private static final long FLUSH_INTERVAL_TICKS = 5 * 60 * 20L; // Every 5 minutes
+    private static final long RETRY_MILLIS = 5 * 60 * 1000L; // Blocked generation is retried every 5 minutes
+
+    private final MiniFactions plugin;
+    // Claim blocks ordered by the time their next day of points is earned
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>();
+    // Due claim blocks whose generation is blocked and that have a retry queued
+    private final Set<ClaimBlock> retrying = new HashSet<>();
+    private SchedulerManager.Task deadlineTask;
+    private SchedulerManager.Task flushTask;
+    // Clans and claim blocks changed since the last flush
+    private final Set<Clan> dirtyClans = ConcurrentHashMap.newKeySet();
+    private final Set<ClaimBlock> dirtyBlocks = ConcurrentHashMap.newKeySet();
+    // Clans being settled, a clan is only settled by the thread holding its lock
+    private final Set<Clan> settling = ConcurrentHashMap.newKeySet();
+
+    public ClaimPointManager(MiniFactions plugin) {
+        this.plugin = plugin;
+        startTasks();
+    }
+
+    /**
+     * Start the deadline and persistence tasks
+     */
+    private void startTasks() {
+        deadlineTask = plugin.getSchedulerManager().runGlobalTimer("ClaimPointManager.processDeadlines", this::processDeadlines,
+                CHECK_INTERVAL_TICKS, CHECK_INTERVAL_TICKS);
+        flushTask = plugin.getSchedulerManager().runGlobalTimer("ClaimPointManager.flush", this::flush,
+                FLUSH_INTERVAL_TICKS, FLUSH_INTERVAL_TICKS);
+    }
+
+    /**
+     * Schedule all loaded claim blocks
+     */
+    public synchronized void rebuild() {
+        deadlines.clear();
+        retrying.clear();
+        // Loaded values are already saved
+        dirtyClans.clear();
+        dirtyBlocks.clear();
+        for (ClaimBlock claimBlock : plugin.getDataStorage().getClaimBlocks().values()) {
+            track(claimBlock);
+        }
+    }
+
+    /**
+     * Schedule the next point generation of a claim block
+     * @param claimBlock Claim block to schedule
+     */
+    public synchronized void track(ClaimBlock claimBlock) {
+        deadlines.add(new Deadline(claimBlock, claimBlock.getNextPointGenerationTime()));
+    }
+
+    /**
+     * Schedule another attempt for a due claim block whose generation is blocked
+     * @param claimBlock Claim block to retry
+     * @param dueTime Time of the next attempt
+     */
+    private synchronized void retry(ClaimBlock claimBlock, long dueTime) {
+        if (retrying.add(claimBlock)) {
+            deadlines.add(new Deadline(claimBlock, dueTime));
+        }
+    }
+
+    /**
+     * Credit all points a clan's claim blocks have earned so far
+     * @param clan Clan to settle
+     * @return Points credited
+     */
+    public int settle(Clan clan) {
+        synchronized (clan) {
+            // Spending settles first, don't recurse when crediting
+            if (!settling.add(clan)) {
+                return 0;
+            }
+
+            try {
+                return credit(clan);
+            } finally {
+                settling.remove(clan);
+            }
+        }
+    }
+
+    /**
+     * Drop the points a clan's claim blocks have earned so far, before its balance is overwritten
+     * @param clan Clan whose balance is being set, locked by the caller
+     */
+    public void discardEarned(Clan clan) {
+        long now = Clock.now();
+        for (ClaimBlock claimBlock : clan.getClaimBlocks()) {
+            if (claimBlock.skipEarnedDays(now)) {
+                track(claimBlock);
+                dirtyBlocks.add(claimBlock);
+            }
+        }
+    }
+
+    /**
+     * Accrue the points of a clan's claim blocks and add them to its balance
+     * @param clan Clan being settled, locked by the caller
+     * @return Points credited
+     */
+    private int credit(Clan clan) {
+        long now = Clock.now();
+        int earned = 0;
+
+        for (ClaimBlock claimBlock : clan.getClaimBlocks()) {
+            long before = claimBlock.getLastPointGenerationTime();
+            earned += claimBlock.accruePoints(now);
+
+            if (claimBlock.getLastPointGenerationTime() != before) {
+                track(claimBlock);
+                dirtyBlocks.add(claimBlock);
+            } else if (now >= claimBlock.getNextPointGenerationTime()) {
+                // Generation is blocked, the earned days are kept until it resumes
+                retry(claimBlock, now + RETRY_MILLIS);
+            }
+        }
+
+        if (earned > 0) {
+            clan.addPoints(earned);
+            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + "Your claim blocks generated " +
+                    ChatColor.GOLD + earned + ChatColor.GREEN + " points.");
+        }
+
+        return earned;
+    }
+
+    /**
+     * Settle every claim block whose next generation time has passed
+     */
+    private void processDeadlines() {
+        long now = Clock.now();
+        Set<Clan> due = new LinkedHashSet<>();
+
+        // Settling locks the clan, so it happens after the queue is released
+        synchronized (this) {
+            while (!deadlines.isEmpty() && deadlines.peek().dueTime <= now) {
+                Deadline deadline = deadlines.poll();
+                ClaimBlock claimBlock = deadline.claimBlock;
+                retrying.remove(claimBlock);
+
+                // Skip blocks that were settled since or no longer exist
+                if (claimBlock.getLastPointGenerationTime() != deadline.lastGenerationTime ||
+                        plugin.getDataStorage().getClaimBlock(claimBlock.getLocation()) != claimBlock) {
+                    continue;
+                }
+
+                due.add(claimBlock.getClan());
+            }
+        }
+
+        // Settling moves every due block of the clan forward and reschedules it
+        for (Clan clan : due) {
+            settle(clan);
+        }
+    }
+
+    /**
+     * Record a clan whose balance changed, to be persisted by the next flush
+     * @param clan Clan
+     */
+    public void balanceChanged(Clan clan) {
+        dirtyClans.add(clan);
+    }
+
+    /**
+     * Persist the balances and generation times that changed since the last flush
+     */
+    public void flush() {
+        if (dirtyClans.isEmpty() && dirtyBlocks.isEmpty()) {
+            return;
+        }
+
+        List<Clan> clans = drain(dirtyClans);
+        List<ClaimBlock> blocks = drain(dirtyBlocks);
+        plugin.getDataStorage().saveClaimProgress(clans, blocks);
+    }
+
+    /**
+     * Take the contents of a dirty set, leaving entries added meanwhile for the next flush
+     * @param dirty Dirty set
+     * @return Taken entries
+     */
+    private static <T> List<T> drain(Set<T> dirty) {
+        List<T> taken = new ArrayList<>(dirty);
+        taken.forEach(dirty::remove);
+        return taken;
+    }
+
+    /**
+     * Get the number of scheduled deadlines, including stale ones
+     * @return Queue size
+     */
+    public synchronized int getScheduledCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Cancel the scheduled tasks
+     */
+    public synchronized void cleanup() {
+        if (deadlineTask != null) {
+            deadlineTask.cancel();
+            deadlineTask = null;
+        }
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        deadlines.clear();
+        retrying.clear();
+    }
+
+    /**
+     * Next generation attempt of a claim block, as of the time it was scheduled
+     */
+    private static class Deadline implements Comparable<Deadline> {
+        private final ClaimBlock claimBlock;
+        private final long lastGenerationTime;
+        private final long dueTime;
+
+        private Deadline(ClaimBlock claimBlock, long dueTime) {
+            this.claimBlock = claimBlock;
+            this.lastGenerationTime = claimBlock.getLastPointGenerationTime();
+            this.dueTime = dueTime;
+        }
+
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(dueTime, other.dueTime);
+        }
+    }
+}
@@ -10,7 +10,6 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -54,6 +53,8 @@ public class ClanManager {
 
         // Add to storage
         plugin.getDataStorage().addClan(clan);
+        plugin.getOnlineMemberManager().memberAdded(clan, leader.getUniqueId());
+        plugin.getLeaderboardManager().clanAdded(clan);
 
         // Give the leader a core block
         ItemStack coreBlock = plugin.getCraftingManager().createCoreBlock(1);
@@ -84,14 +85,11 @@ public class ClanManager {
 
         // Remove from storage
         plugin.getDataStorage().removeClan(clan.getId());
+        plugin.getLeaderboardManager().clanRemoved(clan);
 
         // Notify members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.RED + "Your clan has been disbanded by " + player.getName() + ".");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.RED + "Your clan has been disbanded by " + player.getName() + ".");
+        plugin.getOnlineMemberManager().clanRemoved(clan);
 
         player.sendMessage(ChatColor.GREEN + "Clan " + clan.getName() + " has been disbanded.");
         return true;
@@ -157,16 +155,10 @@ public class ClanManager {
 
         // Add player to clan
         clan.addMember(player.getUniqueId(), Clan.ROLE_MEMBER);
+        plugin.getOnlineMemberManager().memberAdded(clan, player.getUniqueId());
 
         // Notify members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            if (memberUUID.equals(player.getUniqueId())) continue;
-
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.GREEN + player.getName() + " has joined the clan.");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + player.getName() + " has joined the clan.", player.getUniqueId());
 
         player.sendMessage(ChatColor.GREEN + "You have joined clan " + clan.getName() + ".");
         return true;
@@ -193,14 +185,10 @@ public class ClanManager {
 
         // Remove player from clan
         clan.removeMember(player.getUniqueId());
+        plugin.getOnlineMemberManager().memberRemoved(clan, player.getUniqueId());
 
         // Notify members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.YELLOW + player.getName() + " has left the clan.");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.YELLOW + player.getName() + " has left the clan.");
 
         player.sendMessage(ChatColor.GREEN + "You have left clan " + clan.getName() + ".");
         return true;
@@ -236,12 +224,7 @@ public class ClanManager {
         clan.setMemberRole(target.getUniqueId(), Clan.ROLE_CO_LEADER);
 
         // Notify members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.GREEN + target.getName() + " has been promoted to co-leader.");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + target.getName() + " has been promoted to co-leader.");
 
         promoter.sendMessage(ChatColor.GREEN + "You have promoted " + target.getName() + " to co-leader.");
         return true;
@@ -277,12 +260,7 @@ public class ClanManager {
         clan.setMemberRole(target.getUniqueId(), Clan.ROLE_MEMBER);
 
         // Notify members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.YELLOW + target.getName() + " has been demoted to member.");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.YELLOW + target.getName() + " has been demoted to member.");
 
         demoter.sendMessage(ChatColor.GREEN + "You have demoted " + target.getName() + " to member.");
         return true;
@@ -322,14 +300,10 @@ public class ClanManager {
 
         // Kick player
         clan.removeMember(target.getUniqueId());
+        plugin.getOnlineMemberManager().memberRemoved(clan, target.getUniqueId());
 
         // Notify members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.YELLOW + target.getName() + " has been kicked from the clan by " + kicker.getName() + ".");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.YELLOW + target.getName() + " has been kicked from the clan by " + kicker.getName() + ".");
 
         // Notify kicked player if online
         Player targetPlayer = Bukkit.getPlayer(target.getUniqueId());
@@ -373,14 +347,7 @@ public class ClanManager {
      * @return List of top clans
      */
     public List<Clan> getTopClansByPoints(int limit) {
-        List<Clan> clans = getAllClans();
-        clans.sort(Comparator.comparingInt(Clan::getPoints).reversed());
-
-        if (clans.size() > limit) {
-            return clans.subList(0, limit);
-        }
-
-        return clans;
+        return plugin.getLeaderboardManager().getTopByPoints(limit);
     }
 
     /**
@@ -389,18 +356,18 @@ public class ClanManager {
      * @return List of top clans
      */
     public List<Clan> getTopClansByCoreLevel(int limit) {
-        List<Clan> clans = getAllClans();
-        clans.sort((c1, c2) -> {
-            int level1 = c1.getCoreBlock() != null ? c1.getCoreBlock().getLevel() : 0;
-            int level2 = c2.getCoreBlock() != null ? c2.getCoreBlock().getLevel() : 0;
-            return Integer.compare(level2, level1);
-        });
-
-        if (clans.size() > limit) {
-            return clans.subList(0, limit);
-        }
+        return plugin.getLeaderboardManager().getTopByCoreLevel(limit);
+    }
 
-        return clans;
+    /**
+     * Get a clan's rank
+     * @param clan Clan to look up
+     * @param byCoreLevel true to rank by core level, false to rank by points
+     * @return Rank starting at 1, or 0 if the clan is not ranked
+     */
+    public int getRank(Clan clan, boolean byCoreLevel) {
+        return byCoreLevel ? plugin.getLeaderboardManager().getCoreLevelRank(clan)
+                : plugin.getLeaderboardManager().getPointsRank(clan);
     }
 
     /**
@@ -3,25 +3,16 @@ package Factions.miniFactions.managers;
 import Factions.miniFactions.MiniFactions;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.CoreBlock;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.potion.PotionEffect;
-import org.bukkit.potion.PotionEffectType;
-import org.bukkit.scheduler.BukkitTask;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
 
 public class CoreBlockManager {
 
     private final MiniFactions plugin;
-    private final Map<UUID, BukkitTask> beaconEffectTasks = new HashMap<>();
     private final CoreBlockVisualManager visualManager;
 
     // Material for core blocks
@@ -30,7 +21,6 @@ public class CoreBlockManager {
     public CoreBlockManager(MiniFactions plugin) {
         this.plugin = plugin;
         this.visualManager = new CoreBlockVisualManager(plugin);
-        startBeaconEffectTask();
         startUpkeepTask();
     }
 
@@ -71,10 +61,11 @@ public class CoreBlockManager {
         // Add to storage
         plugin.getDataStorage().addCoreBlock(coreBlock);
 
-        // Start beacon effect if enabled
-        if (plugin.getConfigManager().getConfig().getBoolean("core.beacon-effect", true)) {
-            startBeaconEffect(clan);
-        }
+        // Defense blocks are supported by the new core
+        plugin.getDefenseDecayManager().recalculate(clan);
+
+        // Track presence and beacon glow in the new area
+        plugin.getPresenceManager().coreAdded(coreBlock);
 
         // Create text display and particles
         visualManager.createOrUpdateTextDisplay(coreBlock);
@@ -102,14 +93,20 @@ public class CoreBlockManager {
         // Remove from storage
         plugin.getDataStorage().removeCoreBlock(location);
 
-        // Stop beacon effect
-        stopBeaconEffect(clan);
+        // Defense blocks lose their core and start decaying
+        plugin.getDefenseDecayManager().recalculate(clan);
 
-        // Remove text display
-        visualManager.removeTextDisplay(location);
+        // Players in the area leave it and lose the beacon glow
+        plugin.getPresenceManager().coreRemoved(coreBlock);
 
-        // Set block to air
-        location.getBlock().setType(Material.AIR);
+        // The block and its display may belong to another region, e.g. when a clan is disbanded by command
+        plugin.getSchedulerManager().executeAt("CoreBlockManager.removeCoreBlock", location, () -> {
+            // Remove text display
+            visualManager.removeTextDisplay(location);
+
+            // Set block to air
+            location.getBlock().setType(Material.AIR);
+        });
 
         return true;
     }
@@ -149,12 +146,7 @@ public class CoreBlockManager {
             }
 
             // Notify clan members
-            for (UUID memberUUID : clan.getMembers().keySet()) {
-                Player member = Bukkit.getPlayer(memberUUID);
-                if (member != null && member.isOnline()) {
-                    member.sendMessage(ChatColor.RED + "Your clan's core block has been destroyed by " + breaker.getName() + "!");
-                }
-            }
+            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.RED + "Your clan's core block has been destroyed by " + breaker.getName() + "!");
 
             // Remove the core block
             boolean removed = removeCoreBlock(location);
@@ -174,14 +166,7 @@ public class CoreBlockManager {
             }
 
             // Notify clan members
-            for (UUID memberUUID : clan.getMembers().keySet()) {
-                if (memberUUID.equals(breaker.getUniqueId())) continue; // Skip the breaker
-
-                Player member = Bukkit.getPlayer(memberUUID);
-                if (member != null && member.isOnline()) {
-                    member.sendMessage(ChatColor.YELLOW + "Your clan's core block has been removed by " + breaker.getName() + ".");
-                }
-            }
+            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.YELLOW + "Your clan's core block has been removed by " + breaker.getName() + ".", breaker.getUniqueId());
 
             // Remove the core block
             boolean removed = removeCoreBlock(location);
@@ -235,18 +220,15 @@ public class CoreBlockManager {
         // Upgrade the core block
         clan.removePoints(upgradeCost);
         coreBlock.upgrade();
+        plugin.getDefenseDecayManager().recalculate(clan);
+        plugin.getPresenceManager().coreChanged(coreBlock);
 
         // Update text display with new level
         visualManager.createOrUpdateTextDisplay(coreBlock);
 
         // Notify clan members
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.GREEN + "Your clan's core block has been upgraded to level " +
-                        coreBlock.getLevel() + " by " + player.getName() + "!");
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + "Your clan's core block has been upgraded to level " +
+                coreBlock.getLevel() + " by " + player.getName() + "!");
 
         player.sendMessage(ChatColor.GREEN + "Core block upgraded to level " + coreBlock.getLevel() + "!");
         return true;
@@ -301,86 +283,12 @@ public class CoreBlockManager {
         return false;
     }
 
-    /**
-     * Start the beacon effect for a clan
-     * @param clan Clan to start effect for
-     */
-    private void startBeaconEffect(Clan clan) {
-        if (clan.getCoreBlock() == null) {
-            return;
-        }
-
-        // Stop existing task if any
-        stopBeaconEffect(clan);
-
-        // Start new task
-        BukkitTask task = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            if (clan.getCoreBlock() == null) {
-                stopBeaconEffect(clan);
-                return;
-            }
-
-            // Apply effect to nearby clan members
-            Location coreLoc = clan.getCoreBlock().getLocation();
-            int radius = clan.getCoreBlock().getBuildableArea();
-
-            for (UUID memberUUID : clan.getMembers().keySet()) {
-                Player member = Bukkit.getPlayer(memberUUID);
-                if (member == null || !member.isOnline()) {
-                    continue;
-                }
-
-                // Check if in same world
-                if (!member.getWorld().equals(coreLoc.getWorld())) {
-                    continue;
-                }
-
-                // Check if within radius
-                double distanceSquared = member.getLocation().distanceSquared(coreLoc);
-                if (distanceSquared <= radius * radius) {
-                    // Apply effect
-                    member.addPotionEffect(new PotionEffect(PotionEffectType.GLOWING, 40, 0, false, false));
-                }
-            }
-        }, 20L, 20L); // Run every second
-
-        beaconEffectTasks.put(clan.getLeader(), task);
-    }
-
-    /**
-     * Stop the beacon effect for a clan
-     * @param clan Clan to stop effect for
-     */
-    private void stopBeaconEffect(Clan clan) {
-        BukkitTask task = beaconEffectTasks.remove(clan.getLeader());
-        if (task != null) {
-            task.cancel();
-        }
-    }
-
-    /**
-     * Start the beacon effect task for all clans
-     */
-    private void startBeaconEffectTask() {
-        if (!plugin.getConfigManager().getConfig().getBoolean("core.beacon-effect", true)) {
-            return;
-        }
-
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            for (Clan clan : plugin.getDataStorage().getClans().values()) {
-                if (clan.getCoreBlock() != null) {
-                    startBeaconEffect(clan);
-                }
-            }
-        }, 20L); // Delay by 1 second to ensure all data is loaded
-    }
-
     /**
      * Start the upkeep task
      */
     private void startUpkeepTask() {
         // Run every hour
-        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+        plugin.getSchedulerManager().runGlobalTimer("CoreBlockManager.upkeep", () -> {
             plugin.getLogger().info("Running upkeep task for all clans...");
             for (Clan clan : plugin.getDataStorage().getClans().values()) {
                 if (clan.getCoreBlock() != null) {
@@ -388,23 +296,13 @@ public class CoreBlockManager {
                         plugin.getLogger().info("Upkeep is due for clan: " + clan.getName());
                         if (!clan.getCoreBlock().payUpkeep()) {
                             // Notify clan members
-                            for (UUID memberUUID : clan.getMembers().keySet()) {
-                                Player member = Bukkit.getPlayer(memberUUID);
-                                if (member != null && member.isOnline()) {
-                                    member.sendMessage(ChatColor.RED + "Your clan could not pay the upkeep cost! " +
-                                            "Defense blocks will start to decay.");
-                                }
-                            }
+                            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.RED + "Your clan could not pay the upkeep cost! " +
+                                    "Defense blocks will start to decay.");
                         } else {
                             plugin.getLogger().info("Clan " + clan.getName() + " paid upkeep successfully.");
                             // Notify clan members
-                            for (UUID memberUUID : clan.getMembers().keySet()) {
-                                Player member = Bukkit.getPlayer(memberUUID);
-                                if (member != null && member.isOnline()) {
-                                    member.sendMessage(ChatColor.GREEN + "Your clan paid the upkeep cost of " +
-                                            clan.getCoreBlock().getUpkeepCost() + " points.");
-                                }
-                            }
+                            plugin.getOnlineMemberManager().broadcast(clan, ChatColor.GREEN + "Your clan paid the upkeep cost of " +
+                                    clan.getCoreBlock().getUpkeepCost() + " points.");
                         }
                     }
                 }
@@ -416,12 +314,6 @@ public class CoreBlockManager {
      * Cleanup resources
      */
     public void cleanup() {
-        // Cancel all beacon effect tasks
-        for (BukkitTask task : beaconEffectTasks.values()) {
-            task.cancel();
-        }
-        beaconEffectTasks.clear();
-
         // Cleanup visual manager
         visualManager.cleanup();
     }
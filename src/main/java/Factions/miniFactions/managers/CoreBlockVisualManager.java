@@ -3,33 +3,43 @@ package Factions.miniFactions.managers;
 import Factions.miniFactions.MiniFactions;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.CoreBlock;
+import Factions.miniFactions.spatial.BlockType;
+import Factions.miniFactions.spatial.SpatiallyIndexable;
 import Factions.miniFactions.utils.TextAnimationUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
-import org.bukkit.Particle;
+import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.TextDisplay;
-import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.util.Transformation;
 import org.joml.AxisAngle4f;
 import org.joml.Vector3f;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manages visual effects for core blocks including text displays and particles
+ * Manages visual effects for core blocks including text displays.
+ * Displays are created and adopted as chunks load and released as they unload,
+ * so only cores near players ever have a tracked display.
  */
 public class CoreBlockVisualManager {
 
     private final MiniFactions plugin;
     private final Map<Location, UUID> textDisplays = new ConcurrentHashMap<>();
-    private BukkitTask particleTask;
+    // Marks display entities spawned for a core block, holds the core block coordinates
+    private final NamespacedKey displayKey;
 
     /**
      * Create a new core block visual manager
@@ -37,11 +47,12 @@ public class CoreBlockVisualManager {
      */
     public CoreBlockVisualManager(MiniFactions plugin) {
         this.plugin = plugin;
-        startParticleTask();
+        this.displayKey = new NamespacedKey(plugin, "core_display");
     }
 
     /**
-     * Create or update a text display for a core block
+     * Create or update a text display for a core block.
+     * Cores in unloaded chunks get their display when the chunk loads.
      * @param coreBlock Core block to create display for
      */
     public void createOrUpdateTextDisplay(CoreBlock coreBlock) {
@@ -50,36 +61,60 @@ public class CoreBlockVisualManager {
         }
 
         Location blockLoc = coreBlock.getLocation();
-        Clan clan = coreBlock.getClan();
 
         // Remove existing text display if any
         removeTextDisplay(blockLoc);
 
+        if (!blockLoc.getWorld().isChunkLoaded(blockLoc.getBlockX() >> 4, blockLoc.getBlockZ() >> 4)) {
+            return;
+        }
+
+        spawnTextDisplay(coreBlock);
+    }
+
+    /**
+     * Spawn a new animated text display for a core block
+     * @param coreBlock Core block to create display for
+     */
+    private void spawnTextDisplay(CoreBlock coreBlock) {
+        Location blockLoc = coreBlock.getLocation();
+        Clan clan = coreBlock.getClan();
+
         // Position the text display 1.5 blocks above the core block
         Location displayLoc = blockLoc.clone().add(0.5, 1.5, 0.5);
 
-        // Prepare the text (clan name and level)
-        String displayText = ChatColor.GOLD + clan.getName() + "\n" +
-                             ChatColor.YELLOW + "Level " + coreBlock.getLevel();
-
         // Create animated text display with typing effect
         UUID displayId = TextAnimationUtil.createTypedTextDisplay(
             plugin,
             displayLoc,
-            displayText,
+            getDisplayText(coreBlock),
             2L, // 2 ticks between characters for typing speed
-            textDisplay -> {
-                // This runs when the animation is complete
-                plugin.getLogger().info("Completed text animation for clan " + clan.getName() + " at " + blockLoc);
-            }
+            null
         );
 
+        // Tag the entity so it can be recognised as ours when its chunk loads again
+        Entity entity = Bukkit.getEntity(displayId);
+        if (entity != null) {
+            entity.getPersistentDataContainer().set(displayKey, PersistentDataType.STRING,
+                    blockLoc.getBlockX() + "," + blockLoc.getBlockY() + "," + blockLoc.getBlockZ());
+        }
+
         // Store the text display entity ID
         textDisplays.put(blockLoc, displayId);
 
         plugin.getLogger().info("Created text display for clan " + clan.getName() + " at " + blockLoc);
     }
 
+    /**
+     * Get the text shown above a core block
+     * @param coreBlock Core block
+     * @return Display text (clan name and level)
+     */
+    private String getDisplayText(CoreBlock coreBlock) {
+        return ChatColor.GOLD + coreBlock.getClan().getName() + "\n" +
+               ChatColor.YELLOW + "Level " + coreBlock.getLevel();
+    }
+
     /**
      * Remove a text display for a core block
      * @param location Core block location
@@ -87,101 +122,150 @@ public class CoreBlockVisualManager {
     public void removeTextDisplay(Location location) {
         UUID displayId = textDisplays.remove(location);
         if (displayId != null) {
-            // Find and remove the entity
-            World world = location.getWorld();
-            world.getEntities().stream()
-                    .filter(entity -> entity.getUniqueId().equals(displayId) && entity instanceof TextDisplay)
-                    .forEach(entity -> entity.remove());
+            // Only loaded entities can be found, unloaded ones are removed as orphans when their chunk loads
+            Entity entity = Bukkit.getEntity(displayId);
+            if (entity instanceof TextDisplay) {
+                entity.remove();
+            }
 
             plugin.getLogger().info("Removed text display at " + location);
         }
     }
 
     /**
-     * Start the particle task for all core blocks
+     * Reconcile the text displays of a chunk whose entities were loaded.
+     * Tagged displays are adopted by their core, duplicates and displays of removed
+     * cores are deleted, and cores still without a display get one on the next tick.
+     * @param chunk Chunk whose entities were loaded
+     * @param entities Entities that were loaded
      */
-    private void startParticleTask() {
-        // Run task every 5 ticks (0.25 seconds) for smooth particle effects
-        particleTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            try {
-                // Get all core blocks
-                Map<Location, CoreBlock> coreBlocks = plugin.getDataStorage().getCoreBlocks();
-                if (coreBlocks == null || coreBlocks.isEmpty()) {
-                    return;
+    public void entitiesLoaded(Chunk chunk, List<Entity> entities) {
+        for (Entity entity : entities) {
+            Location coreLoc = getCoreLocation(entity);
+            if (coreLoc == null) {
+                continue;
+            }
+
+            CoreBlock coreBlock = plugin.getDataStorage().getCoreBlock(coreLoc);
+            if (coreBlock == null) {
+                entity.remove();
+                continue;
+            }
+
+            UUID tracked = textDisplays.get(coreLoc);
+            if (tracked == null || Bukkit.getEntity(tracked) == null) {
+                // Adopt the persisted display and bring its text up to date
+                textDisplays.put(coreLoc, entity.getUniqueId());
+                String text = ChatColor.BOLD + getDisplayText(coreBlock);
+                TextDisplay textDisplay = (TextDisplay) entity;
+                if (!text.equals(textDisplay.getText())) {
+                    textDisplay.setText(text);
                 }
+            } else if (!tracked.equals(entity.getUniqueId())) {
+                entity.remove();
+            }
+        }
+
+        // Spawning while entities are being loaded is unsafe, do it on the next tick
+        World world = chunk.getWorld();
+        int chunkX = chunk.getX();
+        int chunkZ = chunk.getZ();
+        Runnable spawnDisplays = () -> {
+            if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                return;
+            }
 
-                // Show particles for each core block
-                for (CoreBlock coreBlock : coreBlocks.values()) {
-                    if (coreBlock == null || coreBlock.getLocation() == null) {
-                        continue;
-                    }
-
-                    // Get the block location
-                    Location blockLoc = coreBlock.getLocation();
-
-                    // Create a location for particles (centered on the block)
-                    Location particleLoc = blockLoc.clone().add(0.5, 1.0, 0.5);
-
-                    // Spawn skulk soul particles
-                    blockLoc.getWorld().spawnParticle(
-                            Particle.SCULK_SOUL,
-                            particleLoc,
-                            2,  // Amount of particles
-                            0.3, 0.3, 0.3,  // Spread (x, y, z)
-                            0.02  // Speed
-                    );
-
-                    // Also create a small spiral effect
-                    double angle = (System.currentTimeMillis() % 2000) / 2000.0 * Math.PI * 2;
-                    double radius = 0.7;
-                    double x = Math.sin(angle) * radius;
-                    double z = Math.cos(angle) * radius;
-
-                    Location spiralLoc = blockLoc.clone().add(0.5 + x, 0.5, 0.5 + z);
-                    blockLoc.getWorld().spawnParticle(
-                            Particle.SCULK_SOUL,
-                            spiralLoc,
-                            1,  // Just one particle per position
-                            0.05, 0.05, 0.05,  // Small spread
-                            0.01  // Speed
-                    );
+            for (SpatiallyIndexable block : plugin.getDataStorage().getSpatialIndexManager()
+                    .getBlocksInChunk(world, chunkX, chunkZ, BlockType.CORE)) {
+                if (!textDisplays.containsKey(block.getLocation())) {
+                    spawnTextDisplay((CoreBlock) block);
                 }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error in core block particle task: " + e.getMessage());
-                e.printStackTrace();
             }
-        }, 5L, 5L);
+        };
+        plugin.getSchedulerManager().runAt("CoreBlockVisualManager.spawnChunkDisplays",
+                new Location(world, chunkX << 4, 0, chunkZ << 4), spawnDisplays);
     }
 
     /**
-     * Create or update text displays for all core blocks
+     * Release tracking of text displays whose entities were unloaded
+     * @param entities Entities that were unloaded
      */
-    public void updateAllTextDisplays() {
-        Map<Location, CoreBlock> coreBlocks = plugin.getDataStorage().getCoreBlocks();
-        if (coreBlocks == null || coreBlocks.isEmpty()) {
-            return;
+    public void entitiesUnloaded(List<Entity> entities) {
+        for (Entity entity : entities) {
+            Location coreLoc = getCoreLocation(entity);
+            if (coreLoc != null) {
+                textDisplays.remove(coreLoc, entity.getUniqueId());
+            }
         }
+    }
 
-        for (CoreBlock coreBlock : coreBlocks.values()) {
-            createOrUpdateTextDisplay(coreBlock);
+    /**
+     * Reconcile the text displays of chunks whose entities are already loaded, e.g. after a reload
+     */
+    public void loadLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                // Entities are only touched on the region that owns their chunk
+                plugin.getSchedulerManager().executeAt("CoreBlockVisualManager.loadChunk",
+                        new Location(world, chunk.getX() << 4, 0, chunk.getZ() << 4), () -> {
+                            if (chunk.isEntitiesLoaded()) {
+                                entitiesLoaded(chunk, Arrays.asList(chunk.getEntities()));
+                            }
+                        });
+            }
         }
     }
 
     /**
-     * Cleanup resources
+     * Get the core block a text display entity belongs to
+     * @param entity Entity
+     * @return Core block location, or null if the entity is not a core block display
      */
-    public void cleanup() {
-        // Cancel particle task
-        if (particleTask != null) {
-            particleTask.cancel();
-            particleTask = null;
+    private Location getCoreLocation(Entity entity) {
+        if (!(entity instanceof TextDisplay)) {
+            return null;
+        }
+
+        String coords = entity.getPersistentDataContainer().get(displayKey, PersistentDataType.STRING);
+        return coords != null ? parseCoreLocation(entity.getWorld(), coords) : null;
+    }
+
+    /**
+     * Parse the core block coordinates stored on a display entity
+     * @param world World of the entity
+     * @param coords Coordinates in the form x,y,z
+     * @return Core block location, or null if malformed
+     */
+    private Location parseCoreLocation(World world, String coords) {
+        String[] parts = coords.split(",");
+        if (parts.length != 3) {
+            return null;
         }
 
-        // Remove all text displays
-        for (Location location : textDisplays.keySet()) {
-            removeTextDisplay(location);
+        try {
+            return new Location(world, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Refresh the text displays of all tracked core blocks
+     */
+    public void updateAllTextDisplays() {
+        for (Location location : new ArrayList<>(textDisplays.keySet())) {
+            createOrUpdateTextDisplay(plugin.getDataStorage().getCoreBlock(location));
         }
+    }
 
+    /**
+     * Cleanup resources
+     */
+    public void cleanup() {
+        // Displays are persistent and adopted again when their chunk loads, only release tracking
         textDisplays.clear();
+
+        // Stop any animations that are still running
+        TextAnimationUtil.cancelAnimations();
     }
 }
@@ -1,6 +1,9 @@
 package Factions.miniFactions.managers;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.utils.ItemClassifier;
+import Factions.miniFactions.utils.ItemClassifier.ItemKind;
+import Factions.miniFactions.utils.TemplateCache;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -12,13 +15,18 @@ import org.bukkit.inventory.ShapedRecipe;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
 import java.util.logging.Level;
 
 public class CraftingManager {
 
     private final MiniFactions plugin;
     private final List<NamespacedKey> registeredRecipes = new ArrayList<>();
+    // Item kind -> tier -> prebuilt item for the current settings
+    private final Map<ItemKind, TemplateCache<Integer, ItemStack>> itemTemplates = new EnumMap<>(ItemKind.class);
 
     // Materials for special blocks
     // Materials for special blocks - using terracotta colors for defense blocks to visually indicate tier
@@ -30,6 +38,10 @@ public class CraftingManager {
 
     public CraftingManager(MiniFactions plugin) {
         this.plugin = plugin;
+        // Filled once, so the map itself is only read afterwards
+        for (ItemKind kind : ItemKind.values()) {
+            itemTemplates.put(kind, new TemplateCache<>());
+        }
     }
 
     /**
@@ -348,6 +360,15 @@ public class CraftingManager {
      * @return ItemStack
      */
     public ItemStack createDefenseBlock(int tier) {
+        return fromTemplate(ItemKind.DEFENSE_BLOCK, tier, this::buildDefenseBlock);
+    }
+
+    /**
+     * Build the template of a defense block item
+     * @param tier Block tier
+     * @return ItemStack
+     */
+    private ItemStack buildDefenseBlock(int tier) {
         // Get the appropriate material for this tier
         Material material = CraftingManager.getTierMaterial(tier);
         ItemStack item = new ItemStack(material);
@@ -374,6 +395,7 @@ public class CraftingManager {
 
         // Store tier in item
         meta.setCustomModelData(tier);
+        ItemClassifier.tag(meta, ItemKind.DEFENSE_BLOCK, tier);
 
         item.setItemMeta(meta);
         return item;
@@ -406,6 +428,15 @@ public class CraftingManager {
      * @return ItemStack
      */
     public ItemStack createClaimBlock(int level) {
+        return fromTemplate(ItemKind.CLAIM_BLOCK, level, this::buildClaimBlock);
+    }
+
+    /**
+     * Build the template of a claim block item
+     * @param level Block level
+     * @return ItemStack
+     */
+    private ItemStack buildClaimBlock(int level) {
         ItemStack item = new ItemStack(CLAIM_BLOCK_MATERIAL);
         ItemMeta meta = item.getItemMeta();
 
@@ -428,6 +459,7 @@ public class CraftingManager {
 
         // Store level in item
         meta.setCustomModelData(level);
+        ItemClassifier.tag(meta, ItemKind.CLAIM_BLOCK, level);
 
         item.setItemMeta(meta);
         return item;
@@ -439,6 +471,15 @@ public class CraftingManager {
      * @return ItemStack
      */
     public ItemStack createExplosive(int tier) {
+        return fromTemplate(ItemKind.EXPLOSIVE, tier, this::buildExplosive);
+    }
+
+    /**
+     * Build the template of an explosive item
+     * @param tier Explosive tier
+     * @return ItemStack
+     */
+    private ItemStack buildExplosive(int tier) {
         ItemStack item = new ItemStack(EXPLOSIVE_MATERIAL);
         ItemMeta meta = item.getItemMeta();
 
@@ -461,6 +502,7 @@ public class CraftingManager {
 
         // Store tier in item
         meta.setCustomModelData(tier);
+        ItemClassifier.tag(meta, ItemKind.EXPLOSIVE, tier);
 
         item.setItemMeta(meta);
         return item;
@@ -472,6 +514,15 @@ public class CraftingManager {
      * @return ItemStack
      */
     public ItemStack createCoreBlock(int level) {
+        return fromTemplate(ItemKind.CORE_BLOCK, level, this::buildCoreBlock);
+    }
+
+    /**
+     * Build the template of a core block item
+     * @param level Block level
+     * @return ItemStack
+     */
+    private ItemStack buildCoreBlock(int level) {
         ItemStack item = new ItemStack(CORE_BLOCK_MATERIAL);
         ItemMeta meta = item.getItemMeta();
 
@@ -501,6 +552,7 @@ public class CraftingManager {
 
         // Store level in item
         meta.setCustomModelData(level);
+        ItemClassifier.tag(meta, ItemKind.CORE_BLOCK, level);
 
         item.setItemMeta(meta);
         return item;
@@ -511,6 +563,14 @@ public class CraftingManager {
      * @return ItemStack
      */
     public ItemStack createClanDoor() {
+        return fromTemplate(ItemKind.CLAN_DOOR, 1, tier -> buildClanDoor());
+    }
+
+    /**
+     * Build the template of a clan door item
+     * @return ItemStack
+     */
+    private ItemStack buildClanDoor() {
         ItemStack item = new ItemStack(CLAN_DOOR_MATERIAL);
         ItemMeta meta = item.getItemMeta();
 
@@ -527,10 +587,26 @@ public class CraftingManager {
         lore.add(ChatColor.GRAY + "Right-click to open or close.");
         meta.setLore(lore);
 
+        ItemClassifier.tag(meta, ItemKind.CLAN_DOOR, 1);
+
         item.setItemMeta(meta);
         return item;
     }
 
+    /**
+     * Get a copy of a cached item, building it on first use.
+     * Templates are rebuilt after a config reload since costs and lore come from the config
+     * @param kind Item kind
+     * @param tier Tier or level
+     * @param builder Builds the template for a tier
+     * @return A new copy of the item
+     */
+    private ItemStack fromTemplate(ItemKind kind, int tier, IntFunction<ItemStack> builder) {
+        return itemTemplates.get(kind)
+                .get(plugin.getConfigManager().getSettings(), tier, builder::apply)
+                .clone();
+    }
+
     /**
      * Get the defense block material
      * @return Defense block material
@@ -0,0 +1,192 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.models.CoreBlock;
+import Factions.miniFactions.models.DefenseBlock;
+import Factions.miniFactions.utils.Clock;
+import Factions.miniFactions.utils.TimingWheel;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decay engine for defense blocks.
+ * Each block's decay time is computed once and kept in a timing wheel; it is only
+ * recomputed when its inputs change (tier, clan core, block cap, upkeep) or when the
+ * deadline is reached. Decayed blocks are removed through the world mutation queue,
+ * which applies them on the region that owns the block. The wheel is guarded by this
+ * manager; due blocks are taken off it under the lock and expired after releasing it,
+ * since paying upkeep locks the clan.
+ */
+public class DefenseDecayManager {
+
+    private static final int WHEEL_SLOTS = 3600; // One hour per revolution
+    private static final long WHEEL_TICK_MILLIS = 1000L;
+    private static final long CHECK_INTERVAL_TICKS = 20L; // Every second
+
+    private final MiniFactions plugin;
+    private final TimingWheel<DefenseBlock> wheel;
+    private final Map<DefenseBlock, TimingWheel.Entry<DefenseBlock>> entries = new HashMap<>();
+    private SchedulerManager.Task decayTask;
+
+    public DefenseDecayManager(MiniFactions plugin) {
+        this.plugin = plugin;
+        this.wheel = new TimingWheel<>(WHEEL_SLOTS, WHEEL_TICK_MILLIS, Clock.now());
+        startDecayTask();
+    }
+
+    /**
+     * Start the decay task
+     */
+    private void startDecayTask() {
+        decayTask = plugin.getSchedulerManager().runGlobalTimer("DefenseDecayManager.checkDecay", this::checkDecay,
+                CHECK_INTERVAL_TICKS, CHECK_INTERVAL_TICKS);
+    }
+
+    /**
+     * Schedule all loaded defense blocks
+     */
+    public synchronized void rebuild() {
+        wheel.clear();
+        entries.clear();
+        for (DefenseBlock defenseBlock : plugin.getDataStorage().getDefenseBlocks().values()) {
+            recalculate(defenseBlock);
+        }
+    }
+
+    /**
+     * Start tracking a defense block
+     * @param defenseBlock Defense block to track
+     */
+    public void track(DefenseBlock defenseBlock) {
+        recalculate(defenseBlock);
+    }
+
+    /**
+     * Stop tracking a defense block
+     * @param defenseBlock Defense block that was removed
+     */
+    public synchronized void untrack(DefenseBlock defenseBlock) {
+        wheel.cancel(entries.remove(defenseBlock));
+    }
+
+    /**
+     * Recompute the decay time of a defense block after its tier changed
+     * @param defenseBlock Defense block to reschedule
+     */
+    public synchronized void recalculate(DefenseBlock defenseBlock) {
+        wheel.cancel(entries.remove(defenseBlock));
+
+        long decayTime = defenseBlock.getDecayTime();
+        if (decayTime != Long.MAX_VALUE) {
+            entries.put(defenseBlock, wheel.schedule(defenseBlock, decayTime));
+        }
+    }
+
+    /**
+     * Recompute the decay times of a clan's defense blocks after its core, block count or upkeep changed
+     * @param clan Clan to reschedule
+     */
+    public void recalculate(Clan clan) {
+        for (DefenseBlock defenseBlock : clan.getDefenseBlocks()) {
+            recalculate(defenseBlock);
+        }
+    }
+
+    /**
+     * Recompute the decay times of all defense blocks, e.g. after a config reload
+     */
+    public void recalculateAll() {
+        rebuild();
+    }
+
+    /**
+     * Expire due defense blocks and notify their clans
+     */
+    private void checkDecay() {
+        List<DefenseBlock> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(Clock.now(), defenseBlock -> {
+                entries.remove(defenseBlock);
+                due.add(defenseBlock);
+            });
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // Decayed block count per clan, sent as one message
+        Map<Clan, Integer> decayedByClan = new HashMap<>();
+        for (DefenseBlock defenseBlock : due) {
+            expire(defenseBlock, decayedByClan);
+        }
+
+        for (Map.Entry<Clan, Integer> entry : decayedByClan.entrySet()) {
+            int count = entry.getValue();
+            plugin.getOnlineMemberManager().broadcast(entry.getKey(), ChatColor.RED + (count == 1 ?
+                    "One of your defense blocks has decayed." : count + " of your defense blocks have decayed."));
+        }
+    }
+
+    /**
+     * Handle a defense block whose deadline was reached
+     * @param defenseBlock Due defense block, no longer on the wheel
+     * @param decayedByClan Decayed block count per clan
+     */
+    private void expire(DefenseBlock defenseBlock, Map<Clan, Integer> decayedByClan) {
+        // Ignore blocks that were removed in the meantime
+        Location location = defenseBlock.getLocation();
+        if (plugin.getDataStorage().getDefenseBlock(location) != defenseBlock) {
+            return;
+        }
+
+        // Inputs may have changed in a way that pushes decay back
+        if (defenseBlock.getDecayTime() > Clock.now()) {
+            recalculate(defenseBlock);
+            return;
+        }
+
+        // Decaying only because of upkeep, give the clan a last chance to pay
+        Clan clan = defenseBlock.getClan();
+        if (!defenseBlock.isUnsupported()) {
+            CoreBlock coreBlock = clan.getCoreBlock();
+            if (coreBlock.payUpkeep()) {
+                recalculate(clan);
+                return;
+            }
+        }
+
+        clan.removeDefenseBlock(defenseBlock);
+        plugin.getDataStorage().removeDefenseBlock(location);
+        plugin.getWorldMutationManager().enqueueRemoval(location, defenseBlock.getMaterial());
+
+        decayedByClan.merge(clan, 1, Integer::sum);
+        plugin.getMetricsManager().recordDecay("defense");
+    }
+
+    /**
+     * Get the number of scheduled defense blocks
+     * @return Scheduled block count
+     */
+    public synchronized int getScheduledCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Cancel the decay task
+     */
+    public synchronized void cleanup() {
+        if (decayTask != null) {
+            decayTask.cancel();
+            decayTask = null;
+        }
+
+        wheel.clear();
+        entries.clear();
+    }
+}
@@ -1,29 +1,40 @@
 package Factions.miniFactions.managers;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.CoreBlock;
+import Factions.miniFactions.utils.Clock;
+import Factions.miniFactions.utils.TemplateCache;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Manages GUI interfaces for the plugin
+ * Manages GUI interfaces for the plugin.
+ * The static part of the core block GUI is built once per core level and cloned on open;
+ * only the clan, stats and upkeep slots are filled in per player.
  */
 public class GUIManager {
 
+    private static final int SIZE = 27;
+    private static final int CLAN_INFO_SLOT = 4;
+    private static final int CORE_INFO_SLOT = 11;
+    private static final int UPKEEP_SLOT = 13;
+    private static final int UPGRADE_SLOT = 15;
+    private static final int CLOSE_SLOT = 22;
+
     private final MiniFactions plugin;
-    private final Map<Player, CoreBlock> openCoreBlockGUIs = new HashMap<>();
+    // Core level -> prebuilt GUI contents for the current settings
+    private final TemplateCache<Integer, ItemStack[]> templates = new TemplateCache<>();
 
     public GUIManager(MiniFactions plugin) {
         this.plugin = plugin;
@@ -38,13 +49,13 @@ public class GUIManager {
         Clan clan = coreBlock.getClan();
 
         // Create inventory - using 3 rows (27 slots) for better centering
-        Inventory gui = Bukkit.createInventory(null, 27, ChatColor.GOLD + "Core Block - " + clan.getName());
+        CoreBlockHolder holder = new CoreBlockHolder(coreBlock);
+        Inventory gui = Bukkit.createInventory(holder, SIZE, ChatColor.GOLD + "Core Block - " + clan.getName());
+        holder.inventory = gui;
 
-        // Fill with glass panes for decoration
-        ItemStack filler = createItem(Material.BLACK_STAINED_GLASS_PANE, " ");
-        for (int i = 0; i < 27; i++) {
-            gui.setItem(i, filler);
-        }
+        // Filler, upgrade and close buttons only depend on the core level.
+        // The inventory copies each item, so the cached template is never modified
+        gui.setContents(getTemplate(coreBlock.getLevel()));
 
         // Add clan stats in center top
         ItemStack clanInfo = createItem(Material.BOOK,
@@ -53,7 +64,7 @@ public class GUIManager {
                 ChatColor.YELLOW + "Level: " + ChatColor.WHITE + coreBlock.getLevel(),
                 ChatColor.YELLOW + "Points: " + ChatColor.WHITE + clan.getPoints(),
                 ChatColor.YELLOW + "Members: " + ChatColor.WHITE + clan.getMemberCount() + "/" + coreBlock.getMaxClanMembers());
-        gui.setItem(4, clanInfo);
+        gui.setItem(CLAN_INFO_SLOT, clanInfo);
 
         // Add core block stats in center left
         ItemStack coreInfo = createItem(Material.BEACON,
@@ -63,7 +74,7 @@ public class GUIManager {
                 ChatColor.YELLOW + "Defense Slots: " + ChatColor.WHITE + clan.getDefenseBlockCount() + "/" + coreBlock.getMaxDefenseBlocks(),
                 ChatColor.YELLOW + "Claim Slots: " + ChatColor.WHITE + clan.getClaimBlockCount() + "/" + coreBlock.getMaxClaimBlocks(),
                 ChatColor.YELLOW + "Door Slots: " + ChatColor.WHITE + clan.getClanDoorCount() + "/" + coreBlock.getMaxClanDoors());
-        gui.setItem(11, coreInfo);
+        gui.setItem(CORE_INFO_SLOT, coreInfo);
 
         // Add upkeep information in center
         boolean isExempt = plugin.getUpkeepManager().isExempt(clan.getLeader());
@@ -77,10 +88,7 @@ public class GUIManager {
             upkeepLore.add(ChatColor.RED + "Pay immediately to avoid penalties");
         } else {
             // Calculate time until next upkeep
-            FileConfiguration config = plugin.getConfigManager().getConfig();
-            int paymentInterval = config.getInt("core.upkeep.payment-interval", 24);
-            long intervalMillis = paymentInterval * 60 * 60 * 1000L; // Convert hours to milliseconds
-            long timeUntilUpkeep = (coreBlock.getLastUpkeepTime() + intervalMillis) - System.currentTimeMillis();
+            long timeUntilUpkeep = coreBlock.getUpkeepDueTime() - Clock.now();
 
             if (timeUntilUpkeep > 0) {
                 long hoursRemaining = timeUntilUpkeep / (60 * 60 * 1000L);
@@ -93,79 +101,70 @@ public class GUIManager {
         upkeepLore.add(ChatColor.YELLOW + "Days of upkeep: " + ChatColor.WHITE + coreBlock.getDaysOfUpkeep());
 
         ItemStack upkeepInfo = createItem(Material.CLOCK, ChatColor.GOLD + "Upkeep Information", upkeepLore.toArray(new String[0]));
-        gui.setItem(13, upkeepInfo);
-
-        // Add upgrade option in center right
-        int upgradeCost = coreBlock.getUpgradeCost();
-        if (upgradeCost > 0) {
-            ItemStack upgradeItem = createItem(Material.EXPERIENCE_BOTTLE,
-                    ChatColor.GREEN + "Upgrade Core Block",
-                    ChatColor.YELLOW + "Current Level: " + ChatColor.WHITE + coreBlock.getLevel(),
-                    ChatColor.YELLOW + "Cost: " + ChatColor.WHITE + upgradeCost + " points",
-                    "",
-                    ChatColor.GRAY + "Click to upgrade your core block");
-            gui.setItem(15, upgradeItem);
-        } else {
-            ItemStack maxLevelItem = createItem(Material.BARRIER,
-                    ChatColor.RED + "Maximum Level Reached",
-                    ChatColor.GRAY + "Your core block is already at maximum level");
-            gui.setItem(15, maxLevelItem);
-        }
-
-        // Add close button in center bottom
-        ItemStack closeItem = createItem(Material.RED_STAINED_GLASS_PANE, ChatColor.RED + "Close");
-        gui.setItem(22, closeItem);
-
-        // Store the core block for this player
-        openCoreBlockGUIs.put(player, coreBlock);
+        gui.setItem(UPKEEP_SLOT, upkeepInfo);
 
         // Open the GUI
         player.openInventory(gui);
     }
 
+    /**
+     * Build the level dependent contents of the core block GUI
+     * @param level Core block level
+     * @return GUI contents
+     */
+    private ItemStack[] getTemplate(int level) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        return templates.get(settings, level, l -> {
+            ItemStack[] contents = new ItemStack[SIZE];
+
+            // Fill with glass panes for decoration
+            ItemStack filler = createItem(Material.BLACK_STAINED_GLASS_PANE, " ");
+            for (int i = 0; i < SIZE; i++) {
+                contents[i] = filler;
+            }
+
+            // Add upgrade option in center right
+            if (l < settings.getCoreMaxLevel()) {
+                contents[UPGRADE_SLOT] = createItem(Material.EXPERIENCE_BOTTLE,
+                        ChatColor.GREEN + "Upgrade Core Block",
+                        ChatColor.YELLOW + "Current Level: " + ChatColor.WHITE + l,
+                        ChatColor.YELLOW + "Cost: " + ChatColor.WHITE + settings.getCoreUpgradeCost(l + 1) + " points",
+                        "",
+                        ChatColor.GRAY + "Click to upgrade your core block");
+            } else {
+                contents[UPGRADE_SLOT] = createItem(Material.BARRIER,
+                        ChatColor.RED + "Maximum Level Reached",
+                        ChatColor.GRAY + "Your core block is already at maximum level");
+            }
+
+            // Add close button in center bottom
+            contents[CLOSE_SLOT] = createItem(Material.RED_STAINED_GLASS_PANE, ChatColor.RED + "Close");
+            return contents;
+        });
+    }
+
     /**
      * Handle a click in the core block GUI
      * @param player Player who clicked
+     * @param holder Holder of the clicked GUI
      * @param slot Slot that was clicked
      * @return true if the click was handled
      */
-    public boolean handleCoreBlockGUIClick(Player player, int slot) {
-        CoreBlock coreBlock = openCoreBlockGUIs.get(player);
-        if (coreBlock == null) {
-            return false;
-        }
-
-        Clan clan = coreBlock.getClan();
-
-        // Handle upgrade button (slot 15 in the new layout)
-        if (slot == 15) {
-            int upgradeCost = coreBlock.getUpgradeCost();
-            if (upgradeCost > 0) {
-                // Check if clan has enough points
-                if (clan.getPoints() >= upgradeCost) {
-                    // Deduct points
-                    clan.removePoints(upgradeCost);
-
-                    // Upgrade core block
-                    coreBlock.upgrade();
-
-                    // Notify player
-                    player.sendMessage(ChatColor.GREEN + "Core block upgraded to level " + coreBlock.getLevel() + "!");
-
-                    // Reopen the GUI with updated information
-                    openCoreBlockGUI(player, coreBlock);
-                } else {
-                    player.sendMessage(ChatColor.RED + "Your clan doesn't have enough points to upgrade the core block.");
-                    player.sendMessage(ChatColor.RED + "Required: " + upgradeCost + " points, Available: " + clan.getPoints() + " points");
-                }
-            } else {
-                player.sendMessage(ChatColor.RED + "Your core block is already at maximum level.");
+    public boolean handleCoreBlockGUIClick(Player player, CoreBlockHolder holder, int slot) {
+        CoreBlock coreBlock = holder.getCoreBlock();
+
+        // Handle upgrade button
+        if (slot == UPGRADE_SLOT) {
+            // Upgrade through the core manager so the area, decay and display follow the new level
+            if (plugin.getCoreBlockManager().upgradeCoreBlock(coreBlock, player)) {
+                // Reopen the GUI with updated information
+                openCoreBlockGUI(player, coreBlock);
             }
             return true;
         }
 
         // Handle close button
-        if (slot == 22) {
+        if (slot == CLOSE_SLOT) {
             player.closeInventory();
             return true;
         }
@@ -174,14 +173,6 @@ public class GUIManager {
         return true;
     }
 
-    /**
-     * Remove a player from the open GUIs map
-     * @param player Player to remove
-     */
-    public void removePlayer(Player player) {
-        openCoreBlockGUIs.remove(player);
-    }
-
     /**
      * Create an item for the GUI
      * @param material Item material
@@ -206,4 +197,29 @@ public class GUIManager {
         item.setItemMeta(meta);
         return item;
     }
+
+    /**
+     * Inventory holder identifying a core block GUI
+     */
+    public static class CoreBlockHolder implements InventoryHolder {
+        private final CoreBlock coreBlock;
+        private Inventory inventory;
+
+        private CoreBlockHolder(CoreBlock coreBlock) {
+            this.coreBlock = coreBlock;
+        }
+
+        /**
+         * Get the core block shown in the GUI
+         * @return Core block
+         */
+        public CoreBlock getCoreBlock() {
+            return coreBlock;
+        }
+
+        @Override
+        public Inventory getInventory() {
+            return inventory;
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.utils.Leaderboard;
+
+import java.util.List;
+
+/**
+ * Clan rankings by points and by core level.
+ * Both boards are updated when a clan's points or core level change, so reading the
+ * top clans or a clan's rank never sorts the clan list. The boards are guarded by this
+ * manager, which is only locked after a clan's own lock and never calls back into a clan
+ * while holding it.
+ */
+public class LeaderboardManager {
+
+    private final MiniFactions plugin;
+    private final Leaderboard<Clan> byPoints = new Leaderboard<>();
+    private final Leaderboard<Clan> byCoreLevel = new Leaderboard<>();
+
+    public LeaderboardManager(MiniFactions plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Rank all loaded clans
+     */
+    public void rebuild() {
+        synchronized (this) {
+            byPoints.clear();
+            byCoreLevel.clear();
+        }
+        for (Clan clan : plugin.getDataStorage().getClans().values()) {
+            clanAdded(clan);
+        }
+    }
+
+    /**
+     * Rank a new clan
+     * @param clan Clan that was created
+     */
+    public void clanAdded(Clan clan) {
+        // Read before locking, getPoints takes the clan's lock
+        int points = clan.getPoints();
+        int coreLevel = getCoreLevel(clan);
+        synchronized (this) {
+            byPoints.update(clan.getId(), clan, points);
+            byCoreLevel.update(clan.getId(), clan, coreLevel);
+        }
+    }
+
+    /**
+     * Stop ranking a disbanded clan
+     * @param clan Clan that was removed
+     */
+    public synchronized void clanRemoved(Clan clan) {
+        byPoints.remove(clan.getId());
+        byCoreLevel.remove(clan.getId());
+    }
+
+    /**
+     * Move a ranked clan to its current point balance
+     * @param clan Clan whose points changed
+     * @param points New point balance
+     */
+    public synchronized void pointsChanged(Clan clan, int points) {
+        // Clans that are not ranked yet are being loaded or were disbanded
+        if (byPoints.contains(clan.getId())) {
+            byPoints.update(clan.getId(), clan, points);
+        }
+    }
+
+    /**
+     * Move a ranked clan to its current core level
+     * @param clan Clan whose core block was placed, removed or changed level
+     */
+    public synchronized void coreLevelChanged(Clan clan) {
+        if (byCoreLevel.contains(clan.getId())) {
+            byCoreLevel.update(clan.getId(), clan, getCoreLevel(clan));
+        }
+    }
+
+    /**
+     * Get the top clans by points
+     * @param limit Maximum number of clans to return
+     * @return Clans in rank order
+     */
+    public synchronized List<Clan> getTopByPoints(int limit) {
+        return byPoints.getTop(limit);
+    }
+
+    /**
+     * Get the top clans by core level
+     * @param limit Maximum number of clans to return
+     * @return Clans in rank order
+     */
+    public synchronized List<Clan> getTopByCoreLevel(int limit) {
+        return byCoreLevel.getTop(limit);
+    }
+
+    /**
+     * Get a clan's rank by points
+     * @param clan Clan
+     * @return Rank starting at 1, or 0 if the clan is not ranked
+     */
+    public synchronized int getPointsRank(Clan clan) {
+        return byPoints.getRank(clan.getId());
+    }
+
+    /**
+     * Get a clan's rank by core level
+     * @param clan Clan
+     * @return Rank starting at 1, or 0 if the clan is not ranked
+     */
+    public synchronized int getCoreLevelRank(Clan clan) {
+        return byCoreLevel.getRank(clan.getId());
+    }
+
+    /**
+     * Get the number of ranked clans
+     * @return Clan count
+     */
+    public synchronized int getRankedCount() {
+        return byPoints.size();
+    }
+
+    /**
+     * Get the core level a clan is ranked by
+     * @param clan Clan
+     * @return Core level, or 0 if the clan has no core block
+     */
+    private static int getCoreLevel(Clan clan) {
+        return clan.getCoreBlock() != null ? clan.getCoreBlock().getLevel() : 0;
+    }
+
+    /**
+     * Clear both rankings
+     */
+    public synchronized void cleanup() {
+        byPoints.clear();
+        byCoreLevel.clear();
+    }
+}
@@ -0,0 +1,193 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
+import Factions.miniFactions.spatial.BlockType;
+import Factions.miniFactions.spatial.SpatialIndexManager;
+import Factions.miniFactions.spatial.SpatialQueryCache;
+import Factions.miniFactions.utils.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+
+/**
+ * Collects plugin metrics and periodically writes them to a text file for a Prometheus
+ * textfile collector. The file is rendered and written off the main thread and replaced
+ * atomically, so a scrape never sees a partial file.
+ */
+public class MetricsManager {
+
+    private static final double[] SAVE_BUCKETS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final double[] HANDLER_BUCKETS = {0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005,
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05};
+
+    private final MiniFactions plugin;
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final MetricsRegistry.Family<MetricsRegistry.Histogram> saveDuration;
+    private final MetricsRegistry.Family<MetricsRegistry.Counter> raidDetonations;
+    private final MetricsRegistry.Counter upkeepPaid;
+    private final MetricsRegistry.Counter upkeepFailed;
+    private final MetricsRegistry.Family<MetricsRegistry.Counter> decayEvents;
+    private final MetricsRegistry.Family<MetricsRegistry.Histogram> handlerLatency;
+    // Keeps the final write on shutdown from racing a scheduled one
+    private final Object writeLock = new Object();
+    private SchedulerManager.Task writeTask;
+
+    public MetricsManager(MiniFactions plugin) {
+        this.plugin = plugin;
+
+        saveDuration = registry.histogram("minifactions_save_duration_seconds",
+                "Time taken to write plugin data to disk", SAVE_BUCKETS, "operation");
+        raidDetonations = registry.counter("minifactions_raid_detonations",
+                "Raid explosives that detonated", "tier");
+        MetricsRegistry.Family<MetricsRegistry.Counter> upkeepPayments = registry.counter("minifactions_upkeep_payments",
+                "Core block upkeep payments that were due", "result");
+        upkeepPaid = upkeepPayments.labels("paid");
+        upkeepFailed = upkeepPayments.labels("failed");
+        decayEvents = registry.counter("minifactions_decay_events",
+                "Blocks removed by decay", "block");
+        handlerLatency = registry.histogram("minifactions_handler_duration_seconds",
+                "Run time of scheduled tasks and event handlers, recorded while the profiler is enabled",
+                HANDLER_BUCKETS, "site");
+
+        registerIndexMetrics();
+
+        Settings settings = plugin.getConfigManager().getSettings();
+        if (settings.isMetricsEnabled()) {
+            long intervalTicks = settings.getMetricsIntervalSeconds() * 20L;
+            writeTask = plugin.getSchedulerManager().runAsyncTimer(this::write, intervalTicks, intervalTicks);
+        }
+    }
+
+    /**
+     * Register the spatial index size and query cache metrics, read when the file is written
+     */
+    private void registerIndexMetrics() {
+        MetricsRegistry.Family<MetricsRegistry.Gauge> indexBlocks = registry.gauge("minifactions_index_blocks",
+                "Blocks in the spatial index", "type");
+        for (BlockType type : BlockType.values()) {
+            indexBlocks.bind(() -> getSpatialIndex().getBlockCount(type), type.name().toLowerCase());
+        }
+
+        MetricsRegistry.Family<MetricsRegistry.Counter> cacheHits = registry.counter("minifactions_query_cache_hits",
+                "Spatial queries answered from the cache", "query");
+        MetricsRegistry.Family<MetricsRegistry.Counter> cacheMisses = registry.counter("minifactions_query_cache_misses",
+                "Spatial queries that were not cached or had expired", "query");
+        MetricsRegistry.Family<MetricsRegistry.Gauge> cacheHitRatio = registry.gauge("minifactions_query_cache_hit_ratio",
+                "Share of spatial queries answered from the cache since startup", "query");
+        for (SpatialQueryCache.Query query : SpatialQueryCache.Query.values()) {
+            String label = query.name().toLowerCase();
+            cacheHits.bind(() -> getSpatialIndex().getQueryCache().getHits(query), label);
+            cacheMisses.bind(() -> getSpatialIndex().getQueryCache().getMisses(query), label);
+            cacheHitRatio.bind(() -> {
+                SpatialQueryCache cache = getSpatialIndex().getQueryCache();
+                long hits = cache.getHits(query);
+                long total = hits + cache.getMisses(query);
+                return total == 0 ? Double.NaN : (double) hits / total;
+            }, label);
+        }
+    }
+
+    /**
+     * Record how long a save took
+     * @param operation What was saved
+     * @param nanos Duration in nanoseconds
+     */
+    public void recordSave(String operation, long nanos) {
+        saveDuration.labels(operation).observe(nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Record a raid explosive detonating
+     * @param tier Explosive tier
+     */
+    public void recordDetonation(int tier) {
+        raidDetonations.labels(String.valueOf(tier)).inc();
+    }
+
+    /**
+     * Record an attempt to pay upkeep that was due
+     * @param paid Whether the clan could pay
+     */
+    public void recordUpkeep(boolean paid) {
+        (paid ? upkeepPaid : upkeepFailed).inc();
+    }
+
+    /**
+     * Record a block removed by decay
+     * @param block Kind of block, e.g. defense or outside
+     */
+    public void recordDecay(String block) {
+        decayEvents.labels(block).inc();
+    }
+
+    /**
+     * Get the latency histogram of a task or event handler
+     * @param site Site name
+     * @return Histogram in seconds
+     */
+    public MetricsRegistry.Histogram getHandlerLatency(String site) {
+        return handlerLatency.labels(site);
+    }
+
+    /**
+     * Get the registry, e.g. to add metrics
+     * @return Metrics registry
+     */
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Render all metrics and atomically replace the metrics file
+     */
+    public void write() {
+        Settings settings = plugin.getConfigManager().getSettings();
+        File file = new File(settings.getMetricsFile());
+        if (!file.isAbsolute()) {
+            file = new File(plugin.getDataFolder(), settings.getMetricsFile());
+        }
+
+        String text = registry.render(settings.getMetricsFormat());
+        synchronized (writeLock) {
+            // Collectors only read *.prom, so the temporary file is never scraped
+            File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+            try {
+                Files.createDirectories(file.getParentFile().toPath());
+                Files.writeString(tempFile.toPath(), text, StandardCharsets.UTF_8);
+                try {
+                    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to write metrics to " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Get the spatial index of the current data storage
+     * @return Spatial index
+     */
+    private SpatialIndexManager getSpatialIndex() {
+        return plugin.getDataStorage().getSpatialIndexManager();
+    }
+
+    /**
+     * Stop the write task and write the final values
+     */
+    public void cleanup() {
+        if (writeTask != null) {
+            writeTask.cancel();
+            writeTask = null;
+            write();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.utils.NameIndex;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of online clan members.
+ * Kept up to date from join/quit events and clan membership changes so that
+ * notifications only visit members that are actually online. Also indexes the
+ * names of all online players for tab completion. Changes are serialized on this
+ * manager; lookups and broadcasts read the concurrent maps without locking, so they
+ * are safe from any region thread.
+ */
+public class OnlineMemberManager {
+
+    private final MiniFactions plugin;
+    // Clan ID -> online members of that clan
+    private final Map<String, Map<UUID, Player>> onlineByClan = new ConcurrentHashMap<>();
+    // Online player UUID -> clan ID
+    private final Map<UUID, String> clanByPlayer = new ConcurrentHashMap<>();
+    // Case-insensitive name -> online player
+    private final NameIndex<Player> playerNames = new NameIndex<>();
+
+    public OnlineMemberManager(MiniFactions plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Register a player that just joined the server
+     * @param player Player who joined
+     */
+    public synchronized void playerJoined(Player player) {
+        playerNames.put(player.getName(), player);
+
+        Clan clan = plugin.getDataStorage().getClanByPlayer(player.getUniqueId());
+        if (clan != null) {
+            add(clan.getId(), player);
+        }
+    }
+
+    /**
+     * Unregister a player that left the server
+     * @param player Player who quit
+     */
+    public synchronized void playerQuit(Player player) {
+        playerNames.remove(player.getName());
+        remove(player.getUniqueId());
+    }
+
+    /**
+     * Register a new clan member if they are online
+     * @param clan Clan the member joined
+     * @param memberUUID Member UUID
+     */
+    public synchronized void memberAdded(Clan clan, UUID memberUUID) {
+        Player player = Bukkit.getPlayer(memberUUID);
+        if (player != null && player.isOnline()) {
+            add(clan.getId(), player);
+        }
+    }
+
+    /**
+     * Unregister a member that left or was kicked from a clan
+     * @param clan Clan the member left
+     * @param memberUUID Member UUID
+     */
+    public synchronized void memberRemoved(Clan clan, UUID memberUUID) {
+        if (clan.getId().equals(clanByPlayer.get(memberUUID))) {
+            remove(memberUUID);
+        }
+    }
+
+    /**
+     * Unregister all members of a disbanded clan
+     * @param clan Disbanded clan
+     */
+    public synchronized void clanRemoved(Clan clan) {
+        Map<UUID, Player> members = onlineByClan.remove(clan.getId());
+        if (members != null) {
+            for (UUID memberUUID : members.keySet()) {
+                clanByPlayer.remove(memberUUID);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the registry from the currently online players
+     */
+    public synchronized void rebuild() {
+        onlineByClan.clear();
+        clanByPlayer.clear();
+        playerNames.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            playerJoined(player);
+        }
+    }
+
+    /**
+     * Get the online members of a clan
+     * @param clan Clan
+     * @return Unmodifiable view of the online members (never null)
+     */
+    public Collection<Player> getOnlineMembers(Clan clan) {
+        Map<UUID, Player> members = onlineByClan.get(clan.getId());
+        if (members == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableCollection(members.values());
+    }
+
+    /**
+     * Get the number of online members of a clan
+     * @param clan Clan
+     * @return Online member count
+     */
+    public int getOnlineCount(Clan clan) {
+        Map<UUID, Player> members = onlineByClan.get(clan.getId());
+        return members == null ? 0 : members.size();
+    }
+
+    /**
+     * Get online player names starting with a prefix, ignoring case
+     * @param prefix Name prefix
+     * @param limit Maximum number of names
+     * @return Matching player names in alphabetical order
+     */
+    public synchronized List<String> completePlayerNames(String prefix, int limit) {
+        return playerNames.complete(prefix, limit);
+    }
+
+    /**
+     * Get the clan ID of an online player
+     * @param playerUUID Player UUID
+     * @return Clan ID, or null if the player is offline or not in a clan
+     */
+    public String getClanId(UUID playerUUID) {
+        return clanByPlayer.get(playerUUID);
+    }
+
+    /**
+     * Send a message to every online member of a clan
+     * @param clan Clan to notify
+     * @param message Message to send
+     */
+    public void broadcast(Clan clan, Component message) {
+        broadcast(clan, message, null);
+    }
+
+    /**
+     * Send a message to every online member of a clan except one
+     * @param clan Clan to notify
+     * @param message Message to send
+     * @param exclude Member to skip (may be null)
+     */
+    public void broadcast(Clan clan, Component message, UUID exclude) {
+        Map<UUID, Player> members = onlineByClan.get(clan.getId());
+        if (members == null) {
+            return;
+        }
+
+        for (Map.Entry<UUID, Player> entry : members.entrySet()) {
+            if (!entry.getKey().equals(exclude)) {
+                entry.getValue().sendMessage(message);
+            }
+        }
+    }
+
+    /**
+     * Send a legacy colour-coded message to every online member of a clan
+     * @param clan Clan to notify
+     * @param message Message with section-sign colour codes
+     */
+    public void broadcast(Clan clan, String message) {
+        broadcast(clan, message, null);
+    }
+
+    /**
+     * Send a legacy colour-coded message to every online member of a clan except one
+     * @param clan Clan to notify
+     * @param message Message with section-sign colour codes
+     * @param exclude Member to skip (may be null)
+     */
+    public void broadcast(Clan clan, String message, UUID exclude) {
+        if (getOnlineCount(clan) == 0) {
+            return;
+        }
+        broadcast(clan, LegacyComponentSerializer.legacySection().deserialize(message), exclude);
+    }
+
+    /**
+     * Add a player to a clan's online set
+     * @param clanId Clan ID
+     * @param player Online player
+     */
+    private void add(String clanId, Player player) {
+        // A player can only be online for one clan at a time
+        remove(player.getUniqueId());
+        onlineByClan.computeIfAbsent(clanId, id -> new ConcurrentHashMap<>()).put(player.getUniqueId(), player);
+        clanByPlayer.put(player.getUniqueId(), clanId);
+    }
+
+    /**
+     * Remove a player from whichever clan set they are in
+     * @param playerUUID Player UUID
+     */
+    private void remove(UUID playerUUID) {
+        String clanId = clanByPlayer.remove(playerUUID);
+        if (clanId == null) {
+            return;
+        }
+
+        Map<UUID, Player> members = onlineByClan.get(clanId);
+        if (members != null) {
+            members.remove(playerUUID);
+            if (members.isEmpty()) {
+                onlineByClan.remove(clanId);
+            }
+        }
+    }
+}
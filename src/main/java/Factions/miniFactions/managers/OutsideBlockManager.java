@@ -1,33 +1,55 @@
 package Factions.miniFactions.managers;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.CoreBlock;
+import Factions.miniFactions.storage.OutsideBlockStore;
+import Factions.miniFactions.utils.Clock;
+import Factions.miniFactions.utils.TimingWheel;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.block.Block;
-import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
- * Manages blocks placed outside of clan core areas
+ * Manages blocks placed outside of clan core areas.
+ * Tracking, decay and storage are guarded by this manager, as blocks are placed and
+ * broken on many region threads at once on Folia.
  */
 public class OutsideBlockManager {
 
+    private static final int WHEEL_SLOTS = 3600; // One hour per revolution
+    private static final long WHEEL_TICK_MILLIS = 1000L;
+    private static final long CHECK_INTERVAL_TICKS = 20L; // Every second
+    private static final long MAINTENANCE_INTERVAL_TICKS = 60 * 20L; // Every minute
+    private static final int COMPACT_THRESHOLD = 10000; // Log entries before a world is compacted
+
     private final MiniFactions plugin;
-    private final Map<Location, OutsideBlock> outsideBlocks = new ConcurrentHashMap<>();
-    private BukkitTask decayTask;
+    private final Map<Location, OutsideBlock> outsideBlocks = new HashMap<>();
+    // Outside blocks bucketed by decay time
+    private final TimingWheel<OutsideBlock> decayWheel;
+    private final OutsideBlockStore store;
+    private SchedulerManager.Task decayTask;
+    private SchedulerManager.Task maintenanceTask;
     private final Random random = new Random();
 
     public OutsideBlockManager(MiniFactions plugin) {
         this.plugin = plugin;
+        this.decayWheel = new TimingWheel<>(WHEEL_SLOTS, WHEEL_TICK_MILLIS, Clock.now());
+        this.store = new OutsideBlockStore(plugin);
         startDecayTask();
+        maintenanceTask = plugin.getSchedulerManager().runGlobalTimer("OutsideBlockManager.maintainStorage", this::maintainStorage,
+                MAINTENANCE_INTERVAL_TICKS, MAINTENANCE_INTERVAL_TICKS);
     }
 
     /**
@@ -37,33 +59,53 @@ public class OutsideBlockManager {
      * @param material Block material
      * @return The tracked outside block
      */
-    public OutsideBlock trackBlock(Location location, Clan clan, Material material) {
+    public synchronized OutsideBlock trackBlock(Location location, Clan clan, Material material) {
         // Check if block is within safe distance of core
         if (isWithinSafeDistance(location, clan)) {
             return null; // Don't track blocks within safe distance
         }
 
         // Calculate random decay time
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        int minDecayTime = config.getInt("core.outside-blocks.min-decay-time", 30);
-        int maxDecayTime = config.getInt("core.outside-blocks.max-decay-time", 120);
+        Settings settings = plugin.getConfigManager().getSettings();
+        int minDecayTime = settings.getOutsideMinDecayMinutes();
+        int maxDecayTime = settings.getOutsideMaxDecayMinutes();
         
         // Random decay time between min and max
         int decayTime = minDecayTime + random.nextInt(maxDecayTime - minDecayTime + 1);
         
+        // Make sure stored blocks of this chunk are known before adding to it
+        loadChunk(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+
         // Create and store outside block
         OutsideBlock outsideBlock = new OutsideBlock(location, clan, material, decayTime);
-        outsideBlocks.put(location, outsideBlock);
-        
+        schedule(outsideBlock);
+        store.append(location.getWorld().getName(), toStoredBlock(outsideBlock));
+
         return outsideBlock;
     }
 
+    /**
+     * Add an outside block to the map and the decay wheel
+     * @param outsideBlock Outside block
+     */
+    private void schedule(OutsideBlock outsideBlock) {
+        OutsideBlock previous = outsideBlocks.put(outsideBlock.getLocation(), outsideBlock);
+        if (previous != null) {
+            decayWheel.cancel(previous.decayEntry);
+        }
+        outsideBlock.decayEntry = decayWheel.schedule(outsideBlock, outsideBlock.getDecayTime());
+    }
+
     /**
      * Remove a tracked outside block
      * @param location Block location
      */
-    public void removeBlock(Location location) {
-        outsideBlocks.remove(location);
+    public synchronized void removeBlock(Location location) {
+        OutsideBlock outsideBlock = outsideBlocks.remove(location);
+        if (outsideBlock != null) {
+            decayWheel.cancel(outsideBlock.decayEntry);
+            store.appendRemoval(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        }
     }
 
     /**
@@ -71,7 +113,7 @@ public class OutsideBlockManager {
      * @param location Block location
      * @return true if tracked
      */
-    public boolean isTrackedBlock(Location location) {
+    public synchronized boolean isTrackedBlock(Location location) {
         return outsideBlocks.containsKey(location);
     }
 
@@ -80,7 +122,7 @@ public class OutsideBlockManager {
      * @param location Block location
      * @return OutsideBlock or null if not found
      */
-    public OutsideBlock getOutsideBlock(Location location) {
+    public synchronized OutsideBlock getOutsideBlock(Location location) {
         return outsideBlocks.get(location);
     }
 
@@ -97,8 +139,7 @@ public class OutsideBlockManager {
         }
 
         Location coreLoc = coreBlock.getLocation();
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        int safeDistance = config.getInt("core.outside-blocks.safe-distance", 5);
+        int safeDistance = plugin.getConfigManager().getSettings().getOutsideSafeDistance();
 
         // Check if in same world
         if (!location.getWorld().equals(coreLoc.getWorld())) {
@@ -114,45 +155,122 @@ public class OutsideBlockManager {
      * Start the decay task for outside blocks
      */
     private void startDecayTask() {
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        if (!config.getBoolean("core.outside-blocks.enabled", true)) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        if (!settings.isOutsideBlocksEnabled()) {
             return;
         }
 
-        int checkInterval = config.getInt("core.outside-blocks.check-interval", 5);
-        long intervalTicks = checkInterval * 60 * 20L; // Convert minutes to ticks
+        decayTask = plugin.getSchedulerManager().runGlobalTimer("OutsideBlockManager.checkDecay", this::checkDecay,
+                CHECK_INTERVAL_TICKS, CHECK_INTERVAL_TICKS);
+    }
 
-        decayTask = Bukkit.getScheduler().runTaskTimer(plugin, this::checkDecay, intervalTicks, intervalTicks);
+    /**
+     * Decay the outside blocks whose decay time has passed
+     */
+    private synchronized void checkDecay() {
+        decayWheel.advance(Clock.now(), this::decay);
     }
 
     /**
-     * Check all outside blocks for decay
+     * Decay a single outside block
+     * @param outsideBlock Due outside block
      */
-    private void checkDecay() {
-        List<Location> toRemove = new ArrayList<>();
+    private void decay(OutsideBlock outsideBlock) {
+        Location location = outsideBlock.getLocation();
+        outsideBlocks.remove(location);
+        store.appendRemoval(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
 
-        for (OutsideBlock outsideBlock : outsideBlocks.values()) {
-            if (outsideBlock.shouldDecay()) {
-                Location location = outsideBlock.getLocation();
-                Block block = location.getBlock();
-
-                // Check if block still exists and matches
-                if (block.getType() == outsideBlock.getMaterial()) {
-                    // Decay the block
-                    block.setType(Material.AIR);
-                    
-                    // Notify nearby players
-                    notifyNearbyPlayers(location, outsideBlock.getClan());
-                }
-                
-                toRemove.add(location);
+        // Decay the block once its chunk is loaded, if it still matches
+        plugin.getWorldMutationManager().enqueueRemoval(location, outsideBlock.getMaterial());
+
+        // Notify nearby players
+        notifyNearbyPlayers(location, outsideBlock.getClan());
+        plugin.getMetricsManager().recordDecay("outside");
+    }
+
+    /**
+     * Load the stored outside blocks of all chunks that are already loaded
+     */
+    public synchronized void loadLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                loadChunk(world, chunk.getX(), chunk.getZ());
+            }
+        }
+    }
+
+    /**
+     * Load the stored outside blocks of a chunk that was just loaded
+     * @param chunk Loaded chunk
+     */
+    public synchronized void chunkLoaded(Chunk chunk) {
+        loadChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Fold a chunk's stored outside blocks into the decay wheel, once
+     * @param world World
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     */
+    private void loadChunk(World world, int chunkX, int chunkZ) {
+        store.loadChunk(world.getName(), chunkX, chunkZ, storedBlock -> {
+            Clan clan = plugin.getDataStorage().getClan(storedBlock.getClanId());
+            Material material = Material.matchMaterial(storedBlock.getMaterial());
+
+            // Blocks of disbanded clans are dropped at the next compaction
+            if (clan == null || material == null) {
+                return;
+            }
+
+            Location location = new Location(world, storedBlock.getX(), storedBlock.getY(), storedBlock.getZ());
+            schedule(new OutsideBlock(location, clan, material, storedBlock.getPlacementTime(),
+                    storedBlock.getDecayMinutes()));
+        });
+    }
+
+    /**
+     * Flush the storage logs and compact worlds whose log grew too large
+     */
+    private synchronized void maintainStorage() {
+        long start = System.nanoTime();
+        store.flush();
+        plugin.getMetricsManager().recordSave("outside_flush", System.nanoTime() - start);
+
+        for (String worldName : store.getWorldNames()) {
+            if (store.getLogSize(worldName) >= COMPACT_THRESHOLD) {
+                start = System.nanoTime();
+                store.compact(worldName, getStoredBlocks(worldName));
+                plugin.getMetricsManager().recordSave("outside_compact", System.nanoTime() - start);
             }
         }
+    }
 
-        // Remove decayed blocks
-        for (Location location : toRemove) {
-            outsideBlocks.remove(location);
+    /**
+     * Get the tracked blocks of a world in storage form
+     * @param worldName World name
+     * @return Stored blocks
+     */
+    private List<OutsideBlockStore.StoredBlock> getStoredBlocks(String worldName) {
+        List<OutsideBlockStore.StoredBlock> blocks = new ArrayList<>();
+        for (OutsideBlock outsideBlock : outsideBlocks.values()) {
+            if (outsideBlock.getLocation().getWorld().getName().equals(worldName)) {
+                blocks.add(toStoredBlock(outsideBlock));
+            }
         }
+        return blocks;
+    }
+
+    /**
+     * Convert an outside block to its storage form
+     * @param outsideBlock Outside block
+     * @return Stored block
+     */
+    private OutsideBlockStore.StoredBlock toStoredBlock(OutsideBlock outsideBlock) {
+        Location location = outsideBlock.getLocation();
+        return new OutsideBlockStore.StoredBlock(location.getBlockX(), location.getBlockY(), location.getBlockZ(),
+                outsideBlock.getClan().getId(), outsideBlock.getMaterial().name(),
+                outsideBlock.getPlacementTime(), outsideBlock.getDecayTimeMinutes());
     }
 
     /**
@@ -163,24 +281,34 @@ public class OutsideBlockManager {
     private void notifyNearbyPlayers(Location location, Clan clan) {
         int notifyRadius = 20; // Notify players within 20 blocks
         
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            if (player.getWorld().equals(location.getWorld()) && 
-                    player.getLocation().distanceSquared(location) <= notifyRadius * notifyRadius) {
-                
-                if (clan.isMember(player.getUniqueId())) {
+        for (Player player : plugin.getOnlineMemberManager().getOnlineMembers(clan)) {
+            // A player's position is read on the thread that owns them
+            plugin.getSchedulerManager().executeFor("OutsideBlockManager.notifyNearbyPlayers", player, () -> {
+                if (player.getWorld().equals(location.getWorld()) &&
+                        player.getLocation().distanceSquared(location) <= notifyRadius * notifyRadius) {
                     player.sendMessage(ChatColor.YELLOW + "One of your clan's blocks outside the core area has decayed.");
                 }
-            }
+            });
         }
     }
 
     /**
-     * Stop the decay task
+     * Stop the tasks and write all tracked blocks to storage
      */
-    public void cleanup() {
+    public synchronized void cleanup() {
         if (decayTask != null) {
             decayTask.cancel();
         }
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel();
+        }
+
+        for (String worldName : store.getWorldNames()) {
+            store.compact(worldName, getStoredBlocks(worldName));
+        }
+        store.close();
+
+        decayWheel.clear();
         outsideBlocks.clear();
     }
 
@@ -193,6 +321,7 @@ public class OutsideBlockManager {
         private final Material material;
         private final long placementTime;
         private final int decayTimeMinutes;
+        private TimingWheel.Entry<OutsideBlock> decayEntry;
 
         /**
          * Create a new outside block
@@ -202,10 +331,22 @@ public class OutsideBlockManager {
          * @param decayTimeMinutes Time until decay in minutes
          */
         public OutsideBlock(Location location, Clan clan, Material material, int decayTimeMinutes) {
+            this(location, clan, material, Clock.now(), decayTimeMinutes);
+        }
+
+        /**
+         * Create an outside block with a known placement time
+         * @param location Block location
+         * @param clan Clan that placed the block
+         * @param material Block material
+         * @param placementTime Placement time in milliseconds
+         * @param decayTimeMinutes Time until decay in minutes
+         */
+        public OutsideBlock(Location location, Clan clan, Material material, long placementTime, int decayTimeMinutes) {
             this.location = location;
             this.clan = clan;
             this.material = material;
-            this.placementTime = System.currentTimeMillis();
+            this.placementTime = placementTime;
             this.decayTimeMinutes = decayTimeMinutes;
         }
 
@@ -249,15 +390,20 @@ public class OutsideBlockManager {
             return decayTimeMinutes;
         }
 
+        /**
+         * Get the time at which the block decays
+         * @return Decay time in milliseconds
+         */
+        public long getDecayTime() {
+            return placementTime + decayTimeMinutes * 60 * 1000L; // Convert minutes to milliseconds
+        }
+
         /**
          * Check if the block should decay
          * @return true if the block should decay
          */
         public boolean shouldDecay() {
-            long elapsedMillis = System.currentTimeMillis() - placementTime;
-            long decayMillis = decayTimeMinutes * 60 * 1000L; // Convert minutes to milliseconds
-            
-            return elapsedMillis >= decayMillis;
+            return Clock.now() >= getDecayTime();
         }
 
         /**
@@ -265,10 +411,7 @@ public class OutsideBlockManager {
          * @return Time until decay in milliseconds
          */
         public long getTimeUntilDecay() {
-            long elapsedMillis = System.currentTimeMillis() - placementTime;
-            long decayMillis = decayTimeMinutes * 60 * 1000L; // Convert minutes to milliseconds
-            
-            return Math.max(0, decayMillis - elapsedMillis);
+            return Math.max(0, getDecayTime() - Clock.now());
         }
     }
 }
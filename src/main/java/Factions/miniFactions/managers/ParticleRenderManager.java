@@ -0,0 +1,293 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
+import Factions.miniFactions.models.DefenseBlock;
+import Factions.miniFactions.spatial.BlockType;
+import Factions.miniFactions.spatial.SpatialIndexManager;
+import Factions.miniFactions.spatial.SpatiallyIndexable;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+
+/**
+ * Renders core and defense block particles only for players that can see them.
+ * Online players are bucketed into a chunk grid each pass; only indexed blocks in
+ * loaded chunks near a player are rendered, and each player has a particle budget.
+ */
+public class ParticleRenderManager {
+
+    private static final long RENDER_INTERVAL_TICKS = 5L;
+    private static final int DEFENSE_RENDER_EVERY = 20; // Defense particles every 100 ticks
+
+    private final MiniFactions plugin;
+    private SchedulerManager.Task renderTask;
+    private int pass;
+
+    public ParticleRenderManager(MiniFactions plugin) {
+        this.plugin = plugin;
+        startRenderTask();
+    }
+
+    /**
+     * Start the render task
+     */
+    private void startRenderTask() {
+        renderTask = plugin.getSchedulerManager().runGlobalTimer("ParticleRenderManager.render", () -> {
+            pass++;
+            boolean renderDefense = pass % DEFENSE_RENDER_EVERY == 0;
+            double angle = (System.currentTimeMillis() % 2000) / 2000.0 * Math.PI * 2;
+
+            if (!SchedulerManager.isFolia()) {
+                render(Bukkit.getOnlinePlayers(), renderDefense, angle);
+                return;
+            }
+
+            // Players tick on their own regions, so each one renders its own view there
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                plugin.getSchedulerManager().executeFor("ParticleRenderManager.renderPlayer", player,
+                        () -> render(List.of(player), renderDefense, angle));
+            }
+        }, RENDER_INTERVAL_TICKS, RENDER_INTERVAL_TICKS);
+    }
+
+    /**
+     * Render one pass of block particles
+     * @param players Players to render for
+     * @param renderDefense Whether defense particles are shown this pass
+     * @param angle Current spiral angle
+     */
+    private void render(Collection<? extends Player> players, boolean renderDefense, double angle) {
+        try {
+            renderFor(players, renderDefense, angle);
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error in particle render task: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Render block particles for a group of players
+     * @param players Players to render for
+     * @param renderDefense Whether defense particles are shown this pass
+     * @param angle Current spiral angle
+     */
+    private void renderFor(Collection<? extends Player> players, boolean renderDefense, double angle) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        int viewDistance = settings.getParticleViewDistance();
+        int chunkRadius = (viewDistance >> 4) + 1;
+        double viewDistanceSquared = (double) viewDistance * viewDistance;
+
+        // World -> chunk -> players standing in that chunk
+        Map<World, Map<Long, List<Player>>> playerGrid = new HashMap<>();
+        for (Player player : players) {
+            Location location = player.getLocation();
+            playerGrid.computeIfAbsent(location.getWorld(), world -> new HashMap<>())
+                    .computeIfAbsent(chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4), key -> new ArrayList<>())
+                    .add(player);
+        }
+        if (playerGrid.isEmpty()) {
+            return;
+        }
+
+        SpatialIndexManager spatialIndex = plugin.getDataStorage().getSpatialIndexManager();
+        Map<Player, Integer> budgets = new HashMap<>();
+        int budget = settings.getParticleBudget();
+
+        for (Map.Entry<World, Map<Long, List<Player>>> worldEntry : playerGrid.entrySet()) {
+            World world = worldEntry.getKey();
+            Map<Long, List<Player>> grid = worldEntry.getValue();
+
+            // Every loaded chunk within view of at least one player
+            Set<Long> visibleChunks = new HashSet<>();
+            for (long playerChunk : grid.keySet()) {
+                int chunkX = (int) (playerChunk >> 32);
+                int chunkZ = (int) playerChunk;
+                for (int dx = -chunkRadius; dx <= chunkRadius; dx++) {
+                    for (int dz = -chunkRadius; dz <= chunkRadius; dz++) {
+                        visibleChunks.add(chunkKey(chunkX + dx, chunkZ + dz));
+                    }
+                }
+            }
+
+            for (long chunk : visibleChunks) {
+                int chunkX = (int) (chunk >> 32);
+                int chunkZ = (int) chunk;
+                if (!world.isChunkLoaded(chunkX, chunkZ)) {
+                    continue;
+                }
+
+                for (SpatiallyIndexable block : spatialIndex.getBlocksInChunk(world, chunkX, chunkZ, BlockType.CORE)) {
+                    Location blockLoc = block.getLocation();
+                    for (Player player : getViewers(grid, blockLoc, chunkX, chunkZ, chunkRadius, viewDistanceSquared)) {
+                        if (spend(budgets, player, budget, 3)) {
+                            renderCore(player, blockLoc, angle);
+                        }
+                    }
+                }
+
+                if (!renderDefense) {
+                    continue;
+                }
+
+                for (SpatiallyIndexable block : spatialIndex.getBlocksInChunk(world, chunkX, chunkZ, BlockType.DEFENSE)) {
+                    // Only show particles occasionally to reduce visual clutter
+                    if (ThreadLocalRandom.current().nextDouble() >= 0.3) {
+                        continue;
+                    }
+
+                    Location blockLoc = block.getLocation();
+                    int tier = ((DefenseBlock) block).getTier();
+                    for (Player player : getViewers(grid, blockLoc, chunkX, chunkZ, chunkRadius, viewDistanceSquared)) {
+                        if (spend(budgets, player, budget, getTierParticleCount(tier))) {
+                            renderDefense(player, blockLoc, tier);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the players within view distance of a block using the player grid
+     * @param grid Chunk -> players for the block's world
+     * @param blockLoc Block location
+     * @param chunkX Block chunk X
+     * @param chunkZ Block chunk Z
+     * @param chunkRadius Search radius in chunks
+     * @param viewDistanceSquared Squared view distance
+     * @return Players that can see the block
+     */
+    private List<Player> getViewers(Map<Long, List<Player>> grid, Location blockLoc, int chunkX, int chunkZ,
+                                    int chunkRadius, double viewDistanceSquared) {
+        List<Player> viewers = new ArrayList<>();
+        for (int dx = -chunkRadius; dx <= chunkRadius; dx++) {
+            for (int dz = -chunkRadius; dz <= chunkRadius; dz++) {
+                List<Player> players = grid.get(chunkKey(chunkX + dx, chunkZ + dz));
+                if (players == null) {
+                    continue;
+                }
+                for (Player player : players) {
+                    if (player.getLocation().distanceSquared(blockLoc) <= viewDistanceSquared) {
+                        viewers.add(player);
+                    }
+                }
+            }
+        }
+        return viewers;
+    }
+
+    /**
+     * Take particles from a player's budget for this pass
+     * @param budgets Remaining budgets
+     * @param player Player
+     * @param budget Budget per pass
+     * @param amount Particles needed
+     * @return true if the player still had room
+     */
+    private boolean spend(Map<Player, Integer> budgets, Player player, int budget, int amount) {
+        int remaining = budgets.getOrDefault(player, budget);
+        if (remaining < amount) {
+            return false;
+        }
+        budgets.put(player, remaining - amount);
+        return true;
+    }
+
+    /**
+     * Render the core block effect for a player
+     * @param player Viewer
+     * @param blockLoc Core block location
+     * @param angle Current spiral angle
+     */
+    private void renderCore(Player player, Location blockLoc, double angle) {
+        // Sculk souls rising from the block
+        player.spawnParticle(Particle.SCULK_SOUL, blockLoc.clone().add(0.5, 1.0, 0.5), 2, 0.3, 0.3, 0.3, 0.02);
+
+        // Small spiral around the block
+        double radius = 0.7;
+        double x = Math.sin(angle) * radius;
+        double z = Math.cos(angle) * radius;
+        player.spawnParticle(Particle.SCULK_SOUL, blockLoc.clone().add(0.5 + x, 0.5, 0.5 + z), 1, 0.05, 0.05, 0.05, 0.01);
+    }
+
+    /**
+     * Get the number of particles the tier effect of a defense block uses
+     * @param tier Defense block tier
+     * @return Particle count
+     */
+    private int getTierParticleCount(int tier) {
+        if (tier >= 5) {
+            return 60;
+        } else if (tier >= 4) {
+            return 45;
+        } else if (tier >= 3) {
+            return 35;
+        } else if (tier >= 2) {
+            return 30;
+        }
+        return 15;
+    }
+
+    /**
+     * Render the tier effect of a defense block for a player
+     * @param player Viewer
+     * @param blockLoc Defense block location
+     * @param tier Defense block tier
+     */
+    private void renderDefense(Player player, Location blockLoc, int tier) {
+        Location loc = blockLoc.clone().add(0.5, 0.5, 0.5); // Center of block
+
+        if (tier >= 5) {
+            // Tier 5: Purple particles
+            player.spawnParticle(Particle.PORTAL, loc, 40, 0.4, 0.4, 0.4, 0.05);
+            player.spawnParticle(Particle.DRAGON_BREATH, loc, 20, 0.3, 0.3, 0.3, 0.01);
+        } else if (tier >= 4) {
+            // Tier 4: Blue particles
+            player.spawnParticle(Particle.PORTAL, loc, 30, 0.4, 0.4, 0.4, 0.05);
+            player.spawnParticle(Particle.DRAGON_BREATH, loc, 15, 0.3, 0.3, 0.3, 0.01);
+        } else if (tier >= 3) {
+            // Tier 3: Cyan particles
+            player.spawnParticle(Particle.CLOUD, loc, 25, 0.3, 0.3, 0.3, 0.05);
+            player.spawnParticle(Particle.CRIT, loc, 10, 0.2, 0.2, 0.2, 0.01);
+        } else if (tier >= 2) {
+            // Tier 2: Green particles
+            player.spawnParticle(Particle.CRIT, loc, 20, 0.3, 0.3, 0.3, 0.05);
+            player.spawnParticle(Particle.CLOUD, loc, 10, 0.2, 0.2, 0.2, 0.01);
+        } else {
+            // Tier 1: Red particles
+            player.spawnParticle(Particle.FLAME, loc, 15, 0.2, 0.2, 0.2, 0.05);
+        }
+    }
+
+    /**
+     * Combine chunk coordinates into a single key
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     * @return Chunk key
+     */
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Cancel the render task
+     */
+    public void cleanup() {
+        if (renderTask != null) {
+            renderTask.cancel();
+            renderTask = null;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.events.ClanAreaEnterEvent;
+import Factions.miniFactions.events.ClanAreaLeaveEvent;
+import Factions.miniFactions.models.Clan;
+import Factions.miniFactions.models.CoreBlock;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Tracks which clan area of influence each online player is in.
+ * Core areas are registered in every chunk they overlap, so a lookup only checks the
+ * few cores covering the player's chunk. Players are re-evaluated when they cross a
+ * block boundary and on a coarse periodic sweep; the beacon glow and the enter/leave
+ * events only fire on transitions. The glow has a bounded duration that each evaluation
+ * refreshes, so it lapses by itself if it is lost track of. A player is only evaluated on
+ * the thread that owns them; the area coverage is guarded by this manager.
+ */
+public class PresenceManager {
+
+    private static final long SWEEP_INTERVAL_TICKS = 100L; // Every 5 seconds
+    private static final int GLOW_DURATION_TICKS = 300;
+    private static final int GLOW_REFRESH_TICKS = 160; // Refresh below this, outlasting a sweep interval
+
+    private final MiniFactions plugin;
+    // World name -> chunk key -> cores whose area overlaps that chunk
+    private final Map<String, Map<Long, List<CoreBlock>>> coverage = new HashMap<>();
+    // Core -> radius it was registered with
+    private final Map<CoreBlock, Integer> registeredRadius = new HashMap<>();
+    private final Map<UUID, Presence> presences = new ConcurrentHashMap<>();
+    private SchedulerManager.Task sweepTask;
+
+    public PresenceManager(MiniFactions plugin) {
+        this.plugin = plugin;
+        startSweepTask();
+    }
+
+    /**
+     * Start the periodic sweep task
+     */
+    private void startSweepTask() {
+        sweepTask = plugin.getSchedulerManager().runGlobalTimer("PresenceManager.sweep", this::sweep,
+                SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
+    }
+
+    /**
+     * Register all loaded core blocks and evaluate online players
+     */
+    public void rebuild() {
+        synchronized (this) {
+            coverage.clear();
+            registeredRadius.clear();
+            for (CoreBlock coreBlock : plugin.getDataStorage().getCoreBlocks().values()) {
+                register(coreBlock);
+            }
+        }
+        sweep();
+    }
+
+    /**
+     * Register a new core block
+     * @param coreBlock Core block that was placed
+     */
+    public void coreAdded(CoreBlock coreBlock) {
+        synchronized (this) {
+            register(coreBlock);
+        }
+        sweep();
+    }
+
+    /**
+     * Update a core block whose level, and therefore area, changed
+     * @param coreBlock Core block that changed
+     */
+    public void coreChanged(CoreBlock coreBlock) {
+        synchronized (this) {
+            unregister(coreBlock);
+            register(coreBlock);
+        }
+        sweep();
+    }
+
+    /**
+     * Unregister a removed core block
+     * @param coreBlock Core block that was removed
+     */
+    public void coreRemoved(CoreBlock coreBlock) {
+        synchronized (this) {
+            unregister(coreBlock);
+        }
+        sweep();
+    }
+
+    /**
+     * Re-evaluate a player that moved, if they crossed a block boundary
+     * @param player Player who moved
+     * @param to New location
+     */
+    public void playerMoved(Player player, Location to) {
+        Presence presence = presences.get(player.getUniqueId());
+        if (presence != null && presence.isAt(to)) {
+            return;
+        }
+
+        update(player, to);
+    }
+
+    /**
+     * Start tracking a player that joined
+     * @param player Player who joined
+     */
+    public void playerJoined(Player player) {
+        // A glow left over from a crash is ours to remove if the player is not in their area
+        Presence presence = new Presence();
+        presence.glowing = player.hasPotionEffect(PotionEffectType.GLOWING);
+        presences.put(player.getUniqueId(), presence);
+        update(player, player.getLocation());
+    }
+
+    /**
+     * Re-evaluate a player that respawned, death having cleared their glow
+     * @param player Player who respawned
+     */
+    public void playerRespawned(Player player) {
+        update(player, player.getLocation());
+    }
+
+    /**
+     * Stop tracking a player that left, removing the glow and leaving their area
+     * @param player Player who quit
+     */
+    public void playerQuit(Player player) {
+        Presence presence = presences.remove(player.getUniqueId());
+        if (presence == null) {
+            return;
+        }
+
+        if (presence.glowing) {
+            player.removePotionEffect(PotionEffectType.GLOWING);
+        }
+        if (presence.area != null) {
+            Bukkit.getPluginManager().callEvent(new ClanAreaLeaveEvent(player, presence.area));
+        }
+    }
+
+    /**
+     * Get the core block whose area a player is currently in
+     * @param player Player
+     * @return Core block, or null if the player is not in any area
+     */
+    public CoreBlock getArea(Player player) {
+        Presence presence = presences.get(player.getUniqueId());
+        return presence != null ? presence.area : null;
+    }
+
+    /**
+     * Re-evaluate every online player, picking up core and membership changes
+     */
+    public void sweep() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            plugin.getSchedulerManager().executeFor("PresenceManager.update", player,
+                    () -> update(player, player.getLocation()));
+        }
+    }
+
+    /**
+     * Evaluate a player's area and glow, acting only on transitions
+     * @param player Player
+     * @param location Player location
+     */
+    private void update(Player player, Location location) {
+        Presence presence = presences.computeIfAbsent(player.getUniqueId(), uuid -> new Presence());
+        presence.moveTo(location);
+
+        CoreBlock area = findArea(location);
+        CoreBlock previous = presence.area;
+        if (area != previous) {
+            presence.area = area;
+            if (previous != null) {
+                Bukkit.getPluginManager().callEvent(new ClanAreaLeaveEvent(player, previous));
+            }
+            if (area != null) {
+                Bukkit.getPluginManager().callEvent(new ClanAreaEnterEvent(player, area));
+            }
+        }
+
+        // Members glow inside their own clan's area
+        boolean glow = false;
+        if (area != null && plugin.getConfigManager().getSettings().isCoreBeaconEffect()) {
+            Clan clan = plugin.getDataStorage().getClanByPlayer(player.getUniqueId());
+            glow = clan != null && clan.equals(area.getClan());
+        }
+
+        // Work from the player's actual effect, death or another plugin may have removed it
+        PotionEffect effect = player.getPotionEffect(PotionEffectType.GLOWING);
+        if (glow) {
+            if (effect == null || effect.isInfinite() || effect.getDuration() < GLOW_REFRESH_TICKS) {
+                if (effect != null && effect.isInfinite()) {
+                    player.removePotionEffect(PotionEffectType.GLOWING);
+                }
+                player.addPotionEffect(new PotionEffect(PotionEffectType.GLOWING, GLOW_DURATION_TICKS, 0, false, false));
+            }
+            presence.glowing = true;
+        } else if (presence.glowing) {
+            presence.glowing = false;
+            if (effect != null) {
+                player.removePotionEffect(PotionEffectType.GLOWING);
+            }
+        }
+    }
+
+    /**
+     * Find the nearest core block whose area contains a location
+     * @param location Location to check
+     * @return Core block, or null if none
+     */
+    private synchronized CoreBlock findArea(Location location) {
+        Map<Long, List<CoreBlock>> worldCoverage = coverage.get(location.getWorld().getName());
+        if (worldCoverage == null) {
+            return null;
+        }
+
+        List<CoreBlock> candidates = worldCoverage.get(chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+        if (candidates == null) {
+            return null;
+        }
+
+        CoreBlock nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (CoreBlock coreBlock : candidates) {
+            int radius = registeredRadius.get(coreBlock);
+            double distanceSquared = location.distanceSquared(coreBlock.getLocation());
+            if (distanceSquared <= (double) radius * radius && distanceSquared < nearestDistance) {
+                nearest = coreBlock;
+                nearestDistance = distanceSquared;
+            }
+        }
+
+        return nearest;
+    }
+
+    /**
+     * Add a core block to every chunk its area overlaps
+     * @param coreBlock Core block
+     */
+    private void register(CoreBlock coreBlock) {
+        Location coreLoc = coreBlock.getLocation();
+        if (coreLoc == null || coreLoc.getWorld() == null) {
+            return;
+        }
+
+        int radius = coreBlock.getBuildableArea();
+        registeredRadius.put(coreBlock, radius);
+
+        Map<Long, List<CoreBlock>> worldCoverage = coverage.computeIfAbsent(coreLoc.getWorld().getName(), name -> new HashMap<>());
+        forEachChunk(coreLoc, radius, key -> worldCoverage.computeIfAbsent(key, k -> new ArrayList<>(1)).add(coreBlock));
+    }
+
+    /**
+     * Remove a core block from the chunks it was registered in
+     * @param coreBlock Core block
+     */
+    private void unregister(CoreBlock coreBlock) {
+        Integer radius = registeredRadius.remove(coreBlock);
+        if (radius == null) {
+            return;
+        }
+
+        Location coreLoc = coreBlock.getLocation();
+        Map<Long, List<CoreBlock>> worldCoverage = coverage.get(coreLoc.getWorld().getName());
+        if (worldCoverage == null) {
+            return;
+        }
+
+        forEachChunk(coreLoc, radius, key -> {
+            List<CoreBlock> cores = worldCoverage.get(key);
+            if (cores != null && cores.remove(coreBlock) && cores.isEmpty()) {
+                worldCoverage.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Visit the chunks overlapped by a square around a location
+     * @param center Center location
+     * @param radius Radius in blocks
+     * @param action Action receiving each chunk key
+     */
+    private void forEachChunk(Location center, int radius, LongConsumer action) {
+        int minChunkX = (center.getBlockX() - radius) >> 4;
+        int maxChunkX = (center.getBlockX() + radius) >> 4;
+        int minChunkZ = (center.getBlockZ() - radius) >> 4;
+        int maxChunkZ = (center.getBlockZ() + radius) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                action.accept(chunkKey(chunkX, chunkZ));
+            }
+        }
+    }
+
+    /**
+     * Combine chunk coordinates into a single key
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     * @return Chunk key
+     */
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Cancel the sweep task and remove all glow effects
+     */
+    public synchronized void cleanup() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+
+        for (Map.Entry<UUID, Presence> entry : presences.entrySet()) {
+            Player player = Bukkit.getPlayer(entry.getKey());
+            if (player != null && entry.getValue().glowing) {
+                player.removePotionEffect(PotionEffectType.GLOWING);
+            }
+        }
+
+        presences.clear();
+        coverage.clear();
+        registeredRadius.clear();
+    }
+
+    /**
+     * Last evaluated state of an online player
+     */
+    private static class Presence {
+        private String world;
+        private int blockX;
+        private int blockY;
+        private int blockZ;
+        private CoreBlock area;
+        private boolean glowing;
+
+        /**
+         * Check if a location is in the block this presence was last evaluated at
+         * @param location Location
+         * @return true if it is the same block
+         */
+        private boolean isAt(Location location) {
+            return location.getBlockX() == blockX && location.getBlockY() == blockY && location.getBlockZ() == blockZ &&
+                    location.getWorld().getName().equals(world);
+        }
+
+        /**
+         * Record the block this presence is evaluated at
+         * @param location Location
+         */
+        private void moveTo(Location location) {
+            world = location.getWorld().getName();
+            blockX = location.getBlockX();
+            blockY = location.getBlockY();
+            blockZ = location.getBlockZ();
+        }
+    }
+}
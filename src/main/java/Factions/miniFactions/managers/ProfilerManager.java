@@ -0,0 +1,243 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.utils.MetricsRegistry;
+import Factions.miniFactions.utils.RollingHistogram;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.PluginManager;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how much tick time each scheduled task and event handler uses.
+ * Tasks are wrapped and listeners registered through this manager, so every site records
+ * its run time into a rolling histogram and the exported latency histogram. While profiling
+ * is off a site costs one volatile read per call.
+ */
+public class ProfilerManager {
+
+    private static final long SLOT_MILLIS = 30_000L;
+    private static final int SLOTS = 31; // 15 minutes plus the slot in progress
+
+    private final MiniFactions plugin;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private volatile boolean enabled;
+    // When the current measurements started, in nanoTime milliseconds
+    private volatile long sinceMillis;
+
+    public ProfilerManager(MiniFactions plugin) {
+        this.plugin = plugin;
+        setEnabled(plugin.getConfigManager().getSettings().isProfilerEnabled());
+    }
+
+    /**
+     * Wrap a task so its runs are measured
+     * @param site Site name, usually Manager.method
+     * @param task Task to wrap
+     * @return Measured task
+     */
+    public Runnable wrap(String site, Runnable task) {
+        Site measured = site(site);
+        return () -> {
+            if (!enabled) {
+                task.run();
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                measured.record(start, System.nanoTime());
+            }
+        };
+    }
+
+    /**
+     * Register every event handler of a listener so each handler is measured as its own site
+     * @param listener Listener to register
+     */
+    public void registerEvents(Listener listener) {
+        PluginManager pluginManager = plugin.getServer().getPluginManager();
+        for (Method method : listener.getClass().getDeclaredMethods()) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.getParameterCount() != 1 ||
+                    !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            EventExecutor executor = EventExecutor.create(method, eventClass);
+            Site site = site(listener.getClass().getSimpleName() + "." + method.getName());
+
+            pluginManager.registerEvent(eventClass, listener, handler.priority(), (target, event) -> {
+                if (!enabled) {
+                    executor.execute(target, event);
+                    return;
+                }
+
+                long start = System.nanoTime();
+                try {
+                    executor.execute(target, event);
+                } finally {
+                    site.record(start, System.nanoTime());
+                }
+            }, plugin, handler.ignoreCancelled());
+        }
+    }
+
+    /**
+     * Check if profiling is on
+     * @return true if sites are being measured
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turn profiling on or off, turning it on starts from empty measurements
+     * @param enabled Whether sites should be measured
+     */
+    public void setEnabled(boolean enabled) {
+        if (enabled && !this.enabled) {
+            reset();
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Forget all measurements
+     */
+    public void reset() {
+        for (Site site : sites.values()) {
+            site.window.clear();
+        }
+        sinceMillis = System.nanoTime() / 1_000_000L;
+    }
+
+    /**
+     * Get the measurements of every site over a window, the most expensive first
+     * @param windowMillis Window length, at most 15 minutes
+     * @return Statistics of the sites that ran during the window
+     */
+    public List<SiteStats> getStats(long windowMillis) {
+        long now = System.nanoTime() / 1_000_000L;
+        List<SiteStats> stats = new ArrayList<>();
+        for (Map.Entry<String, Site> entry : sites.entrySet()) {
+            RollingHistogram.Window window = entry.getValue().window.snapshot(windowMillis, now);
+            if (window.getCount() == 0) {
+                continue;
+            }
+
+            // Measured time: the window, cut short if profiling started later
+            long spanMillis = Math.max(1, now - Math.max(window.getStartMillis(), sinceMillis));
+            stats.add(new SiteStats(entry.getKey(), window, spanMillis));
+        }
+        stats.sort(Comparator.comparingLong(SiteStats::getTotalNanos).reversed());
+        return stats;
+    }
+
+    /**
+     * Get or create a site
+     * @param name Site name
+     * @return Site
+     */
+    private Site site(String name) {
+        return sites.computeIfAbsent(name, key -> new Site(new RollingHistogram(SLOTS, SLOT_MILLIS),
+                plugin.getMetricsManager().getHandlerLatency(key)));
+    }
+
+    /**
+     * Histograms of one task or event handler
+     */
+    private static final class Site {
+        private final RollingHistogram window;
+        private final MetricsRegistry.Histogram latency;
+
+        private Site(RollingHistogram window, MetricsRegistry.Histogram latency) {
+            this.window = window;
+            this.latency = latency;
+        }
+
+        /**
+         * Record one run
+         * @param startNanos nanoTime when the run started
+         * @param endNanos nanoTime when the run ended
+         */
+        private void record(long startNanos, long endNanos) {
+            window.record(endNanos - startNanos, endNanos / 1_000_000L);
+            latency.observe((endNanos - startNanos) / 1_000_000_000.0);
+        }
+    }
+
+    /**
+     * Measurements of one site over a window
+     */
+    public static final class SiteStats {
+        private final String name;
+        private final long count;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+        private final long spanMillis;
+
+        private SiteStats(String name, RollingHistogram.Window window, long spanMillis) {
+            this.name = name;
+            this.count = window.getCount();
+            this.totalNanos = window.getTotal();
+            this.p50Nanos = window.getPercentile(0.5);
+            this.p99Nanos = window.getPercentile(0.99);
+            this.maxNanos = window.getMax();
+            this.spanMillis = spanMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Get the average number of runs per second
+         * @return Calls per second
+         */
+        public double getCallsPerSecond() {
+            return count * 1000.0 / spanMillis;
+        }
+
+        /**
+         * Get the share of a 50 ms tick this site uses on average, assuming 20 ticks per second
+         * @return Share between 0 and 1
+         */
+        public double getTickShare() {
+            return (double) totalNanos / (spanMillis * 1_000_000L);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package Factions.miniFactions.managers;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.MaterialRole;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.CoreBlock;
 import Factions.miniFactions.models.DefenseBlock;
+import Factions.miniFactions.utils.ItemClassifier;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
@@ -15,72 +17,46 @@ import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.scheduler.BukkitTask;
 
-import java.util.concurrent.ConcurrentHashMap;
-
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Manages raiding mechanics including explosive placement and defense block damage
+ * Manages raiding mechanics including explosive placement and defense block damage.
+ * The detonation ring is guarded by this manager. On Folia due explosives are grouped
+ * by chunk and each group detonates on the region that owns it, so a raid on a base
+ * that straddles a region border touches every block from the right thread; the alerts
+ * are still sent once per tick, by whichever group finishes last.
  */
 public class RaidManager {
 
+    // Ticks covered by one revolution of the detonation ring, must be a power of two
+    private static final int RING_SIZE = 1024;
+    // Detonations are processed in this order so charges in the same chunk and clan are handled together
+    private static final Comparator<PendingExplosive> DETONATION_ORDER = Comparator
+            .comparing((PendingExplosive explosive) -> explosive.targetClan.getId())
+            .thenComparing(explosive -> explosive.location.getWorld().getName())
+            .thenComparingInt(explosive -> explosive.location.getBlockX() >> 4)
+            .thenComparingInt(explosive -> explosive.location.getBlockZ() >> 4);
+
     private final MiniFactions plugin;
-    private final Map<Location, BukkitTask> activeExplosives = new ConcurrentHashMap<>();
-    private BukkitTask particleTask;
+    // Pending detonations bucketed by detonation tick
+    @SuppressWarnings("unchecked")
+    private final List<PendingExplosive>[] detonationRing = new List[RING_SIZE];
+    private long currentTick;
+    private int pendingExplosives;
+    private SchedulerManager.Task raidTask;
     private final DefenseBlockVisualManager visualManager;
 
     public RaidManager(MiniFactions plugin) {
         this.plugin = plugin;
         this.visualManager = new DefenseBlockVisualManager(plugin);
-        startParticleTask();
-    }
-
-    /**
-     * Start the task that shows particles around defense blocks
-     */
-    private void startParticleTask() {
-        try {
-            // Run task every 5 seconds (100 ticks)
-            particleTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-                try {
-                    // Get all defense blocks
-                    Map<Location, DefenseBlock> defenseBlocks = plugin.getDataStorage().getDefenseBlocks();
-                    if (defenseBlocks == null || defenseBlocks.isEmpty()) {
-                        return;
-                    }
-
-                    // Show particles for each defense block
-                    for (DefenseBlock defense : defenseBlocks.values()) {
-                        if (defense == null || defense.getLocation() == null) {
-                            continue;
-                        }
-
-                        Block block = defense.getLocation().getBlock();
-                        Material blockType = block.getType();
-
-                        // Check if the block is a valid defense block material
-                        if (isDefenseBlockMaterial(blockType)) {
-                            // Only show particles occasionally to reduce visual clutter
-                            if (Math.random() < 0.3) { // 30% chance each cycle
-                                showTierParticles(block, defense.getTier());
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    plugin.getLogger().severe("Error in particle task: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }, 100L, 100L); // Initial delay: 100 ticks, Period: 100 ticks
-
-            plugin.getLogger().info("Started defense block particle effects task");
-        } catch (Exception e) {
-            plugin.getLogger().severe("Failed to start particle task: " + e.getMessage());
-            e.printStackTrace();
-        }
     }
 
     /**
@@ -99,10 +75,8 @@ public class RaidManager {
         }
 
         // Get the explosive tier
-        int explosiveTier = 1;
-        if (explosiveItem.hasItemMeta() && explosiveItem.getItemMeta().hasCustomModelData()) {
-            explosiveTier = explosiveItem.getItemMeta().getCustomModelData();
-        }
+        ItemClassifier.Classification explosive = ItemClassifier.classify(explosiveItem, ItemClassifier.ItemKind.EXPLOSIVE);
+        int explosiveTier = explosive != null ? explosive.getTier() : 1;
 
         // Get the defense block tier
         int defenseTier = defense.getTier();
@@ -152,46 +126,170 @@ public class RaidManager {
         player.sendMessage(ChatColor.GREEN + "Explosive placed! It will detonate in " + fuseTime + " seconds.");
 
         // Notify target clan members
-        for (UUID memberUUID : targetClan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(ChatColor.RED + "Your clan is being raided by " + player.getName() +
-                        "! A defense block is under attack!");
+        plugin.getOnlineMemberManager().broadcast(targetClan, ChatColor.RED + "Your clan is being raided by " + player.getName() +
+                "! A defense block is under attack!");
+
+        // Schedule explosion
+        long fuseTicks = Math.max(1L, fuseTime * 20L); // Convert seconds to ticks
+        scheduleDetonation(defenseBlock.getLocation(), explosiveTier, player.getUniqueId(), targetClan, fuseTicks);
+
+        return true;
+    }
+
+    /**
+     * Add an explosive to the detonation ring and make sure the raid task is running
+     * @param location Location of the targeted block
+     * @param explosiveTier Tier of the explosive
+     * @param placerUUID Player who placed the explosive
+     * @param targetClan Clan that owns the targeted block
+     * @param fuseTicks Ticks until detonation
+     */
+    private synchronized void scheduleDetonation(Location location, int explosiveTier, UUID placerUUID, Clan targetClan,
+                                                 long fuseTicks) {
+        PendingExplosive explosive = new PendingExplosive(location, explosiveTier, placerUUID, targetClan,
+                currentTick + fuseTicks);
+        int slot = (int) (explosive.detonationTick & (RING_SIZE - 1));
+        if (detonationRing[slot] == null) {
+            detonationRing[slot] = new ArrayList<>();
+        }
+        detonationRing[slot].add(explosive);
+        pendingExplosives++;
+
+        if (raidTask == null) {
+            raidTask = plugin.getSchedulerManager().runGlobalTimer("RaidManager.tickRaids", this::tickRaids, 1L, 1L);
+        }
+    }
+
+    /**
+     * Detonate every explosive due this tick and send aggregated alerts
+     */
+    private void tickRaids() {
+        List<PendingExplosive> due = takeDue();
+        if (due.isEmpty()) {
+            return;
+        }
+
+        due.sort(DETONATION_ORDER);
+        if (!SchedulerManager.isFolia()) {
+            Map<Clan, RaidAlert> alerts = new LinkedHashMap<>();
+            detonate(due, alerts);
+            sendAlerts(alerts);
+            return;
+        }
+
+        // Chunk origin -> explosives in that chunk, still in detonation order
+        Map<Location, List<PendingExplosive>> byChunk = new LinkedHashMap<>();
+        for (PendingExplosive explosive : due) {
+            Location chunkLoc = new Location(explosive.location.getWorld(), explosive.location.getBlockX() >> 4 << 4, 0,
+                    explosive.location.getBlockZ() >> 4 << 4);
+            byChunk.computeIfAbsent(chunkLoc, key -> new ArrayList<>()).add(explosive);
+        }
+
+        Map<Clan, RaidAlert> alerts = new LinkedHashMap<>();
+        AtomicInteger remaining = new AtomicInteger(byChunk.size());
+        for (Map.Entry<Location, List<PendingExplosive>> group : byChunk.entrySet()) {
+            plugin.getSchedulerManager().executeAt("RaidManager.detonate", group.getKey(), () -> {
+                Map<Clan, RaidAlert> groupAlerts = new LinkedHashMap<>();
+                detonate(group.getValue(), groupAlerts);
+                synchronized (alerts) {
+                    groupAlerts.forEach((clan, alert) -> alerts.computeIfAbsent(clan, key -> new RaidAlert()).add(alert));
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    synchronized (alerts) {
+                        sendAlerts(alerts);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Advance the ring by one tick and take the explosives that are due
+     * @return Due explosives, empty if none
+     */
+    private synchronized List<PendingExplosive> takeDue() {
+        currentTick++;
+
+        List<PendingExplosive> due = new ArrayList<>();
+        List<PendingExplosive> slot = detonationRing[(int) (currentTick & (RING_SIZE - 1))];
+        if (slot != null && !slot.isEmpty()) {
+            // Charges with longer fuses share the slot until their revolution comes up
+            Iterator<PendingExplosive> iterator = slot.iterator();
+            while (iterator.hasNext()) {
+                PendingExplosive explosive = iterator.next();
+                if (explosive.detonationTick <= currentTick) {
+                    iterator.remove();
+                    due.add(explosive);
+                }
             }
+            pendingExplosives -= due.size();
         }
 
-        // Create final copies of variables for lambda
-        final Location blockLocation = defenseBlock.getLocation();
-        final int finalExplosiveTier = explosiveTier;
-        final Player finalPlayer = player;
+        // Stop ticking while no raid is in progress
+        if (pendingExplosives == 0 && raidTask != null) {
+            raidTask.cancel();
+            raidTask = null;
+        }
+        return due;
+    }
 
-        // Schedule explosion
-        BukkitTask task = Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            // Remove from active explosives
-            activeExplosives.remove(blockLocation);
+    /**
+     * Detonate explosives on the thread that owns their blocks
+     * @param explosives Explosives in detonation order
+     * @param alerts Alerts for target clans
+     */
+    private void detonate(List<PendingExplosive> explosives, Map<Clan, RaidAlert> alerts) {
+        for (PendingExplosive explosive : explosives) {
+            plugin.getMetricsManager().recordDetonation(explosive.explosiveTier);
+            handleExplosion(explosive.location, explosive.explosiveTier, Bukkit.getPlayer(explosive.placerUUID), alerts);
+        }
+    }
 
-            // Handle explosion
-            handleExplosion(blockLocation, finalExplosiveTier, finalPlayer);
-        }, fuseTime * 20L); // Convert seconds to ticks
+    /**
+     * Send one message per clan summarizing this tick's explosions
+     * @param alerts Aggregated alerts per target clan
+     */
+    private void sendAlerts(Map<Clan, RaidAlert> alerts) {
+        for (Map.Entry<Clan, RaidAlert> entry : alerts.entrySet()) {
+            Clan targetClan = entry.getKey();
+            RaidAlert alert = entry.getValue();
+
+            if (alert.damaged == 1) {
+                plugin.getOnlineMemberManager().broadcast(targetClan, ChatColor.RED + "One of your defense blocks has been damaged to Tier " +
+                        alert.lastDamagedTier + "!");
+            } else if (alert.damaged > 1) {
+                plugin.getOnlineMemberManager().broadcast(targetClan, ChatColor.RED + String.valueOf(alert.damaged) +
+                        " of your defense blocks have been damaged!");
+            }
 
-        // Add to active explosives
-        activeExplosives.put(defenseBlock.getLocation(), task);
+            if (alert.destroyed == 1) {
+                plugin.getOnlineMemberManager().broadcast(targetClan, ChatColor.RED + "One of your defense blocks has been destroyed!");
+            } else if (alert.destroyed > 1) {
+                plugin.getOnlineMemberManager().broadcast(targetClan, ChatColor.RED + String.valueOf(alert.destroyed) +
+                        " of your defense blocks have been destroyed!");
+            }
 
-        return true;
+            if (alert.coreExposed) {
+                plugin.getOnlineMemberManager().broadcast(targetClan, ChatColor.RED + "All your defense blocks have been destroyed! " +
+                        "Your core block is now vulnerable!");
+            }
+        }
     }
 
     /**
      * Handle an explosion at a location
      * @param location Location of the explosion
      * @param explosiveTier Tier of the explosive
-     * @param player Player who placed the explosive
+     * @param player Player who placed the explosive, or null if they are offline
+     * @param alerts Alerts for target clans, filled in instead of messaging them directly
      */
-    private void handleExplosion(Location location, int explosiveTier, Player player) {
+    private void handleExplosion(Location location, int explosiveTier, Player player, Map<Clan, RaidAlert> alerts) {
         // Get the block at the location
         Block block = location.getBlock();
 
         // Check if it's a defense block (any of the terracotta colors)
-        if (isDefenseBlockMaterial(block.getType())) {
+        MaterialRole role = plugin.getConfigManager().getSettings().getMaterialRole(block.getType());
+        if (role == MaterialRole.DEFENSE_BLOCK) {
             // Get the defense block from storage
             DefenseBlock defense = plugin.getDataStorage().getDefenseBlock(location);
             if (defense != null) {
@@ -205,6 +303,7 @@ public class RaidManager {
                 if (defense.getTier() > 1) {
                     // Reduce tier
                     defense.reduceTier();
+                    plugin.getDefenseDecayManager().recalculate(defense);
 
                     // Update the block appearance to match the tier
                     updateDefenseBlockMaterial(block, defense);
@@ -218,12 +317,9 @@ public class RaidManager {
                     }
 
                     // Notify target clan members
-                    for (UUID memberUUID : targetClan.getMembers().keySet()) {
-                        Player member = Bukkit.getPlayer(memberUUID);
-                        if (member != null && member.isOnline()) {
-                            member.sendMessage(ChatColor.RED + "One of your defense blocks has been damaged to Tier " + defense.getTier() + "!");
-                        }
-                    }
+                    RaidAlert alert = alerts.computeIfAbsent(targetClan, clan -> new RaidAlert());
+                    alert.damaged++;
+                    alert.lastDamagedTier = defense.getTier();
                 } else {
                     // If already at tier 1, remove the block
                     block.setType(Material.AIR);
@@ -231,6 +327,7 @@ public class RaidManager {
                     // Remove from storage
                     targetClan.removeDefenseBlock(defense);
                     plugin.getDataStorage().removeDefenseBlock(location);
+                    plugin.getDefenseDecayManager().untrack(defense);
 
                     // Notify players
                     if (player != null && player.isOnline()) {
@@ -238,12 +335,7 @@ public class RaidManager {
                     }
 
                     // Notify target clan members
-                    for (UUID memberUUID : targetClan.getMembers().keySet()) {
-                        Player member = Bukkit.getPlayer(memberUUID);
-                        if (member != null && member.isOnline()) {
-                            member.sendMessage(ChatColor.RED + "One of your defense blocks has been destroyed!");
-                        }
-                    }
+                    alerts.computeIfAbsent(targetClan, clan -> new RaidAlert()).destroyed++;
                 }
 
                 // Notification for clan members is now handled in the tier reduction logic above
@@ -254,25 +346,19 @@ public class RaidManager {
                     CoreBlock coreBlock = targetClan.getCoreBlock();
                     if (coreBlock != null) {
                         // Notify target clan members
-                        for (UUID memberUUID : targetClan.getMembers().keySet()) {
-                            Player member = Bukkit.getPlayer(memberUUID);
-                            if (member != null && member.isOnline()) {
-                                member.sendMessage(ChatColor.RED + "All your defense blocks have been destroyed! " +
-                                        "Your core block is now vulnerable!");
-                            }
-                        }
+                        alerts.computeIfAbsent(targetClan, clan -> new RaidAlert()).coreExposed = true;
                     }
                 }
             }
-        } else if (block.getType() == CoreBlockManager.getCoreBlockMaterial()) {
+        } else if (role == MaterialRole.CORE_BLOCK) {
             // Get the core block from storage
             CoreBlock coreBlock = plugin.getDataStorage().getCoreBlock(location);
             if (coreBlock != null) {
                 // Get the clan that owns the core block
                 Clan targetClan = coreBlock.getClan();
 
-                // Check if all defense blocks are destroyed
-                if (targetClan.getDefenseBlockCount() == 0) {
+                // Check if all defense blocks are destroyed; breaking the core needs the raider online
+                if (targetClan.getDefenseBlockCount() == 0 && player != null) {
                     // Create explosion effect
                     location.getWorld().createExplosion(location, 0, false, false);
 
@@ -306,11 +392,23 @@ public class RaidManager {
     /**
      * Cancel all active explosives
      */
-    public void cancelAllExplosives() {
-        for (BukkitTask task : activeExplosives.values()) {
-            task.cancel();
+    public synchronized void cancelAllExplosives() {
+        if (raidTask != null) {
+            raidTask.cancel();
+            raidTask = null;
+        }
+        for (int i = 0; i < RING_SIZE; i++) {
+            detonationRing[i] = null;
         }
-        activeExplosives.clear();
+        pendingExplosives = 0;
+    }
+
+    /**
+     * Get the number of explosives waiting to detonate
+     * @return Pending explosive count
+     */
+    public synchronized int getPendingExplosiveCount() {
+        return pendingExplosives;
     }
 
     /**
@@ -319,12 +417,6 @@ public class RaidManager {
     public void cleanup() {
         cancelAllExplosives();
 
-        // Cancel the particle task
-        if (particleTask != null) {
-            particleTask.cancel();
-            particleTask = null;
-        }
-
         // Clean up visual manager
         visualManager.cleanup();
     }
@@ -360,63 +452,6 @@ public class RaidManager {
         return CraftingManager.getTierMaterial(tier);
     }
 
-    /**
-     * Check if a material is a valid defense block material
-     * @param material The material to check
-     * @return true if it's a defense block material
-     */
-    private boolean isDefenseBlockMaterial(Material material) {
-        return material == Material.WHITE_TERRACOTTA ||
-               material == Material.LIGHT_GRAY_TERRACOTTA ||
-               material == Material.BROWN_TERRACOTTA ||
-               material == Material.GRAY_TERRACOTTA ||
-               material == Material.BLACK_TERRACOTTA;
-    }
-
-    /**
-     * Show particles around a defense block to indicate its tier
-     * @param block The block to show particles around
-     * @param tier The tier of the defense block
-     */
-    private void showTierParticles(Block block, int tier) {
-        Location loc = block.getLocation().add(0.5, 0.5, 0.5); // Center of block
-
-        // Display different colored particles based on tier
-        Particle primaryParticle;
-        Particle secondaryParticle;
-
-        if (tier >= 5) {
-            // Tier 5: Purple particles
-            primaryParticle = Particle.PORTAL;
-            secondaryParticle = Particle.DRAGON_BREATH;
-            // Spawn more particles for higher tiers
-            block.getWorld().spawnParticle(primaryParticle, loc, 40, 0.4, 0.4, 0.4, 0.05);
-            block.getWorld().spawnParticle(secondaryParticle, loc, 20, 0.3, 0.3, 0.3, 0.01);
-        } else if (tier >= 4) {
-            // Tier 4: Blue particles
-            primaryParticle = Particle.PORTAL;
-            secondaryParticle = Particle.DRAGON_BREATH;
-            block.getWorld().spawnParticle(primaryParticle, loc, 30, 0.4, 0.4, 0.4, 0.05);
-            block.getWorld().spawnParticle(secondaryParticle, loc, 15, 0.3, 0.3, 0.3, 0.01);
-        } else if (tier >= 3) {
-            // Tier 3: Cyan particles
-            primaryParticle = Particle.CLOUD;
-            secondaryParticle = Particle.CRIT;
-            block.getWorld().spawnParticle(primaryParticle, loc, 25, 0.3, 0.3, 0.3, 0.05);
-            block.getWorld().spawnParticle(secondaryParticle, loc, 10, 0.2, 0.2, 0.2, 0.01);
-        } else if (tier >= 2) {
-            // Tier 2: Green particles
-            primaryParticle = Particle.CRIT;
-            secondaryParticle = Particle.CLOUD;
-            block.getWorld().spawnParticle(primaryParticle, loc, 20, 0.3, 0.3, 0.3, 0.05);
-            block.getWorld().spawnParticle(secondaryParticle, loc, 10, 0.2, 0.2, 0.2, 0.01);
-        } else {
-            // Tier 1: Red particles
-            primaryParticle = Particle.FLAME;
-            block.getWorld().spawnParticle(primaryParticle, loc, 15, 0.2, 0.2, 0.2, 0.05);
-        }
-    }
-
     /**
      * Show special particles when a defense block changes tier
      * @param location The location of the block
@@ -460,4 +495,46 @@ public class RaidManager {
         // Play a sound effect
         location.getWorld().playSound(location, Sound.BLOCK_ANVIL_LAND, 0.5f, 1.0f);
     }
+
+    /**
+     * An explosive waiting to detonate
+     */
+    private static class PendingExplosive {
+        private final Location location;
+        private final int explosiveTier;
+        private final UUID placerUUID;
+        private final Clan targetClan;
+        private final long detonationTick;
+
+        private PendingExplosive(Location location, int explosiveTier, UUID placerUUID, Clan targetClan, long detonationTick) {
+            this.location = location;
+            this.explosiveTier = explosiveTier;
+            this.placerUUID = placerUUID;
+            this.targetClan = targetClan;
+            this.detonationTick = detonationTick;
+        }
+    }
+
+    /**
+     * Explosion results for one target clan within a tick
+     */
+    private static class RaidAlert {
+        private int damaged;
+        private int lastDamagedTier;
+        private int destroyed;
+        private boolean coreExposed;
+
+        /**
+         * Add the results of another group of explosions
+         * @param other Alert to add
+         */
+        private void add(RaidAlert other) {
+            if (other.damaged > 0) {
+                lastDamagedTier = other.lastDamagedTier;
+            }
+            damaged += other.damaged;
+            destroyed += other.destroyed;
+            coreExposed |= other.coreExposed;
+        }
+    }
 }
@@ -0,0 +1,174 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules plugin work on the right thread for the server it runs on.
+ * On Folia the world is split into regions that tick in parallel, so work touching blocks
+ * or entities goes to the region or entity scheduler that owns them and plugin-wide timers
+ * go to the global region scheduler. On other servers everything runs on the Bukkit
+ * scheduler's main thread, where every location is owned by the current thread.
+ * Tasks that run on a server thread are wrapped by the profiler under the given site name.
+ */
+public class SchedulerManager {
+
+    private static final boolean FOLIA = detectFolia();
+
+    private final MiniFactions plugin;
+
+    public SchedulerManager(MiniFactions plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * A repeating task that can be cancelled, whichever scheduler runs it
+     */
+    public interface Task {
+
+        /**
+         * Stop the task, a run in progress finishes
+         */
+        void cancel();
+    }
+
+    /**
+     * Check if the server uses regionized threading
+     * @return true on Folia
+     */
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    /**
+     * Run a repeating task that is not tied to a place in the world
+     * @param site Profiler site name
+     * @param task Task to run
+     * @param delayTicks Ticks before the first run
+     * @param periodTicks Ticks between runs
+     * @return Scheduled task
+     */
+    public Task runGlobalTimer(String site, Runnable task, long delayTicks, long periodTicks) {
+        Runnable measured = plugin.getProfilerManager().wrap(site, task);
+        if (FOLIA) {
+            // The global region scheduler needs a delay of at least one tick
+            ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin,
+                    running -> measured.run(), Math.max(1L, delayTicks), periodTicks);
+            return scheduled::cancel;
+        }
+
+        BukkitTask scheduled = Bukkit.getScheduler().runTaskTimer(plugin, measured, delayTicks, periodTicks);
+        return scheduled::cancel;
+    }
+
+    /**
+     * Run a repeating task off the server threads, it must not touch the world.
+     * It uses no tick time, so it is not profiled.
+     * @param task Task to run
+     * @param delayTicks Ticks before the first run
+     * @param periodTicks Ticks between runs
+     * @return Scheduled task
+     */
+    public Task runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        if (FOLIA) {
+            ScheduledTask scheduled = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, running -> task.run(),
+                    delayTicks * 50L, periodTicks * 50L, TimeUnit.MILLISECONDS);
+            return scheduled::cancel;
+        }
+
+        BukkitTask scheduled = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, task, delayTicks, periodTicks);
+        return scheduled::cancel;
+    }
+
+    /**
+     * Run a task once off the server threads, it must not touch the world
+     * @param task Task to run
+     */
+    public void runAsync(Runnable task) {
+        if (FOLIA) {
+            Bukkit.getAsyncScheduler().runNow(plugin, running -> task.run());
+        } else {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+        }
+    }
+
+    /**
+     * Run a task on the next tick of the thread that owns a location
+     * @param site Profiler site name
+     * @param location Location the task works on
+     * @param task Task to run
+     */
+    public void runAt(String site, Location location, Runnable task) {
+        Runnable measured = plugin.getProfilerManager().wrap(site, task);
+        if (FOLIA) {
+            Bukkit.getRegionScheduler().execute(plugin, location, measured);
+        } else {
+            Bukkit.getScheduler().runTask(plugin, measured);
+        }
+    }
+
+    /**
+     * Run a task on the thread that owns a location: right away if that is the current
+     * thread, otherwise on the owning region's next tick
+     * @param site Profiler site name
+     * @param location Location the task works on
+     * @param task Task to run
+     */
+    public void executeAt(String site, Location location, Runnable task) {
+        if (isOwnedByCurrentRegion(location)) {
+            task.run();
+        } else {
+            runAt(site, location, task);
+        }
+    }
+
+    /**
+     * Run a task on the thread that owns an entity: right away if that is the current
+     * thread, otherwise on the entity's next tick. The task is dropped if the entity is
+     * removed first, e.g. a player who logs out.
+     * @param site Profiler site name
+     * @param entity Entity the task works on
+     * @param task Task to run
+     */
+    public void executeFor(String site, Entity entity, Runnable task) {
+        if (FOLIA ? Bukkit.isOwnedByCurrentRegion(entity) : Bukkit.isPrimaryThread()) {
+            task.run();
+            return;
+        }
+
+        Runnable measured = plugin.getProfilerManager().wrap(site, task);
+        if (FOLIA) {
+            entity.getScheduler().execute(plugin, measured, null, 1L);
+        } else {
+            Bukkit.getScheduler().runTask(plugin, measured);
+        }
+    }
+
+    /**
+     * Check if the current thread may touch a location
+     * @param location Location
+     * @return true if the current thread owns it, always on the main thread of a non-Folia server
+     */
+    public boolean isOwnedByCurrentRegion(Location location) {
+        return FOLIA ? Bukkit.isOwnedByCurrentRegion(location) : Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Check for the Folia region classes
+     * @return true if present
+     */
+    private static boolean detectFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -1,32 +1,32 @@
 package Factions.miniFactions.managers;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.ClaimBlock;
 import Factions.miniFactions.models.ClanDoor;
 import Factions.miniFactions.models.CoreBlock;
 import Factions.miniFactions.models.DefenseBlock;
-import org.bukkit.Bukkit;
+import Factions.miniFactions.utils.Clock;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Manager for handling upkeep of all block types
+ * Manager for handling upkeep of all block types.
+ * Destroyed blocks are removed through the world mutation queue, which applies each
+ * removal on the region that owns the block, so one check can cover a whole clan.
  */
 public class UpkeepManager {
 
     private final MiniFactions plugin;
-    private BukkitTask upkeepTask;
-    private final Map<UUID, Long> exemptClans = new HashMap<>();
+    private SchedulerManager.Task upkeepTask;
+    private final Map<UUID, Long> exemptClans = new ConcurrentHashMap<>();
 
     /**
      * Create a new upkeep manager
@@ -41,11 +41,10 @@ public class UpkeepManager {
      * Start the upkeep check task
      */
     private void startUpkeepTask() {
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        int checkInterval = config.getInt("upkeep.check-interval", 1);
+        int checkInterval = plugin.getConfigManager().getSettings().getUpkeepCheckIntervalHours();
         long intervalTicks = checkInterval * 60 * 60 * 20L; // Convert hours to ticks
 
-        upkeepTask = Bukkit.getScheduler().runTaskTimer(plugin, this::checkAllUpkeep,
+        upkeepTask = plugin.getSchedulerManager().runGlobalTimer("UpkeepManager.checkAllUpkeep", this::checkAllUpkeep,
                 20 * 60, // Start after 1 minute
                 intervalTicks); // Run at configured interval
 
@@ -81,10 +80,8 @@ public class UpkeepManager {
             return;
         }
 
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        boolean upkeepEnabled = config.getBoolean("upkeep.core.enabled", true);
-
-        if (!upkeepEnabled) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        if (!settings.isCoreUpkeepPenaltyEnabled()) {
             return;
         }
 
@@ -100,29 +97,28 @@ public class UpkeepManager {
             }
 
             // Upkeep not paid, check grace period
-            long gracePeriod = config.getLong("upkeep.core.grace-period", 48) * 60 * 60 * 1000L; // Convert hours to milliseconds
-            long timeSinceUpkeepDue = System.currentTimeMillis() - (coreBlock.getLastUpkeepTime() +
-                    config.getLong("core.upkeep.payment-interval", 24) * 60 * 60 * 1000L);
+            long gracePeriod = settings.getCoreGraceMillis();
+            long timeSinceUpkeepDue = Clock.now() - coreBlock.getUpkeepDueTime();
 
             if (timeSinceUpkeepDue > gracePeriod) {
                 // Apply penalty
-                String penaltyType = config.getString("upkeep.core.penalty-type", "LEVEL_REDUCTION");
-
-                switch (penaltyType) {
-                    case "LEVEL_REDUCTION":
-                        int levelReduction = config.getInt("upkeep.core.level-reduction", 1);
+                switch (settings.getCorePenalty()) {
+                    case LEVEL_REDUCTION:
+                        int levelReduction = settings.getCoreLevelReduction();
                         int oldLevel = coreBlock.getLevel();
                         int newLevel = Math.max(1, oldLevel - levelReduction);
 
                         if (newLevel < oldLevel) {
                             coreBlock.setLevel(newLevel);
+                            plugin.getDefenseDecayManager().recalculate(clan);
+                            plugin.getPresenceManager().coreChanged(coreBlock);
                             notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay the core block upkeep! " +
                                     "Core level reduced from " + oldLevel + " to " + newLevel + ".");
                         }
                         break;
 
-                    case "POINT_PENALTY":
-                        int penaltyPercentage = config.getInt("upkeep.core.point-penalty-percentage", 10);
+                    case POINT_PENALTY:
+                        int penaltyPercentage = settings.getCorePointPenaltyPercentage();
                         int pointPenalty = (clan.getPoints() * penaltyPercentage) / 100;
 
                         if (pointPenalty > 0) {
@@ -132,7 +128,7 @@ public class UpkeepManager {
                         }
                         break;
 
-                    case "NONE":
+                    case NONE:
                     default:
                         notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay the core block upkeep! " +
                                 "Please add more points to your clan.");
@@ -149,12 +145,8 @@ public class UpkeepManager {
             }
         } else {
             // Check if upkeep is approaching
-            FileConfiguration coreConfig = plugin.getConfigManager().getConfig();
-            int paymentInterval = coreConfig.getInt("core.upkeep.payment-interval", 24);
-            long intervalMillis = paymentInterval * 60 * 60 * 1000L; // Convert hours to milliseconds
-            long warningTime = config.getLong("upkeep.warning-time", 6) * 60 * 60 * 1000L; // Convert hours to milliseconds
-
-            long timeUntilUpkeep = (coreBlock.getLastUpkeepTime() + intervalMillis) - System.currentTimeMillis();
+            long warningTime = settings.getUpkeepWarningMillis();
+            long timeUntilUpkeep = coreBlock.getUpkeepDueTime() - Clock.now();
 
             if (timeUntilUpkeep > 0 && timeUntilUpkeep < warningTime) {
                 // Send warning
@@ -175,10 +167,8 @@ public class UpkeepManager {
             return;
         }
 
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        boolean upkeepEnabled = config.getBoolean("upkeep.claim.enabled", true);
-
-        if (!upkeepEnabled) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        if (!settings.isClaimUpkeepEnabled()) {
             return;
         }
 
@@ -186,22 +176,17 @@ public class UpkeepManager {
         CoreBlock coreBlock = clan.getCoreBlock();
         if (coreBlock == null || (coreBlock.isUpkeepDue() && !coreBlock.payUpkeep())) {
             // Core block upkeep not paid, apply penalties to claim blocks
-            String penaltyType = config.getString("upkeep.claim.penalty-type", "LEVEL_REDUCTION");
-            long gracePeriod = config.getLong("upkeep.claim.grace-period", 24) * 60 * 60 * 1000L; // Convert hours to milliseconds
-
             // Only apply penalties if outside grace period
             if (coreBlock != null) {
-                long timeSinceUpkeepDue = System.currentTimeMillis() - (coreBlock.getLastUpkeepTime() +
-                        config.getLong("core.upkeep.payment-interval", 24) * 60 * 60 * 1000L);
-
-                if (timeSinceUpkeepDue <= gracePeriod) {
+                long timeSinceUpkeepDue = Clock.now() - coreBlock.getUpkeepDueTime();
+                if (timeSinceUpkeepDue <= settings.getClaimGraceMillis()) {
                     return;
                 }
             }
 
-            switch (penaltyType) {
-                case "LEVEL_REDUCTION":
-                    int levelReduction = config.getInt("upkeep.claim.level-reduction", 1);
+            switch (settings.getClaimPenalty()) {
+                case LEVEL_REDUCTION:
+                    int levelReduction = settings.getClaimLevelReduction();
 
                     for (ClaimBlock claimBlock : claimBlocks) {
                         int oldLevel = claimBlock.getLevel();
@@ -216,21 +201,21 @@ public class UpkeepManager {
                             "All claim blocks have been reduced by " + levelReduction + " level(s).");
                     break;
 
-                case "POINT_GENERATION_STOP":
-                    // This is handled in the ClaimBlock.canGeneratePoints() method
+                case POINT_GENERATION_STOP:
+                    // This is handled in the ClaimBlock.accruePoints() method
                     notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay upkeep! " +
                             "Claim blocks have stopped generating points.");
                     break;
 
-                case "DESTRUCTION":
-                    // Remove all claim blocks
-                    for (ClaimBlock claimBlock : claimBlocks) {
+                case DESTRUCTION:
+                    // Remove all claim blocks; the world changes are applied by the mutation queue
+                    for (ClaimBlock claimBlock : new ArrayList<>(claimBlocks)) {
                         Location location = claimBlock.getLocation();
-                        location.getBlock().setType(Material.AIR);
+                        clan.removeClaimBlock(claimBlock);
                         plugin.getDataStorage().removeClaimBlock(location);
+                        plugin.getWorldMutationManager().enqueueRemoval(location, CraftingManager.getClaimBlockMaterial());
                     }
 
-                    claimBlocks.clear();
                     notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay upkeep! " +
                             "All claim blocks have been destroyed.");
                     break;
@@ -248,10 +233,8 @@ public class UpkeepManager {
             return;
         }
 
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        boolean upkeepEnabled = config.getBoolean("upkeep.defense.enabled", true);
-
-        if (!upkeepEnabled) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        if (!settings.isDefenseUpkeepEnabled()) {
             return;
         }
 
@@ -259,56 +242,48 @@ public class UpkeepManager {
         CoreBlock coreBlock = clan.getCoreBlock();
         if (coreBlock == null || (coreBlock.isUpkeepDue() && !coreBlock.payUpkeep())) {
             // Core block upkeep not paid, apply penalties to defense blocks
-            String penaltyType = config.getString("upkeep.defense.penalty-type", "TIER_REDUCTION");
-            long gracePeriod = config.getLong("upkeep.defense.grace-period", 12) * 60 * 60 * 1000L; // Convert hours to milliseconds
-
             // Only apply penalties if outside grace period
             if (coreBlock != null) {
-                long timeSinceUpkeepDue = System.currentTimeMillis() - (coreBlock.getLastUpkeepTime() +
-                        config.getLong("core.upkeep.payment-interval", 24) * 60 * 60 * 1000L);
-
-                if (timeSinceUpkeepDue <= gracePeriod) {
+                long timeSinceUpkeepDue = Clock.now() - coreBlock.getUpkeepDueTime();
+                if (timeSinceUpkeepDue <= settings.getDefenseGraceMillis()) {
                     return;
                 }
             }
 
-            switch (penaltyType) {
-                case "TIER_REDUCTION":
-                    int tierReduction = config.getInt("upkeep.defense.tier-reduction", 1);
+            switch (settings.getDefensePenalty()) {
+                case TIER_REDUCTION:
+                    int tierReduction = settings.getDefenseTierReduction();
                     int reducedCount = 0;
 
                     for (DefenseBlock defenseBlock : defenseBlocks) {
                         if (defenseBlock.getTier() > 1) {
+                            // Material is the same for all tiers, so the world block is left untouched
                             for (int i = 0; i < tierReduction; i++) {
                                 if (defenseBlock.reduceTier()) {
                                     reducedCount++;
                                 }
                             }
-
-                            // Update the block material to match the new tier
-                            Location location = defenseBlock.getLocation();
-                            if (location.getBlock().getType() == CraftingManager.getDefenseBlockMaterial()) {
-                                // The block is still there, update it
-                                // No need to change material as it's the same for all tiers
-                            }
                         }
                     }
 
                     if (reducedCount > 0) {
+                        // Lower tiers decay sooner
+                        plugin.getDefenseDecayManager().recalculate(clan);
                         notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay upkeep! " +
                                 reducedCount + " defense blocks have been reduced in tier.");
                     }
                     break;
 
-                case "DESTRUCTION":
-                    // Remove all defense blocks
-                    for (DefenseBlock defenseBlock : defenseBlocks) {
+                case DESTRUCTION:
+                    // Remove all defense blocks; the world changes are applied by the mutation queue
+                    for (DefenseBlock defenseBlock : new ArrayList<>(defenseBlocks)) {
                         Location location = defenseBlock.getLocation();
-                        location.getBlock().setType(Material.AIR);
+                        clan.removeDefenseBlock(defenseBlock);
                         plugin.getDataStorage().removeDefenseBlock(location);
+                        plugin.getDefenseDecayManager().untrack(defenseBlock);
+                        plugin.getWorldMutationManager().enqueueRemoval(location, defenseBlock.getMaterial());
                     }
 
-                    defenseBlocks.clear();
                     notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay upkeep! " +
                             "All defense blocks have been destroyed.");
                     break;
@@ -326,10 +301,8 @@ public class UpkeepManager {
             return;
         }
 
-        FileConfiguration config = plugin.getConfigManager().getConfig();
-        boolean upkeepEnabled = config.getBoolean("upkeep.door.enabled", true);
-
-        if (!upkeepEnabled) {
+        Settings settings = plugin.getConfigManager().getSettings();
+        if (!settings.isDoorUpkeepEnabled()) {
             return;
         }
 
@@ -337,36 +310,31 @@ public class UpkeepManager {
         CoreBlock coreBlock = clan.getCoreBlock();
         if (coreBlock == null || (coreBlock.isUpkeepDue() && !coreBlock.payUpkeep())) {
             // Core block upkeep not paid, apply penalties to clan trapdoors
-            String penaltyType = config.getString("upkeep.door.penalty-type", "DESTRUCTION");
-            long gracePeriod = config.getLong("upkeep.door.grace-period", 6) * 60 * 60 * 1000L; // Convert hours to milliseconds
-
             // Only apply penalties if outside grace period
             if (coreBlock != null) {
-                long timeSinceUpkeepDue = System.currentTimeMillis() - (coreBlock.getLastUpkeepTime() +
-                        config.getLong("core.upkeep.payment-interval", 24) * 60 * 60 * 1000L);
-
-                if (timeSinceUpkeepDue <= gracePeriod) {
+                long timeSinceUpkeepDue = Clock.now() - coreBlock.getUpkeepDueTime();
+                if (timeSinceUpkeepDue <= settings.getDoorGraceMillis()) {
                     return;
                 }
             }
 
-            switch (penaltyType) {
-                case "PUBLIC_ACCESS":
+            switch (settings.getDoorPenalty()) {
+                case PUBLIC_ACCESS:
                     // This would require additional implementation to make trapdoors public
                     // For now, just notify players
                     notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay upkeep! " +
                             "All clan trapdoors are now accessible to everyone.");
                     break;
 
-                case "DESTRUCTION":
-                    // Remove all clan trapdoors
-                    for (ClanDoor clanDoor : clanDoors) {
+                case DESTRUCTION:
+                    // Remove all clan trapdoors; the world changes are applied by the mutation queue
+                    for (ClanDoor clanDoor : new ArrayList<>(clanDoors)) {
                         Location location = clanDoor.getLocation();
-                        location.getBlock().setType(Material.AIR);
+                        clan.removeClanDoor(clanDoor);
                         plugin.getDataStorage().removeClanDoor(location);
+                        plugin.getWorldMutationManager().enqueueRemoval(location, CraftingManager.getClanDoorMaterial());
                     }
 
-                    clanDoors.clear();
                     notifyClanMembers(clan, ChatColor.RED + "Your clan could not pay upkeep! " +
                             "All clan trapdoors have been destroyed.");
                     break;
@@ -380,12 +348,7 @@ public class UpkeepManager {
      * @param message The message to send
      */
     private void notifyClanMembers(Clan clan, String message) {
-        for (UUID memberUUID : clan.getMembers().keySet()) {
-            Player member = Bukkit.getPlayer(memberUUID);
-            if (member != null && member.isOnline()) {
-                member.sendMessage(message);
-            }
-        }
+        plugin.getOnlineMemberManager().broadcast(clan, message);
     }
 
     /**
@@ -405,7 +368,7 @@ public class UpkeepManager {
      */
     public void setExempt(UUID clanLeader, boolean exempt, long duration) {
         if (exempt) {
-            long expiryTime = duration > 0 ? System.currentTimeMillis() + (duration * 60 * 60 * 1000L) : Long.MAX_VALUE;
+            long expiryTime = duration > 0 ? Clock.now() + (duration * 60 * 60 * 1000L) : Long.MAX_VALUE;
             exemptClans.put(clanLeader, expiryTime);
         } else {
             exemptClans.remove(clanLeader);
@@ -0,0 +1,604 @@
+package Factions.miniFactions.managers;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.spatial.ChunkCoordinate;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Tick-budgeted queue for bulk world changes (upkeep destruction, decay, admin wipes).
+ * Mutations are grouped per chunk and only applied while their chunk is loaded;
+ * batches for unloaded chunks wait until the chunk loads and survive restarts.
+ * Every queued and applied mutation is appended to a log that is replayed over the
+ * last pending snapshot on startup, so a crash doesn't lose queued changes whose
+ * owner data is already gone. The queue and the log are guarded by this manager. On Folia every ready batch is handed to the
+ * region that owns its chunk and drained there with its own budget.
+ */
+public class WorldMutationManager {
+
+    private static final String PENDING_CONFIG = "mutations";
+    private static final String LOG_FILE = "mutations.log";
+    private static final byte OP_QUEUED = 1;
+    private static final byte OP_APPLIED = 2;
+
+    private final MiniFactions plugin;
+    // World name -> chunk -> pending mutations for that chunk
+    private final Map<String, Map<ChunkCoordinate, ChunkBatch>> batches = new HashMap<>();
+    // Batches whose chunk is loaded, in the order they will be drained
+    private final ArrayDeque<ChunkBatch> ready = new ArrayDeque<>();
+    private int pendingCount;
+    private SchedulerManager.Task drainTask;
+    private final File logFile;
+    private DataOutputStream log;
+    private boolean logDirty;
+    // Whether the pending snapshot has entries
+    private boolean snapshotPending;
+
+    public WorldMutationManager(MiniFactions plugin) {
+        this.plugin = plugin;
+        this.logFile = new File(plugin.getDataFolder(), LOG_FILE);
+        loadPending();
+        startDrainTask();
+    }
+
+    /**
+     * Queue a block change
+     * @param location Block location
+     * @param target Material to set
+     * @param expected Material the block must still have when applied, or null to apply unconditionally
+     */
+    public void enqueue(Location location, Material target, Material expected) {
+        World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+
+        enqueue(world.getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), target, expected);
+    }
+
+    /**
+     * Queue removal of a block
+     * @param location Block location
+     * @param expected Material the block must still have when removed, or null to remove unconditionally
+     */
+    public void enqueueRemoval(Location location, Material expected) {
+        enqueue(location, Material.AIR, expected);
+    }
+
+    /**
+     * Queue a block change by raw coordinates
+     * @param worldName World name
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @param target Material to set
+     * @param expected Material the block must still have when applied, or null to apply unconditionally
+     */
+    private synchronized void enqueue(String worldName, int x, int y, int z, Material target, Material expected) {
+        Mutation mutation = new Mutation(x, y, z, target, expected);
+        add(worldName, mutation);
+        logQueued(worldName, mutation);
+    }
+
+    /**
+     * Add a mutation to its chunk batch
+     * @param worldName World name
+     * @param mutation Mutation to add
+     */
+    private void add(String worldName, Mutation mutation) {
+        ChunkCoordinate chunk = new ChunkCoordinate(mutation.x >> 4, mutation.z >> 4);
+        ChunkBatch batch = batches.computeIfAbsent(worldName, name -> new HashMap<>())
+                .computeIfAbsent(chunk, coordinate -> new ChunkBatch(worldName, coordinate));
+
+        batch.mutations.add(mutation);
+        pendingCount++;
+
+        // Only loaded chunks are drained; the rest wait for their chunk load
+        if (!batch.queued) {
+            World world = Bukkit.getWorld(worldName);
+            if (world != null && world.isChunkLoaded(chunk.getX(), chunk.getZ())) {
+                batch.queued = true;
+                ready.add(batch);
+            }
+        }
+    }
+
+    /**
+     * Make pending mutations of a freshly loaded chunk eligible for draining
+     * @param chunk Loaded chunk
+     */
+    public synchronized void chunkLoaded(Chunk chunk) {
+        Map<ChunkCoordinate, ChunkBatch> worldBatches = batches.get(chunk.getWorld().getName());
+        if (worldBatches == null) {
+            return;
+        }
+
+        ChunkBatch batch = worldBatches.get(new ChunkCoordinate(chunk));
+        if (batch != null && !batch.queued) {
+            batch.queued = true;
+            ready.add(batch);
+        }
+    }
+
+    /**
+     * Start the per-tick drain task
+     */
+    private void startDrainTask() {
+        drainTask = plugin.getSchedulerManager().runGlobalTimer("WorldMutationManager.drain", this::drain, 1L, 1L);
+    }
+
+    /**
+     * Apply queued mutations until the tick budget is used up
+     */
+    private synchronized void drain() {
+        flushLog();
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        if (SchedulerManager.isFolia()) {
+            // The batch stays queued while in flight, so chunk loads don't queue it twice
+            while (!ready.isEmpty()) {
+                ChunkBatch batch = ready.pollFirst();
+                World world = Bukkit.getWorld(batch.worldName);
+                if (world == null) {
+                    batch.queued = false;
+                    continue;
+                }
+
+                Location chunkLoc = new Location(world, batch.chunk.getX() << 4, 0, batch.chunk.getZ() << 4);
+                plugin.getSchedulerManager().runAt("WorldMutationManager.drainChunk", chunkLoc,
+                        () -> drainChunk(world, batch));
+            }
+            return;
+        }
+
+        long deadline = System.nanoTime() + plugin.getConfigManager().getSettings().getMutationBudgetNanos();
+
+        while (!ready.isEmpty()) {
+            ChunkBatch batch = ready.peekFirst();
+            World world = Bukkit.getWorld(batch.worldName);
+
+            // Chunk unloaded since it was queued, wait for it to load again
+            if (world == null || !world.isChunkLoaded(batch.chunk.getX(), batch.chunk.getZ())) {
+                ready.pollFirst();
+                batch.queued = false;
+                continue;
+            }
+
+            while (!batch.mutations.isEmpty()) {
+                Mutation mutation = batch.mutations.poll();
+                apply(world, mutation);
+                logApplied(batch.worldName, mutation);
+                pendingCount--;
+
+                if (System.nanoTime() >= deadline) {
+                    if (batch.mutations.isEmpty()) {
+                        finish(batch);
+                    }
+                    return;
+                }
+            }
+
+            finish(batch);
+        }
+    }
+
+    /**
+     * Apply the mutations of a batch on the region that owns its chunk until the budget is used up
+     * @param world World of the batch
+     * @param batch Batch handed off by the drain task
+     */
+    private void drainChunk(World world, ChunkBatch batch) {
+        long deadline = System.nanoTime() + plugin.getConfigManager().getSettings().getMutationBudgetNanos();
+
+        // Chunk unloaded since it was handed off, wait for it to load again
+        if (!world.isChunkLoaded(batch.chunk.getX(), batch.chunk.getZ())) {
+            synchronized (this) {
+                batch.queued = false;
+            }
+            return;
+        }
+
+        // A mutation stays pending until it is logged as applied
+        Mutation mutation = null;
+        while (true) {
+            synchronized (this) {
+                if (mutation != null) {
+                    logApplied(batch.worldName, mutation);
+                    pendingCount--;
+                }
+                mutation = batch.mutations.poll();
+                if (mutation == null) {
+                    forget(batch);
+                    return;
+                }
+            }
+
+            // The world is changed outside the lock so other regions can keep queueing
+            apply(world, mutation);
+
+            if (System.nanoTime() >= deadline) {
+                synchronized (this) {
+                    logApplied(batch.worldName, mutation);
+                    pendingCount--;
+                    if (batch.mutations.isEmpty()) {
+                        forget(batch);
+                    } else {
+                        ready.add(batch);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Apply a single mutation
+     * @param world World the mutation belongs to
+     * @param mutation Mutation to apply
+     */
+    private void apply(World world, Mutation mutation) {
+        Block block = world.getBlockAt(mutation.x, mutation.y, mutation.z);
+
+        // Skip blocks that were changed by someone else in the meantime
+        if (mutation.expected != null && block.getType() != mutation.expected) {
+            return;
+        }
+
+        block.setType(mutation.target);
+    }
+
+    /**
+     * Drop an empty batch from the head of the ready queue
+     * @param batch Drained batch
+     */
+    private void finish(ChunkBatch batch) {
+        ready.pollFirst();
+        forget(batch);
+    }
+
+    /**
+     * Drop a drained batch
+     * @param batch Batch without mutations
+     */
+    private void forget(ChunkBatch batch) {
+        batch.queued = false;
+
+        Map<ChunkCoordinate, ChunkBatch> worldBatches = batches.get(batch.worldName);
+        if (worldBatches != null) {
+            worldBatches.remove(batch.chunk);
+            if (worldBatches.isEmpty()) {
+                batches.remove(batch.worldName);
+            }
+        }
+    }
+
+    /**
+     * Get the number of queued mutations
+     * @return Pending mutation count
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Get the number of chunks with queued mutations
+     * @return Pending chunk count
+     */
+    public synchronized int getPendingChunkCount() {
+        int count = 0;
+        for (Map<ChunkCoordinate, ChunkBatch> worldBatches : batches.values()) {
+            count += worldBatches.size();
+        }
+        return count;
+    }
+
+    /**
+     * Load the pending snapshot and replay the log written since, then fold both into a new snapshot
+     */
+    private synchronized void loadPending() {
+        // World name -> "x;y;z" -> mutations at that block, in queue order
+        Map<String, Map<String, ArrayDeque<Mutation>>> pending = new LinkedHashMap<>();
+
+        FileConfiguration config = plugin.getConfigManager().getConfig(PENDING_CONFIG);
+        List<String> entries = config.getStringList("pending");
+        snapshotPending = !entries.isEmpty();
+        for (String entry : entries) {
+            // Format: world;x;y;z;TARGET;EXPECTED
+            String[] parts = entry.split(";", -1);
+            if (parts.length != 6) {
+                continue;
+            }
+
+            try {
+                Material target = Material.valueOf(parts[4]);
+                Material expected = parts[5].isEmpty() ? null : Material.valueOf(parts[5]);
+                Mutation mutation = new Mutation(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+                        Integer.parseInt(parts[3]), target, expected);
+                queueAt(pending, parts[0], mutation);
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid pending world mutation: " + entry);
+            }
+        }
+
+        boolean replayed = replayLog(pending);
+
+        for (Map.Entry<String, Map<String, ArrayDeque<Mutation>>> world : pending.entrySet()) {
+            for (ArrayDeque<Mutation> mutations : world.getValue().values()) {
+                for (Mutation mutation : mutations) {
+                    add(world.getKey(), mutation);
+                }
+            }
+        }
+
+        if (replayed) {
+            // Start the new log from a snapshot of what is still pending
+            savePending();
+            deleteLog();
+        }
+
+        if (pendingCount > 0) {
+            plugin.getLogger().info("Loaded " + pendingCount + " pending world mutations.");
+        }
+    }
+
+    /**
+     * Replay the log over the pending snapshot
+     * @param pending Pending mutations by world and block
+     * @return true if a log was found
+     */
+    private boolean replayLog(Map<String, Map<String, ArrayDeque<Mutation>>> pending) {
+        if (!logFile.exists()) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                try {
+                    String worldName = in.readUTF();
+                    int x = in.readInt();
+                    int y = in.readInt();
+                    int z = in.readInt();
+                    if (op == OP_QUEUED) {
+                        Material target = Material.valueOf(in.readUTF());
+                        String expected = in.readUTF();
+                        queueAt(pending, worldName, new Mutation(x, y, z, target, expected.isEmpty() ? null : Material.valueOf(expected)));
+                    } else if (op == OP_APPLIED) {
+                        // Mutations of a block are applied in the order they were queued
+                        Map<String, ArrayDeque<Mutation>> worldPending = pending.get(worldName);
+                        ArrayDeque<Mutation> mutations = worldPending != null ? worldPending.get(x + ";" + y + ";" + z) : null;
+                        if (mutations != null) {
+                            mutations.pollFirst();
+                        }
+                    } else {
+                        plugin.getLogger().warning("Corrupt world mutation log " + logFile.getName() + ", ignoring the rest.");
+                        break;
+                    }
+                } catch (EOFException e) {
+                    // Partially written last entry from a crash
+                    plugin.getLogger().warning("Truncated world mutation log " + logFile.getName() + ", ignoring the last entry.");
+                    break;
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to read world mutation log: " + e.getMessage(), e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Add a mutation read from storage to the pending mutations of its block
+     * @param pending Pending mutations by world and block
+     * @param worldName World name
+     * @param mutation Mutation
+     */
+    private static void queueAt(Map<String, Map<String, ArrayDeque<Mutation>>> pending, String worldName, Mutation mutation) {
+        pending.computeIfAbsent(worldName, name -> new LinkedHashMap<>())
+                .computeIfAbsent(mutation.x + ";" + mutation.y + ";" + mutation.z, key -> new ArrayDeque<>())
+                .add(mutation);
+    }
+
+    /**
+     * Save mutations that have not been applied yet
+     */
+    private void savePending() {
+        List<String> entries = new ArrayList<>(pendingCount);
+        for (Map<ChunkCoordinate, ChunkBatch> worldBatches : batches.values()) {
+            for (ChunkBatch batch : worldBatches.values()) {
+                for (Mutation mutation : batch.mutations) {
+                    entries.add(batch.worldName + ";" + mutation.x + ";" + mutation.y + ";" + mutation.z + ";" +
+                            mutation.target.name() + ";" + (mutation.expected != null ? mutation.expected.name() : ""));
+                }
+            }
+        }
+
+        FileConfiguration config = plugin.getConfigManager().getConfig(PENDING_CONFIG);
+        config.set("pending", entries);
+        plugin.getConfigManager().saveConfig(PENDING_CONFIG);
+        snapshotPending = !entries.isEmpty();
+    }
+
+    /**
+     * Record a queued mutation in the log
+     * @param worldName World name
+     * @param mutation Queued mutation
+     */
+    private void logQueued(String worldName, Mutation mutation) {
+        try {
+            DataOutputStream out = openLog();
+            out.writeByte(OP_QUEUED);
+            writePosition(out, worldName, mutation);
+            out.writeUTF(mutation.target.name());
+            out.writeUTF(mutation.expected != null ? mutation.expected.name() : "");
+            logDirty = true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to write world mutation log: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Record an applied (or skipped) mutation in the log
+     * @param worldName World name
+     * @param mutation Applied mutation
+     */
+    private void logApplied(String worldName, Mutation mutation) {
+        try {
+            DataOutputStream out = openLog();
+            out.writeByte(OP_APPLIED);
+            writePosition(out, worldName, mutation);
+            logDirty = true;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to write world mutation log: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write the block position of a mutation
+     * @param out Log stream
+     * @param worldName World name
+     * @param mutation Mutation
+     * @throws IOException if the log can't be written
+     */
+    private static void writePosition(DataOutputStream out, String worldName, Mutation mutation) throws IOException {
+        out.writeUTF(worldName);
+        out.writeInt(mutation.x);
+        out.writeInt(mutation.y);
+        out.writeInt(mutation.z);
+    }
+
+    /**
+     * Get the log output stream, opening it if needed
+     * @return Log stream
+     * @throws IOException if the log can't be opened
+     */
+    private DataOutputStream openLog() throws IOException {
+        if (log == null) {
+            log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+        }
+        return log;
+    }
+
+    /**
+     * Flush the log once per tick if it was written, and start over once the queue is empty
+     */
+    private void flushLog() {
+        if (!logDirty) {
+            return;
+        }
+
+        logDirty = false;
+        if (pendingCount == 0) {
+            // Nothing is pending, so neither the snapshot nor the log is needed
+            if (snapshotPending) {
+                savePending();
+            }
+            deleteLog();
+            return;
+        }
+
+        try {
+            log.flush();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to flush world mutation log: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Close and delete the log
+     */
+    private void deleteLog() {
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to close world mutation log: " + e.getMessage(), e);
+        }
+
+        if (logFile.exists() && !logFile.delete()) {
+            plugin.getLogger().warning("Failed to delete world mutation log " + logFile.getName());
+        }
+    }
+
+    /**
+     * Stop the drain task and persist pending mutations
+     */
+    public synchronized void cleanup() {
+        if (drainTask != null) {
+            drainTask.cancel();
+            drainTask = null;
+        }
+
+        savePending();
+        deleteLog();
+        batches.clear();
+        ready.clear();
+        pendingCount = 0;
+    }
+
+    /**
+     * Pending mutations for one chunk
+     */
+    private static class ChunkBatch {
+        private final String worldName;
+        private final ChunkCoordinate chunk;
+        private final ArrayDeque<Mutation> mutations = new ArrayDeque<>();
+        private boolean queued;
+
+        private ChunkBatch(String worldName, ChunkCoordinate chunk) {
+            this.worldName = worldName;
+            this.chunk = chunk;
+        }
+    }
+
+    /**
+     * A single queued block change
+     */
+    private static class Mutation {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final Material target;
+        private final Material expected;
+
+        private Mutation(int x, int y, int z, Material target, Material expected) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.target = target;
+            this.expected = expected;
+        }
+    }
+}
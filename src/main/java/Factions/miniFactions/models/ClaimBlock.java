@@ -1,15 +1,18 @@
 package Factions.miniFactions.models;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
 import Factions.miniFactions.spatial.BlockType;
 import Factions.miniFactions.spatial.SpatiallyIndexable;
+import Factions.miniFactions.utils.Clock;
 import org.bukkit.Location;
-import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.Objects;
 
 public class ClaimBlock implements SpatiallyIndexable {
 
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
     private final Location location;
     private final Clan clan;
     private int level;
@@ -32,7 +35,7 @@ public class ClaimBlock implements SpatiallyIndexable {
         this.location = location;
         this.clan = clan;
         this.level = 1;
-        this.lastPointGenerationTime = System.currentTimeMillis();
+        this.lastPointGenerationTime = Clock.now();
     }
 
     /**
@@ -65,8 +68,7 @@ public class ClaimBlock implements SpatiallyIndexable {
      * @return The actual level that was set (may be clamped to valid range)
      */
     public int setLevel(int level) {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxLevel = config.getInt("claim.max-upgrade-level", 5);
+        int maxLevel = settings().getClaimMaxLevel();
 
         if (level < 1) {
             this.level = 1;
@@ -84,8 +86,7 @@ public class ClaimBlock implements SpatiallyIndexable {
      * @return true if successful, false if already at max level
      */
     public boolean upgrade() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxLevel = config.getInt("claim.max-upgrade-level", 5);
+        int maxLevel = settings().getClaimMaxLevel();
 
         if (level < maxLevel) {
             level++;
@@ -108,7 +109,7 @@ public class ClaimBlock implements SpatiallyIndexable {
      * @throws IllegalArgumentException if lastPointGenerationTime is in the future
      */
     public void setLastPointGenerationTime(long lastPointGenerationTime) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = Clock.now();
         if (lastPointGenerationTime > currentTime) {
             throw new IllegalArgumentException("Generation time cannot be in the future");
         }
@@ -119,7 +120,7 @@ public class ClaimBlock implements SpatiallyIndexable {
      * Update the last point generation time to now
      */
     public void updatePointGenerationTime() {
-        this.lastPointGenerationTime = System.currentTimeMillis();
+        this.lastPointGenerationTime = Clock.now();
     }
 
     /**
@@ -127,8 +128,7 @@ public class ClaimBlock implements SpatiallyIndexable {
      * @return Points per day
      */
     public int getPointsPerDay() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("claim.levels." + level + ".points-per-day", 100);
+        return settings().getClaimPointsPerDay(level);
     }
 
     /**
@@ -136,14 +136,12 @@ public class ClaimBlock implements SpatiallyIndexable {
      * @return Upgrade cost in points, or -1 if already at max level
      */
     public int getUpgradeCost() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxLevel = config.getInt("claim.max-upgrade-level", 5);
-
-        if (level >= maxLevel) {
+        Settings settings = settings();
+        if (level >= settings.getClaimMaxLevel()) {
             return -1;
         }
 
-        return config.getInt("claim.levels." + (level + 1) + ".upgrade-cost", 500 * (level + 1));
+        return settings.getClaimUpgradeCost(level + 1);
     }
 
     /**
@@ -151,38 +149,88 @@ public class ClaimBlock implements SpatiallyIndexable {
      * @return List of material:amount strings
      */
     public java.util.List<String> getUpgradeItems() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getStringList("claim.levels." + (level + 1) + ".upgrade-items");
+        return settings().getClaimUpgradeItems(level + 1);
     }
 
     /**
-     * Check if points are ready to be generated
-     * @return true if points are ready
+     * Get the time at which the next day of points is earned
+     * @return Next generation time in milliseconds
      */
-    public boolean canGeneratePoints() {
+    public long getNextPointGenerationTime() {
+        return lastPointGenerationTime + DAY_MILLIS;
+    }
+
+    /**
+     * Check if the block is currently allowed to generate points
+     * @return true if the clan meets all generation requirements
+     */
+    public boolean isGeneratingPoints() {
+        CoreBlock coreBlock = clan.getCoreBlock();
+
         // Check if core block exists
-        if (clan.getCoreBlock() == null) {
+        if (coreBlock == null) {
             return false;
         }
 
         // Check if within max claim blocks
-        if (clan.getClaimBlockCount() > clan.getCoreBlock().getMaxClaimBlocks()) {
+        if (clan.getClaimBlockCount() > coreBlock.getMaxClaimBlocks()) {
             return false;
         }
 
-        // Check if upkeep is due and not paid
-        if (clan.getCoreBlock().isUpkeepDue() && !clan.getCoreBlock().payUpkeep()) {
-            // Check if upkeep penalty is set to stop point generation
-            FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-            String penaltyType = config.getString("upkeep.claim.penalty-type", "LEVEL_REDUCTION");
-            if (penaltyType.equals("POINT_GENERATION_STOP")) {
-                return false;
-            }
+        // Unpaid core upkeep stops generation when configured to
+        return !(coreBlock.isUpkeepDue() && settings().getClaimPenalty() == Settings.ClaimPenalty.POINT_GENERATION_STOP);
+    }
+
+    /**
+     * Check if points are ready to be generated
+     * @return true if points are ready
+     */
+    public boolean canGeneratePoints() {
+        return isGeneratingPoints() && Clock.now() >= getNextPointGenerationTime();
+    }
+
+    /**
+     * Accrue the points earned for every full day since the last generation.
+     * Days that pass while generation is blocked are kept and paid out once it resumes.
+     * @param now Current time in milliseconds
+     * @return Points earned (not yet added to the clan)
+     */
+    public int accruePoints(long now) {
+        long elapsed = now - lastPointGenerationTime;
+        if (elapsed < DAY_MILLIS) {
+            return 0;
+        }
+
+        // Due upkeep only stops generation if the clan can't pay it
+        CoreBlock coreBlock = clan.getCoreBlock();
+        if (coreBlock != null && coreBlock.isUpkeepDue() &&
+                settings().getClaimPenalty() == Settings.ClaimPenalty.POINT_GENERATION_STOP) {
+            coreBlock.payUpkeep();
+        }
+
+        if (!isGeneratingPoints()) {
+            return 0;
+        }
+
+        long days = elapsed / DAY_MILLIS;
+        lastPointGenerationTime += days * DAY_MILLIS;
+
+        return (int) Math.min(Integer.MAX_VALUE, days * getPointsPerDay());
+    }
+
+    /**
+     * Drop the full days earned since the last generation without paying them
+     * @param now Current time in milliseconds
+     * @return true if the generation time moved
+     */
+    public boolean skipEarnedDays(long now) {
+        long days = (now - lastPointGenerationTime) / DAY_MILLIS;
+        if (days <= 0) {
+            return false;
         }
 
-        // Check if 24 hours have passed since last generation
-        long dayInMillis = 24 * 60 * 60 * 1000L;
-        return System.currentTimeMillis() - lastPointGenerationTime >= dayInMillis;
+        lastPointGenerationTime += days * DAY_MILLIS;
+        return true;
     }
 
     /**
@@ -190,14 +238,11 @@ public class ClaimBlock implements SpatiallyIndexable {
      * @return Amount of points generated
      */
     public int generatePoints() {
-        if (!canGeneratePoints()) {
-            return 0;
+        int points = accruePoints(Clock.now());
+        if (points > 0) {
+            clan.addPoints(points);
         }
 
-        int points = getPointsPerDay();
-        clan.addPoints(points);
-        updatePointGenerationTime();
-
         return points;
     }
 
@@ -224,6 +269,14 @@ public class ClaimBlock implements SpatiallyIndexable {
         return distanceSquared <= radius * radius;
     }
 
+    /**
+     * Get the current settings snapshot
+     * @return Settings
+     */
+    private static Settings settings() {
+        return MiniFactions.getInstance().getConfigManager().getSettings();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,12 +1,16 @@
 package Factions.miniFactions.models;
 
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.managers.ClaimPointManager;
+import Factions.miniFactions.managers.LeaderboardManager;
+import Factions.miniFactions.storage.DataStorage;
+
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
 
@@ -17,14 +21,16 @@ public class Clan {
     public static final String ROLE_MEMBER = "MEMBER";
 
     private final String id;
-    private String name;
+    private volatile String name;
     private final UUID leader;
-    private final Map<UUID, String> members = new HashMap<>();
+    // Region threads on Folia read and change a clan in parallel, so the collections are
+    // concurrent and points are guarded by the clan itself
+    private final Map<UUID, String> members = new ConcurrentHashMap<>();
     private int points;
-    private CoreBlock coreBlock;
-    private final Set<ClaimBlock> claimBlocks = new HashSet<>();
-    private final Set<DefenseBlock> defenseBlocks = new HashSet<>();
-    private final Set<ClanDoor> clanDoors = new HashSet<>();
+    private volatile CoreBlock coreBlock;
+    private final Set<ClaimBlock> claimBlocks = ConcurrentHashMap.newKeySet();
+    private final Set<DefenseBlock> defenseBlocks = ConcurrentHashMap.newKeySet();
+    private final Set<ClanDoor> clanDoors = ConcurrentHashMap.newKeySet();
 
     /**
      * Create a new clan
@@ -76,7 +82,13 @@ public class Clan {
         if (name == null || name.trim().isEmpty()) {
             throw new IllegalArgumentException("Clan name cannot be null or empty");
         }
+        String oldName = this.name;
         this.name = name;
+
+        DataStorage dataStorage = MiniFactions.getInstance().getDataStorage();
+        if (dataStorage != null) {
+            dataStorage.clanRenamed(this, oldName);
+        }
     }
 
     /**
@@ -144,7 +156,7 @@ public class Clan {
      * @return true if the player is a member
      */
     public boolean isMember(UUID playerUUID) {
-        return members.containsKey(playerUUID);
+        return playerUUID != null && members.containsKey(playerUUID);
     }
 
     /**
@@ -153,7 +165,7 @@ public class Clan {
      * @return Member role or null if not a member
      */
     public String getMemberRole(UUID playerUUID) {
-        return members.get(playerUUID);
+        return playerUUID != null ? members.get(playerUUID) : null;
     }
 
     /**
@@ -181,11 +193,7 @@ public class Clan {
             throw new IllegalArgumentException("Cannot set another player as leader");
         }
 
-        if (members.containsKey(playerUUID)) {
-            members.put(playerUUID, role);
-            return true;
-        }
-        return false;
+        return members.replace(playerUUID, role) != null;
     }
 
     /**
@@ -203,14 +211,14 @@ public class Clan {
      * @return true if the player is a co-leader
      */
     public boolean isCoLeader(UUID playerUUID) {
-        return ROLE_CO_LEADER.equals(members.get(playerUUID));
+        return ROLE_CO_LEADER.equals(getMemberRole(playerUUID));
     }
 
     /**
      * Get the clan's points
      * @return Points
      */
-    public int getPoints() {
+    public synchronized int getPoints() {
         return points;
     }
 
@@ -219,11 +227,14 @@ public class Clan {
      * @param points New points
      * @throws IllegalArgumentException if points is negative
      */
-    public void setPoints(int points) {
+    public synchronized void setPoints(int points) {
         if (points < 0) {
             throw new IllegalArgumentException("Points cannot be negative");
         }
+        // Income earned so far is part of the balance being replaced, it is not credited on top
+        discardEarnedPoints();
         this.points = points;
+        pointsChanged();
     }
 
     /**
@@ -231,11 +242,12 @@ public class Clan {
      * @param amount Amount to add
      * @throws IllegalArgumentException if amount is negative
      */
-    public void addPoints(int amount) {
+    public synchronized void addPoints(int amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Cannot add negative points");
         }
         this.points += amount;
+        pointsChanged();
     }
 
     /**
@@ -244,17 +256,62 @@ public class Clan {
      * @return true if successful, false if not enough points
      * @throws IllegalArgumentException if amount is negative
      */
-    public boolean removePoints(int amount) {
+    public synchronized boolean removePoints(int amount) {
         if (amount < 0) {
             throw new IllegalArgumentException("Cannot remove negative points");
         }
+        settlePoints();
         if (points >= amount) {
             points -= amount;
+            pointsChanged();
             return true;
         }
         return false;
     }
 
+    /**
+     * Credit points earned by claim blocks since they were last settled, before the balance is spent
+     */
+    private void settlePoints() {
+        if (claimBlocks.isEmpty()) {
+            return;
+        }
+
+        ClaimPointManager claimPointManager = MiniFactions.getInstance().getClaimPointManager();
+        if (claimPointManager != null) {
+            claimPointManager.settle(this);
+        }
+    }
+
+    /**
+     * Drop points earned by claim blocks since they were last settled, without crediting them
+     */
+    private void discardEarnedPoints() {
+        if (claimBlocks.isEmpty()) {
+            return;
+        }
+
+        ClaimPointManager claimPointManager = MiniFactions.getInstance().getClaimPointManager();
+        if (claimPointManager != null) {
+            claimPointManager.discardEarned(this);
+        }
+    }
+
+    /**
+     * Move the clan on the points leaderboard and mark its balance for saving
+     */
+    private void pointsChanged() {
+        LeaderboardManager leaderboardManager = MiniFactions.getInstance().getLeaderboardManager();
+        if (leaderboardManager != null) {
+            leaderboardManager.pointsChanged(this, points);
+        }
+
+        ClaimPointManager claimPointManager = MiniFactions.getInstance().getClaimPointManager();
+        if (claimPointManager != null) {
+            claimPointManager.balanceChanged(this);
+        }
+    }
+
     /**
      * Get the clan's core block
      * @return CoreBlock or null if not set
@@ -269,6 +326,17 @@ public class Clan {
      */
     public void setCoreBlock(CoreBlock coreBlock) {
         this.coreBlock = coreBlock;
+        coreLevelChanged();
+    }
+
+    /**
+     * Move the clan on the core level leaderboard
+     */
+    void coreLevelChanged() {
+        LeaderboardManager leaderboardManager = MiniFactions.getInstance().getLeaderboardManager();
+        if (leaderboardManager != null) {
+            leaderboardManager.coreLevelChanged(this);
+        }
     }
 
     /**
@@ -1,10 +1,11 @@
 package Factions.miniFactions.models;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
 import Factions.miniFactions.spatial.BlockType;
 import Factions.miniFactions.spatial.SpatiallyIndexable;
+import Factions.miniFactions.utils.Clock;
 import org.bukkit.Location;
-import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.Objects;
 
@@ -36,7 +37,7 @@ public class ClanDoor implements SpatiallyIndexable {
         this.location = location;
         this.clan = clan;
         this.tier = tier;
-        this.lastUpkeepTime = System.currentTimeMillis();
+        this.lastUpkeepTime = Clock.now();
     }
 
     /**
@@ -91,7 +92,7 @@ public class ClanDoor implements SpatiallyIndexable {
      * @throws IllegalArgumentException if lastUpkeepTime is in the future
      */
     public void setLastUpkeepTime(long lastUpkeepTime) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = Clock.now();
         if (lastUpkeepTime > currentTime) {
             throw new IllegalArgumentException("Upkeep time cannot be in the future");
         }
@@ -102,7 +103,7 @@ public class ClanDoor implements SpatiallyIndexable {
      * Update the last upkeep time to now
      */
     public void updateUpkeepTime() {
-        this.lastUpkeepTime = System.currentTimeMillis();
+        this.lastUpkeepTime = Clock.now();
     }
 
     /**
@@ -153,20 +154,14 @@ public class ClanDoor implements SpatiallyIndexable {
         }
 
         // Check trapdoor-specific upkeep settings
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        boolean upkeepEnabled = config.getBoolean("upkeep.door.enabled", true);
-
-        if (!upkeepEnabled) {
+        Settings settings = MiniFactions.getInstance().getConfigManager().getSettings();
+        if (!settings.isDoorUpkeepEnabled()) {
             return false;
         }
 
-        // Check grace period
-        long gracePeriod = config.getLong("upkeep.door.grace-period", 6) * 60 * 60 * 1000L; // Convert hours to milliseconds
-        long timeSinceUpkeepDue = System.currentTimeMillis() - (coreBlock.getLastUpkeepTime() +
-                config.getLong("core.upkeep.payment-interval", 24) * 60 * 60 * 1000L);
-
         // Only consider upkeep due if outside grace period
-        return timeSinceUpkeepDue > gracePeriod;
+        long timeSinceUpkeepDue = Clock.now() - coreBlock.getUpkeepDueTime();
+        return timeSinceUpkeepDue > settings.getDoorGraceMillis();
     }
 
     /**
@@ -1,10 +1,12 @@
 package Factions.miniFactions.models;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
+import Factions.miniFactions.managers.MetricsManager;
 import Factions.miniFactions.spatial.BlockType;
 import Factions.miniFactions.spatial.SpatiallyIndexable;
+import Factions.miniFactions.utils.Clock;
 import org.bukkit.Location;
-import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.Objects;
 
@@ -12,8 +14,8 @@ public class CoreBlock implements SpatiallyIndexable {
 
     private final Location location;
     private final Clan clan;
-    private int level;
-    private long lastUpkeepTime;
+    private volatile int level;
+    private volatile long lastUpkeepTime;
 
     /**
      * Create a new core block
@@ -32,7 +34,7 @@ public class CoreBlock implements SpatiallyIndexable {
         this.location = location;
         this.clan = clan;
         this.level = 1;
-        this.lastUpkeepTime = System.currentTimeMillis();
+        this.lastUpkeepTime = Clock.now();
     }
 
     /**
@@ -65,8 +67,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return The actual level that was set (may be clamped to valid range)
      */
     public int setLevel(int level) {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxLevel = config.getInt("core.max-level", 20);
+        int maxLevel = settings().getCoreMaxLevel();
 
         if (level < 1) {
             this.level = 1;
@@ -76,6 +77,7 @@ public class CoreBlock implements SpatiallyIndexable {
             this.level = level;
         }
 
+        clan.coreLevelChanged();
         return this.level;
     }
 
@@ -84,16 +86,24 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return true if successful, false if already at max level
      */
     public boolean upgrade() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxLevel = config.getInt("core.max-level", 20);
+        int maxLevel = settings().getCoreMaxLevel();
 
         if (level < maxLevel) {
             level++;
+            clan.coreLevelChanged();
             return true;
         }
         return false;
     }
 
+    /**
+     * Get the time at which the current upkeep period ends
+     * @return Upkeep due time in milliseconds
+     */
+    public long getUpkeepDueTime() {
+        return lastUpkeepTime + settings().getCoreUpkeepIntervalMillis();
+    }
+
     /**
      * Get the last upkeep time
      * @return Last upkeep time in milliseconds
@@ -108,7 +118,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @throws IllegalArgumentException if lastUpkeepTime is in the future
      */
     public void setLastUpkeepTime(long lastUpkeepTime) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = Clock.now();
         if (lastUpkeepTime > currentTime) {
             throw new IllegalArgumentException("Upkeep time cannot be in the future");
         }
@@ -119,7 +129,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * Update the last upkeep time to now
      */
     public void updateUpkeepTime() {
-        this.lastUpkeepTime = System.currentTimeMillis();
+        this.lastUpkeepTime = Clock.now();
     }
 
     /**
@@ -127,8 +137,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return Area radius in blocks
      */
     public int getBuildableArea() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("core.levels." + level + ".area", 10);
+        return settings().getCoreArea(level);
     }
 
     /**
@@ -136,8 +145,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return Max defense blocks
      */
     public int getMaxDefenseBlocks() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("core.levels." + level + ".defense-slots", 5);
+        return settings().getCoreDefenseSlots(level);
     }
 
     /**
@@ -145,8 +153,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return Max claim blocks
      */
     public int getMaxClaimBlocks() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("core.levels." + level + ".claim-slots", 2);
+        return settings().getCoreClaimSlots(level);
     }
 
     /**
@@ -154,8 +161,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return Max clan doors
      */
     public int getMaxClanDoors() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("core.levels." + level + ".door-slots", 1);
+        return settings().getCoreDoorSlots(level);
     }
 
     /**
@@ -163,8 +169,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return Max clan members
      */
     public int getMaxClanMembers() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("core.levels." + level + ".member-slots", 10);
+        return settings().getCoreMemberSlots(level);
     }
 
     /**
@@ -172,8 +177,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return Upkeep cost in points
      */
     public int getUpkeepCost() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("core.levels." + level + ".upkeep-cost", 100);
+        return settings().getCoreUpkeepCost(level);
     }
 
     /**
@@ -181,14 +185,12 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return Upgrade cost in points, or -1 if already at max level
      */
     public int getUpgradeCost() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxLevel = config.getInt("core.max-level", 20);
-
-        if (level >= maxLevel) {
+        Settings settings = settings();
+        if (level >= settings.getCoreMaxLevel()) {
             return -1;
         }
 
-        return config.getInt("core.levels." + (level + 1) + ".upgrade-cost", 1000 * (level + 1));
+        return settings.getCoreUpgradeCost(level + 1);
     }
 
     /**
@@ -196,8 +198,7 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return List of material:amount strings
      */
     public java.util.List<String> getLevelRecipe() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getStringList("core.levels." + level + ".recipe");
+        return settings().getCoreRecipe(level);
     }
 
     /**
@@ -205,17 +206,12 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return true if upkeep is due
      */
     public boolean isUpkeepDue() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        boolean upkeepEnabled = config.getBoolean("core.upkeep.enabled", true);
-
-        if (!upkeepEnabled) {
+        Settings settings = settings();
+        if (!settings.isCoreUpkeepEnabled()) {
             return false;
         }
 
-        int paymentInterval = config.getInt("core.upkeep.payment-interval", 24);
-        long intervalMillis = paymentInterval * 60 * 60 * 1000L; // Convert hours to milliseconds
-
-        return System.currentTimeMillis() - lastUpkeepTime >= intervalMillis;
+        return Clock.now() - lastUpkeepTime >= settings.getCoreUpkeepIntervalMillis();
     }
 
     /**
@@ -223,17 +219,24 @@ public class CoreBlock implements SpatiallyIndexable {
      * @return true if successful, false if not enough points
      */
     public boolean payUpkeep() {
-        if (!isUpkeepDue()) {
-            return true;
+        boolean paid;
+        // Locked so two threads can't both pay the same period
+        synchronized (clan) {
+            if (!isUpkeepDue()) {
+                return true;
+            }
+
+            paid = clan.removePoints(getUpkeepCost());
+            if (paid) {
+                updateUpkeepTime();
+            }
         }
 
-        int cost = getUpkeepCost();
-        if (clan.removePoints(cost)) {
-            updateUpkeepTime();
-            return true;
+        MetricsManager metricsManager = MiniFactions.getInstance().getMetricsManager();
+        if (metricsManager != null) {
+            metricsManager.recordUpkeep(paid);
         }
-
-        return false;
+        return paid;
     }
 
     /**
@@ -249,6 +252,14 @@ public class CoreBlock implements SpatiallyIndexable {
         return clan.getPoints() / upkeepCost;
     }
 
+    /**
+     * Get the current settings snapshot
+     * @return Settings
+     */
+    private static Settings settings() {
+        return MiniFactions.getInstance().getConfigManager().getSettings();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
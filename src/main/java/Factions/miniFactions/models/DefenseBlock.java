@@ -1,12 +1,13 @@
 package Factions.miniFactions.models;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.Settings;
 import Factions.miniFactions.managers.CraftingManager;
 import Factions.miniFactions.spatial.BlockType;
 import Factions.miniFactions.spatial.SpatiallyIndexable;
+import Factions.miniFactions.utils.Clock;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.Objects;
 
@@ -37,8 +38,7 @@ public class DefenseBlock implements SpatiallyIndexable {
         }
 
         // Get max tier from config
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxTier = config.getInt("defense.max-tier", 5);
+        int maxTier = settings().getDefenseMaxTier();
 
         if (tier > maxTier) {
             throw new IllegalArgumentException("Defense block tier cannot be greater than " + maxTier);
@@ -47,7 +47,7 @@ public class DefenseBlock implements SpatiallyIndexable {
         this.location = location;
         this.clan = clan;
         this.tier = tier;
-        this.placementTime = System.currentTimeMillis();
+        this.placementTime = Clock.now();
         this.material = CraftingManager.getTierMaterial(tier);
     }
 
@@ -91,8 +91,7 @@ public class DefenseBlock implements SpatiallyIndexable {
      */
     public int setTier(int tier) {
         // Get max tier from config
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int maxTier = config.getInt("defense.max-tier", 5);
+        int maxTier = settings().getDefenseMaxTier();
 
         if (tier < 1) {
             this.tier = 1;
@@ -135,7 +134,7 @@ public class DefenseBlock implements SpatiallyIndexable {
      * @throws IllegalArgumentException if placementTime is in the future
      */
     public void setPlacementTime(long placementTime) {
-        long currentTime = System.currentTimeMillis();
+        long currentTime = Clock.now();
         if (placementTime > currentTime) {
             throw new IllegalArgumentException("Placement time cannot be in the future");
         }
@@ -146,7 +145,7 @@ public class DefenseBlock implements SpatiallyIndexable {
      * Update the placement time to now
      */
     public void updatePlacementTime() {
-        this.placementTime = System.currentTimeMillis();
+        this.placementTime = Clock.now();
     }
 
     /**
@@ -174,8 +173,7 @@ public class DefenseBlock implements SpatiallyIndexable {
      * @return Cost in points
      */
     public int getCost() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getInt("defense.tiers." + tier + ".cost", 100 * (int) Math.pow(2, tier - 1));
+        return settings().getDefenseCost(tier);
     }
 
     /**
@@ -183,8 +181,7 @@ public class DefenseBlock implements SpatiallyIndexable {
      * @return List of material:amount strings
      */
     public java.util.List<String> getTierRecipe() {
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        return config.getStringList("defense.tiers." + tier + ".recipe");
+        return settings().getDefenseRecipe(tier);
     }
 
     /**
@@ -211,12 +208,14 @@ public class DefenseBlock implements SpatiallyIndexable {
     }
 
     /**
-     * Check if the block should decay
-     * @return true if the block should decay
+     * Check if the block loses its protection regardless of upkeep
+     * @return true if the clan has no core, the block is outside the AOI or over the block cap
      */
-    public boolean shouldDecay() {
+    public boolean isUnsupported() {
+        CoreBlock coreBlock = clan.getCoreBlock();
+
         // Check if core block exists
-        if (clan.getCoreBlock() == null) {
+        if (coreBlock == null) {
             return true;
         }
 
@@ -225,46 +224,70 @@ public class DefenseBlock implements SpatiallyIndexable {
             return true;
         }
 
-        // Check if upkeep is due and not paid
-        if (clan.getCoreBlock().isUpkeepDue() && !clan.getCoreBlock().payUpkeep()) {
-            // Check upkeep settings
-            FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-            boolean upkeepEnabled = config.getBoolean("upkeep.defense.enabled", true);
+        // Check if within max defense blocks
+        return clan.getDefenseBlockCount() > coreBlock.getMaxDefenseBlocks();
+    }
 
-            if (upkeepEnabled) {
-                // Check grace period
-                long gracePeriod = config.getLong("upkeep.defense.grace-period", 12) * 60 * 60 * 1000L; // Convert hours to milliseconds
-                long timeSinceUpkeepDue = System.currentTimeMillis() - (clan.getCoreBlock().getLastUpkeepTime() +
-                        config.getLong("core.upkeep.payment-interval", 24) * 60 * 60 * 1000L);
+    /**
+     * Get the time at which the block decays given the current clan state
+     * @return Decay time in milliseconds, or Long.MAX_VALUE if the block does not decay
+     */
+    public long getDecayTime() {
+        Settings settings = settings();
+        long tierDecayTime = placementTime + settings.getDefenseDecayMillis(tier);
 
-                // Only decay if outside grace period
-                return timeSinceUpkeepDue > gracePeriod;
-            }
+        if (isUnsupported()) {
+            return tierDecayTime;
+        }
+
+        // Otherwise the block only decays once core upkeep lapses
+        if (!settings.isCoreUpkeepEnabled()) {
+            return Long.MAX_VALUE;
+        }
+
+        long upkeepDecayTime = clan.getCoreBlock().getUpkeepDueTime();
+        if (settings.isDefenseUpkeepEnabled()) {
+            upkeepDecayTime += settings.getDefenseGraceMillis();
+        }
+
+        return Math.max(tierDecayTime, upkeepDecayTime);
+    }
 
+    /**
+     * Check if the block is currently in a decaying state
+     * @return true if the block should decay
+     */
+    public boolean shouldDecay() {
+        if (isUnsupported()) {
             return true;
         }
 
-        // Check if within max defense blocks
-        return clan.getDefenseBlockCount() > clan.getCoreBlock().getMaxDefenseBlocks();
+        CoreBlock coreBlock = clan.getCoreBlock();
+        if (!coreBlock.isUpkeepDue()) {
+            return false;
+        }
+
+        // Only decay once outside the grace period
+        Settings settings = settings();
+        if (settings.isDefenseUpkeepEnabled()) {
+            long timeSinceUpkeepDue = Clock.now() - coreBlock.getUpkeepDueTime();
+            return timeSinceUpkeepDue > settings.getDefenseGraceMillis();
+        }
+
+        return true;
     }
 
     /**
      * Get the time until decay in milliseconds
-     * @return Time until decay in milliseconds, or -1 if should not decay
+     * @return Time until decay in milliseconds, or -1 if the block does not decay
      */
     public long getTimeUntilDecay() {
-        if (!shouldDecay()) {
+        long decayTime = getDecayTime();
+        if (decayTime == Long.MAX_VALUE) {
             return -1;
         }
 
-        FileConfiguration config = MiniFactions.getInstance().getConfigManager().getConfig();
-        int decayHours = config.getInt("defense.tiers." + tier + ".decay-time", 24);
-
-        // Convert to milliseconds
-        long decayMillis = decayHours * 60 * 60 * 1000L;
-        long elapsedMillis = System.currentTimeMillis() - placementTime;
-
-        return Math.max(0, decayMillis - elapsedMillis);
+        return Math.max(0, decayTime - Clock.now());
     }
 
     /**
@@ -275,6 +298,14 @@ public class DefenseBlock implements SpatiallyIndexable {
         return getTimeUntilDecay() == 0;
     }
 
+    /**
+     * Get the current settings snapshot
+     * @return Settings
+     */
+    private static Settings settings() {
+        return MiniFactions.getInstance().getConfigManager().getSettings();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
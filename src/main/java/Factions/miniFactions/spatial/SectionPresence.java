@@ -0,0 +1,219 @@
+package Factions.miniFactions.spatial;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Counts indexed blocks per 16x16x16 chunk section of a world.
+ * Uses open addressing over primitive arrays so that checking a section does not
+ * allocate, which keeps the negative check on high-frequency events free. Region
+ * threads on Folia check sections in parallel: checks are optimistic reads that take
+ * no lock unless a write overlapped them, writes are exclusive.
+ */
+class SectionPresence {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64; // Must be a power of two
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    SectionPresence() {
+        keys = new long[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Pack block coordinates into a section key
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return Section key
+     */
+    static long sectionKey(int x, int y, int z) {
+        // 22 bits per chunk coordinate covers the whole world border, 20 bits for the section Y
+        return ((long) (x >> 4) & 0x3FFFFFL) << 42 | ((long) (z >> 4) & 0x3FFFFFL) << 20 | ((y >> 4) & 0xFFFFFL);
+    }
+
+    /**
+     * Check if a section contains at least one block
+     * @param key Section key
+     * @return true if occupied
+     */
+    boolean contains(long key) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = probe(keys, key);
+        if (lock.validate(stamp)) {
+            return found;
+        }
+
+        // A write overlapped the check, repeat it under the read lock
+        stamp = lock.readLock();
+        try {
+            return probe(keys, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Look for a section key in a key table.
+     * The probe is bounded, so a table changing underneath an optimistic read can't trap it.
+     * @param table Key table
+     * @param key Section key
+     * @return true if found
+     */
+    private static boolean probe(long[] table, long key) {
+        int mask = table.length - 1;
+        int index = mix(key) & mask;
+        for (int probes = 0; probes < table.length; probes++, index = (index + 1) & mask) {
+            long current = table[index];
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count a block in a section
+     * @param key Section key
+     */
+    void increment(long key) {
+        long stamp = lock.writeLock();
+        try {
+            insert(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Count a block in a section, holding the write lock
+     * @param key Section key
+     */
+    private void insert(long key) {
+        // Keep the load factor at or below one half
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        for (int index = mix(key) & mask; ; index = (index + 1) & mask) {
+            long current = keys[index];
+            if (current == key) {
+                counts[index]++;
+                return;
+            }
+            if (current == EMPTY) {
+                keys[index] = key;
+                counts[index] = 1;
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Uncount a block in a section, dropping the section when it becomes empty
+     * @param key Section key
+     */
+    void decrement(long key) {
+        long stamp = lock.writeLock();
+        try {
+            remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Uncount a block in a section, holding the write lock
+     * @param key Section key
+     */
+    private void remove(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == EMPTY) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        if (--counts[index] > 0) {
+            return;
+        }
+
+        // Backward shift deletion keeps probe sequences intact without tombstones
+        int hole = index;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry into the hole if its home slot is not between the hole and its slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        counts[hole] = 0;
+        size--;
+    }
+
+    /**
+     * Check if no section is occupied
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        long stamp = lock.readLock();
+        try {
+            return size == 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Grow the tables and reinsert all sections
+     * @param capacity New capacity, a power of two
+     */
+    private void resize(int capacity) {
+        // Filled before they are published, so an optimistic reader never sees a partial table
+        long[] newKeys = new long[capacity];
+        int[] newCounts = new int[capacity];
+        Arrays.fill(newKeys, EMPTY);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == EMPTY) {
+                continue;
+            }
+            int index = mix(keys[i]) & mask;
+            while (newKeys[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            newKeys[index] = keys[i];
+            newCounts[index] = counts[i];
+        }
+
+        keys = newKeys;
+        counts = newCounts;
+    }
+
+    /**
+     * Spread the bits of a key for slot selection
+     * @param key Section key
+     * @return Hash
+     */
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -5,18 +5,24 @@ import Factions.miniFactions.models.Clan;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 /**
- * Manages spatial indexing for MiniFactions blocks
+ * Manages spatial indexing for MiniFactions blocks.
+ * Queries read concurrent maps and copy-on-write lists without locking, so they are safe
+ * from any region thread; changes to the index are serialized on the manager.
  */
 public class SpatialIndexManager {
-    private final MiniFactions plugin;
+    private final Logger logger;
     
     // Map of world name -> chunk coordinates -> block type -> list of blocks
     private final Map<String, Map<ChunkCoordinate, Map<BlockType, List<SpatiallyIndexable>>>> blockIndex;
@@ -24,6 +30,12 @@ public class SpatialIndexManager {
     // Cache for recent queries
     private final SpatialQueryCache queryCache;
     
+    // World name -> chunk sections holding protected blocks, for allocation-free negative checks
+    private final Map<String, SectionPresence> sectionPresence = new ConcurrentHashMap<>();
+    
+    // Indexed blocks per type, readable from any thread
+    private final AtomicIntegerArray blockCounts = new AtomicIntegerArray(BlockType.values().length);
+    
     // Array of all possible block faces for adjacent block queries
     private static final BlockFace[] ADJACENT_FACES = {
             BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST,
@@ -36,7 +48,15 @@ public class SpatialIndexManager {
      * @param plugin MiniFactions plugin
      */
     public SpatialIndexManager(MiniFactions plugin) {
-        this.plugin = plugin;
+        this(plugin.getLogger());
+    }
+    
+    /**
+     * Create a spatial index that is not attached to the plugin, e.g. for benchmarks
+     * @param logger Logger for index statistics
+     */
+    public SpatialIndexManager(Logger logger) {
+        this.logger = logger;
         this.blockIndex = new ConcurrentHashMap<>();
         this.queryCache = new SpatialQueryCache();
     }
@@ -45,7 +65,7 @@ public class SpatialIndexManager {
      * Add a block to the spatial index
      * @param block Block to add
      */
-    public void addBlock(SpatiallyIndexable block) {
+    public synchronized void addBlock(SpatiallyIndexable block) {
         if (block == null || block.getLocation() == null) {
             return;
         }
@@ -65,11 +85,22 @@ public class SpatialIndexManager {
         
         // Get or create block type list
         List<SpatiallyIndexable> blockList = 
-                chunkMap.computeIfAbsent(blockType, k -> new ArrayList<>());
+                chunkMap.computeIfAbsent(blockType, k -> new CopyOnWriteArrayList<>());
         
         // Add block to list if not already present
         if (!blockList.contains(block)) {
             blockList.add(block);
+            blockCounts.incrementAndGet(blockType.ordinal());
+            
+            if (blockType != BlockType.OUTSIDE) {
+                // Counted inside the map operation, so a concurrent removal can't drop the world's table under it
+                long sectionKey = SectionPresence.sectionKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                sectionPresence.compute(worldName, (k, presence) -> {
+                    SectionPresence table = presence != null ? presence : new SectionPresence();
+                    table.increment(sectionKey);
+                    return table;
+                });
+            }
             
             // Clear cache since index has changed
             queryCache.clear();
@@ -82,7 +113,7 @@ public class SpatialIndexManager {
      * @param blockType Block type
      * @return true if removed
      */
-    public boolean removeBlock(Location location, BlockType blockType) {
+    public synchronized boolean removeBlock(Location location, BlockType blockType) {
         if (location == null) {
             return false;
         }
@@ -109,10 +140,12 @@ public class SpatialIndexManager {
         }
         
         // Find and remove block
+        int sizeBefore = blockList.size();
         boolean removed = blockList.removeIf(block -> 
                 block.getLocation().getBlockX() == location.getBlockX() &&
                 block.getLocation().getBlockY() == location.getBlockY() &&
                 block.getLocation().getBlockZ() == location.getBlockZ());
+        blockCounts.addAndGet(blockType.ordinal(), blockList.size() - sizeBefore);
         
         // Clean up empty lists and maps
         if (blockList.isEmpty()) {
@@ -130,6 +163,15 @@ public class SpatialIndexManager {
         // Clear cache if block was removed
         if (removed) {
             queryCache.clear();
+            
+            if (blockType != BlockType.OUTSIDE) {
+                // The world's table is only dropped atomically with the decrement that empties it
+                long sectionKey = SectionPresence.sectionKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                sectionPresence.computeIfPresent(worldName, (k, presence) -> {
+                    presence.decrement(sectionKey);
+                    return presence.isEmpty() ? null : presence;
+                });
+            }
         }
         
         return removed;
@@ -209,6 +251,61 @@ public class SpatialIndexManager {
         return null;
     }
     
+    /**
+     * Check if the chunk section of a block may hold a protected block.
+     * Does not allocate, so it can be used as a prefilter on high-frequency events.
+     * @param block Block to check
+     * @return false if the section certainly holds no protected block
+     */
+    public boolean mayContainProtected(Block block) {
+        SectionPresence presence = sectionPresence.get(block.getWorld().getName());
+        return presence != null && presence.contains(SectionPresence.sectionKey(block.getX(), block.getY(), block.getZ()));
+    }
+    
+    /**
+     * Check if a block is a protected MiniFactions block (core, claim, defense or door)
+     * @param block Block to check
+     * @return true if protected
+     */
+    public boolean isProtected(Block block) {
+        if (!mayContainProtected(block)) {
+            return false;
+        }
+        
+        SpatiallyIndexable indexed = getBlockAt(block.getLocation(), null);
+        return indexed != null && indexed.getBlockType() != BlockType.OUTSIDE;
+    }
+    
+    /**
+     * Check if any block in a list is protected
+     * @param blocks Blocks to check
+     * @return true if at least one block is protected
+     */
+    public boolean containsProtected(List<Block> blocks) {
+        for (int i = 0, size = blocks.size(); i < size; i++) {
+            if (isProtected(blocks.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Remove all protected blocks from a list
+     * @param blocks Mutable list of blocks
+     * @return Number of blocks removed
+     */
+    public int removeProtected(List<Block> blocks) {
+        int removed = 0;
+        for (int i = blocks.size() - 1; i >= 0; i--) {
+            if (isProtected(blocks.get(i))) {
+                blocks.remove(i);
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
     /**
      * Get blocks in a specific chunk
      * @param world World
@@ -540,25 +637,45 @@ public class SpatialIndexManager {
      * Rebuild the spatial index from scratch
      * @param blocks All blocks to index
      */
-    public void rebuildIndex(Collection<SpatiallyIndexable> blocks) {
+    public synchronized void rebuildIndex(Collection<SpatiallyIndexable> blocks) {
         // Clear existing index
-        blockIndex.clear();
-        queryCache.clear();
+        clearIndex();
         
         // Add all blocks
         for (SpatiallyIndexable block : blocks) {
             addBlock(block);
         }
         
-        plugin.getLogger().info("Rebuilt spatial index with " + blocks.size() + " blocks");
+        logger.info("Rebuilt spatial index with " + blocks.size() + " blocks");
     }
     
     /**
      * Clear the spatial index
      */
-    public void clearIndex() {
+    public synchronized void clearIndex() {
         blockIndex.clear();
         queryCache.clear();
+        sectionPresence.clear();
+        for (int i = 0; i < blockCounts.length(); i++) {
+            blockCounts.set(i, 0);
+        }
+    }
+    
+    /**
+     * Get the number of indexed blocks of a type, safe to call from any thread
+     * @param blockType Block type
+     * @return Block count
+     */
+    public int getBlockCount(BlockType blockType) {
+        return blockCounts.get(blockType.ordinal());
+    }
+    
+    /**
+     * Get the query cache, e.g. for its hit counts
+     * @return Query cache
+     */
+    public SpatialQueryCache getQueryCache() {
+        return queryCache;
     }
     
     /**
@@ -611,13 +728,13 @@ public class SpatialIndexManager {
     public void logStatistics() {
         Map<String, Integer> stats = getStatistics();
         
-        plugin.getLogger().info("Spatial Index Statistics:");
-        plugin.getLogger().info("Total Blocks: " + stats.get("totalBlocks"));
-        plugin.getLogger().info("Total Chunks: " + stats.get("totalChunks"));
-        plugin.getLogger().info("Total Worlds: " + stats.get("totalWorlds"));
+        logger.info("Spatial Index Statistics:");
+        logger.info("Total Blocks: " + stats.get("totalBlocks"));
+        logger.info("Total Chunks: " + stats.get("totalChunks"));
+        logger.info("Total Worlds: " + stats.get("totalWorlds"));
         
         for (BlockType type : BlockType.values()) {
-            plugin.getLogger().info(type.name() + " Blocks: " + stats.get(type.name()));
+            logger.info(type.name() + " Blocks: " + stats.get(type.name()));
         }
     }
 }
@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Cache for spatial queries to improve performance
@@ -20,6 +21,10 @@ public class SpatialQueryCache {
     // Cache expiration time in milliseconds (5 minutes)
     private static final long CACHE_EXPIRATION_TIME = 5 * 60 * 1000;
     
+    // Hits and misses per query kind, kept across clears
+    private final LongAdder[] hits = new LongAdder[Query.values().length];
+    private final LongAdder[] misses = new LongAdder[Query.values().length];
+    
     // Cache for getBlockAt queries
     private final Map<BlockAtKey, CacheEntry<SpatiallyIndexable>> blockAtCache = new ConcurrentHashMap<>();
     
@@ -41,6 +46,44 @@ public class SpatialQueryCache {
     // Cache for getBlocksByClan queries
     private final Map<BlocksByClanKey, CacheEntry<List<SpatiallyIndexable>>> blocksByClanCache = new ConcurrentHashMap<>();
     
+    /**
+     * Kinds of cached queries
+     */
+    public enum Query {
+        BLOCK_AT,
+        BLOCKS_IN_CHUNK,
+        BLOCKS_IN_RADIUS,
+        BLOCKS_IN_DIRECTION,
+        ADJACENT_BLOCKS,
+        NEAREST_BLOCK,
+        BLOCKS_BY_CLAN
+    }
+    
+    public SpatialQueryCache() {
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = new LongAdder();
+            misses[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Get the number of lookups answered from the cache
+     * @param query Query kind
+     * @return Hit count
+     */
+    public long getHits(Query query) {
+        return hits[query.ordinal()].sum();
+    }
+    
+    /**
+     * Get the number of lookups that were not cached or had expired
+     * @param query Query kind
+     * @return Miss count
+     */
+    public long getMisses(Query query) {
+        return misses[query.ordinal()].sum();
+    }
+    
     /**
      * Clear all caches
      */
@@ -78,18 +121,7 @@ public class SpatialQueryCache {
      */
     public SpatiallyIndexable getBlockAt(Location location, BlockType blockType) {
         BlockAtKey key = new BlockAtKey(location, blockType);
-        CacheEntry<SpatiallyIndexable> entry = blockAtCache.get(key);
-        
-        if (entry != null && !entry.isExpired()) {
-            return entry.getValue();
-        }
-        
-        // Remove expired entry
-        if (entry != null) {
-            blockAtCache.remove(key);
-        }
-        
-        return null;
+        return lookup(blockAtCache, key, Query.BLOCK_AT);
     }
     
     /**
@@ -118,18 +150,7 @@ public class SpatialQueryCache {
      */
     public List<SpatiallyIndexable> getBlocksInChunk(String worldName, ChunkCoordinate chunkCoord, BlockType blockType) {
         BlocksInChunkKey key = new BlocksInChunkKey(worldName, chunkCoord, blockType);
-        CacheEntry<List<SpatiallyIndexable>> entry = blocksInChunkCache.get(key);
-        
-        if (entry != null && !entry.isExpired()) {
-            return entry.getValue();
-        }
-        
-        // Remove expired entry
-        if (entry != null) {
-            blocksInChunkCache.remove(key);
-        }
-        
-        return null;
+        return lookup(blocksInChunkCache, key, Query.BLOCKS_IN_CHUNK);
     }
     
     /**
@@ -158,18 +179,7 @@ public class SpatialQueryCache {
      */
     public List<SpatiallyIndexable> getBlocksInRadius(Location center, int radius, BlockType blockType) {
         BlocksInRadiusKey key = new BlocksInRadiusKey(center, radius, blockType);
-        CacheEntry<List<SpatiallyIndexable>> entry = blocksInRadiusCache.get(key);
-        
-        if (entry != null && !entry.isExpired()) {
-            return entry.getValue();
-        }
-        
-        // Remove expired entry
-        if (entry != null) {
-            blocksInRadiusCache.remove(key);
-        }
-        
-        return null;
+        return lookup(blocksInRadiusCache, key, Query.BLOCKS_IN_RADIUS);
     }
     
     /**
@@ -200,18 +210,7 @@ public class SpatialQueryCache {
      */
     public List<SpatiallyIndexable> getBlocksInDirection(Location origin, BlockFace direction, int distance, BlockType blockType) {
         BlocksInDirectionKey key = new BlocksInDirectionKey(origin, direction, distance, blockType);
-        CacheEntry<List<SpatiallyIndexable>> entry = blocksInDirectionCache.get(key);
-        
-        if (entry != null && !entry.isExpired()) {
-            return entry.getValue();
-        }
-        
-        // Remove expired entry
-        if (entry != null) {
-            blocksInDirectionCache.remove(key);
-        }
-        
-        return null;
+        return lookup(blocksInDirectionCache, key, Query.BLOCKS_IN_DIRECTION);
     }
     
     /**
@@ -238,18 +237,7 @@ public class SpatialQueryCache {
      */
     public List<SpatiallyIndexable> getAdjacentBlocks(Location location, BlockType blockType) {
         AdjacentBlocksKey key = new AdjacentBlocksKey(location, blockType);
-        CacheEntry<List<SpatiallyIndexable>> entry = adjacentBlocksCache.get(key);
-        
-        if (entry != null && !entry.isExpired()) {
-            return entry.getValue();
-        }
-        
-        // Remove expired entry
-        if (entry != null) {
-            adjacentBlocksCache.remove(key);
-        }
-        
-        return null;
+        return lookup(adjacentBlocksCache, key, Query.ADJACENT_BLOCKS);
     }
     
     /**
@@ -278,18 +266,7 @@ public class SpatialQueryCache {
      */
     public SpatiallyIndexable getNearestBlock(Location location, BlockType blockType, int maxDistance) {
         NearestBlockKey key = new NearestBlockKey(location, blockType, maxDistance);
-        CacheEntry<SpatiallyIndexable> entry = nearestBlockCache.get(key);
-        
-        if (entry != null && !entry.isExpired()) {
-            return entry.getValue();
-        }
-        
-        // Remove expired entry
-        if (entry != null) {
-            nearestBlockCache.remove(key);
-        }
-        
-        return null;
+        return lookup(nearestBlockCache, key, Query.NEAREST_BLOCK);
     }
     
     /**
@@ -316,15 +293,30 @@ public class SpatialQueryCache {
      */
     public List<SpatiallyIndexable> getBlocksByClan(Clan clan, BlockType blockType) {
         BlocksByClanKey key = new BlocksByClanKey(clan, blockType);
-        CacheEntry<List<SpatiallyIndexable>> entry = blocksByClanCache.get(key);
+        return lookup(blocksByClanCache, key, Query.BLOCKS_BY_CLAN);
+    }
+    
+    /**
+     * Look up an entry, counting the hit or miss and dropping it if it expired
+     * @param cache Cache to look in
+     * @param key Key
+     * @param query Query kind
+     * @param <K> Key type
+     * @param <V> Value type
+     * @return Cached value, or null if not in cache or expired
+     */
+    private <K, V> V lookup(Map<K, CacheEntry<V>> cache, K key, Query query) {
+        CacheEntry<V> entry = cache.get(key);
         
         if (entry != null && !entry.isExpired()) {
+            hits[query.ordinal()].increment();
             return entry.getValue();
         }
+        misses[query.ordinal()].increment();
         
         // Remove expired entry
         if (entry != null) {
-            blocksByClanCache.remove(key);
+            cache.remove(key);
         }
         
         return null;
@@ -0,0 +1,246 @@
+package Factions.miniFactions.storage;
+
+import Factions.miniFactions.MiniFactions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Append log of clan balances and claim block generation times changed since the last full save.
+ * Only the clans and blocks that changed are written, and the writes happen off the server
+ * threads. The log is replayed over clans.yml and blocks.yml on load and truncated by every
+ * full save; a batch snapshotted before a full save is dropped, so the log never overrides
+ * newer saved values.
+ */
+public class ClaimProgressLog {
+
+    private static final String FILE_NAME = "claim-progress.log";
+    private static final byte OP_BALANCE = 1;
+    private static final byte OP_GENERATION = 2;
+
+    private final MiniFactions plugin;
+    private final File file;
+    // Bumped by every full save, batches from an older generation are stale
+    private long generation;
+
+    public ClaimProgressLog(MiniFactions plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataFolder(), FILE_NAME);
+    }
+
+    /**
+     * Get the current generation, taken before a batch is snapshotted
+     * @return Generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Append a batch of changes and flush it to disk
+     * @param batch Batch to write
+     */
+    public synchronized void write(Batch batch) {
+        if (batch.generation != generation) {
+            return;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            for (Map.Entry<String, Integer> entry : batch.balances.entrySet()) {
+                out.writeByte(OP_BALANCE);
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+            for (BlockProgress block : batch.blocks) {
+                out.writeByte(OP_GENERATION);
+                out.writeUTF(block.world);
+                out.writeInt(block.x);
+                out.writeInt(block.y);
+                out.writeInt(block.z);
+                out.writeLong(block.lastGenerationTime);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to write claim progress log: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Truncate the log after a full save and drop batches that were snapshotted before it
+     */
+    public synchronized void reset() {
+        generation++;
+        if (file.exists() && !file.delete()) {
+            plugin.getLogger().warning("Failed to truncate claim progress log " + file.getName());
+        }
+    }
+
+    /**
+     * Read the logged changes, the last entry for a clan or block wins
+     * @return Logged progress
+     */
+    public synchronized Progress read() {
+        Progress progress = new Progress();
+        if (!file.exists()) {
+            return progress;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte op;
+                try {
+                    op = in.readByte();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                try {
+                    if (op == OP_BALANCE) {
+                        progress.balances.put(in.readUTF(), in.readInt());
+                    } else if (op == OP_GENERATION) {
+                        BlockProgress block = new BlockProgress(in.readUTF(), in.readInt(), in.readInt(), in.readInt(), in.readLong());
+                        progress.generationTimes.put(block.key(), block);
+                    } else {
+                        plugin.getLogger().warning("Corrupt claim progress log " + file.getName() + ", ignoring the rest.");
+                        break;
+                    }
+                } catch (EOFException e) {
+                    // Partially written last entry from a crash
+                    plugin.getLogger().warning("Truncated claim progress log " + file.getName() + ", ignoring the last entry.");
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to read claim progress log: " + e.getMessage(), e);
+        }
+
+        return progress;
+    }
+
+    /**
+     * Changes snapshotted on a server thread, to be written off it
+     */
+    public static class Batch {
+        private final long generation;
+        private final Map<String, Integer> balances = new HashMap<>();
+        private final List<BlockProgress> blocks = new ArrayList<>();
+
+        public Batch(long generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * Add a clan balance
+         * @param clanId Clan ID
+         * @param points Current points
+         */
+        public void addBalance(String clanId, int points) {
+            balances.put(clanId, points);
+        }
+
+        /**
+         * Add a claim block generation time
+         * @param world World name
+         * @param x Block X
+         * @param y Block Y
+         * @param z Block Z
+         * @param lastGenerationTime Last point generation time
+         */
+        public void addGenerationTime(String world, int x, int y, int z, long lastGenerationTime) {
+            blocks.add(new BlockProgress(world, x, y, z, lastGenerationTime));
+        }
+
+        /**
+         * Check if the batch has nothing to write
+         * @return true if empty
+         */
+        public boolean isEmpty() {
+            return balances.isEmpty() && blocks.isEmpty();
+        }
+    }
+
+    /**
+     * Progress read back from the log
+     */
+    public static class Progress {
+        private final Map<String, Integer> balances = new HashMap<>();
+        // "world:x:y:z" -> generation time
+        private final Map<String, BlockProgress> generationTimes = new HashMap<>();
+
+        /**
+         * Get the logged balance of a clan
+         * @param clanId Clan ID
+         * @return Points, or null if not logged
+         */
+        public Integer getBalance(String clanId) {
+            return balances.get(clanId);
+        }
+
+        /**
+         * Get the logged generation time of a claim block
+         * @param world World name
+         * @param x Block X
+         * @param y Block Y
+         * @param z Block Z
+         * @return Last point generation time, or null if not logged
+         */
+        public Long getGenerationTime(String world, int x, int y, int z) {
+            BlockProgress block = generationTimes.get(key(world, x, y, z));
+            return block != null ? block.lastGenerationTime : null;
+        }
+
+        /**
+         * Check if the log had no entries
+         * @return true if empty
+         */
+        public boolean isEmpty() {
+            return balances.isEmpty() && generationTimes.isEmpty();
+        }
+    }
+
+    /**
+     * Build the key of a block position
+     * @param world World name
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return Key
+     */
+    private static String key(String world, int x, int y, int z) {
+        return world + ":" + x + ":" + y + ":" + z;
+    }
+
+    /**
+     * Logged generation time of a claim block
+     */
+    private static class BlockProgress {
+        private final String world;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final long lastGenerationTime;
+
+        private BlockProgress(String world, int x, int y, int z, long lastGenerationTime) {
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.lastGenerationTime = lastGenerationTime;
+        }
+
+        private String key() {
+            return ClaimProgressLog.key(world, x, y, z);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package Factions.miniFactions.storage;
 
 import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.managers.MetricsManager;
 import Factions.miniFactions.models.Clan;
 import Factions.miniFactions.models.ClaimBlock;
 import Factions.miniFactions.models.ClanDoor;
@@ -9,6 +10,7 @@ import Factions.miniFactions.models.DefenseBlock;
 import Factions.miniFactions.spatial.BlockType;
 import Factions.miniFactions.spatial.SpatialIndexManager;
 import Factions.miniFactions.spatial.SpatiallyIndexable;
+import Factions.miniFactions.utils.NameIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -17,24 +19,30 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class DataStorage {
 
     private final MiniFactions plugin;
-    private final Map<String, Clan> clans = new HashMap<>();
-    private final Map<Location, CoreBlock> coreBlocks = new HashMap<>();
-    private final Map<Location, DefenseBlock> defenseBlocks = new HashMap<>();
-    private final Map<Location, ClaimBlock> claimBlocks = new HashMap<>();
-    private final Map<Location, ClanDoor> clanDoors = new HashMap<>();
+    // Concurrent maps, as region threads on Folia read and change them in parallel
+    private final Map<String, Clan> clans = new ConcurrentHashMap<>();
+    // Case-insensitive clan name -> clan, for lookups and tab completion; guarded by itself
+    private final NameIndex<Clan> clanNames = new NameIndex<>();
+    private final Map<Location, CoreBlock> coreBlocks = new ConcurrentHashMap<>();
+    private final Map<Location, DefenseBlock> defenseBlocks = new ConcurrentHashMap<>();
+    private final Map<Location, ClaimBlock> claimBlocks = new ConcurrentHashMap<>();
+    private final Map<Location, ClanDoor> clanDoors = new ConcurrentHashMap<>();
 
     // Spatial index manager for efficient spatial queries
     private SpatialIndexManager spatialIndexManager;
+    // Claim progress changed since the last full save
+    private ClaimProgressLog claimProgressLog;
 
     public DataStorage(MiniFactions plugin) {
         this.plugin = plugin;
@@ -51,16 +59,23 @@ public class DataStorage {
 
         // Initialize spatial index manager
         spatialIndexManager = new SpatialIndexManager(plugin);
+        claimProgressLog = new ClaimProgressLog(plugin);
     }
 
     /**
      * Load all data from storage
      */
     public void loadData() {
+        // Claim progress made after the last full save, applied before claim blocks are loaded
+        // so setting a balance doesn't settle the clan
+        ClaimProgressLog.Progress progress = claimProgressLog.read();
+
         loadClans();
+        applyBalances(progress);
         loadCoreBlocks();
         loadDefenseBlocks();
         loadClaimBlocks();
+        applyGenerationTimes(progress);
         loadClanDoors();
 
         // Rebuild spatial index after loading all blocks
@@ -71,11 +86,94 @@ public class DataStorage {
      * Save all data to storage
      */
     public void saveData() {
+        long start = System.nanoTime();
         saveClans();
         saveCoreBlocks();
         saveDefenseBlocks();
         saveClaimBlocks();
         saveClanDoors();
+        claimProgressLog.reset();
+        recordSave("save_all", start);
+    }
+
+    /**
+     * Log the balances and generation times of changed clans and claim blocks.
+     * The values are snapshotted on the calling thread and written off the server threads.
+     * @param changedClans Clans whose balance changed
+     * @param changedBlocks Claim blocks whose generation time changed
+     */
+    public void saveClaimProgress(Collection<Clan> changedClans, Collection<ClaimBlock> changedBlocks) {
+        long start = System.nanoTime();
+        ClaimProgressLog.Batch batch = new ClaimProgressLog.Batch(claimProgressLog.getGeneration());
+
+        // Clans and blocks removed since they changed are not logged
+        for (Clan clan : changedClans) {
+            if (clans.get(clan.getId()) == clan) {
+                batch.addBalance(clan.getId(), clan.getPoints());
+            }
+        }
+        for (ClaimBlock claimBlock : changedBlocks) {
+            Location loc = claimBlock.getLocation();
+            if (claimBlocks.get(loc) == claimBlock) {
+                batch.addGenerationTime(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(),
+                        claimBlock.getLastPointGenerationTime());
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            plugin.getSchedulerManager().runAsync(() -> claimProgressLog.write(batch));
+        }
+        recordSave("claim_progress", start);
+    }
+
+    /**
+     * Apply logged balances over the loaded clans
+     * @param progress Logged progress
+     */
+    private void applyBalances(ClaimProgressLog.Progress progress) {
+        if (progress.isEmpty()) {
+            return;
+        }
+
+        for (Clan clan : clans.values()) {
+            Integer points = progress.getBalance(clan.getId());
+            if (points != null) {
+                clan.setPoints(points);
+            }
+        }
+    }
+
+    /**
+     * Apply logged generation times over the loaded claim blocks
+     * @param progress Logged progress
+     */
+    private void applyGenerationTimes(ClaimProgressLog.Progress progress) {
+        if (progress.isEmpty()) {
+            return;
+        }
+
+        for (ClaimBlock claimBlock : claimBlocks.values()) {
+            Location loc = claimBlock.getLocation();
+            Long lastGenerationTime = progress.getGenerationTime(loc.getWorld().getName(), loc.getBlockX(), loc.getBlockY(),
+                    loc.getBlockZ());
+            if (lastGenerationTime != null) {
+                claimBlock.setLastPointGenerationTime(lastGenerationTime);
+            }
+        }
+
+        plugin.getLogger().info("Applied claim progress saved after the last full save.");
+    }
+
+    /**
+     * Record the duration of a save in the metrics
+     * @param operation What was saved
+     * @param startNanos nanoTime when the save started
+     */
+    private void recordSave(String operation, long startNanos) {
+        MetricsManager metricsManager = plugin.getMetricsManager();
+        if (metricsManager != null) {
+            metricsManager.recordSave(operation, System.nanoTime() - startNanos);
+        }
     }
 
     /**
@@ -111,7 +209,7 @@ public class DataStorage {
                 }
             }
 
-            clans.put(id, clan);
+            addClan(clan);
         }
 
         plugin.getLogger().info("Loaded " + clans.size() + " clans from storage.");
@@ -226,12 +324,39 @@ public class DataStorage {
      * @return Clan or null if not found
      */
     public Clan getClanByName(String name) {
-        for (Clan clan : clans.values()) {
-            if (clan.getName().equalsIgnoreCase(name)) {
-                return clan;
+        synchronized (clanNames) {
+            return clanNames.get(name);
+        }
+    }
+
+    /**
+     * Get clan names starting with a prefix, ignoring case
+     * @param prefix Name prefix
+     * @param limit Maximum number of names
+     * @return Matching clan names in alphabetical order
+     */
+    public List<String> completeClanNames(String prefix, int limit) {
+        synchronized (clanNames) {
+            return clanNames.complete(prefix, limit);
+        }
+    }
+
+    /**
+     * Move a clan to its new name in the name index
+     * @param clan Clan that was renamed
+     * @param oldName Previous clan name
+     */
+    public void clanRenamed(Clan clan, String oldName) {
+        // Only index clans that are stored, a clan being loaded is indexed when it is added
+        if (clans.get(clan.getId()) != clan) {
+            return;
+        }
+        synchronized (clanNames) {
+            if (clanNames.get(oldName) == clan) {
+                clanNames.remove(oldName);
             }
+            clanNames.put(clan.getName(), clan);
         }
-        return null;
     }
 
     /**
@@ -254,6 +379,9 @@ public class DataStorage {
      */
     public void addClan(Clan clan) {
         clans.put(clan.getId(), clan);
+        synchronized (clanNames) {
+            clanNames.put(clan.getName(), clan);
+        }
     }
 
     /**
@@ -261,7 +389,15 @@ public class DataStorage {
      * @param id Clan ID
      */
     public void removeClan(String id) {
-        clans.remove(id);
+        Clan clan = clans.remove(id);
+        if (clan == null) {
+            return;
+        }
+        synchronized (clanNames) {
+            if (clanNames.get(clan.getName()) == clan) {
+                clanNames.remove(clan.getName());
+            }
+        }
     }
 
     /**
@@ -684,6 +820,14 @@ public class DataStorage {
         return spatialIndexManager;
     }
 
+    /**
+     * Get the log of claim progress since the last full save
+     * @return Claim progress log
+     */
+    public ClaimProgressLog getClaimProgressLog() {
+        return claimProgressLog;
+    }
+
     /**
      * Load clan doors from storage
      */
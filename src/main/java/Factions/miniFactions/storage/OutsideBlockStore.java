@@ -0,0 +1,690 @@
+package Factions.miniFactions.storage;
+
+import Factions.miniFactions.MiniFactions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Compact binary storage for blocks tracked by the OutsideBlockManager.
+ * Each world has a snapshot file with fixed-size records grouped by chunk and an
+ * append log of changes since the last snapshot. Chunks are read from the snapshot
+ * only when they are first loaded; compaction folds the log back into the snapshot.
+ * A world whose files can't be opened is left untouched until they are fixed or removed.
+ */
+public class OutsideBlockStore {
+
+    private static final String FOLDER = "outside-blocks";
+    private static final int MAGIC = 0x4D464F42; // "MFOB"
+    private static final int VERSION = 1;
+    // Packed position, clan index, material index, placement time, decay minutes
+    private static final int RECORD_SIZE = 8 + 2 + 2 + 8 + 4;
+    private static final byte OP_ADD = 1;
+    private static final byte OP_REMOVE = 2;
+
+    private final MiniFactions plugin;
+    private final File folder;
+    private final Map<String, WorldStore> worlds = new HashMap<>();
+
+    public OutsideBlockStore(MiniFactions plugin) {
+        this.plugin = plugin;
+        this.folder = new File(plugin.getDataFolder(), FOLDER);
+    }
+
+    /**
+     * Read the stored blocks of a chunk the first time it is loaded
+     * @param worldName World name
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     * @param consumer Receives every stored block of the chunk
+     */
+    public void loadChunk(String worldName, int chunkX, int chunkZ, Consumer<StoredBlock> consumer) {
+        WorldStore store = getWorldStore(worldName);
+        long chunkKey = chunkKey(chunkX, chunkZ);
+
+        if (store.failed || !store.loadedChunks.add(chunkKey)) {
+            return;
+        }
+
+        Collection<StoredBlock> blocks;
+        try {
+            blocks = store.readChunk(chunkKey).values();
+        } catch (IOException e) {
+            // Leave the chunk unloaded so its stored data is kept
+            store.loadedChunks.remove(chunkKey);
+            plugin.getLogger().log(Level.SEVERE, "Failed to read outside blocks for chunk " + chunkX + "," + chunkZ +
+                    " in " + worldName + ": " + e.getMessage(), e);
+            return;
+        }
+
+        store.pendingLog.remove(chunkKey);
+        for (StoredBlock block : blocks) {
+            consumer.accept(block);
+        }
+    }
+
+    /**
+     * Check if a chunk's stored blocks have already been read
+     * @param worldName World name
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     * @return true if the chunk was loaded
+     */
+    public boolean isChunkLoaded(String worldName, int chunkX, int chunkZ) {
+        return getWorldStore(worldName).loadedChunks.contains(chunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * Record a newly tracked block
+     * @param worldName World name
+     * @param block Tracked block
+     */
+    public void append(String worldName, StoredBlock block) {
+        WorldStore store = getWorldStore(worldName);
+        if (store.failed) {
+            return;
+        }
+
+        try {
+            DataOutputStream log = store.openLog();
+            log.writeByte(OP_ADD);
+            log.writeLong(block.position);
+            log.writeUTF(block.clanId);
+            log.writeUTF(block.material);
+            log.writeLong(block.placementTime);
+            log.writeInt(block.decayMinutes);
+            store.logOps++;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to write outside block log for " + worldName + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Record the removal of a tracked block
+     * @param worldName World name
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     */
+    public void appendRemoval(String worldName, int x, int y, int z) {
+        WorldStore store = getWorldStore(worldName);
+        if (store.failed) {
+            return;
+        }
+
+        try {
+            DataOutputStream log = store.openLog();
+            log.writeByte(OP_REMOVE);
+            log.writeLong(packPosition(x, y, z));
+            store.logOps++;
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to write outside block log for " + worldName + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Flush buffered log writes to disk
+     */
+    public void flush() {
+        for (Map.Entry<String, WorldStore> entry : worlds.entrySet()) {
+            try {
+                entry.getValue().flushLog();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to flush outside block log for " + entry.getKey() + ": " +
+                        e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Get the number of log entries written since the last compaction
+     * @param worldName World name
+     * @return Log entry count
+     */
+    public int getLogSize(String worldName) {
+        return getWorldStore(worldName).logOps;
+    }
+
+    /**
+     * Get the names of all worlds with stored data or open logs
+     * @return World names
+     */
+    public Set<String> getWorldNames() {
+        Set<String> names = new HashSet<>(worlds.keySet());
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".dat") || name.endsWith(".log"));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                names.add(name.substring(0, name.length() - 4));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Rewrite a world's snapshot and truncate its log
+     * @param worldName World name
+     * @param liveBlocks Current blocks of every chunk that has been loaded in this world
+     */
+    public void compact(String worldName, Collection<StoredBlock> liveBlocks) {
+        WorldStore store = getWorldStore(worldName);
+        // A snapshot written without the unreadable one would replace its data
+        if (store.failed) {
+            return;
+        }
+
+        try {
+            store.compact(liveBlocks);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to compact outside blocks for " + worldName + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Close all open logs
+     */
+    public void close() {
+        for (Map.Entry<String, WorldStore> entry : worlds.entrySet()) {
+            try {
+                entry.getValue().closeLog();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to close outside block log for " + entry.getKey() + ": " +
+                        e.getMessage(), e);
+            }
+        }
+        worlds.clear();
+    }
+
+    /**
+     * Get or open the store for a world
+     * @param worldName World name
+     * @return World store
+     */
+    private WorldStore getWorldStore(String worldName) {
+        WorldStore store = worlds.get(worldName);
+        if (store == null) {
+            store = new WorldStore(worldName);
+            try {
+                store.open();
+            } catch (IOException e) {
+                store.failed = true;
+                plugin.getLogger().log(Level.SEVERE, "Failed to open outside block storage for " + worldName + ": " +
+                        e.getMessage() + ". Its files are left untouched and outside blocks in this world are not saved.", e);
+            }
+            worlds.put(worldName, store);
+        }
+        return store;
+    }
+
+    /**
+     * Pack a block position into a long (26 bits X, 26 bits Z, 12 bits Y)
+     * @param x Block X
+     * @param y Block Y
+     * @param z Block Z
+     * @return Packed position
+     */
+    static long packPosition(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    /**
+     * Get the chunk key of a packed position
+     * @param position Packed position
+     * @return Chunk key
+     */
+    private static long chunkKeyOf(long position) {
+        int x = (int) (position >> 38);
+        int z = (int) (position << 26 >> 38);
+        return chunkKey(x >> 4, z >> 4);
+    }
+
+    /**
+     * Combine chunk coordinates into a single key
+     * @param chunkX Chunk X
+     * @param chunkZ Chunk Z
+     * @return Chunk key
+     */
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Snapshot and log files of a single world
+     */
+    private class WorldStore {
+        private final File snapshotFile;
+        private final File logFile;
+        // Snapshot palettes, indexed by the record's clan and material index
+        private final List<String> clanPalette = new ArrayList<>();
+        private final List<String> materialPalette = new ArrayList<>();
+        // Chunk key -> {file offset, record count} in the snapshot
+        private final Map<Long, long[]> chunkIndex = new HashMap<>();
+        // Log entries read at startup for chunks that haven't been loaded yet
+        private final Map<Long, List<StoredBlock>> pendingLog = new HashMap<>();
+        private final Set<Long> loadedChunks = new HashSet<>();
+        private DataOutputStream log;
+        private int logOps;
+        // The files couldn't be read, nothing is read from or written to them
+        private boolean failed;
+
+        private WorldStore(String worldName) {
+            this.snapshotFile = new File(folder, worldName + ".dat");
+            this.logFile = new File(folder, worldName + ".log");
+        }
+
+        /**
+         * Read the snapshot header and replay the log
+         * @throws IOException if the files can't be read
+         */
+        private void open() throws IOException {
+            if (snapshotFile.exists()) {
+                readHeader();
+            }
+            if (logFile.exists()) {
+                replayLog();
+            }
+        }
+
+        /**
+         * Read the palettes and chunk table of the snapshot
+         * @throws IOException if the snapshot can't be read
+         */
+        private void readHeader() throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Unsupported outside block snapshot " + snapshotFile.getName());
+                }
+
+                int clanCount = in.readInt();
+                for (int i = 0; i < clanCount; i++) {
+                    clanPalette.add(in.readUTF());
+                }
+                int materialCount = in.readInt();
+                for (int i = 0; i < materialCount; i++) {
+                    materialPalette.add(in.readUTF());
+                }
+
+                int chunkCount = in.readInt();
+                for (int i = 0; i < chunkCount; i++) {
+                    long chunkKey = in.readLong();
+                    long offset = in.readLong();
+                    int count = in.readInt();
+                    chunkIndex.put(chunkKey, new long[] {offset, count});
+                }
+            }
+        }
+
+        /**
+         * Read the log into per-chunk pending entries
+         * @throws IOException if the log can't be read
+         */
+        private void replayLog() throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+                while (true) {
+                    byte op;
+                    try {
+                        op = in.readByte();
+                    } catch (EOFException e) {
+                        break;
+                    }
+
+                    try {
+                        long position = in.readLong();
+                        StoredBlock block = null;
+                        if (op == OP_ADD) {
+                            block = new StoredBlock(position, in.readUTF(), in.readUTF(), in.readLong(), in.readInt());
+                        } else if (op != OP_REMOVE) {
+                            plugin.getLogger().warning("Corrupt outside block log " + logFile.getName() + ", ignoring the rest.");
+                            break;
+                        }
+
+                        pendingLog.computeIfAbsent(chunkKeyOf(position), key -> new ArrayList<>())
+                                .add(block != null ? block : StoredBlock.removal(position));
+                        logOps++;
+                    } catch (EOFException e) {
+                        // Partially written last entry from a crash
+                        plugin.getLogger().warning("Truncated outside block log " + logFile.getName() + ", ignoring the last entry.");
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Read a chunk's blocks from the snapshot and apply its pending log entries
+         * @param chunkKey Chunk key
+         * @return Packed position -> block
+         * @throws IOException if the snapshot can't be read
+         */
+        private Map<Long, StoredBlock> readChunk(long chunkKey) throws IOException {
+            Map<Long, StoredBlock> blocks = new LinkedHashMap<>();
+
+            long[] range = chunkIndex.get(chunkKey);
+            if (range != null) {
+                byte[] data = new byte[(int) range[1] * RECORD_SIZE];
+                try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "r")) {
+                    file.seek(range[0]);
+                    file.readFully(data);
+                }
+
+                try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+                    for (int i = 0; i < range[1]; i++) {
+                        long position = in.readLong();
+                        String clanId = clanPalette.get(in.readUnsignedShort());
+                        String material = materialPalette.get(in.readUnsignedShort());
+                        blocks.put(position, new StoredBlock(position, clanId, material, in.readLong(), in.readInt()));
+                    }
+                }
+            }
+
+            List<StoredBlock> entries = pendingLog.get(chunkKey);
+            if (entries != null) {
+                for (StoredBlock entry : entries) {
+                    if (entry.isRemoval()) {
+                        blocks.remove(entry.position);
+                    } else {
+                        blocks.put(entry.position, entry);
+                    }
+                }
+            }
+
+            return blocks;
+        }
+
+        /**
+         * Get the log output stream, opening it if needed
+         * @return Log stream
+         * @throws IOException if the log can't be opened
+         */
+        private DataOutputStream openLog() throws IOException {
+            if (log == null) {
+                if (!folder.exists()) {
+                    folder.mkdirs();
+                }
+                log = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)));
+            }
+            return log;
+        }
+
+        /**
+         * Flush the log if it is open
+         * @throws IOException if the log can't be written
+         */
+        private void flushLog() throws IOException {
+            if (log != null) {
+                log.flush();
+            }
+        }
+
+        /**
+         * Close the log if it is open
+         * @throws IOException if the log can't be written
+         */
+        private void closeLog() throws IOException {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        }
+
+        /**
+         * Write a new snapshot from the live blocks and the chunks that were never loaded
+         * @param liveBlocks Current blocks of the loaded chunks
+         * @throws IOException if the snapshot can't be written
+         */
+        private void compact(Collection<StoredBlock> liveBlocks) throws IOException {
+            closeLog();
+
+            // Collect chunks in a stable order; unloaded chunks keep their stored contents
+            Map<Long, Collection<StoredBlock>> chunks = new TreeMap<>();
+            for (StoredBlock block : liveBlocks) {
+                chunks.computeIfAbsent(chunkKeyOf(block.position), key -> new ArrayList<>()).add(block);
+            }
+
+            Set<Long> unloadedChunks = new HashSet<>(chunkIndex.keySet());
+            unloadedChunks.addAll(pendingLog.keySet());
+            unloadedChunks.removeAll(loadedChunks);
+            for (long chunkKey : unloadedChunks) {
+                Collection<StoredBlock> blocks = readChunk(chunkKey).values();
+                if (!blocks.isEmpty()) {
+                    chunks.put(chunkKey, blocks);
+                }
+            }
+
+            // Existing palette entries keep their index
+            Map<String, Integer> clanIndex = paletteIndex(clanPalette);
+            Map<String, Integer> materialIndex = paletteIndex(materialPalette);
+            for (Collection<StoredBlock> blocks : chunks.values()) {
+                for (StoredBlock block : blocks) {
+                    addToPalette(clanPalette, clanIndex, block.clanId);
+                    addToPalette(materialPalette, materialIndex, block.material);
+                }
+            }
+
+            if (clanPalette.size() > 0xFFFF || materialPalette.size() > 0xFFFF) {
+                throw new IOException("Outside block palette overflow");
+            }
+
+            // Header size is needed up front to compute chunk offsets
+            long headerSize = 4 + 4 + paletteSize(clanPalette) + paletteSize(materialPalette) + 4 +
+                    (long) chunks.size() * (8 + 8 + 4);
+
+            if (!folder.exists()) {
+                folder.mkdirs();
+            }
+            File tempFile = new File(folder, snapshotFile.getName() + ".tmp");
+            Map<Long, long[]> newIndex = new HashMap<>();
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writePalette(out, clanPalette);
+                writePalette(out, materialPalette);
+
+                out.writeInt(chunks.size());
+                long offset = headerSize;
+                for (Map.Entry<Long, Collection<StoredBlock>> entry : chunks.entrySet()) {
+                    int count = entry.getValue().size();
+                    out.writeLong(entry.getKey());
+                    out.writeLong(offset);
+                    out.writeInt(count);
+                    newIndex.put(entry.getKey(), new long[] {offset, count});
+                    offset += (long) count * RECORD_SIZE;
+                }
+
+                for (Collection<StoredBlock> blocks : chunks.values()) {
+                    for (StoredBlock block : blocks) {
+                        out.writeLong(block.position);
+                        out.writeShort(clanIndex.get(block.clanId));
+                        out.writeShort(materialIndex.get(block.material));
+                        out.writeLong(block.placementTime);
+                        out.writeInt(block.decayMinutes);
+                    }
+                }
+            }
+
+            try {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            // The snapshot now contains everything in the log
+            Files.deleteIfExists(logFile.toPath());
+            chunkIndex.clear();
+            chunkIndex.putAll(newIndex);
+            pendingLog.clear();
+            logOps = 0;
+        }
+    }
+
+    /**
+     * Build a value -> index map for a palette
+     * @param palette Palette
+     * @return Index map
+     */
+    private static Map<String, Integer> paletteIndex(List<String> palette) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < palette.size(); i++) {
+            index.put(palette.get(i), i);
+        }
+        return index;
+    }
+
+    /**
+     * Add a value to a palette if it isn't in it yet
+     * @param palette Palette
+     * @param index Index map of the palette
+     * @param value Value to add
+     */
+    private static void addToPalette(List<String> palette, Map<String, Integer> index, String value) {
+        if (!index.containsKey(value)) {
+            index.put(value, palette.size());
+            palette.add(value);
+        }
+    }
+
+    /**
+     * Get the encoded size of a palette
+     * @param palette Palette
+     * @return Size in bytes
+     */
+    private static long paletteSize(List<String> palette) {
+        long size = 4;
+        for (String value : palette) {
+            size += 2 + utfLength(value);
+        }
+        return size;
+    }
+
+    /**
+     * Get the modified UTF-8 length of a string as written by writeUTF
+     * @param value String
+     * @return Encoded length in bytes
+     */
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c <= 0x07FF) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Write a palette
+     * @param out Output stream
+     * @param palette Palette
+     * @throws IOException if writing fails
+     */
+    private static void writePalette(DataOutputStream out, List<String> palette) throws IOException {
+        out.writeInt(palette.size());
+        for (String value : palette) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * A stored outside block
+     */
+    public static final class StoredBlock {
+        private final long position;
+        private final String clanId;
+        private final String material;
+        private final long placementTime;
+        private final int decayMinutes;
+
+        /**
+         * Create a stored block
+         * @param x Block X
+         * @param y Block Y
+         * @param z Block Z
+         * @param clanId ID of the clan that placed the block
+         * @param material Material name
+         * @param placementTime Placement time in milliseconds
+         * @param decayMinutes Decay time in minutes
+         */
+        public StoredBlock(int x, int y, int z, String clanId, String material, long placementTime, int decayMinutes) {
+            this(packPosition(x, y, z), clanId, material, placementTime, decayMinutes);
+        }
+
+        private StoredBlock(long position, String clanId, String material, long placementTime, int decayMinutes) {
+            this.position = position;
+            this.clanId = clanId;
+            this.material = material;
+            this.placementTime = placementTime;
+            this.decayMinutes = decayMinutes;
+        }
+
+        /**
+         * Create a log marker for a removed block
+         * @param position Packed position
+         * @return Removal marker
+         */
+        private static StoredBlock removal(long position) {
+            return new StoredBlock(position, null, null, 0L, 0);
+        }
+
+        private boolean isRemoval() {
+            return clanId == null;
+        }
+
+        public int getX() {
+            return (int) (position >> 38);
+        }
+
+        public int getY() {
+            return (int) (position << 52 >> 52);
+        }
+
+        public int getZ() {
+            return (int) (position << 26 >> 38);
+        }
+
+        public String getClanId() {
+            return clanId;
+        }
+
+        public String getMaterial() {
+            return material;
+        }
+
+        public long getPlacementTime() {
+            return placementTime;
+        }
+
+        public int getDecayMinutes() {
+            return decayMinutes;
+        }
+    }
+}
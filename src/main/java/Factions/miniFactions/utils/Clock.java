@@ -0,0 +1,45 @@
+package Factions.miniFactions.utils;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Source of game time for upkeep, decay and point generation.
+ * Defaults to the system clock; headless simulations swap in a virtual clock
+ * so days of game time can be replayed in minutes.
+ */
+public final class Clock {
+
+    private static final LongSupplier SYSTEM = System::currentTimeMillis;
+
+    private static volatile LongSupplier source = SYSTEM;
+
+    private Clock() {
+    }
+
+    /**
+     * Get the current game time
+     * @return Milliseconds since the epoch
+     */
+    public static long now() {
+        return source.getAsLong();
+    }
+
+    /**
+     * Replace the time source
+     * @param newSource Supplier of milliseconds since the epoch
+     * @throws IllegalArgumentException if newSource is null
+     */
+    public static void setSource(LongSupplier newSource) {
+        if (newSource == null) {
+            throw new IllegalArgumentException("Clock source cannot be null");
+        }
+        source = newSource;
+    }
+
+    /**
+     * Go back to the system clock
+     */
+    public static void reset() {
+        source = SYSTEM;
+    }
+}
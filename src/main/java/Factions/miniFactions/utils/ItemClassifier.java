@@ -0,0 +1,159 @@
+package Factions.miniFactions.utils;
+
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.config.MaterialRole;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Identifies MiniFactions items.
+ * Items are rejected by material first, through the same material role table the block
+ * listeners use, so ordinary items never have their meta read.
+ * Candidates are resolved from the kind and tier tags stamped by the CraftingManager,
+ * with a single meta read; untagged items from older versions fall back to their
+ * display name and custom model data.
+ */
+public class ItemClassifier {
+
+    private static final NamespacedKey KIND_KEY = new NamespacedKey("minifactions", "item_kind");
+    private static final NamespacedKey TIER_KEY = new NamespacedKey("minifactions", "item_tier");
+
+    // Material role -> kind of MiniFactions item with a material of that role
+    private static final Map<MaterialRole, ItemKind> KIND_BY_ROLE = new EnumMap<>(MaterialRole.class);
+
+    static {
+        KIND_BY_ROLE.put(MaterialRole.CORE_BLOCK, ItemKind.CORE_BLOCK);
+        KIND_BY_ROLE.put(MaterialRole.CLAIM_BLOCK, ItemKind.CLAIM_BLOCK);
+        KIND_BY_ROLE.put(MaterialRole.DEFENSE_BLOCK, ItemKind.DEFENSE_BLOCK);
+        KIND_BY_ROLE.put(MaterialRole.EXPLOSIVE, ItemKind.EXPLOSIVE);
+        KIND_BY_ROLE.put(MaterialRole.CLAN_DOOR, ItemKind.CLAN_DOOR);
+    }
+
+    private ItemClassifier() {
+    }
+
+    /**
+     * Kinds of MiniFactions items
+     */
+    public enum ItemKind {
+        CORE_BLOCK("Core Block"),
+        CLAIM_BLOCK("Claim Block"),
+        DEFENSE_BLOCK("Defense Block"),
+        EXPLOSIVE("Explosive"),
+        CLAN_DOOR("Clan Door", "Clan Trapdoor");
+
+        private final String[] legacyNames;
+
+        ItemKind(String... legacyNames) {
+            this.legacyNames = legacyNames;
+        }
+
+        /**
+         * Check if a display name identifies an untagged item of this kind
+         * @param displayName Display name
+         * @return true if it matches
+         */
+        private boolean matchesLegacyName(String displayName) {
+            for (String name : legacyNames) {
+                if (displayName.contains(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Kind and tier of a MiniFactions item
+     */
+    public static final class Classification {
+        private final ItemKind kind;
+        private final int tier;
+
+        private Classification(ItemKind kind, int tier) {
+            this.kind = kind;
+            this.tier = tier;
+        }
+
+        /**
+         * Get the item kind
+         * @return Kind
+         */
+        public ItemKind getKind() {
+            return kind;
+        }
+
+        /**
+         * Get the tier or level of the item
+         * @return Tier, 1 if the item has none
+         */
+        public int getTier() {
+            return tier;
+        }
+    }
+
+    /**
+     * Classify an item
+     * @param item Item to classify
+     * @return Classification, or null if the item is not a MiniFactions item
+     */
+    public static Classification classify(ItemStack item) {
+        if (item == null) {
+            return null;
+        }
+
+        // Fast reject on material, no meta is read for ordinary items; the role table follows the configured tiers
+        MaterialRole role = MiniFactions.getInstance().getConfigManager().getSettings().getMaterialRole(item.getType());
+        ItemKind candidate = KIND_BY_ROLE.get(role);
+        if (candidate == null || !item.hasItemMeta()) {
+            return null;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+
+        String kindName = container.get(KIND_KEY, PersistentDataType.STRING);
+        if (kindName != null) {
+            if (!candidate.name().equals(kindName)) {
+                return null;
+            }
+            Integer tier = container.get(TIER_KEY, PersistentDataType.INTEGER);
+            return new Classification(candidate, tier != null ? tier : 1);
+        }
+
+        // Items created before tagging are identified by their name
+        if (!meta.hasDisplayName() || !candidate.matchesLegacyName(meta.getDisplayName())) {
+            return null;
+        }
+        return new Classification(candidate, meta.hasCustomModelData() ? meta.getCustomModelData() : 1);
+    }
+
+    /**
+     * Classify an item, only accepting one kind
+     * @param item Item to classify
+     * @param kind Expected kind
+     * @return Classification, or null if the item is not of that kind
+     */
+    public static Classification classify(ItemStack item, ItemKind kind) {
+        Classification classification = classify(item);
+        return classification != null && classification.kind == kind ? classification : null;
+    }
+
+    /**
+     * Stamp the kind and tier tags on an item's meta
+     * @param meta Item meta
+     * @param kind Item kind
+     * @param tier Tier or level
+     */
+    public static void tag(ItemMeta meta, ItemKind kind, int tier) {
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+        container.set(KIND_KEY, PersistentDataType.STRING, kind.name());
+        container.set(TIER_KEY, PersistentDataType.INTEGER, tier);
+    }
+}
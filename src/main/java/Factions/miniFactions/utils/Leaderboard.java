@@ -0,0 +1,294 @@
+package Factions.miniFactions.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ranking of entries by score, highest first, with ties broken by ascending id.
+ * Backed by a treap whose nodes track their subtree size, so updates and rank lookups
+ * are O(log n) and the top k entries are read in O(log n + k).
+ * @param <T> Ranked value type
+ */
+public class Leaderboard<T> {
+
+    private final Map<String, Node<T>> nodes = new HashMap<>();
+    private Node<T> root;
+
+    /**
+     * Insert an entry or move it to a new score
+     * @param id Unique entry id
+     * @param value Ranked value
+     * @param score Entry score
+     */
+    public void update(String id, T value, int score) {
+        if (id == null) {
+            throw new IllegalArgumentException("Leaderboard id cannot be null");
+        }
+
+        Node<T> node = nodes.get(id);
+        if (node != null) {
+            node.value = value;
+            if (node.score == score) {
+                return;
+            }
+            root = erase(root, node);
+        }
+
+        node = new Node<>(id, value, score, ThreadLocalRandom.current().nextInt());
+        nodes.put(id, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Remove an entry
+     * @param id Entry id
+     * @return true if the entry was ranked
+     */
+    public boolean remove(String id) {
+        Node<T> node = nodes.remove(id);
+        if (node == null) {
+            return false;
+        }
+
+        root = erase(root, node);
+        return true;
+    }
+
+    /**
+     * Check if an entry is ranked
+     * @param id Entry id
+     * @return true if ranked
+     */
+    public boolean contains(String id) {
+        return nodes.containsKey(id);
+    }
+
+    /**
+     * Get the score an entry is ranked with
+     * @param id Entry id
+     * @return Score, or 0 if not ranked
+     */
+    public int getScore(String id) {
+        Node<T> node = nodes.get(id);
+        return node != null ? node.score : 0;
+    }
+
+    /**
+     * Get the rank of an entry
+     * @param id Entry id
+     * @return Rank starting at 1, or 0 if not ranked
+     */
+    public int getRank(String id) {
+        Node<T> target = nodes.get(id);
+        if (target == null) {
+            return 0;
+        }
+
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = compare(target, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                if (cmp == 0) {
+                    return rank;
+                }
+                node = node.right;
+            }
+        }
+
+        // Unreachable while the map and the tree agree
+        return 0;
+    }
+
+    /**
+     * Get the highest ranked values
+     * @param limit Maximum number of values
+     * @return Values in rank order
+     */
+    public List<T> getTop(int limit) {
+        List<T> top = new ArrayList<>(Math.max(0, Math.min(limit, nodes.size())));
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        Node<T> node = root;
+
+        // In-order walk that stops after limit entries
+        while (top.size() < limit && (node != null || !stack.isEmpty())) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            top.add(node.value);
+            node = node.right;
+        }
+
+        return top;
+    }
+
+    /**
+     * Get the number of ranked entries
+     * @return Entry count
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * Order two nodes, higher score first, then lower id
+     * @param a First node
+     * @param b Second node
+     * @return Negative if a ranks before b
+     */
+    private static int compare(Node<?> a, Node<?> b) {
+        int cmp = Integer.compare(b.score, a.score);
+        return cmp != 0 ? cmp : a.id.compareTo(b.id);
+    }
+
+    /**
+     * Insert a node into a subtree
+     * @param tree Subtree root
+     * @param node Node to insert
+     * @return New subtree root
+     */
+    private Node<T> insert(Node<T> tree, Node<T> node) {
+        if (tree == null) {
+            return node;
+        }
+
+        // The node becomes the root of this subtree if its priority is higher
+        if (node.priority > tree.priority) {
+            split(tree, node, node);
+            node.recount();
+            return node;
+        }
+
+        if (compare(node, tree) < 0) {
+            tree.left = insert(tree.left, node);
+        } else {
+            tree.right = insert(tree.right, node);
+        }
+        tree.recount();
+        return tree;
+    }
+
+    /**
+     * Remove a node from a subtree
+     * @param tree Subtree root
+     * @param node Node to remove
+     * @return New subtree root
+     */
+    private Node<T> erase(Node<T> tree, Node<T> node) {
+        if (tree == node) {
+            return merge(tree.left, tree.right);
+        }
+
+        if (compare(node, tree) < 0) {
+            tree.left = erase(tree.left, node);
+        } else {
+            tree.right = erase(tree.right, node);
+        }
+        tree.recount();
+        return tree;
+    }
+
+    /**
+     * Split a subtree around a key, storing the halves as the children of a node
+     * @param tree Subtree root
+     * @param key Node whose position is the split point
+     * @param into Node receiving the lower half as its left and the upper half as its right child
+     */
+    private void split(Node<T> tree, Node<T> key, Node<T> into) {
+        if (tree == null) {
+            into.left = null;
+            into.right = null;
+            return;
+        }
+
+        if (compare(tree, key) < 0) {
+            split(tree.right, key, into);
+            tree.right = into.left;
+            tree.recount();
+            into.left = tree;
+        } else {
+            split(tree.left, key, into);
+            tree.left = into.right;
+            tree.recount();
+            into.right = tree;
+        }
+    }
+
+    /**
+     * Join two subtrees where every node of the first ranks before the second
+     * @param left Lower subtree
+     * @param right Upper subtree
+     * @return Joined subtree root
+     */
+    private Node<T> merge(Node<T> left, Node<T> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.recount();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.recount();
+        return right;
+    }
+
+    /**
+     * Get the size of a subtree
+     * @param node Subtree root
+     * @return Node count
+     */
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+
+    /**
+     * Treap node
+     */
+    private static class Node<T> {
+        private final String id;
+        private final int score;
+        private final int priority;
+        private T value;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        private Node(String id, T value, int score, int priority) {
+            this.id = id;
+            this.value = value;
+            this.score = score;
+            this.priority = priority;
+        }
+
+        /**
+         * Recompute the subtree size from the children
+         */
+        private void recount() {
+            size = 1 + Leaderboard.size(left) + Leaderboard.size(right);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package Factions.miniFactions.utils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Counters, gauges and histograms rendered in the Prometheus or OpenMetrics text format.
+ * Metrics are grouped into families that share a name, help text and label names; each
+ * combination of label values is a separate child. Recording is thread-safe, so metrics
+ * can be updated on the main thread and rendered from another one. Counters and gauges
+ * can also be bound to a supplier that is read when rendering; the supplier must then be
+ * safe to call off the main thread.
+ */
+public class MetricsRegistry {
+
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    /**
+     * Text exposition formats
+     */
+    public enum Format {
+        PROMETHEUS,
+        OPENMETRICS
+    }
+
+    // Sorted by name so the output is stable between writes
+    private final Map<String, Family<?>> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Register a counter family
+     * @param name Metric name without the _total suffix
+     * @param help Description
+     * @param labelNames Label names
+     * @return Counter family
+     * @throws IllegalArgumentException if the name or a label name is invalid or already taken
+     */
+    public Family<Counter> counter(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "counter", labelNames, Counter::new));
+    }
+
+    /**
+     * Register a gauge family
+     * @param name Metric name
+     * @param help Description
+     * @param labelNames Label names
+     * @return Gauge family
+     * @throws IllegalArgumentException if the name or a label name is invalid or already taken
+     */
+    public Family<Gauge> gauge(String name, String help, String... labelNames) {
+        return register(new Family<>(name, help, "gauge", labelNames, Gauge::new));
+    }
+
+    /**
+     * Register a histogram family
+     * @param name Metric name
+     * @param help Description
+     * @param bounds Upper bounds of the buckets in ascending order, +Inf is added automatically
+     * @param labelNames Label names
+     * @return Histogram family
+     * @throws IllegalArgumentException if the name, a label name or the bounds are invalid
+     */
+    public Family<Histogram> histogram(String name, String help, double[] bounds, String... labelNames) {
+        if (bounds.length == 0) {
+            throw new IllegalArgumentException("Histogram needs at least one bucket");
+        }
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("Histogram bounds must be ascending");
+            }
+        }
+        for (String labelName : labelNames) {
+            if (labelName.equals("le")) {
+                throw new IllegalArgumentException("Histograms cannot use the label name le");
+            }
+        }
+
+        double[] copy = bounds.clone();
+        return register(new Family<>(name, help, "histogram", labelNames, supplier -> new Histogram(copy)));
+    }
+
+    /**
+     * Render all metrics
+     * @param format Exposition format
+     * @return Metrics text
+     */
+    public String render(Format format) {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family<?> family : families.values()) {
+            family.render(out, format);
+        }
+        if (format == Format.OPENMETRICS) {
+            out.append("# EOF\n");
+        }
+        return out.toString();
+    }
+
+    /**
+     * Add a family, making sure its name is free
+     * @param family Family to add
+     * @param <T> Metric type
+     * @return The family
+     */
+    private <T extends Metric> Family<T> register(Family<T> family) {
+        if (families.putIfAbsent(family.name, family) != null) {
+            throw new IllegalArgumentException("Metric already registered: " + family.name);
+        }
+        return family;
+    }
+
+    /**
+     * Format a sample value
+     * @param value Value
+     * @return Text form
+     */
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * Escape a label value
+     * @param value Label value
+     * @return Escaped value
+     */
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Metrics sharing a name, help text and label names
+     * @param <T> Metric type
+     */
+    public static final class Family<T extends Metric> {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final String[] labelNames;
+        private final Function<DoubleSupplier, T> factory;
+        private final Map<List<String>, T> children = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, String type, String[] labelNames,
+                       Function<DoubleSupplier, T> factory) {
+            if (!NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid metric name: " + name);
+            }
+            for (String labelName : labelNames) {
+                if (!LABEL.matcher(labelName).matches() || labelName.startsWith("__")) {
+                    throw new IllegalArgumentException("Invalid label name: " + labelName);
+                }
+            }
+
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.labelNames = labelNames.clone();
+            this.factory = factory;
+        }
+
+        /**
+         * Get or create the child for a combination of label values
+         * @param labelValues One value per label name
+         * @return Child metric
+         * @throws IllegalArgumentException if the number of values does not match the label names
+         */
+        public T labels(String... labelValues) {
+            return children.computeIfAbsent(key(labelValues), key -> factory.apply(null));
+        }
+
+        /**
+         * Bind the child for a combination of label values to a supplier that is read when rendering
+         * @param supplier Source of the value, must be safe to call from any thread
+         * @param labelValues One value per label name
+         * @throws IllegalArgumentException if the values do not match the label names, the child already
+         * exists or the family is a histogram
+         */
+        public void bind(DoubleSupplier supplier, String... labelValues) {
+            if (type.equals("histogram")) {
+                throw new IllegalArgumentException("Histograms cannot be bound to a supplier");
+            }
+            if (children.putIfAbsent(key(labelValues), factory.apply(supplier)) != null) {
+                throw new IllegalArgumentException("Child already exists: " + name + Arrays.toString(labelValues));
+            }
+        }
+
+        /**
+         * Turn label values into a child key
+         * @param labelValues Label values
+         * @return Key
+         */
+        private List<String> key(String[] labelValues) {
+            if (labelValues.length != labelNames.length) {
+                throw new IllegalArgumentException("Expected " + labelNames.length + " label values for " + name +
+                        " but got " + labelValues.length);
+            }
+            return labelValues.length == 0 ? Collections.emptyList() : Arrays.asList(labelValues.clone());
+        }
+
+        /**
+         * Render the family
+         * @param out Output
+         * @param format Exposition format
+         */
+        private void render(StringBuilder out, Format format) {
+            // OpenMetrics names the counter family without the suffix its samples carry
+            String familyName = type.equals("counter") && format == Format.PROMETHEUS ? name + "_total" : name;
+            String escapedHelp = help.replace("\\", "\\\\").replace("\n", "\\n");
+            if (format == Format.OPENMETRICS) {
+                escapedHelp = escapedHelp.replace("\"", "\\\"");
+            }
+            out.append("# HELP ").append(familyName).append(' ').append(escapedHelp).append('\n');
+            out.append("# TYPE ").append(familyName).append(' ').append(type).append('\n');
+
+            List<Map.Entry<List<String>, T>> sorted = new ArrayList<>(children.entrySet());
+            sorted.sort((a, b) -> String.join("\u0000", a.getKey()).compareTo(String.join("\u0000", b.getKey())));
+            for (Map.Entry<List<String>, T> entry : sorted) {
+                StringBuilder labels = new StringBuilder();
+                for (int i = 0; i < labelNames.length; i++) {
+                    if (i > 0) {
+                        labels.append(',');
+                    }
+                    labels.append(labelNames[i]).append("=\"").append(escapeLabel(entry.getKey().get(i))).append('"');
+                }
+                entry.getValue().render(out, name, labels.toString());
+            }
+        }
+    }
+
+    /**
+     * A single time series, or a group of series for histograms
+     */
+    public abstract static class Metric {
+
+        /**
+         * Write the samples of this metric
+         * @param out Output
+         * @param name Family name
+         * @param labels Rendered labels without braces, empty if none
+         */
+        abstract void render(StringBuilder out, String name, String labels);
+
+        /**
+         * Write one sample line
+         * @param out Output
+         * @param name Sample name
+         * @param labels Rendered labels without braces, empty if none
+         * @param value Value
+         */
+        static void sample(StringBuilder out, String name, String labels, double value) {
+            out.append(name);
+            if (!labels.isEmpty()) {
+                out.append('{').append(labels).append('}');
+            }
+            out.append(' ').append(formatValue(value)).append('\n');
+        }
+    }
+
+    /**
+     * Value that only goes up
+     */
+    public static final class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+        private final DoubleSupplier supplier;
+
+        private Counter(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        /**
+         * Add one
+         */
+        public void inc() {
+            value.increment();
+        }
+
+        /**
+         * Add an amount
+         * @param amount Non-negative amount
+         * @throws IllegalArgumentException if the amount is negative
+         */
+        public void inc(long amount) {
+            if (amount < 0) {
+                throw new IllegalArgumentException("Counters cannot decrease");
+            }
+            value.add(amount);
+        }
+
+        /**
+         * Get the current value
+         * @return Value
+         */
+        public double get() {
+            return supplier != null ? supplier.getAsDouble() : value.sum();
+        }
+
+        @Override
+        void render(StringBuilder out, String name, String labels) {
+            sample(out, name + "_total", labels, get());
+        }
+    }
+
+    /**
+     * Value that can go up and down
+     */
+    public static final class Gauge extends Metric {
+        private volatile double value;
+        private final DoubleSupplier supplier;
+
+        private Gauge(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        /**
+         * Set the value
+         * @param value New value
+         */
+        public void set(double value) {
+            this.value = value;
+        }
+
+        /**
+         * Get the current value
+         * @return Value
+         */
+        public double get() {
+            return supplier != null ? supplier.getAsDouble() : value;
+        }
+
+        @Override
+        void render(StringBuilder out, String name, String labels) {
+            sample(out, name, labels, get());
+        }
+    }
+
+    /**
+     * Distribution of observed values over fixed buckets
+     */
+    public static final class Histogram extends Metric {
+        private final double[] bounds;
+        // One count per bound plus +Inf, not cumulative
+        private final AtomicLongArray counts;
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(double[] bounds) {
+            this.bounds = bounds;
+            this.counts = new AtomicLongArray(bounds.length + 1);
+        }
+
+        /**
+         * Record a value
+         * @param value Observed value
+         */
+        public void observe(double value) {
+            int bucket = 0;
+            while (bucket < bounds.length && value > bounds[bucket]) {
+                bucket++;
+            }
+            counts.incrementAndGet(bucket);
+            sum.add(value);
+        }
+
+        @Override
+        void render(StringBuilder out, String name, String labels) {
+            String separator = labels.isEmpty() ? "" : labels + ",";
+            long cumulative = 0;
+            for (int i = 0; i <= bounds.length; i++) {
+                cumulative += counts.get(i);
+                String le = i < bounds.length ? formatBound(bounds[i]) : "+Inf";
+                sample(out, name + "_bucket", separator + "le=\"" + le + "\"", cumulative);
+            }
+            // The count is taken from the buckets so both agree under concurrent updates
+            sample(out, name + "_count", labels, cumulative);
+            sample(out, name + "_sum", labels, sum.sum());
+        }
+
+        /**
+         * Format a bucket bound without an exponent
+         * @param bound Bound
+         * @return Text form
+         */
+        private static String formatBound(double bound) {
+            return BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package Factions.miniFactions.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive index of names.
+ * Exact lookups go through a hash map of case-folded names; prefix completion walks a
+ * compressed trie of the same keys, so it costs the prefix length plus the number of
+ * results instead of a scan over every name.
+ * @param <T> Indexed value type
+ */
+public class NameIndex<T> {
+
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private final Node root = new Node("");
+
+    /**
+     * Fold a name to its index key
+     * @param name Name
+     * @return Case-folded key
+     */
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Add or replace a name
+     * @param name Name as it should be displayed
+     * @param value Value for the name
+     */
+    public void put(String name, T value) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Indexed name cannot be null or empty");
+        }
+
+        String key = fold(name);
+        if (entries.put(key, new Entry<>(name, value)) == null) {
+            insert(key);
+        }
+    }
+
+    /**
+     * Remove a name
+     * @param name Name in any case
+     * @return Value that was indexed, or null if the name was not indexed
+     */
+    public T remove(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        String key = fold(name);
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) {
+            return null;
+        }
+
+        delete(key);
+        return entry.value;
+    }
+
+    /**
+     * Look up a name
+     * @param name Name in any case
+     * @return Value, or null if not indexed
+     */
+    public T get(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        Entry<T> entry = entries.get(fold(name));
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Get indexed names starting with a prefix, in alphabetical order
+     * @param prefix Prefix in any case
+     * @param limit Maximum number of names
+     * @return Matching names as they were indexed
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+        if (limit <= 0) {
+            return names;
+        }
+
+        String key = fold(prefix);
+        StringBuilder path = new StringBuilder();
+        Node node = root;
+        int i = 0;
+
+        // Find the node whose path covers the prefix
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                return names;
+            }
+
+            int remaining = key.length() - i;
+            if (child.label.length() >= remaining) {
+                if (!child.label.startsWith(key.substring(i))) {
+                    return names;
+                }
+            } else if (!key.startsWith(child.label, i)) {
+                return names;
+            }
+
+            path.append(child.label);
+            i += child.label.length();
+            node = child;
+        }
+
+        collect(node, path, names, limit);
+        return names;
+    }
+
+    /**
+     * Get the number of indexed names
+     * @return Name count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Remove all names
+     */
+    public void clear() {
+        entries.clear();
+        root.children.clear();
+        root.terminal = false;
+    }
+
+    /**
+     * Collect names below a node in alphabetical order
+     * @param node Start node
+     * @param path Key of the start node, restored on return
+     * @param names Output list
+     * @param limit Maximum number of names
+     */
+    private void collect(Node node, StringBuilder path, List<String> names, int limit) {
+        if (node.terminal) {
+            names.add(entries.get(path.toString()).name);
+        }
+
+        for (Node child : node.children.values()) {
+            if (names.size() >= limit) {
+                return;
+            }
+            int length = path.length();
+            path.append(child.label);
+            collect(child, path, names, limit);
+            path.setLength(length);
+        }
+    }
+
+    /**
+     * Add a key to the trie
+     * @param key Case-folded key
+     */
+    private void insert(String key) {
+        Node node = root;
+        int i = 0;
+
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                Node leaf = new Node(key.substring(i));
+                leaf.terminal = true;
+                node.children.put(key.charAt(i), leaf);
+                return;
+            }
+
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Split the edge where the key diverges
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+
+            node = child;
+            i += common;
+        }
+
+        node.terminal = true;
+    }
+
+    /**
+     * Remove a key from the trie, merging edges that no longer branch
+     * @param key Case-folded key
+     */
+    private void delete(String key) {
+        Node parent = null;
+        Node node = root;
+        int i = 0;
+
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null || !key.startsWith(child.label, i)) {
+                return;
+            }
+            parent = node;
+            node = child;
+            i += child.label.length();
+        }
+
+        node.terminal = false;
+        if (parent == null) {
+            return;
+        }
+
+        if (node.children.isEmpty()) {
+            parent.children.remove(node.label.charAt(0));
+            // The parent may now be a pass-through node
+            if (parent != root && !parent.terminal && parent.children.size() == 1) {
+                parent.absorbChild();
+            }
+        } else if (node.children.size() == 1) {
+            node.absorbChild();
+        }
+    }
+
+    /**
+     * Get the length of the common prefix of an edge label and a key suffix
+     * @param label Edge label
+     * @param key Key
+     * @param offset Start of the key suffix
+     * @return Common prefix length
+     */
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Indexed name and value
+     */
+    private static class Entry<T> {
+        private final String name;
+        private final T value;
+
+        private Entry(String name, T value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Trie node, reached through an edge labelled with one or more characters
+     */
+    private static class Node {
+        private String label;
+        private boolean terminal;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Merge the only child into this node
+         */
+        private void absorbChild() {
+            Node child = children.firstEntry().getValue();
+            label = label + child.label;
+            terminal = child.terminal;
+            children.clear();
+            children.putAll(child.children);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package Factions.miniFactions.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram over a rolling time window.
+ * Time is split into fixed slots kept in a ring, each holding a log-linear histogram
+ * (8 buckets per power of two, so percentiles are within 12.5%). Recording is a few
+ * atomic adds; a slot is recycled by the first sample that lands in it after its time
+ * has passed, so a sample racing with that recycle may be lost.
+ */
+public class RollingHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MIN_EXPONENT = 6; // Values under 64 ns share the first bucket
+    private static final int MAX_EXPONENT = 35; // Values over ~68 s share the last bucket
+    private static final int BUCKETS = 1 + (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_COUNT;
+
+    // Layout of one slot: buckets, then count, total and max
+    private static final int COUNT = BUCKETS;
+    private static final int TOTAL = BUCKETS + 1;
+    private static final int MAX = BUCKETS + 2;
+    private static final int STRIDE = BUCKETS + 3;
+
+    private final int slotCount;
+    private final long slotMillis;
+    private final AtomicLongArray epochs;
+    private final AtomicLongArray data;
+
+    /**
+     * Create a new rolling histogram
+     * @param slotCount Number of slots in the ring, one more than the longest window needs
+     * @param slotMillis Duration of one slot in milliseconds
+     * @throws IllegalArgumentException if slotCount or slotMillis is not positive
+     */
+    public RollingHistogram(int slotCount, long slotMillis) {
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("Slot count must be positive");
+        }
+        if (slotMillis <= 0) {
+            throw new IllegalArgumentException("Slot duration must be positive");
+        }
+
+        this.slotCount = slotCount;
+        this.slotMillis = slotMillis;
+        this.epochs = new AtomicLongArray(slotCount);
+        this.data = new AtomicLongArray(slotCount * STRIDE);
+        clear();
+    }
+
+    /**
+     * Record a value
+     * @param value Value, usually nanoseconds; negative values count as zero
+     * @param nowMillis Current time in milliseconds
+     */
+    public void record(long value, long nowMillis) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        long epoch = nowMillis / slotMillis;
+        int slot = (int) (epoch % slotCount);
+        long seen = epochs.get(slot);
+        if (seen < epoch && epochs.compareAndSet(slot, seen, epoch)) {
+            // The slot held an older period, start it over
+            int base = slot * STRIDE;
+            for (int i = 0; i < STRIDE; i++) {
+                data.set(base + i, 0);
+            }
+        }
+
+        int base = slot * STRIDE;
+        data.incrementAndGet(base + index(value));
+        data.incrementAndGet(base + COUNT);
+        data.addAndGet(base + TOTAL, value);
+        data.accumulateAndGet(base + MAX, value, Math::max);
+    }
+
+    /**
+     * Forget all recorded values
+     */
+    public void clear() {
+        for (int i = 0; i < slotCount; i++) {
+            epochs.set(i, -1);
+        }
+    }
+
+    /**
+     * Merge the slots covering a window that ends now
+     * @param windowMillis Window length in milliseconds, at most (slotCount - 1) slots
+     * @param nowMillis Current time in milliseconds
+     * @return Merged window
+     * @throws IllegalArgumentException if the window is longer than the ring holds
+     */
+    public Window snapshot(long windowMillis, long nowMillis) {
+        // The slot in progress plus enough whole slots to cover the window
+        int slots = (int) (windowMillis / slotMillis) + 1;
+        if (slots > slotCount) {
+            throw new IllegalArgumentException("Window is longer than " + (slotCount - 1) * slotMillis + " ms");
+        }
+
+        long current = nowMillis / slotMillis;
+        Window window = new Window((current - slots + 1) * slotMillis);
+        for (long epoch = current - slots + 1; epoch <= current; epoch++) {
+            if (epoch < 0) {
+                continue;
+            }
+            int slot = (int) (epoch % slotCount);
+            if (epochs.get(slot) != epoch) {
+                continue;
+            }
+
+            int base = slot * STRIDE;
+            for (int i = 0; i < BUCKETS; i++) {
+                window.buckets[i] += data.get(base + i);
+            }
+            window.count += data.get(base + COUNT);
+            window.total += data.get(base + TOTAL);
+            window.max = Math.max(window.max, data.get(base + MAX));
+        }
+        return window;
+    }
+
+    /**
+     * Get the bucket of a value
+     * @param value Non-negative value
+     * @return Bucket index
+     */
+    private static int index(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent < MIN_EXPONENT) {
+            return 0;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_COUNT + sub;
+    }
+
+    /**
+     * Get the largest value that falls into a bucket
+     * @param index Bucket index
+     * @return Upper bound
+     */
+    private static long upperBound(int index) {
+        if (index == 0) {
+            return (1L << MIN_EXPONENT) - 1;
+        }
+        int exponent = (index - 1) / SUB_COUNT + MIN_EXPONENT;
+        int shift = exponent - SUB_BITS;
+        long lower = (long) (SUB_COUNT + (index - 1) % SUB_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Values recorded during a window
+     */
+    public static final class Window {
+        private final long startMillis;
+        private final long[] buckets = new long[BUCKETS];
+        private long count;
+        private long total;
+        private long max;
+
+        private Window(long startMillis) {
+            this.startMillis = startMillis;
+        }
+
+        /**
+         * Get the start of the oldest slot in the window
+         * @return Start time in milliseconds
+         */
+        public long getStartMillis() {
+            return startMillis;
+        }
+
+        /**
+         * Get the number of recorded values
+         * @return Count
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Get the sum of recorded values
+         * @return Total
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * Get the largest recorded value
+         * @return Max, or 0 if empty
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Get a percentile, rounded up to the upper bound of its bucket
+         * @param quantile Quantile between 0 and 1
+         * @return Value at the quantile, or 0 if empty
+         */
+        public long getPercentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+
+            long target = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
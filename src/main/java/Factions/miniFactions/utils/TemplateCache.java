@@ -0,0 +1,50 @@
+package Factions.miniFactions.utils;
+
+import Factions.miniFactions.config.Settings;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Prebuilt values that depend on the config, such as item and GUI templates.
+ * Values are built on first use and belong to the Settings snapshot they were built from;
+ * a reload publishes a fresh generation instead of clearing the current one, so threads
+ * that run in parallel on Folia never see a half-cleared cache.
+ * @param <K> Key type
+ * @param <V> Cached value type, never modified after it is built
+ */
+public class TemplateCache<K, V> {
+
+    private volatile Generation<K, V> current;
+
+    /**
+     * Get a cached value, building it on first use
+     * @param settings Current settings snapshot
+     * @param key Key
+     * @param builder Builds the value for a key
+     * @return Cached value, shared between callers
+     */
+    public V get(Settings settings, K key, Function<? super K, ? extends V> builder) {
+        Generation<K, V> generation = current;
+        if (generation == null || generation.settings != settings) {
+            // Costs and lore may have changed on reload
+            generation = new Generation<>(settings);
+            current = generation;
+        }
+
+        return generation.values.computeIfAbsent(key, builder);
+    }
+
+    /**
+     * Values built from one settings snapshot
+     */
+    private static final class Generation<K, V> {
+        private final Settings settings;
+        private final Map<K, V> values = new ConcurrentHashMap<>();
+
+        private Generation(Settings settings) {
+            this.settings = settings;
+        }
+    }
+}
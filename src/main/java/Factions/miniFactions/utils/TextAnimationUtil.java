@@ -1,23 +1,42 @@
 package Factions.miniFactions.utils;
 
+import Factions.miniFactions.MiniFactions;
+import Factions.miniFactions.managers.SchedulerManager;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.TextDisplay;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.Transformation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
 
 /**
- * Utility class for text animation effects
+ * Utility class for text animation effects.
+ * All typed text animations are advanced by a single driver task that only runs
+ * while there is something to animate. On Folia the driver runs on the global region
+ * and hands each frame to the display's own entity scheduler.
  */
 public class TextAnimationUtil {
 
+    private static final int MAX_UPDATES_PER_TICK = 256;
+
+    private static Animation[] animations = new Animation[64];
+    private static int animationCount;
+    private static int cursor;
+    private static long tick;
+    private static SchedulerManager.Task animationTask;
+    private static Plugin owner;
+
     /**
      * Creates a text display with a typed-in animation effect
      * 
@@ -34,9 +53,6 @@ public class TextAnimationUtil {
         World world = location.getWorld();
         TextDisplay textDisplay = (TextDisplay) world.spawnEntity(location, EntityType.TEXT_DISPLAY);
         
-        // Apply bold and shadow formatting
-        String formattedText = ChatColor.BOLD + "";
-        
         // Configure the text display
         textDisplay.setBillboard(Display.Billboard.CENTER); // Always face the player
         textDisplay.setAlignment(TextDisplay.TextAlignment.CENTER); // Center-align the text
@@ -58,44 +74,216 @@ public class TextAnimationUtil {
         // Start with empty text
         textDisplay.setText("");
         
-        // Start the typing animation
-        animateTypedText(plugin, textDisplay, fullText, 0, typingSpeed, onComplete);
+        // Hand the precomputed frames to the animation driver
+        addAnimation(plugin, new Animation(textDisplay, buildFrames(fullText), typingSpeed, onComplete));
         
         return textDisplay.getUniqueId();
     }
     
     /**
-     * Recursive method to animate the typed text effect
-     * 
+     * Cancel all running animations and stop the animation driver
+     */
+    public static synchronized void cancelAnimations() {
+        if (animationTask != null) {
+            animationTask.cancel();
+            animationTask = null;
+        }
+
+        Arrays.fill(animations, 0, animationCount, null);
+        animationCount = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Get the number of running animations
+     * @return Animation count
+     */
+    public static synchronized int getActiveAnimationCount() {
+        return animationCount;
+    }
+
+    /**
+     * Add an animation to the driver, starting the driver task if needed
      * @param plugin The plugin instance
-     * @param textDisplay The text display entity
-     * @param fullText The complete text to display
-     * @param currentIndex Current character index
-     * @param typingSpeed The delay between characters in ticks
-     * @param onComplete Consumer to receive the completed TextDisplay entity
+     * @param animation Animation to add
+     */
+    private static synchronized void addAnimation(Plugin plugin, Animation animation) {
+        if (animationCount == animations.length) {
+            animations = Arrays.copyOf(animations, animations.length * 2);
+        }
+        animations[animationCount++] = animation;
+
+        if (animationTask == null) {
+            owner = plugin;
+            if (plugin instanceof MiniFactions miniFactions) {
+                animationTask = miniFactions.getSchedulerManager().runGlobalTimer("TextAnimationUtil.tickAnimations",
+                        TextAnimationUtil::tickAnimations, 1L, 1L);
+            } else {
+                BukkitTask task = Bukkit.getScheduler().runTaskTimer(plugin, TextAnimationUtil::tickAnimations, 1L, 1L);
+                animationTask = task::cancel;
+            }
+        }
+    }
+
+    /**
+     * Advance all running animations by one tick.
+     * At most MAX_UPDATES_PER_TICK displays are updated; the scan resumes where it
+     * stopped on the next tick so no animation is starved.
+     */
+    private static synchronized void tickAnimations() {
+        tick++;
+
+        int updates = 0;
+        int visited = 0;
+        while (visited < animationCount && updates < MAX_UPDATES_PER_TICK) {
+            if (cursor >= animationCount) {
+                cursor = 0;
+            }
+
+            Animation animation = animations[cursor];
+            visited++;
+
+            if (animation.nextFrameTick > tick) {
+                cursor++;
+                continue;
+            }
+
+            // Wait for the chunk to load again instead of loading it
+            if (!animation.isChunkLoaded()) {
+                cursor++;
+                continue;
+            }
+
+            TextDisplay textDisplay = animation.resolve();
+            if (textDisplay == null) {
+                removeAnimation(cursor);
+                continue;
+            }
+
+            String frame = animation.frames[animation.frame++];
+            boolean last = animation.frame >= animation.frames.length;
+            showFrame(textDisplay, frame, last ? animation.onComplete : null);
+            updates++;
+
+            if (last) {
+                removeAnimation(cursor);
+                continue;
+            }
+
+            animation.nextFrameTick = tick + animation.frameDelay;
+            cursor++;
+        }
+
+        // Stop the driver when there is nothing left to animate
+        if (animationCount == 0 && animationTask != null) {
+            animationTask.cancel();
+            animationTask = null;
+        }
+    }
+
+    /**
+     * Set the text of a display on the thread that owns it
+     * @param textDisplay Display to update
+     * @param frame Text to show
+     * @param onComplete Callback to run after the last frame, or null
      */
-    private static void animateTypedText(Plugin plugin, TextDisplay textDisplay, String fullText, 
-                                        int currentIndex, long typingSpeed, Consumer<TextDisplay> onComplete) {
-        // If we've reached the end of the text, call the completion handler
-        if (currentIndex >= fullText.length()) {
+    private static void showFrame(TextDisplay textDisplay, String frame, Consumer<TextDisplay> onComplete) {
+        Runnable show = () -> {
+            textDisplay.setText(frame);
             if (onComplete != null) {
                 onComplete.accept(textDisplay);
             }
-            return;
+        };
+
+        if (SchedulerManager.isFolia() && !Bukkit.isOwnedByCurrentRegion(textDisplay)) {
+            textDisplay.getScheduler().execute(owner, show, null, 1L);
+        } else {
+            show.run();
+        }
+    }
+
+    /**
+     * Remove an animation by swapping the last one into its place
+     * @param index Index of the animation
+     */
+    private static void removeAnimation(int index) {
+        animationCount--;
+        animations[index] = animations[animationCount];
+        animations[animationCount] = null;
+    }
+
+    /**
+     * Precompute the frames of a typed text animation.
+     * Frames that would end in the middle of a color code are skipped.
+     * @param fullText The complete text to display
+     * @return Frame strings, the last one being the full text
+     */
+    private static String[] buildFrames(String fullText) {
+        List<String> frames = new ArrayList<>(fullText.length());
+        StringBuilder builder = new StringBuilder(fullText.length() + 2).append(ChatColor.BOLD);
+
+        for (int i = 0; i < fullText.length(); i++) {
+            char c = fullText.charAt(i);
+            builder.append(c);
+            if (c != ChatColor.COLOR_CHAR) {
+                frames.add(builder.toString());
+            }
+        }
+
+        if (frames.isEmpty()) {
+            frames.add(builder.toString());
+        }
+
+        return frames.toArray(new String[0]);
+    }
+
+    /**
+     * A running typed text animation
+     */
+    private static final class Animation {
+        private final UUID displayId;
+        private final World world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final String[] frames;
+        private final long frameDelay;
+        private final Consumer<TextDisplay> onComplete;
+        private TextDisplay textDisplay;
+        private int frame;
+        private long nextFrameTick;
+
+        private Animation(TextDisplay textDisplay, String[] frames, long frameDelay, Consumer<TextDisplay> onComplete) {
+            Location location = textDisplay.getLocation();
+            this.displayId = textDisplay.getUniqueId();
+            this.world = location.getWorld();
+            this.chunkX = location.getBlockX() >> 4;
+            this.chunkZ = location.getBlockZ() >> 4;
+            this.frames = frames;
+            this.frameDelay = Math.max(1L, frameDelay);
+            this.onComplete = onComplete;
+            this.textDisplay = textDisplay;
+        }
+
+        /**
+         * Check if the chunk holding the display is loaded
+         * @return true if loaded
+         */
+        private boolean isChunkLoaded() {
+            return world.isChunkLoaded(chunkX, chunkZ);
+        }
+
+        /**
+         * Get the display entity, looking it up again if it was reloaded
+         * @return Text display, or null if it no longer exists
+         */
+        private TextDisplay resolve() {
+            if (textDisplay.isValid()) {
+                return textDisplay;
+            }
+
+            Entity entity = Bukkit.getEntity(displayId);
+            textDisplay = entity instanceof TextDisplay ? (TextDisplay) entity : null;
+            return textDisplay;
         }
-        
-        // Get the substring up to the current index
-        String currentText = fullText.substring(0, currentIndex + 1);
-        
-        // Apply bold formatting
-        currentText = ChatColor.BOLD + currentText;
-        
-        // Update the text display
-        textDisplay.setText(currentText);
-        
-        // Schedule the next character
-        Bukkit.getScheduler().runTaskLater(plugin, () -> {
-            animateTypedText(plugin, textDisplay, fullText, currentIndex + 1, typingSpeed, onComplete);
-        }, typingSpeed);
     }
 }
@@ -0,0 +1,200 @@
+package Factions.miniFactions.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of long-lived deadlines.
+ * Scheduling and cancelling are O(1); advancing only visits the slots for the
+ * elapsed ticks, so the cost is proportional to the entries sharing those slots.
+ * Not thread-safe, use from the main thread only.
+ * @param <T> Type of the scheduled values
+ */
+public class TimingWheel<T> {
+
+    private final Entry<T>[] slots;
+    private final long tickMillis;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Create a new timing wheel
+     * @param slotCount Number of slots in the wheel
+     * @param tickMillis Duration of a single slot in milliseconds
+     * @param startMillis Current time in milliseconds
+     * @throws IllegalArgumentException if slotCount or tickMillis is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slotCount, long tickMillis, long startMillis) {
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("Slot count must be positive");
+        }
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+
+        this.slots = (Entry<T>[]) new Entry[slotCount];
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule a value
+     * @param value Value to schedule
+     * @param deadlineMillis Time at which the value expires, in milliseconds
+     * @return Handle that can be used to cancel the entry
+     */
+    public Entry<T> schedule(T value, long deadlineMillis) {
+        // Past deadlines go into the current slot and expire on the next advance
+        long tick = Math.max(deadlineMillis / tickMillis, currentTick);
+
+        Entry<T> entry = new Entry<>(value, deadlineMillis);
+        entry.slot = (int) (tick % slots.length);
+        entry.next = slots[entry.slot];
+        if (entry.next != null) {
+            entry.next.previous = entry;
+        }
+        slots[entry.slot] = entry;
+        size++;
+
+        return entry;
+    }
+
+    /**
+     * Cancel a scheduled entry
+     * @param entry Entry to cancel
+     * @return true if the entry was still scheduled
+     */
+    public boolean cancel(Entry<T> entry) {
+        if (entry == null || entry.slot < 0) {
+            return false;
+        }
+
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * Expire every entry whose deadline has passed
+     * @param nowMillis Current time in milliseconds
+     * @param expired Callback for expired values
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        if (targetTick < currentTick) {
+            return;
+        }
+
+        // A full revolution visits every slot, no need to go further after a long pause
+        long firstTick = Math.max(currentTick, targetTick - slots.length + 1);
+        List<T> due = new ArrayList<>();
+
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            Entry<T> entry = slots[(int) (tick % slots.length)];
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                if (entry.deadlineMillis <= nowMillis) {
+                    unlink(entry);
+                    due.add(entry.value);
+                }
+                entry = next;
+            }
+        }
+
+        // Stay on the target tick so entries scheduled for it later are still visited
+        currentTick = targetTick;
+
+        // Callbacks run after the scan so they can freely schedule and cancel entries
+        for (T value : due) {
+            expired.accept(value);
+        }
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            Entry<T> entry = slots[i];
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                entry.slot = -1;
+                entry.previous = null;
+                entry.next = null;
+                entry = next;
+            }
+            slots[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Get the number of scheduled entries
+     * @return Entry count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Unlink an entry from its slot
+     * @param entry Scheduled entry
+     */
+    private void unlink(Entry<T> entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            slots[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+
+        entry.slot = -1;
+        entry.previous = null;
+        entry.next = null;
+        size--;
+    }
+
+    /**
+     * A scheduled value
+     * @param <T> Type of the value
+     */
+    public static final class Entry<T> {
+        private final T value;
+        private final long deadlineMillis;
+        private int slot = -1;
+        private Entry<T> previous;
+        private Entry<T> next;
+
+        private Entry(T value, long deadlineMillis) {
+            this.value = value;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * Get the scheduled value
+         * @return Value
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * Get the deadline
+         * @return Deadline in milliseconds
+         */
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        /**
+         * Check if the entry is still scheduled
+         * @return true if it has neither expired nor been cancelled
+         */
+        public boolean isScheduled() {
+            return slot >= 0;
+        }
+    }
+}